@@ -0,0 +1,115 @@
+package jp.aevic.todo.loadtest;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * コマンドライン引数(--名前=値)
+ * <p>
+ * 値の取得時に既定値を指定する。参照されなかった引数は入力誤りとして{@link #checkAllUsed()}でエラーにする。
+ * </p>
+ */
+class Arguments {
+    private final Map<String, String> values = new HashMap<>();
+    private final Set<String> used = new HashSet<>();
+
+    /**
+     * コンストラクタ
+     *
+     * @param args コマンドライン引数(サブコマンドを除く)
+     */
+    Arguments(String[] args) {
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("引数は--名前=値の形式で指定してください: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                //値のない指定はtrueとする(--reset)
+                values.put(arg.substring(2), "true");
+            } else {
+                values.put(arg.substring(2, separator), arg.substring(separator + 1));
+            }
+        }
+    }
+
+    /**
+     * 文字列の値
+     *
+     * @param name         引数名
+     * @param defaultValue 指定がない場合の値
+     * @return 値
+     */
+    String string(String name, String defaultValue) {
+        used.add(name);
+        return values.getOrDefault(name, defaultValue);
+    }
+
+    /**
+     * 整数の値
+     *
+     * @param name         引数名
+     * @param defaultValue 指定がない場合の値
+     * @return 値
+     */
+    int integer(String name, int defaultValue) {
+        return Integer.parseInt(string(name, String.valueOf(defaultValue)));
+    }
+
+    /**
+     * 小数の値
+     *
+     * @param name         引数名
+     * @param defaultValue 指定がない場合の値
+     * @return 値
+     */
+    double decimal(String name, double defaultValue) {
+        return Double.parseDouble(string(name, String.valueOf(defaultValue)));
+    }
+
+    /**
+     * 真偽値
+     *
+     * @param name 引数名
+     * @return 指定された場合はその値、指定がない場合はfalse
+     */
+    boolean flag(String name) {
+        return Boolean.parseBoolean(string(name, "false"));
+    }
+
+    /**
+     * 時間の値(単位はms・s・m。単位がない場合は秒)
+     *
+     * @param name         引数名
+     * @param defaultValue 指定がない場合の値
+     * @return 値
+     */
+    Duration duration(String name, Duration defaultValue) {
+        String value = string(name, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        if (value.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(value.endsWith("s")
+                ? value.substring(0, value.length() - 1) : value));
+    }
+
+    /**
+     * 参照されなかった引数がないことを確認する
+     */
+    void checkAllUsed() {
+        Set<String> unknown = new HashSet<>(values.keySet());
+        unknown.removeAll(used);
+        if (!unknown.isEmpty()) {
+            throw new IllegalArgumentException("不明な引数です: " + unknown);
+        }
+    }
+}
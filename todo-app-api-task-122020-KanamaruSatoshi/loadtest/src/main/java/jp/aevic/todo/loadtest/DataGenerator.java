@@ -0,0 +1,227 @@
+package jp.aevic.todo.loadtest;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * 試験データ(タグ、todo、todoとタグの紐づけ)をCOPYで一括登録するクラス
+ * <p>
+ * todoに紐づくタグの件数は0から上限(todo.linkedTagLimit)の一様分布、どのタグを紐づけるかはZipf分布とし、
+ * 一部のタグに紐づけが集中する状態を再現する。同じseedであれば同じデータを生成する。
+ * 既存のデータの後ろに追加し(--resetの場合は全件削除してから)、1つのトランザクションで登録する。
+ * TODO.TAGS列(scripts/denormalized-tags.sql)がある場合は、同じ内容で設定する。
+ * </p>
+ */
+class DataGenerator {
+    //COPYで送信するバッファの大きさ
+    private static final int BUFFER_SIZE = 1 << 16;
+    //タイトル・コンテンツに使用する単語(負荷試験の検索条件にも使用する)
+    static final String[] WORDS = {"review", "design", "fix", "deploy", "write", "test",
+            "meeting", "report", "plan", "check", "update", "call", "order", "clean", "read"};
+    //タイトルの最大文字数(TodoPostFormの上限)
+    private static final int TITLE_LENGTH = 30;
+
+    private final Connection connection;
+    private final int todos;
+    private final int tags;
+    private final int maxTagsPerTodo;
+    private final double tagSkew;
+    private final int contentLength;
+    private final long seed;
+    private final boolean reset;
+
+    /**
+     * コンストラクタ
+     *
+     * @param connection 登録先のDBの接続
+     * @param arguments  コマンドライン引数
+     */
+    DataGenerator(Connection connection, Arguments arguments) {
+        this.connection = connection;
+        this.todos = arguments.integer("todos", 100_000);
+        this.tags = arguments.integer("tags", 50);
+        this.maxTagsPerTodo = arguments.integer("max-tags-per-todo", 5);
+        this.tagSkew = arguments.decimal("tag-skew", 1.0);
+        this.contentLength = arguments.integer("content-length", 100);
+        this.seed = arguments.integer("seed", 1);
+        this.reset = arguments.flag("reset");
+    }
+
+    /**
+     * 試験データを登録する
+     *
+     * @throws SQLException DBの操作に失敗した場合
+     * @throws IOException  COPYの送信に失敗した場合
+     */
+    void generate() throws SQLException, IOException {
+        long startedAt = System.nanoTime();
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            if (reset) {
+                statement.execute("TRUNCATE TODO, TAG, TODO_TAG RESTART IDENTITY");
+            }
+            int firstTagId = nextId(statement, "TAG", "TAG_ID");
+            int firstTodoId = nextId(statement, "TODO", "TODO_ID");
+            boolean tagsColumn = hasTagsColumn(statement);
+
+            String[] tagNames = new String[tags];
+            for (int i = 0; i < tags; i++) {
+                tagNames[i] = String.format("tag-%04d", firstTagId + i);
+            }
+            copyTags(firstTagId, tagNames);
+            copyTodos(firstTodoId, firstTagId, tagNames, tagsColumn);
+            long links = copyTodoTags(firstTodoId, firstTagId);
+
+            //COPYで指定したIDの続きから採番されるようにする
+            statement.execute("SELECT SETVAL(PG_GET_SERIAL_SEQUENCE('tag', 'tag_id'), "
+                    + "(SELECT COALESCE(MAX(TAG_ID), 1) FROM TAG))");
+            statement.execute("SELECT SETVAL(PG_GET_SERIAL_SEQUENCE('todo', 'todo_id'), "
+                    + "(SELECT COALESCE(MAX(TODO_ID), 1) FROM TODO))");
+            connection.commit();
+            statement.execute("ANALYZE TAG, TODO, TODO_TAG");
+            connection.commit();
+
+            double seconds = (System.nanoTime() - startedAt) / 1e9;
+            System.out.printf("タグ: %d 件 (ID %d〜), todo: %d 件 (ID %d〜), 紐づけ: %d 件%n",
+                    tags, firstTagId, todos, firstTodoId, links);
+            System.out.printf("経過: %.1f秒 (%.0f todo/秒)%s%n", seconds, todos / seconds,
+                    tagsColumn ? ", TODO.TAGS列も設定" : "");
+        } catch (SQLException | IOException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        }
+    }
+
+    /**
+     * 次に登録するID
+     */
+    private int nextId(Statement statement, String table, String column) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery(
+                "SELECT COALESCE(MAX(" + column + "), 0) + 1 FROM " + table)) {
+            resultSet.next();
+            return resultSet.getInt(1);
+        }
+    }
+
+    /**
+     * TODO.TAGS列があるかどうか
+     */
+    private boolean hasTagsColumn(Statement statement) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery(
+                "SELECT 1 FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_SCHEMA = CURRENT_SCHEMA() "
+                        + "AND TABLE_NAME = 'todo' AND COLUMN_NAME = 'tags'")) {
+            return resultSet.next();
+        }
+    }
+
+    private void copyTags(int firstTagId, String[] tagNames) throws SQLException, IOException {
+        try (Writer writer = copyWriter("COPY TAG (TAG_ID, NAME, VERSION) FROM STDIN")) {
+            for (int i = 0; i < tagNames.length; i++) {
+                writer.write((firstTagId + i) + "\t" + tagNames[i] + "\t0\n");
+            }
+        }
+    }
+
+    private void copyTodos(int firstTodoId, int firstTagId, String[] tagNames, boolean tagsColumn)
+            throws SQLException, IOException {
+        Random textRandom = new Random(seed);
+        Random tagRandom = new Random(seed + 1);
+        ZipfSampler tagSampler = new ZipfSampler(tags, tagSkew);
+        String columns = tagsColumn ? "TODO_ID, TITLE, CONTENT, VERSION, TAGS"
+                : "TODO_ID, TITLE, CONTENT, VERSION";
+        try (Writer writer = copyWriter("COPY TODO (" + columns + ") FROM STDIN")) {
+            StringBuilder line = new StringBuilder();
+            for (int i = 0; i < todos; i++) {
+                int todoId = firstTodoId + i;
+                //TODO_TAGと同じ乱数の列で選ぶため、TAGS列がなくても選んでおく
+                int[] linkedTags = linkedTags(tagRandom, tagSampler);
+                line.setLength(0);
+                line.append(todoId).append('\t')
+                        .append(text(textRandom, "todo-" + todoId, TITLE_LENGTH)).append('\t')
+                        .append(text(textRandom, "", contentLength)).append("\t0");
+                if (tagsColumn) {
+                    line.append('\t').append('[');
+                    for (int j = 0; j < linkedTags.length; j++) {
+                        line.append(j == 0 ? "" : ", ")
+                                .append("{\"tagId\": ").append(firstTagId + linkedTags[j])
+                                .append(", \"name\": \"").append(tagNames[linkedTags[j]])
+                                .append("\", \"version\": 0}");
+                    }
+                    line.append(']');
+                }
+                writer.append(line).append('\n');
+            }
+        }
+    }
+
+    private long copyTodoTags(int firstTodoId, int firstTagId) throws SQLException, IOException {
+        //copyTodosと同じseedで、todoごとに同じタグを選ぶ
+        Random tagRandom = new Random(seed + 1);
+        ZipfSampler tagSampler = new ZipfSampler(tags, tagSkew);
+        long links = 0;
+        try (Writer writer = copyWriter("COPY TODO_TAG (TODO_ID, TAG_ID) FROM STDIN")) {
+            for (int i = 0; i < todos; i++) {
+                for (int tag : linkedTags(tagRandom, tagSampler)) {
+                    writer.write((firstTodoId + i) + "\t" + (firstTagId + tag) + "\n");
+                    links++;
+                }
+            }
+        }
+        return links;
+    }
+
+    /**
+     * todoに紐づけるタグ(0から始まる順位。重複なし、昇順)を選ぶ
+     */
+    private int[] linkedTags(Random random, ZipfSampler sampler) {
+        int count = Math.min(random.nextInt(maxTagsPerTodo + 1), tags);
+        int[] linked = new int[count];
+        for (int i = 0; i < count; ) {
+            int tag = sampler.next(random);
+            boolean duplicated = false;
+            for (int j = 0; j < i; j++) {
+                duplicated |= linked[j] == tag;
+            }
+            if (!duplicated) {
+                linked[i++] = tag;
+            }
+        }
+        Arrays.sort(linked);
+        return linked;
+    }
+
+    /**
+     * 先頭の文字列に単語を続けた、最大文字数以内の文字列
+     */
+    private String text(Random random, String prefix, int maxLength) {
+        StringBuilder text = new StringBuilder(prefix);
+        int length = 1 + random.nextInt(Math.max(maxLength, 1));
+        while (text.length() < length) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            text.append(text.length() == 0 ? "" : " ").append(word);
+        }
+        return text.substring(0, Math.min(text.length(), maxLength));
+    }
+
+    /**
+     * COPY ... FROM STDINの送信先(closeでCOPYを完了する)
+     */
+    private Writer copyWriter(String sql) throws SQLException {
+        return new BufferedWriter(new OutputStreamWriter(new PGCopyOutputStream(
+                connection.unwrap(PGConnection.class), sql, BUFFER_SIZE),
+                StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+}
@@ -0,0 +1,329 @@
+package jp.aevic.todo.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.StringJoiner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * APIへ一定の頻度(リクエスト/秒)で操作を送信し、応答時間のパーセンタイルとスループットを出力するクラス
+ * <p>
+ * 送信の時刻は開始からの経過時間で決め、応答を待たずに送信する(オープンモデル)。
+ * 同時に応答を待つ件数が上限に達した場合は送信が遅れるが、応答時間は予定していた時刻から計測する。
+ * 操作の割合は--mixで指定し、1件取得・更新の対象はDBのtodoIdの範囲からZipf分布(--key-skew)で選ぶ。
+ * </p>
+ */
+class LoadGenerator {
+    //操作の割合の既定値(読み込み9割、書き込み1割)
+    private static final String DEFAULT_MIX =
+            "list:30,detail:45,ids:5,tags:10,create:4,update:4,delete:2";
+    //ID指定の複数件取得で指定するID数
+    private static final int IDS_PER_REQUEST = 10;
+    //1件取得のレスポンスから更新回数を取得する(todoのversionはタグより前に出力される)
+    private static final Pattern VERSION = Pattern.compile("\"version\"\\s*:\\s*(\\d+)");
+    //登録のレスポンスのLocationからtodoIdを取得する
+    private static final Pattern TODO_ID = Pattern.compile("/todos/(\\d+)$");
+
+    private final String baseUrl;
+    private final int rate;
+    private final Duration duration;
+    private final Duration warmup;
+    private final Duration reportInterval;
+    private final Duration timeout;
+    private final int maxInFlight;
+    private final int listLimit;
+    private final double keySkew;
+    private final Map<Operation, Integer> mix = new LinkedHashMap<>();
+    private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+    private final Queue<Integer> createdTodoIds = new ConcurrentLinkedQueue<>();
+    private final HttpClient client;
+    private int[] tagIds;
+    private int minTodoId;
+    private int todoIdRange;
+    private ZipfSampler keySampler;
+    private boolean recording;
+
+    /**
+     * コンストラクタ
+     *
+     * @param arguments コマンドライン引数
+     */
+    LoadGenerator(Arguments arguments) {
+        this.baseUrl = arguments.string("base-url", "http://localhost:8080");
+        this.rate = arguments.integer("rate", 100);
+        this.duration = arguments.duration("duration", Duration.ofSeconds(60));
+        this.warmup = arguments.duration("warmup", Duration.ofSeconds(10));
+        this.reportInterval = arguments.duration("report-interval", Duration.ofSeconds(10));
+        this.timeout = arguments.duration("timeout", Duration.ofSeconds(30));
+        this.maxInFlight = arguments.integer("max-in-flight", 200);
+        this.listLimit = arguments.integer("list-limit", 20);
+        this.keySkew = arguments.decimal("key-skew", 0.0);
+        for (String entry : arguments.string("mix", DEFAULT_MIX).split(",")) {
+            String[] keyAndWeight = entry.split(":");
+            mix.put(Operation.of(keyAndWeight[0].trim()), Integer.parseInt(keyAndWeight[1].trim()));
+        }
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new OperationStats());
+        }
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .build();
+    }
+
+    /**
+     * 対象にするtodoId・tagIdをDBから読み込む
+     *
+     * @param connection 負荷試験の対象のDBの接続
+     * @throws SQLException DBの操作に失敗した場合
+     */
+    void loadKeys(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet todoRange = statement.executeQuery(
+                     "SELECT COALESCE(MIN(TODO_ID), 0), COALESCE(MAX(TODO_ID), 0) FROM TODO")) {
+            todoRange.next();
+            minTodoId = todoRange.getInt(1);
+            todoIdRange = todoRange.getInt(2) - minTodoId + 1;
+        }
+        try (Statement statement = connection.createStatement();
+             ResultSet tags = statement.executeQuery("SELECT TAG_ID FROM TAG ORDER BY TAG_ID")) {
+            List<Integer> ids = new ArrayList<>();
+            while (tags.next()) {
+                ids.add(tags.getInt(1));
+            }
+            tagIds = ids.stream().mapToInt(Integer::intValue).toArray();
+        }
+        if (minTodoId == 0) {
+            throw new IllegalStateException("todoが登録されていません(generateで登録してください)");
+        }
+        keySampler = new ZipfSampler(todoIdRange, keySkew);
+    }
+
+    /**
+     * 負荷試験を実行し、結果を出力する
+     *
+     * @throws InterruptedException 中断された場合
+     */
+    void run() throws InterruptedException {
+        Operation[] schedule = weightedOperations();
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        long periodNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long startedAt = System.nanoTime();
+        long recordFrom = startedAt + warmup.toNanos();
+        long endAt = recordFrom + duration.toNanos();
+        long nextReport = recordFrom + reportInterval.toNanos();
+
+        System.out.printf("対象: %s, %d リクエスト/秒, ウォームアップ: %d秒, 計測: %d秒, todoId: %d〜%d%n",
+                baseUrl, rate, warmup.toSeconds(), duration.toSeconds(), minTodoId,
+                minTodoId + todoIdRange - 1);
+        for (long i = 0; ; i++) {
+            long intendedAt = startedAt + i * periodNanos;
+            if (intendedAt >= endAt) {
+                break;
+            }
+            long wait = intendedAt - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            //ウォームアップ中に予定していたリクエストは記録しない
+            recording |= intendedAt >= recordFrom;
+            if (recording && System.nanoTime() >= nextReport) {
+                printInterval((nextReport - recordFrom) / 1_000_000_000);
+                nextReport += reportInterval.toNanos();
+            }
+            inFlight.acquire();
+            Operation operation = schedule[ThreadLocalRandom.current().nextInt(schedule.length)];
+            boolean record = recording;
+            execute(operation).whenComplete((status, error) -> {
+                if (record) {
+                    long latencyMicros = (System.nanoTime() - intendedAt) / 1_000;
+                    stats.get(operation).record(latencyMicros, error == null ? status : 0);
+                }
+                inFlight.release();
+            });
+        }
+        //送信済みのリクエストの応答を待つ
+        if (!inFlight.tryAcquire(maxInFlight, timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            System.out.println("応答のないリクエストが残っています: " + (maxInFlight
+                    - inFlight.availablePermits()) + " 件");
+        }
+        printSummary(duration.toNanos() / 1e9);
+    }
+
+    /**
+     * 割合に応じて操作を並べた配列(ランダムに1つ選ぶ)
+     */
+    private Operation[] weightedOperations() {
+        return mix.entrySet().stream()
+                .flatMap(entry -> Collections.nCopies(entry.getValue(), entry.getKey())
+                        .stream())
+                .toArray(Operation[]::new);
+    }
+
+    /**
+     * 操作を実行する
+     *
+     * @return 応答のHTTPステータス
+     */
+    private CompletableFuture<Integer> execute(Operation operation) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        switch (operation) {
+            case LIST:
+                return send(get("/todos?limit=" + listLimit + (random.nextBoolean() ? ""
+                        : "&title=" + DataGenerator.WORDS[random.nextInt(
+                        DataGenerator.WORDS.length)]))).thenApply(HttpResponse::statusCode);
+            case DETAIL:
+                return send(get("/todos/" + nextTodoId())).thenApply(HttpResponse::statusCode);
+            case IDS:
+                StringJoiner ids = new StringJoiner(",");
+                for (int i = 0; i < IDS_PER_REQUEST; i++) {
+                    ids.add(String.valueOf(nextTodoId()));
+                }
+                return send(get("/todos?ids=" + ids)).thenApply(HttpResponse::statusCode);
+            case TAGS:
+                return send(get("/tags")).thenApply(HttpResponse::statusCode);
+            case UPDATE:
+                return update(nextTodoId());
+            case DELETE:
+                Integer todoId = createdTodoIds.poll();
+                if (todoId != null) {
+                    return send(request("/todos/" + todoId).method("DELETE",
+                            HttpRequest.BodyPublishers.ofString("{\"version\": 0}")))
+                            .thenApply(HttpResponse::statusCode);
+                }
+                return create();
+            case CREATE:
+            default:
+                return create();
+        }
+    }
+
+    private CompletableFuture<Integer> create() {
+        String body = "{\"title\": \"load-" + System.nanoTime() % 1_000_000_000
+                + "\", \"content\": \"load test\", \"tags\": " + randomTags() + "}";
+        return send(request("/todos").POST(HttpRequest.BodyPublishers.ofString(body)))
+                .thenApply(response -> {
+                    response.headers().firstValue("Location").map(TODO_ID::matcher)
+                            .filter(Matcher::find)
+                            .ifPresent(matcher -> createdTodoIds.add(
+                                    Integer.parseInt(matcher.group(1))));
+                    return response.statusCode();
+                });
+    }
+
+    private CompletableFuture<Integer> update(int todoId) {
+        return send(get("/todos/" + todoId)).thenCompose(response -> {
+            Matcher version = VERSION.matcher(response.body());
+            if (response.statusCode() != 200 || !version.find()) {
+                return CompletableFuture.completedFuture(response.statusCode());
+            }
+            String body = "{\"title\": \"updated-" + todoId + "\", \"content\": \"load test\", "
+                    + "\"version\": " + version.group(1) + ", \"tags\": " + randomTags() + "}";
+            return send(request("/todos/" + todoId).PUT(HttpRequest.BodyPublishers.ofString(body)))
+                    .thenApply(HttpResponse::statusCode);
+        });
+    }
+
+    /**
+     * 1件取得・更新の対象のtodoId(Zipf分布の順位を範囲内に散らす)
+     */
+    private int nextTodoId() {
+        long rank = keySampler.next(ThreadLocalRandom.current());
+        return minTodoId + (int) (rank * 2_654_435_761L % todoIdRange);
+    }
+
+    /**
+     * todoに紐づけるタグ(重複しない0〜2件)
+     */
+    private String randomTags() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        StringJoiner tags = new StringJoiner(", ", "[", "]");
+        random.ints(0, tagIds.length).distinct()
+                .limit(random.nextInt(Math.min(3, tagIds.length + 1)))
+                .forEach(index -> tags.add(String.valueOf(tagIds[index])));
+        return tags.toString();
+    }
+
+    private HttpRequest.Builder get(String path) {
+        return request(path).GET();
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(timeout)
+                .header("Accept", "application/json")
+                .header("Content-Type", "application/json");
+    }
+
+    private CompletableFuture<HttpResponse<String>> send(HttpRequest.Builder request) {
+        return client.sendAsync(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * 区間の出力(全操作の合計)
+     */
+    private void printInterval(long elapsedSeconds) {
+        Histogram interval = new Histogram(3);
+        stats.values().forEach(operationStats -> interval.add(operationStats.nextInterval()));
+        System.out.printf("%5d秒 %10.1f req/s  p50 %8.2fms  p99 %8.2fms  max %8.2fms%n",
+                elapsedSeconds, interval.getTotalCount() / (double) reportInterval.toSeconds(),
+                interval.getValueAtPercentile(50) / 1000.0,
+                interval.getValueAtPercentile(99) / 1000.0, interval.getMaxValue() / 1000.0);
+    }
+
+    /**
+     * 操作ごとの結果の出力
+     */
+    private void printSummary(double seconds) {
+        stats.values().forEach(OperationStats::nextInterval);
+        Histogram all = new Histogram(3);
+        System.out.printf("%n%-8s %8s %9s %7s %7s %7s %9s %9s %9s %9s %9s%n", "操作", "件数",
+                "req/s", "4xx", "5xx", "失敗", "p50(ms)", "p90(ms)", "p99(ms)", "p99.9(ms)",
+                "max(ms)");
+        for (Operation operation : mix.keySet()) {
+            OperationStats operationStats = stats.get(operation);
+            Histogram total = operationStats.total();
+            all.add(total);
+            printRow(operation.key(), total, seconds, operationStats.clientError(),
+                    operationStats.serverError(), operationStats.failure());
+        }
+        printRow("合計", all, seconds,
+                stats.values().stream().mapToLong(OperationStats::clientError).sum(),
+                stats.values().stream().mapToLong(OperationStats::serverError).sum(),
+                stats.values().stream().mapToLong(OperationStats::failure).sum());
+    }
+
+    private void printRow(String name, Histogram histogram, double seconds, long clientErrors,
+                          long serverErrors, long failures) {
+        System.out.printf("%-8s %8d %9.1f %7d %7d %7d %9.2f %9.2f %9.2f %9.2f %9.2f%n", name,
+                histogram.getTotalCount(), histogram.getTotalCount() / seconds, clientErrors,
+                serverErrors, failures, histogram.getValueAtPercentile(50) / 1000.0,
+                histogram.getValueAtPercentile(90) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0,
+                histogram.getValueAtPercentile(99.9) / 1000.0,
+                histogram.getMaxValue() / 1000.0);
+    }
+}
@@ -0,0 +1,44 @@
+package jp.aevic.todo.loadtest;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.Arrays;
+
+/**
+ * 試験データの生成・負荷試験の実行クラス
+ * <p>
+ * 使い方:
+ * <pre>
+ *   java -jar target/todo-loadtest.jar generate [--todos=100000] [--tags=50] ...
+ *   java -jar target/todo-loadtest.jar run [--rate=100] [--duration=60s] [--mix=...] ...
+ * </pre>
+ * DBの接続先は--jdbc-url・--username・--passwordで指定する(既定値はAPIのapplication.propertiesと同じ)。
+ * </p>
+ */
+public class LoadTestMain {
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0 || !Arrays.asList("generate", "run").contains(args[0])) {
+            System.err.println("使い方: generate|run [--名前=値 ...] (README.mdの負荷試験を参照)");
+            System.exit(2);
+        }
+        Arguments arguments = new Arguments(Arrays.copyOfRange(args, 1, args.length));
+        String jdbcUrl = arguments.string("jdbc-url", "jdbc:postgresql://localhost:5432/todo");
+        String username = arguments.string("username", "myuser");
+        String password = arguments.string("password", "mypass");
+
+        if (args[0].equals("generate")) {
+            try (Connection connection = DriverManager.getConnection(jdbcUrl, username, password)) {
+                DataGenerator generator = new DataGenerator(connection, arguments);
+                arguments.checkAllUsed();
+                generator.generate();
+            }
+        } else {
+            LoadGenerator loadGenerator = new LoadGenerator(arguments);
+            arguments.checkAllUsed();
+            try (Connection connection = DriverManager.getConnection(jdbcUrl, username, password)) {
+                loadGenerator.loadKeys(connection);
+            }
+            loadGenerator.run();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package jp.aevic.todo.loadtest;
+
+/**
+ * 負荷試験で実行する操作(APIのエンドポイント)
+ */
+enum Operation {
+    //一覧取得(GET /todos?limit=。半分はタイトルの部分一致の条件付き)
+    LIST("list"),
+    //1件取得(GET /todos/{todoId})
+    DETAIL("detail"),
+    //ID指定の複数件取得(GET /todos?ids=)
+    IDS("ids"),
+    //タグ一覧取得(GET /tags)
+    TAGS("tags"),
+    //登録(POST /todos)
+    CREATE("create"),
+    //更新(GET /todos/{todoId}で更新回数を取得し、PUT /todos/{todoId})
+    UPDATE("update"),
+    //削除(この負荷試験で登録したtodoのDELETE /todos/{todoId}。ない場合は登録を行う)
+    DELETE("delete");
+
+    private final String key;
+
+    Operation(String key) {
+        this.key = key;
+    }
+
+    /**
+     * --mixで指定する名前
+     *
+     * @return 名前
+     */
+    String key() {
+        return key;
+    }
+
+    /**
+     * 名前から操作を取得する
+     *
+     * @param key --mixで指定する名前
+     * @return 操作
+     */
+    static Operation of(String key) {
+        for (Operation operation : values()) {
+            if (operation.key.equals(key)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("不明な操作です: " + key);
+    }
+}
@@ -0,0 +1,75 @@
+package jp.aevic.todo.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 操作ごとの応答時間(HdrHistogram)とステータスごとの件数
+ * <p>
+ * 応答時間は送信を予定していた時刻から計測する(送信が遅れた分も含め、Coordinated Omissionを避ける)。
+ * 定期的な出力用の区間の値と、終了時に出力する全体の値を保持する。
+ * </p>
+ */
+class OperationStats {
+    //記録できる応答時間の上限(マイクロ秒)
+    private static final long HIGHEST_MICROS = 3_600_000_000L;
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Recorder recorder = new Recorder(HIGHEST_MICROS, SIGNIFICANT_DIGITS);
+    private final Histogram total = new Histogram(HIGHEST_MICROS, SIGNIFICANT_DIGITS);
+    private final LongAdder clientError = new LongAdder();
+    private final LongAdder serverError = new LongAdder();
+    private final LongAdder failure = new LongAdder();
+    private Histogram interval;
+
+    /**
+     * 応答を記録する
+     *
+     * @param latencyMicros 送信を予定していた時刻からの応答時間(マイクロ秒)
+     * @param status        HTTPステータス(応答がなかった場合は0)
+     */
+    void record(long latencyMicros, int status) {
+        recorder.recordValue(Math.min(latencyMicros, HIGHEST_MICROS));
+        if (status == 0) {
+            failure.increment();
+        } else if (status >= 500) {
+            serverError.increment();
+        } else if (status >= 400) {
+            clientError.increment();
+        }
+    }
+
+    /**
+     * 前回の呼び出し以降の応答時間を取得し、全体の値に加える
+     *
+     * @return 区間の応答時間
+     */
+    synchronized Histogram nextInterval() {
+        interval = recorder.getIntervalHistogram(interval);
+        total.add(interval);
+        return interval;
+    }
+
+    /**
+     * 全体の応答時間(nextIntervalで取り込んだ分)
+     *
+     * @return 全体の応答時間
+     */
+    synchronized Histogram total() {
+        return total.copy();
+    }
+
+    long clientError() {
+        return clientError.sum();
+    }
+
+    long serverError() {
+        return serverError.sum();
+    }
+
+    long failure() {
+        return failure.sum();
+    }
+}
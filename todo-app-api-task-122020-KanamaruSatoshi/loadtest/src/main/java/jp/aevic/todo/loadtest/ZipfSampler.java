@@ -0,0 +1,47 @@
+package jp.aevic.todo.loadtest;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * 0からn-1の値を、順位kの出現確率が1/(k+1)^sに比例する分布(Zipf分布)で選ぶクラス
+ * <p>
+ * sが0の場合は一様分布、大きいほど先頭の値に偏る。
+ * 累積確率の表を作成しておき、二分探索で選ぶ(nの分のメモリを使用する)。
+ * </p>
+ */
+class ZipfSampler {
+    private final double[] cumulative;
+
+    /**
+     * コンストラクタ
+     *
+     * @param n        値の個数
+     * @param exponent 偏りの強さ(s)
+     */
+    ZipfSampler(int n, double exponent) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("値の個数は1以上を指定してください: " + n);
+        }
+        cumulative = new double[n];
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            sum += 1 / Math.pow(k + 1, exponent);
+            cumulative[k] = sum;
+        }
+        for (int k = 0; k < n; k++) {
+            cumulative[k] /= sum;
+        }
+    }
+
+    /**
+     * 値を1つ選ぶ
+     *
+     * @param random 乱数
+     * @return 0からn-1の値
+     */
+    int next(Random random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(index < 0 ? -index - 1 : index, cumulative.length - 1);
+    }
+}
@@ -0,0 +1,68 @@
+#!/bin/bash
+#
+# todoの取得について、TODO_TAG・TAGを結合する方式とTODO.TAGS列から取得する方式を比較するスクリプト
+#
+# 使い方:
+#   scripts/denormalized-tags-benchmark.sh [クライアント数] [計測秒数]
+#
+# 前提:
+#   - psql, pgbench が使用できること
+#   - 接続先は環境変数(PGHOST, PGPORT, PGUSER, PGDATABASE など)で指定する
+#   - scripts/denormalized-tags.sql を適用済みで、todo・タグが登録済みであること
+#     (件数を増やす場合は POST /todos/import で一括取込する)
+#
+set -euo pipefail
+
+CLIENTS=${1:-8}
+DURATION=${2:-30}
+LIST_LIMIT=${LIST_LIMIT:-100}
+WORK=$(mktemp -d)
+trap 'rm -rf "$WORK"' EXIT
+
+MAX_ID=$(psql -Atc "SELECT COALESCE(MAX(TODO_ID), 0) FROM TODO")
+if [ "$MAX_ID" -eq 0 ]; then
+  echo "todoが登録されていません" >&2
+  exit 1
+fi
+
+# 1件取得(GET /todos/{todoId})
+cat > "$WORK/detail-join.sql" << SQL
+\set id random(1, $MAX_ID)
+SELECT TODO.TODO_ID, TODO.TITLE, TODO.CONTENT, TODO.VERSION, TAG.TAG_ID, TAG.NAME, TAG.VERSION
+FROM TODO
+  LEFT JOIN TODO_TAG ON TODO.TODO_ID = TODO_TAG.TODO_ID
+  LEFT JOIN TAG ON TODO_TAG.TAG_ID = TAG.TAG_ID
+WHERE TODO.TODO_ID = :id;
+SQL
+cat > "$WORK/detail-column.sql" << SQL
+\set id random(1, $MAX_ID)
+SELECT TODO_ID, TITLE, CONTENT, VERSION, TAGS FROM TODO WHERE TODO_ID = :id;
+SQL
+
+# 一覧取得(GET /todos?limit=)
+cat > "$WORK/list-join.sql" << SQL
+SELECT TODO.TODO_ID, TODO.TITLE, TODO.CONTENT, TODO.VERSION, TAG.TAG_ID, TAG.NAME, TAG.VERSION
+FROM (SELECT TODO_ID, TITLE, CONTENT, VERSION FROM TODO ORDER BY TODO_ID LIMIT $LIST_LIMIT) TODO
+  LEFT JOIN TODO_TAG ON TODO.TODO_ID = TODO_TAG.TODO_ID
+  LEFT JOIN TAG ON TODO_TAG.TAG_ID = TAG.TAG_ID
+ORDER BY TODO.TODO_ID;
+SQL
+cat > "$WORK/list-column.sql" << SQL
+SELECT TODO_ID, TITLE, CONTENT, VERSION, TAGS FROM TODO ORDER BY TODO_ID LIMIT $LIST_LIMIT;
+SQL
+
+echo "todo: $MAX_ID 件, クライアント数: $CLIENTS, 計測: ${DURATION}秒"
+printf "%-16s %12s %16s\n" "query" "tps" "latency(ms)"
+for query in detail-join detail-column list-join list-column; do
+  result=$(pgbench -n -c "$CLIENTS" -j "$CLIENTS" -T "$DURATION" -f "$WORK/$query.sql")
+  tps=$(echo "$result" | grep -oE "^tps = [0-9.]+" | grep -oE "[0-9.]+")
+  latency=$(echo "$result" | grep -oE "latency average = [0-9.]+" | grep -oE "[0-9.]+")
+  printf "%-16s %12s %16s\n" "$query" "$tps" "$latency"
+done
+
+# 一覧取得の実行計画(読み込んだバッファ数の比較)
+for query in list-join list-column; do
+  echo
+  echo "== $query"
+  psql -Atc "EXPLAIN (ANALYZE, BUFFERS, COSTS OFF) $(cat "$WORK/$query.sql")"
+done
@@ -0,0 +1,34 @@
+--
+-- todoに紐づくタグを非正規化して持たせる列(TODO.TAGS)を追加するスクリプト
+--
+-- 使い方:
+--   psql -d todo -f scripts/denormalized-tags.sql
+--   (適用後に todo.denormalized-tags.enabled=true で起動する)
+--
+-- 列の内容はTODO_TAG・TAGを結合した結果と同じ形式で、tagIdの昇順に並べる
+--   [{"tagId": 1, "name": "...", "version": 0}, ...]
+-- 何度実行してもよい(既存の値は作り直す)
+--
+
+ALTER TABLE TODO ADD COLUMN IF NOT EXISTS TAGS JSONB NOT NULL DEFAULT '[]'::JSONB;
+
+UPDATE TODO
+SET
+    TAGS = (
+        SELECT
+            COALESCE(
+                JSONB_AGG(JSONB_BUILD_OBJECT(
+                    'tagId', TAG.TAG_ID, 'name', TAG.NAME, 'version', TAG.VERSION)
+                    ORDER BY TAG.TAG_ID),
+                '[]'::JSONB)
+        FROM
+            TODO_TAG
+            JOIN TAG ON TODO_TAG.TAG_ID = TAG.TAG_ID
+        WHERE
+            TODO_TAG.TODO_ID = TODO.TODO_ID
+    );
+
+-- タグの更新・削除時に、そのタグを含むtodoを探すための索引(@>演算子)
+CREATE INDEX IF NOT EXISTS TODO_TAGS_IDX ON TODO USING GIN (TAGS JSONB_PATH_OPS);
+
+ANALYZE TODO;
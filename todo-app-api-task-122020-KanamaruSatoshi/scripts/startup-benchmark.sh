@@ -0,0 +1,89 @@
+#!/bin/bash
+#
+# JVM / AppCDS / ネイティブイメージの起動時間とRSSを比較するスクリプト
+#
+# 使い方:
+#   scripts/startup-benchmark.sh [jvm|cds|native|all] [試行回数]
+#
+# 前提:
+#   - jvm, cds: mvn -B package -DskipTests 済みであること
+#   - native  : GraalVMで mvn -B -Pnative native:compile 済みであること
+#   - 接続先のDBは application.properties の設定、または環境変数
+#     (SPRING_DATASOURCE_URL など)で指定する
+#
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+MODE=${1:-all}
+RUNS=${2:-5}
+PORT=${PORT:-18080}
+JAR=target/todo-0.0.1-SNAPSHOT.jar
+NATIVE=target/todo
+EXTRACTED=target/extracted
+CDS_ARCHIVE=target/app-cds.jsa
+
+# AppCDSのアーカイブを作成する
+# 展開したjarで一度コンテキストの初期化まで起動し、読み込んだクラスをアーカイブに出力する
+build_cds_archive() {
+  rm -rf "$EXTRACTED"
+  java -Djarmode=tools -jar "$JAR" extract --destination "$EXTRACTED" > /dev/null
+  java -XX:ArchiveClassesAtExit="$CDS_ARCHIVE" -Dspring.context.exit=onRefresh \
+    -jar "$EXTRACTED/$(basename "$JAR")" > /dev/null
+}
+
+# 1回起動し、起動時間(ms)とRSS(KB)を出力して終了させる
+measure() {
+  local log
+  log=$(mktemp)
+  "$@" --server.port="$PORT" > "$log" 2>&1 &
+  local pid=$!
+  local started=""
+  for _ in $(seq 1 600); do
+    if started=$(grep -oE "Started TodoApplication in [0-9.]+ seconds" "$log"); then
+      break
+    fi
+    if ! kill -0 "$pid" 2> /dev/null; then
+      echo "起動に失敗しました: $log" >&2
+      return 1
+    fi
+    sleep 0.1
+  done
+  local rss
+  rss=$(ps -o rss= -p "$pid" | tr -d ' ')
+  kill "$pid"
+  wait "$pid" 2> /dev/null || true
+  rm -f "$log"
+  local seconds
+  seconds=$(echo "$started" | grep -oE "[0-9.]+")
+  printf "%d %d\n" "$(echo "$seconds * 1000 / 1" | bc)" "$rss"
+}
+
+# 指定回数起動し、平均を出力する
+bench() {
+  local name=$1
+  shift
+  local total_ms=0 total_rss=0
+  for _ in $(seq 1 "$RUNS"); do
+    read -r ms rss < <(measure "$@")
+    total_ms=$((total_ms + ms))
+    total_rss=$((total_rss + rss))
+  done
+  printf "%-8s startup=%6d ms  rss=%8d KB  (avg of %d)\n" \
+    "$name" $((total_ms / RUNS)) $((total_rss / RUNS)) "$RUNS"
+}
+
+if [[ "$MODE" == "jvm" || "$MODE" == "all" ]]; then
+  bench jvm java -jar "$JAR"
+fi
+if [[ "$MODE" == "cds" || "$MODE" == "all" ]]; then
+  build_cds_archive
+  bench cds java -XX:SharedArchiveFile="$CDS_ARCHIVE" -jar "$EXTRACTED/$(basename "$JAR")"
+fi
+if [[ "$MODE" == "native" || "$MODE" == "all" ]]; then
+  if [[ -x "$NATIVE" ]]; then
+    bench native "$NATIVE"
+  else
+    echo "native   $NATIVE がありません(mvn -Pnative native:compile でビルドしてください)"
+  fi
+fi
@@ -0,0 +1,89 @@
+package jp.aevic.todo.core.hotkey;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ホットキーの記録1回あたりの時間を計測するベンチマーク
+ * <p>
+ * 一部のIDに参照が偏るように(乱数の3乗で)生成したtodoIdを順に記録する。
+ * baselineはIDの取り出しのみの時間で、各計測からこの分を差し引いた値が記録の時間となる。
+ * 実行: mvn -Pjmh test-compile exec:exec
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HotKeyTrackerBenchmark {
+    //事前に生成するIDの数(2の累乗)
+    private static final int KEY_COUNT = 1 << 16;
+
+    //IDの範囲(todoの件数)
+    @Param("500000")
+    private int idRange;
+    //カウンタの数
+    @Param("65536")
+    private int sketchSize;
+
+    private int[] keys;
+    private int next;
+    private HotKeyTracker tracker;
+    private FrequencySketch sketch;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(1);
+        keys = new int[KEY_COUNT];
+        for (int i = 0; i < KEY_COUNT; i++) {
+            double skewed = Math.pow(random.nextDouble(), 3);
+            keys[i] = (int) (skewed * idRange) + 1;
+        }
+        tracker = new HotKeyTracker(sketchSize);
+        sketch = new FrequencySketch(sketchSize);
+        //topは候補のリングバッファが埋まった状態で計測する
+        for (int key : keys) {
+            tracker.record(key);
+        }
+    }
+
+    @Benchmark
+    public int baseline() {
+        return keys[next++ & (KEY_COUNT - 1)];
+    }
+
+    @Benchmark
+    public void sketchIncrement() {
+        sketch.increment(keys[next++ & (KEY_COUNT - 1)]);
+    }
+
+    @Benchmark
+    public void record() {
+        tracker.record(keys[next++ & (KEY_COUNT - 1)]);
+    }
+
+    @Benchmark
+    public int estimate() {
+        return sketch.estimate(keys[next++ & (KEY_COUNT - 1)]);
+    }
+
+    @Benchmark
+    public List<HotKey> top() {
+        return tracker.top(100);
+    }
+}
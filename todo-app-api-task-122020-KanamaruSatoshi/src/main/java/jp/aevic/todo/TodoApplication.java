@@ -2,12 +2,17 @@ package jp.aevic.todo;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
 import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 
 /**
  * アプリケーション実行クラス
+ * R2DBCのコネクションプール・トランザクション管理はReactiveReadConfigで設定する
+ * (JDBCのDataSource・トランザクション管理と競合させない)
  */
-@SpringBootApplication
+@SpringBootApplication(exclude = {R2dbcAutoConfiguration.class,
+        R2dbcTransactionManagerAutoConfiguration.class})
 @ConfigurationPropertiesScan
 public class TodoApplication {
     public static void main(String[] args) {
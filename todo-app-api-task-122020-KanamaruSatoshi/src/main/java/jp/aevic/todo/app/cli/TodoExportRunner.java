@@ -0,0 +1,84 @@
+package jp.aevic.todo.app.cli;
+
+import jp.aevic.todo.logic.service.bulk.BulkFormat;
+import jp.aevic.todo.logic.service.bulk.TodoExportService;
+import jp.aevic.todo.util.context.BulkExportContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * コマンドラインからtodoをファイルへ一括出力するクラス
+ * <p>
+ * --export-todos=出力先ディレクトリ が指定された場合のみ、出力後にアプリケーションを終了する。
+ * --export-format=csv|ndjson(省略時はcsv)、--export-partitions=並列数、--export-gzip を指定できる。
+ * 例: java -jar todo.jar --spring.main.web-application-type=none
+ *     --export-todos=/data/export --export-gzip
+ * </p>
+ */
+@Component
+public class TodoExportRunner implements ApplicationRunner {
+    //ログ出力
+    private final Logger logger = LoggerFactory.getLogger(TodoExportRunner.class);
+
+    //出力先のディレクトリを指定するオプション
+    private static final String DIRECTORY_OPTION = "export-todos";
+    //出力形式を指定するオプション
+    private static final String FORMAT_OPTION = "export-format";
+    //並列数を指定するオプション
+    private static final String PARTITIONS_OPTION = "export-partitions";
+    //gzipで圧縮するオプション
+    private static final String GZIP_OPTION = "export-gzip";
+
+    //依存クラス
+    private final TodoExportService exportService;
+    private final BulkExportContext context;
+    private final ConfigurableApplicationContext applicationContext;
+
+    /**
+     * コンストラクタ
+     *
+     * @param exportService      一括出力のService
+     * @param context            一括出力の設定
+     * @param applicationContext 出力後に終了させるアプリケーション
+     */
+    public TodoExportRunner(TodoExportService exportService, BulkExportContext context,
+                            ConfigurableApplicationContext applicationContext) {
+        this.exportService = exportService;
+        this.context = context;
+        this.applicationContext = applicationContext;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption(DIRECTORY_OPTION)) {
+            return;
+        }
+        int exitCode = 0;
+        try {
+            Path directory = Path.of(args.getOptionValues(DIRECTORY_OPTION).get(0));
+            BulkFormat format = args.containsOption(FORMAT_OPTION)
+                    ? BulkFormat.valueOf(
+                    args.getOptionValues(FORMAT_OPTION).get(0).toUpperCase(Locale.ROOT))
+                    : BulkFormat.CSV;
+            int partitions = args.containsOption(PARTITIONS_OPTION)
+                    ? Integer.parseInt(args.getOptionValues(PARTITIONS_OPTION).get(0))
+                    : context.getPartitions();
+            // 件数と1秒あたりの件数は、範囲ごと及び全体でログに出力される
+            exportService.exportToFiles(format, directory, partitions,
+                    args.containsOption(GZIP_OPTION));
+        } catch (Exception e) {
+            logger.error("Export failed.", e);
+            exitCode = 1;
+        }
+        int code = exitCode;
+        System.exit(SpringApplication.exit(applicationContext, () -> code));
+    }
+}
@@ -0,0 +1,117 @@
+package jp.aevic.todo.app.cli;
+
+import jp.aevic.todo.logic.service.bulk.BulkFormat;
+import jp.aevic.todo.logic.service.bulk.TodoImportService;
+import jp.aevic.todo.response.ImportResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * コマンドラインからtodoを一括取込するクラス
+ * <p>
+ * --import-todos=ファイルパス が指定された場合のみ、取込後にアプリケーションを終了する。
+ * 形式は拡張子(.csv/.ndjson、.gzの圧縮にも対応)から判定し、--import-format=csv|ndjson で指定もできる。
+ * 例: java -jar todo.jar --spring.main.web-application-type=none --import-todos=todos.csv.gz
+ * </p>
+ */
+@Component
+public class TodoImportRunner implements ApplicationRunner {
+    //ログ出力
+    private final Logger logger = LoggerFactory.getLogger(TodoImportRunner.class);
+
+    //取込ファイルを指定するオプション
+    private static final String FILE_OPTION = "import-todos";
+    //取込ファイルの形式を指定するオプション
+    private static final String FORMAT_OPTION = "import-format";
+
+    //依存クラス
+    private final TodoImportService importService;
+    private final ConfigurableApplicationContext applicationContext;
+
+    /**
+     * コンストラクタ
+     *
+     * @param importService      一括取込のService
+     * @param applicationContext 取込後に終了させるアプリケーション
+     */
+    public TodoImportRunner(TodoImportService importService,
+                            ConfigurableApplicationContext applicationContext) {
+        this.importService = importService;
+        this.applicationContext = applicationContext;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption(FILE_OPTION)) {
+            return;
+        }
+        int exitCode = 0;
+        try {
+            Path file = Path.of(args.getOptionValues(FILE_OPTION).get(0));
+            BulkFormat format = resolveFormat(args, file);
+            long startNanos = System.nanoTime();
+            ImportResult result;
+            try (InputStream input = open(file)) {
+                result = importService.importTodos(input, format);
+            }
+            long elapsedMillis = Math.max((System.nanoTime() - startNanos) / 1_000_000, 1);
+            long total = result.getImported() + result.getRejected();
+            logger.info("Import finished: file={}, imported={}, rejected={}, {} ms, {} rows/s",
+                    file, result.getImported(), result.getRejected(), elapsedMillis,
+                    total * 1000 / elapsedMillis);
+            result.getRejectedRows().forEach(row ->
+                    logger.warn("Rejected row {}: {}", row.getRow(), row.getReason()));
+            if (result.isRejectedRowsTruncated()) {
+                logger.warn("Rejected rows are truncated. ({} rows in total)",
+                        result.getRejected());
+            }
+        } catch (Exception e) {
+            logger.error("Import failed.", e);
+            exitCode = 1;
+        }
+        int code = exitCode;
+        System.exit(SpringApplication.exit(applicationContext, () -> code));
+    }
+
+    /**
+     * 取込ファイルの形式を決定する
+     *
+     * @param args 起動引数
+     * @param file 取込ファイル
+     * @return 取込ファイルの形式
+     */
+    private BulkFormat resolveFormat(ApplicationArguments args, Path file) {
+        if (args.containsOption(FORMAT_OPTION)) {
+            return BulkFormat.valueOf(
+                    args.getOptionValues(FORMAT_OPTION).get(0).toUpperCase(Locale.ROOT));
+        }
+        return BulkFormat.fromFileName(file.getFileName().toString())
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "Cannot determine import format from file name: " + file));
+    }
+
+    /**
+     * 取込ファイルを開く(.gzの場合は展開しながら読み込む)
+     *
+     * @param file 取込ファイル
+     * @return 取込ファイルの入力
+     * @throws IOException 開けなかった場合
+     */
+    private InputStream open(Path file) throws IOException {
+        InputStream input = new BufferedInputStream(Files.newInputStream(file));
+        return file.toString().endsWith(".gz") ? new GZIPInputStream(input) : input;
+    }
+}
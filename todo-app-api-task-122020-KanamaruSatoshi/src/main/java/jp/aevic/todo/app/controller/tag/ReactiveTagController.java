@@ -0,0 +1,48 @@
+package jp.aevic.todo.app.controller.tag;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import jp.aevic.todo.entity.tag.TagEntity;
+import jp.aevic.todo.logic.service.tag.ReactiveTagService;
+import jp.aevic.todo.query.tag.GetTagsQuery;
+import reactor.core.publisher.Flux;
+
+/**
+ * Tagの読み込みのリアクティブ版Controllerクラス
+ * Accept: application/x-ndjsonの場合に、TagControllerの代わりに呼ばれる
+ */
+@CrossOrigin(origins = "http://localhost:5173")
+@RestController
+@RequestMapping(value = "/tags", produces = MediaType.APPLICATION_NDJSON_VALUE)
+@ConditionalOnProperty(prefix = "todo.reactive-read", name = "enabled", havingValue = "true")
+public class ReactiveTagController {
+
+    // DI対象クラス
+    private final ReactiveTagService service;
+
+    /**
+     * コンストラクタ
+     * 
+     * @param service
+     */
+    public ReactiveTagController(ReactiveTagService service) {
+        // コンストラクタインジェクション
+        this.service = service;
+    }
+
+    /**
+     * 一覧取得
+     * 
+     * @param query
+     * @return
+     */
+    @GetMapping
+    public Flux<TagEntity> getAllTags(GetTagsQuery query) {
+        return service.getAllTags(query.getName());
+    }
+}
@@ -2,7 +2,10 @@ package jp.aevic.todo.app.controller.tag;
 
 import java.net.URI;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
+import io.micrometer.observation.annotation.Observed;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -15,38 +18,51 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import jp.aevic.todo.core.limit.Bulkhead;
 import jp.aevic.todo.entity.tag.TagEntity;
 import jp.aevic.todo.form.tag.TagDeleteForm;
 import jp.aevic.todo.form.tag.TagPostFrom;
 import jp.aevic.todo.form.tag.TagPutForm;
 import jp.aevic.todo.logic.service.tag.TagService;
+import jp.aevic.todo.query.tag.GetTagsByIdsQuery;
 import jp.aevic.todo.query.tag.GetTagsQuery;
 import jp.aevic.todo.queryCondition.tag.GetTagsQueryCondition;
+import jp.aevic.todo.response.MultiGetResult;
 import jp.aevic.todo.util.LocationUtil;
 import jp.aevic.todo.util.statics.CreatedLocationPaths;
 
 /**
  * TagのControllerクラス
+ * 読み込みと書き込みは、それぞれのバルクヘッド(専用のスレッド・コネクションプール)で実行する
  */
 @CrossOrigin(origins = "http://localhost:5173")
 @RestController
 @RequestMapping(value = "/tags")
+@Observed(name = "todo.controller")
 public class TagController {
 
     // DI対象クラス
     private final LocationUtil locationUtil;
     private final TagService service;
+    private final Bulkhead readBulkhead;
+    private final Bulkhead writeBulkhead;
 
     /**
      * コンストラクタ
      * 
      * @param locationUtil
      * @param service
+     * @param readBulkhead
+     * @param writeBulkhead
      */
-    public TagController(LocationUtil locationUtil, TagService service) {
+    public TagController(LocationUtil locationUtil, TagService service,
+            @Qualifier("readBulkhead") Bulkhead readBulkhead,
+            @Qualifier("writeBulkhead") Bulkhead writeBulkhead) {
         // コンストラクタインジェクション
         this.locationUtil = locationUtil;
         this.service = service;
+        this.readBulkhead = readBulkhead;
+        this.writeBulkhead = writeBulkhead;
     }
 
     /**
@@ -56,17 +72,20 @@ public class TagController {
      * @return
      */
     @PostMapping
-    public ResponseEntity<String> postTag(@RequestBody @Validated TagPostFrom form) {
+    public CompletableFuture<ResponseEntity<String>> postTag(
+            @RequestBody @Validated TagPostFrom form) {
 
         TagEntity tagEntity = new TagEntity();
         tagEntity.setName(form.getName());
         tagEntity.setVersion(0);
 
-        int tagId = service.postTag(tagEntity);
+        return writeBulkhead.submit(() -> {
+            int tagId = service.postTag(tagEntity);
 
-        // httpレスポンスヘッダにURIを指定するため、ResponseEntityを生成して返す
-        URI location = locationUtil.create(CreatedLocationPaths.TAG, tagId);
-        return ResponseEntity.created(location).build();
+            // httpレスポンスヘッダにURIを指定するため、ResponseEntityを生成して返す
+            URI location = locationUtil.create(CreatedLocationPaths.TAG, tagId);
+            return ResponseEntity.created(location).<String>build();
+        });
     }
 
     /**
@@ -76,8 +95,9 @@ public class TagController {
      * @return
      */
     @GetMapping(path = "/{tagId}")
-    public TagEntity getTagById(@PathVariable String tagId) {
-        return service.getTagById(Integer.parseInt(tagId));
+    public CompletableFuture<TagEntity> getTagById(@PathVariable String tagId) {
+        int id = Integer.parseInt(tagId);
+        return readBulkhead.submit(() -> service.getTagById(id));
     }
 
     /**
@@ -87,10 +107,23 @@ public class TagController {
      * @return
      */
     @GetMapping
-    public List<TagEntity> getAllTags(GetTagsQuery query) {
+    public CompletableFuture<List<TagEntity>> getAllTags(GetTagsQuery query) {
         GetTagsQueryCondition queryCondition = new GetTagsQueryCondition();
         queryCondition.setName(query.getName());
-        return service.getAllTags(queryCondition);
+        return readBulkhead.submit(() -> service.getAllTags(queryCondition));
+    }
+
+    /**
+     * ID指定の複数件取得
+     * idsパラメータが指定された場合のみ、一覧取得の代わりにこちらが呼ばれる
+     * 
+     * @param query
+     * @return
+     */
+    @GetMapping(params = "ids")
+    public CompletableFuture<List<MultiGetResult<TagEntity>>> getTagsByIds(
+            @Validated GetTagsByIdsQuery query) {
+        return readBulkhead.submit(() -> service.getTagsByIds(query.getIds()));
     }
 
     /**
@@ -101,7 +134,7 @@ public class TagController {
      * @return
      */
     @PutMapping(path = "/{tagId}")
-    public ResponseEntity<String> putTag(
+    public CompletableFuture<ResponseEntity<String>> putTag(
             @PathVariable String tagId, @RequestBody @Validated TagPutForm form) {
 
         TagEntity tagEntity = new TagEntity();
@@ -109,10 +142,12 @@ public class TagController {
         tagEntity.setName(form.getName());
         tagEntity.setVersion(form.getVersion());
 
-        service.putTag(tagEntity);
+        return writeBulkhead.submit(() -> {
+            service.putTag(tagEntity);
 
-        // ResponseEntityを生成して返す
-        return ResponseEntity.noContent().build();
+            // ResponseEntityを生成して返す
+            return ResponseEntity.noContent().<String>build();
+        });
     }
 
     /**
@@ -123,16 +158,18 @@ public class TagController {
      * @return
      */
     @DeleteMapping(path = "/{tagId}")
-    public ResponseEntity<String> deleteTag(
+    public CompletableFuture<ResponseEntity<String>> deleteTag(
             @PathVariable String tagId, @RequestBody @Validated TagDeleteForm form) {
 
         TagEntity tagEntity = new TagEntity();
         tagEntity.setTagId(Integer.parseInt(tagId));
         tagEntity.setVersion(form.getVersion());
 
-        service.deleteTag(tagEntity);
+        return writeBulkhead.submit(() -> {
+            service.deleteTag(tagEntity);
 
-        // ResponseEntityを生成して返す
-        return ResponseEntity.noContent().build();
+            // ResponseEntityを生成して返す
+            return ResponseEntity.noContent().<String>build();
+        });
     }
 }
@@ -0,0 +1,64 @@
+package jp.aevic.todo.app.controller.todo;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import jp.aevic.todo.entity.todo.TodoEntity;
+import jp.aevic.todo.logic.service.todo.ReactiveToDoService;
+import jp.aevic.todo.query.todo.GetTodosQuery;
+import reactor.core.publisher.Flux;
+
+/**
+ * Todoの読み込みのリアクティブ版Controllerクラス
+ * Accept: application/x-ndjsonの場合に、ToDoControllerの代わりに呼ばれる。
+ * 取得したtodoから1行ずつ返却し、クライアントの受信が遅い場合はDBからの読み込みも待たせる
+ */
+@CrossOrigin(origins = "http://localhost:5173")
+@RestController
+@RequestMapping(value = "/todos", produces = MediaType.APPLICATION_NDJSON_VALUE)
+@ConditionalOnProperty(prefix = "todo.reactive-read", name = "enabled", havingValue = "true")
+public class ReactiveToDoController {
+
+    // DI対象クラス
+    private final ReactiveToDoService service;
+
+    /**
+     * コンストラクタ
+     * 
+     * @param service
+     */
+    public ReactiveToDoController(ReactiveToDoService service) {
+        // コンストラクタインジェクション
+        this.service = service;
+    }
+
+    /**
+     * 一件取得
+     * 1行のNDJSONとして返却する
+     * 
+     * @param todoId
+     * @return
+     */
+    @GetMapping(path = "/{todoId}")
+    public Flux<TodoEntity> getTodoById(@PathVariable String todoId) {
+        return service.getTodoById(Integer.parseInt(todoId)).flux();
+    }
+
+    /**
+     * 一覧取得
+     * fields、countは指定できない
+     * 
+     * @param query
+     * @return
+     */
+    @GetMapping
+    public Flux<TodoEntity> getAllTodos(@Validated GetTodosQuery query) {
+        return service.getAllTodos(query.getTitle(), query.getLimit());
+    }
+}
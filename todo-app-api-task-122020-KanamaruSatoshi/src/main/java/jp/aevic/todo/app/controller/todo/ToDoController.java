@@ -2,8 +2,12 @@ package jp.aevic.todo.app.controller.todo;
 
 import java.net.URI;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
+import io.micrometer.observation.annotation.Observed;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -15,38 +19,65 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import jp.aevic.todo.core.hotkey.HotKeyRecorder;
+import jp.aevic.todo.core.json.EntityJsonSerializers;
+import jp.aevic.todo.core.limit.Bulkhead;
 import jp.aevic.todo.entity.todo.TodoEntity;
 import jp.aevic.todo.form.todo.TodoDeleteForm;
 import jp.aevic.todo.form.todo.TodoPostForm;
 import jp.aevic.todo.form.todo.TodoPutForm;
 import jp.aevic.todo.logic.service.todo.ToDoService;
+import jp.aevic.todo.query.todo.GetTodoQuery;
+import jp.aevic.todo.query.todo.GetTodosByIdsQuery;
 import jp.aevic.todo.query.todo.GetTodosQuery;
 import jp.aevic.todo.queryCondition.todo.GetTodosQueryCondition;
+import jp.aevic.todo.queryCondition.todo.TodoFields;
+import jp.aevic.todo.response.MultiGetResult;
+import jp.aevic.todo.response.TotalCount;
 import jp.aevic.todo.util.LocationUtil;
 import jp.aevic.todo.util.statics.CreatedLocationPaths;
 
 /**
  * TodoのControllerクラス
+ * 読み込みと書き込みは、それぞれのバルクヘッド(専用のスレッド・コネクションプール)で実行する
  */
-@CrossOrigin(origins = "http://localhost:5173")
+@CrossOrigin(origins = "http://localhost:5173",
+        exposedHeaders = { ToDoController.TOTAL_COUNT, ToDoController.TOTAL_COUNT_ESTIMATED })
 @RestController
 @RequestMapping(value = "/todos")
+@Observed(name = "todo.controller")
 public class ToDoController {
+    // 一覧取得の総件数を返却するヘッダ
+    static final String TOTAL_COUNT = "X-Total-Count";
+    // 総件数が推定件数かどうかを返却するヘッダ
+    static final String TOTAL_COUNT_ESTIMATED = "X-Total-Count-Estimated";
 
     // DI対象クラス
     private final LocationUtil locationUtil;
     private final ToDoService service;
+    private final Bulkhead readBulkhead;
+    private final Bulkhead writeBulkhead;
+    private final HotKeyRecorder hotKeyRecorder;
 
     /**
      * コンストラクタ
      * 
      * @param locationUtil
      * @param service
+     * @param readBulkhead
+     * @param writeBulkhead
+     * @param hotKeyRecorder
      */
-    public ToDoController(LocationUtil locationUtil, ToDoService service) {
+    public ToDoController(LocationUtil locationUtil, ToDoService service,
+            @Qualifier("readBulkhead") Bulkhead readBulkhead,
+            @Qualifier("writeBulkhead") Bulkhead writeBulkhead,
+            HotKeyRecorder hotKeyRecorder) {
         // コンストラクタインジェクション
         this.locationUtil = locationUtil;
         this.service = service;
+        this.readBulkhead = readBulkhead;
+        this.writeBulkhead = writeBulkhead;
+        this.hotKeyRecorder = hotKeyRecorder;
     }
 
     /**
@@ -56,44 +87,86 @@ public class ToDoController {
      * @return
      */
     @PostMapping
-    public ResponseEntity<String> postTodo(@RequestBody @Validated TodoPostForm form) {
+    public CompletableFuture<ResponseEntity<String>> postTodo(
+            @RequestBody @Validated TodoPostForm form) {
 
         // todo登録情報設定
         TodoEntity todoEntity = new TodoEntity();
         todoEntity.setTitle(form.getTitle());
         todoEntity.setContent(form.getContent());
 
-        // 登録処理
-        int todoId = service.postTodo(todoEntity, form.getTags());
+        return writeBulkhead.submit(() -> {
+            // 登録処理
+            int todoId = service.postTodo(todoEntity, form.getTags());
 
-        // httpレスポンスヘッダにURIを指定するため、ResponseEntityを生成して返す
-        URI location = locationUtil.create(CreatedLocationPaths.TODO, todoId);
-        return ResponseEntity.created(location).build();
+            // httpレスポンスヘッダにURIを指定するため、ResponseEntityを生成して返す
+            URI location = locationUtil.create(CreatedLocationPaths.TODO, todoId);
+            return ResponseEntity.created(location).<String>build();
+        });
     }
 
     /**
      * 一件取得
+     * fieldsが指定された場合は、指定された項目のみを返却する
      * 
      * @param todoId
+     * @param query
      * @return
      */
     @GetMapping(path = "/{todoId}")
-    public TodoEntity getTodoById(@PathVariable String todoId) {
-        return service.getTodoById(Integer.parseInt(todoId));
+    public CompletableFuture<MappingJacksonValue> getTodoById(@PathVariable String todoId,
+            @Validated GetTodoQuery query) {
+        int id = Integer.parseInt(todoId);
+        TodoFields fields = TodoFields.of(query.getFields());
+        return readBulkhead.submit(() -> EntityJsonSerializers.withTodoFields(
+                service.getTodoById(id, fields), fields));
     }
 
     /**
      * 一覧取得
+     * fieldsが指定された場合は、指定された項目のみを返却する
+     * countが指定された場合は、limitを除いた総件数をヘッダに設定する
      * 
      * @param query
      * @return
      */
     @GetMapping
-    public List<TodoEntity> getAllTodos(@Validated GetTodosQuery query) {
+    public CompletableFuture<ResponseEntity<MappingJacksonValue>> getAllTodos(
+            @Validated GetTodosQuery query) {
         GetTodosQueryCondition queryCondition = new GetTodosQueryCondition();
         queryCondition.setTitle(query.getTitle());
         queryCondition.setLimit(query.getLimit());
-        return service.getAllTodos(queryCondition);
+        queryCondition.setFields(TodoFields.of(query.getFields()));
+
+        return readBulkhead.submit(() -> {
+            List<TodoEntity> todoEntities = service.getAllTodos(queryCondition);
+            // 一覧に含まれるタグの参照を記録(一覧はキャッシュから返却されるため、ここで記録する)
+            hotKeyRecorder.recordTagsOf(todoEntities);
+
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (query.getCount() != null) {
+                TotalCount totalCount = service.countTodos(query.getTitle(),
+                        "estimated".equals(query.getCount()));
+                response.header(TOTAL_COUNT, String.valueOf(totalCount.getCount()))
+                        .header(TOTAL_COUNT_ESTIMATED,
+                                String.valueOf(totalCount.isEstimated()));
+            }
+            return response.body(EntityJsonSerializers.withTodoFields(todoEntities,
+                    queryCondition.getFields()));
+        });
+    }
+
+    /**
+     * ID指定の複数件取得
+     * idsパラメータが指定された場合のみ、一覧取得の代わりにこちらが呼ばれる
+     * 
+     * @param query
+     * @return
+     */
+    @GetMapping(params = "ids")
+    public CompletableFuture<List<MultiGetResult<TodoEntity>>> getTodosByIds(
+            @Validated GetTodosByIdsQuery query) {
+        return readBulkhead.submit(() -> service.getTodosByIds(query.getIds()));
     }
 
     /**
@@ -104,7 +177,7 @@ public class ToDoController {
      * @return
      */
     @PutMapping(path = "/{todoId}")
-    public ResponseEntity<String> postTodo(
+    public CompletableFuture<ResponseEntity<String>> postTodo(
             @PathVariable String todoId, @RequestBody @Validated TodoPutForm form) {
 
         // todo更新情報設定
@@ -114,11 +187,13 @@ public class ToDoController {
         todoEntity.setContent(form.getContent());
         todoEntity.setVersion(form.getVersion());
 
-        // 更新処理
-        service.putTodo(todoEntity, form.getTags());
+        return writeBulkhead.submit(() -> {
+            // 更新処理
+            service.putTodo(todoEntity, form.getTags());
 
-        // ResponseEntityを生成して返す
-        return ResponseEntity.noContent().build();
+            // ResponseEntityを生成して返す
+            return ResponseEntity.noContent().<String>build();
+        });
     }
 
     /**
@@ -129,15 +204,17 @@ public class ToDoController {
      * @return
      */
     @DeleteMapping(path = "/{todoId}")
-    public ResponseEntity<String> deleteTodo(
+    public CompletableFuture<ResponseEntity<String>> deleteTodo(
             @PathVariable String todoId, @RequestBody @Validated TodoDeleteForm form) {
         TodoEntity todoEntity = new TodoEntity();
         todoEntity.setTodoId(Integer.parseInt(todoId));
         todoEntity.setVersion(form.getVersion());
 
-        service.deleteTodo(todoEntity);
+        return writeBulkhead.submit(() -> {
+            service.deleteTodo(todoEntity);
 
-        // ResponseEntityを生成して返す
-        return ResponseEntity.noContent().build();
+            // ResponseEntityを生成して返す
+            return ResponseEntity.noContent().<String>build();
+        });
     }
 }
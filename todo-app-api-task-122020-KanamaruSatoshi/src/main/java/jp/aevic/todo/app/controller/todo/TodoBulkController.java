@@ -0,0 +1,131 @@
+package jp.aevic.todo.app.controller.todo;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import io.micrometer.observation.annotation.Observed;
+import org.springframework.http.HttpHeaders;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import jakarta.servlet.http.HttpServletResponse;
+import jp.aevic.todo.logic.service.bulk.BulkFormat;
+import jp.aevic.todo.logic.service.bulk.TodoExportService;
+import jp.aevic.todo.logic.service.bulk.TodoImportService;
+import jp.aevic.todo.query.todo.ExportTodosQuery;
+import jp.aevic.todo.response.ImportResult;
+
+/**
+ * Todoの一括取込・一括出力のControllerクラス
+ */
+@CrossOrigin(origins = "http://localhost:5173")
+@RestController
+@RequestMapping(value = "/todos")
+@Observed(name = "todo.controller")
+public class TodoBulkController {
+
+    // DI対象クラス
+    private final TodoImportService importService;
+    private final TodoExportService exportService;
+
+    /**
+     * コンストラクタ
+     * 
+     * @param importService
+     * @param exportService
+     */
+    public TodoBulkController(TodoImportService importService, TodoExportService exportService) {
+        // コンストラクタインジェクション
+        this.importService = importService;
+        this.exportService = exportService;
+    }
+
+    /**
+     * CSVの一括取込
+     * 1行目はヘッダ(title,content,tags)とし、tagsは|区切りのtagIdとする
+     * 
+     * @param body
+     * @param contentEncoding gzipの場合は展開しながら取り込む
+     * @return 取込結果
+     * @throws IOException
+     */
+    @PostMapping(path = "/import", consumes = "text/csv")
+    public ImportResult importCsv(InputStream body,
+            @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false)
+            String contentEncoding) throws IOException {
+        return importService.importTodos(decode(body, contentEncoding), BulkFormat.CSV);
+    }
+
+    /**
+     * NDJSONの一括取込
+     * 1行に1件、{"title": ..., "content": ..., "tags": [tagId, ...]}とする
+     * 
+     * @param body
+     * @param contentEncoding gzipの場合は展開しながら取り込む
+     * @return 取込結果
+     * @throws IOException
+     */
+    @PostMapping(path = "/import", consumes = "application/x-ndjson")
+    public ImportResult importNdjson(InputStream body,
+            @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false)
+            String contentEncoding) throws IOException {
+        return importService.importTodos(decode(body, contentEncoding), BulkFormat.NDJSON);
+    }
+
+    /**
+     * 一括出力
+     * DBから受信したデータをそのままレスポンスへ書き込む
+     * Accept-Encodingにgzipが含まれる場合は圧縮して返却する
+     * 
+     * @param query
+     * @param acceptEncoding
+     * @param response
+     * @throws IOException
+     */
+    @GetMapping(path = "/export")
+    public void exportTodos(@Validated ExportTodosQuery query,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+            String acceptEncoding, HttpServletResponse response) throws IOException {
+        BulkFormat format = BulkFormat.valueOf(query.getFormat().toUpperCase(Locale.ROOT));
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+
+        response.setContentType(format.getMediaType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"todos" + format.getExtension() + "\"");
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        OutputStream body = response.getOutputStream();
+        if (gzip) {
+            GZIPOutputStream gzipBody = new GZIPOutputStream(body, 64 * 1024);
+            exportService.export(format, query.getFromId(), query.getToId(), gzipBody);
+            gzipBody.finish();
+        } else {
+            exportService.export(format, query.getFromId(), query.getToId(), body);
+        }
+    }
+
+    /**
+     * Content-Encodingに応じてリクエストボディを展開する
+     * 
+     * @param body
+     * @param contentEncoding
+     * @return
+     * @throws IOException
+     */
+    private InputStream decode(InputStream body, String contentEncoding) throws IOException {
+        return "gzip".equalsIgnoreCase(contentEncoding) ? new GZIPInputStream(body) : body;
+    }
+}
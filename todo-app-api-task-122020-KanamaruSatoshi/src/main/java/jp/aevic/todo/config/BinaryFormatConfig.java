@@ -0,0 +1,48 @@
+package jp.aevic.todo.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * JSON以外のレスポンス形式(バイナリ形式)に関する設定
+ * <p>
+ * Acceptヘッダでapplication/cbor、application/x-jackson-smileが指定された場合は、
+ * JSONと同じ内容をCBOR、Smileで返却する(リクエストボディも同じ形式で受け付ける)。
+ * JSON用と同じ設定(JsonComponentなど)を適用するため、Spring Bootが設定したビルダーからObjectMapperを生成する。
+ * Acceptの指定がない場合は、これまで通りJSONを返却する。
+ * </p>
+ */
+@Configuration(proxyBeanMethods = false)
+public class BinaryFormatConfig {
+
+    /**
+     * CBOR(application/cbor)のメッセージコンバーター
+     *
+     * @param builder Spring Bootが設定したObjectMapperのビルダー
+     * @return CBORのメッセージコンバーター
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(
+            Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(
+                builder.factory(new CBORFactory()).build());
+    }
+
+    /**
+     * Smile(application/x-jackson-smile)のメッセージコンバーター
+     *
+     * @param builder Spring Bootが設定したObjectMapperのビルダー
+     * @return Smileのメッセージコンバーター
+     */
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(
+            Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(
+                builder.factory(new SmileFactory()).build());
+    }
+}
@@ -0,0 +1,171 @@
+package jp.aevic.todo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import jp.aevic.todo.core.limit.Bulkhead;
+import jp.aevic.todo.core.limit.BulkheadRoutingDataSource;
+import jp.aevic.todo.util.context.BulkheadContext;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * 読み込み・書き込みのバルクヘッドに関する設定
+ * <p>
+ * todo・tagのAPIの読み込みと書き込みを、それぞれ専用のスレッドとコネクションプールで実行する。
+ * 一方が滞留してスレッドやコネクションを使い切っても、もう一方の処理は影響を受けない。
+ * 無効の場合はリクエストを受け付けたスレッドで実行し、コネクションプールも1つとする。
+ * </p>
+ */
+@Configuration
+public class BulkheadConfig {
+    //バルクヘッドの名前(メトリクスのタグ、コネクションプールの振り分けのキー)
+    public static final String READ = "read";
+    public static final String WRITE = "write";
+
+    /**
+     * 読み込み(取得・一覧取得)用のバルクヘッド
+     *
+     * @param context             バルクヘッドの設定
+     * @param meterRegistry       メトリクスの登録先
+     * @param observationRegistry 実行中のObservationの管理
+     * @return 読み込み用のバルクヘッド
+     */
+    @Bean
+    public Bulkhead readBulkhead(BulkheadContext context, MeterRegistry meterRegistry,
+                                 ObservationRegistry observationRegistry) {
+        if (!context.isEnabled()) {
+            return Bulkhead.direct(READ);
+        }
+        return new Bulkhead(READ, context.getReadThreads(), context.getReadQueueCapacity(),
+                context.getRetryAfter(), meterRegistry, observationRegistry);
+    }
+
+    /**
+     * 書き込み(登録・更新・削除)用のバルクヘッド
+     *
+     * @param context             バルクヘッドの設定
+     * @param meterRegistry       メトリクスの登録先
+     * @param observationRegistry 実行中のObservationの管理
+     * @return 書き込み用のバルクヘッド
+     */
+    @Bean
+    public Bulkhead writeBulkhead(BulkheadContext context, MeterRegistry meterRegistry,
+                                  ObservationRegistry observationRegistry) {
+        if (!context.isEnabled()) {
+            return Bulkhead.direct(WRITE);
+        }
+        return new Bulkhead(WRITE, context.getWriteThreads(), context.getWriteQueueCapacity(),
+                context.getRetryAfter(), meterRegistry, observationRegistry);
+    }
+
+    /**
+     * バルクヘッドごとのコネクションプールの設定
+     * DataSourceの自動設定の代わりに、既定・読み込み・書き込みの3つのコネクションプールを生成する
+     * いずれもspring.datasource.hikari.*の設定を適用し、読み込み・書き込みの最大数のみ
+     * todo.bulkhead.*-pool-sizeで置き換える
+     */
+    @Configuration
+    @ConditionalOnProperty(prefix = "todo.bulkhead", name = "enabled", havingValue = "true")
+    static class BulkheadDataSourceConfig {
+
+        /**
+         * 既定のコネクションプール(バルクヘッドの外の一括取込・一括出力、スケジュール実行などで使用する)
+         *
+         * @param properties  DB接続の設定
+         * @param environment spring.datasource.hikari.*の設定の取得元
+         * @return 既定のコネクションプール
+         */
+        @Bean
+        public HikariDataSource defaultDataSource(DataSourceProperties properties,
+                                                  Environment environment) {
+            return createPool(properties, environment, "default");
+        }
+
+        /**
+         * 読み込み用のコネクションプール
+         *
+         * @param properties  DB接続の設定
+         * @param environment spring.datasource.hikari.*の設定の取得元
+         * @param context     バルクヘッドの設定
+         * @return 読み込み用のコネクションプール
+         */
+        @Bean
+        public HikariDataSource readDataSource(DataSourceProperties properties,
+                                               Environment environment,
+                                               BulkheadContext context) {
+            HikariDataSource dataSource = createPool(properties, environment, READ);
+            dataSource.setMaximumPoolSize(context.getReadPoolSize());
+            return dataSource;
+        }
+
+        /**
+         * 書き込み用のコネクションプール
+         *
+         * @param properties  DB接続の設定
+         * @param environment spring.datasource.hikari.*の設定の取得元
+         * @param context     バルクヘッドの設定
+         * @return 書き込み用のコネクションプール
+         */
+        @Bean
+        public HikariDataSource writeDataSource(DataSourceProperties properties,
+                                                Environment environment,
+                                                BulkheadContext context) {
+            HikariDataSource dataSource = createPool(properties, environment, WRITE);
+            dataSource.setMaximumPoolSize(context.getWritePoolSize());
+            return dataSource;
+        }
+
+        /**
+         * 実行中のバルクヘッドに応じてコネクションプールを振り分けるDataSource
+         * MyBatis、トランザクション管理などはこのDataSourceを使用する
+         *
+         * @param defaultDataSource 既定のコネクションプール
+         * @param readDataSource    読み込み用のコネクションプール
+         * @param writeDataSource   書き込み用のコネクションプール
+         * @return 振り分けを行うDataSource
+         */
+        @Bean
+        @Primary
+        public DataSource dataSource(
+                @Qualifier("defaultDataSource") DataSource defaultDataSource,
+                @Qualifier("readDataSource") DataSource readDataSource,
+                @Qualifier("writeDataSource") DataSource writeDataSource) {
+            BulkheadRoutingDataSource dataSource = new BulkheadRoutingDataSource();
+            dataSource.setTargetDataSources(Map.of(READ, readDataSource, WRITE, writeDataSource));
+            dataSource.setDefaultTargetDataSource(defaultDataSource);
+            return dataSource;
+        }
+
+        /**
+         * コネクションプールを生成する
+         * spring.datasource.hikari.*の設定(タイムアウト、最大数など)を適用する
+         *
+         * @param properties  DB接続の設定
+         * @param environment spring.datasource.hikari.*の設定の取得元
+         * @param name        コネクションプールの名前(メトリクスのpoolタグに使用する)
+         * @return コネクションプール
+         */
+        private static HikariDataSource createPool(DataSourceProperties properties,
+                                                   Environment environment, String name) {
+            HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .build();
+            Binder.get(environment)
+                    .bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+            //プールごとに区別するため、spring.datasource.hikari.pool-nameは適用しない
+            dataSource.setPoolName("todo-" + name);
+            return dataSource;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package jp.aevic.todo.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 読み取り結果のキャッシュに関する設定
+ * <p>
+ * キャッシュの種類、上限件数、有効期限はapplication.propertiesのspring.cache.*で設定する。
+ * キャッシュのキーにはDataGenerationの世代番号を含めるため、更新時に個別の削除は行わない。
+ * </p>
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+}
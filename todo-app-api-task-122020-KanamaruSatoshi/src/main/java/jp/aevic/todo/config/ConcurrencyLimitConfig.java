@@ -0,0 +1,49 @@
+package jp.aevic.todo.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jp.aevic.todo.core.limit.ConcurrencyLimitInterceptor;
+import jp.aevic.todo.util.concurrent.AdaptiveConcurrencyLimiter;
+import jp.aevic.todo.util.context.ConcurrencyLimitContext;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * APIの同時実行数の制限に関する設定
+ * <p>
+ * todo・tagのAPIに、処理時間に応じて上限を調整するインターセプターを適用する。
+ * 一括取込・一括出力は処理時間が件数に比例し、上限の調整を誤らせるため対象外とする。
+ * </p>
+ */
+@Configuration
+@ConditionalOnWebApplication
+@ConditionalOnProperty(prefix = "todo.concurrency-limit", name = "enabled", havingValue = "true")
+public class ConcurrencyLimitConfig implements WebMvcConfigurer {
+    //依存クラス
+    private final ConcurrencyLimitContext context;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * コンストラクタ
+     *
+     * @param context       同時実行数の制限の設定
+     * @param meterRegistry メトリクスの登録先
+     */
+    public ConcurrencyLimitConfig(ConcurrencyLimitContext context, MeterRegistry meterRegistry) {
+        this.context = context;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+                context.getInitialLimit(), context.getMinLimit(), context.getMaxLimit(),
+                context.getLatencyThreshold(), context.getBackoffRatio(),
+                context.getWriteReserveRatio(), meterRegistry);
+        registry.addInterceptor(new ConcurrencyLimitInterceptor(limiter, context.getRetryAfter()))
+                .addPathPatterns("/todos", "/todos/**", "/tags", "/tags/**")
+                .excludePathPatterns("/todos/import", "/todos/export");
+    }
+}
@@ -0,0 +1,40 @@
+package jp.aevic.todo.config;
+
+import jp.aevic.todo.core.deadline.RequestDeadlineInterceptor;
+import jp.aevic.todo.util.context.DeadlineContext;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * リクエストの処理期限に関する設定
+ * <p>
+ * todo・tagのAPIに処理期限を設定するインターセプターを適用する。
+ * 一括取込・一括出力は件数に比例して時間がかかるため対象外とする。
+ * </p>
+ */
+@Configuration
+@ConditionalOnWebApplication
+@ConditionalOnProperty(prefix = "todo.deadline", name = "enabled", havingValue = "true")
+public class DeadlineConfig implements WebMvcConfigurer {
+    //依存クラス
+    private final DeadlineContext context;
+
+    /**
+     * コンストラクタ
+     *
+     * @param context 処理期限の設定
+     */
+    public DeadlineConfig(DeadlineContext context) {
+        this.context = context;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new RequestDeadlineInterceptor(context))
+                .addPathPatterns("/todos", "/todos/**", "/tags", "/tags/**")
+                .excludePathPatterns("/todos/import", "/todos/export");
+    }
+}
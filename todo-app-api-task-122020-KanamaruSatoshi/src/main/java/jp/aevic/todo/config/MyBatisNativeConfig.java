@@ -0,0 +1,169 @@
+package jp.aevic.todo.config;
+
+import jp.aevic.todo.mapper.handler.TagListTypeHandler;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.resultset.ResultSetHandler;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.mybatis.spring.mapper.MapperFactoryBean;
+import org.springframework.aot.generate.GenerationContext;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.beans.factory.aot.BeanFactoryInitializationAotContribution;
+import org.springframework.beans.factory.aot.BeanFactoryInitializationAotProcessor;
+import org.springframework.beans.factory.aot.BeanFactoryInitializationCode;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.MergedBeanDefinitionPostProcessor;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.core.ResolvableType;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * MyBatisをネイティブイメージ(Spring AOT)で動作させるための設定
+ * <p>
+ * MyBatisはXMLのMapperファイル、Mapperインタフェースの動的プロキシ、
+ * 結果のマッピングにリフレクションを使用するため、ビルド時にそれらのヒントを登録する。
+ * JVMで起動する場合は何も影響しない。
+ * </p>
+ */
+@Configuration(proxyBeanMethods = false)
+@ImportRuntimeHints(MyBatisNativeConfig.MyBatisRuntimeHints.class)
+public class MyBatisNativeConfig {
+
+    /**
+     * MapperFactoryBeanの型引数を解決するBeanPostProcessor
+     *
+     * @return MapperFactoryBeanの型引数を解決するBeanPostProcessor
+     */
+    @Bean
+    public static MergedBeanDefinitionPostProcessor mapperFactoryBeanTypeResolver() {
+        return new MapperFactoryBeanTypeResolver();
+    }
+
+    /**
+     * MyBatis本体が必要とするリソース及びリフレクションのヒント
+     */
+    static class MyBatisRuntimeHints implements RuntimeHintsRegistrar {
+        //MyBatisが設定値からリフレクションで生成するクラス
+        private static final List<String> MYBATIS_CLASSES = List.of(
+                "org.apache.ibatis.logging.slf4j.Slf4jImpl",
+                "org.apache.ibatis.logging.nologging.NoLoggingImpl",
+                "org.apache.ibatis.scripting.xmltags.XMLLanguageDriver",
+                "org.apache.ibatis.scripting.defaults.RawLanguageDriver",
+                "org.apache.ibatis.cache.impl.PerpetualCache",
+                "org.apache.ibatis.cache.decorators.LruCache",
+                "org.apache.ibatis.session.Configuration",
+                "org.mybatis.spring.SqlSessionFactoryBean",
+                "org.mybatis.spring.mapper.MapperFactoryBean");
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            //MapperのXMLファイルとMyBatisのDTD
+            hints.resources().registerPattern("META-INF/jp/aevic/todo/mapper/*.xml");
+            hints.resources().registerPattern("org/apache/ibatis/builder/xml/*.dtd");
+            hints.resources().registerPattern("org/apache/ibatis/builder/xml/*.xsd");
+
+            MYBATIS_CLASSES.stream()
+                    .filter(className -> ClassUtils.isPresent(className, classLoader))
+                    .forEach(className -> hints.reflection().registerType(
+                            ClassUtils.resolveClassName(className, classLoader),
+                            MemberCategory.values()));
+
+            //Mapper XMLから参照するTypeHandler
+            hints.reflection().registerType(TagListTypeHandler.class,
+                    MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+            //プラグイン(Interceptor)を適用するMyBatisのインタフェース(プロキシを生成する)
+            for (Class<?> pluginTarget : List.of(Executor.class, ResultSetHandler.class,
+                    StatementHandler.class)) {
+                hints.proxies().registerJdkProxy(pluginTarget);
+                hints.reflection().registerType(pluginTarget, MemberCategory.INVOKE_PUBLIC_METHODS);
+            }
+        }
+    }
+
+    /**
+     * MapperFactoryBeanの型引数(Mapperインタフェース)をBean定義に設定するクラス
+     * 型引数が未解決のままだと、AOTでMapperの注入先を決定できないため
+     */
+    static class MapperFactoryBeanTypeResolver implements MergedBeanDefinitionPostProcessor {
+        @Override
+        public void postProcessMergedBeanDefinition(RootBeanDefinition beanDefinition,
+                                                    Class<?> beanType, String beanName) {
+            if (!beanDefinition.hasBeanClass()
+                    || !MapperFactoryBean.class.isAssignableFrom(beanDefinition.getBeanClass())
+                    || !beanDefinition.getResolvableType().hasUnresolvableGenerics()) {
+                return;
+            }
+            Object mapperInterface = beanDefinition.getPropertyValues().get("mapperInterface");
+            Class<?> mapperClass = mapperInterface instanceof Class<?> clazz ? clazz
+                    : ClassUtils.resolveClassName(String.valueOf(mapperInterface), null);
+            beanDefinition.setTargetType(
+                    ResolvableType.forClassWithGenerics(beanDefinition.getBeanClass(),
+                            mapperClass));
+        }
+    }
+
+    /**
+     * Mapperインタフェースごとのヒントを登録するAOT処理
+     * Mapperの動的プロキシと、引数・戻り値の型(Entityや検索条件)のリフレクションを登録する
+     * META-INF/spring/aot.factoriesで登録する
+     */
+    static class MyBatisMapperAotProcessor implements BeanFactoryInitializationAotProcessor {
+        @Override
+        public BeanFactoryInitializationAotContribution processAheadOfTime(
+                ConfigurableListableBeanFactory beanFactory) {
+            List<Class<?>> mapperInterfaces = new ArrayList<>();
+            for (String beanName : beanFactory.getBeanNamesForType(MapperFactoryBean.class)) {
+                Object mapperInterface = beanFactory.getBeanDefinition(beanName.substring(1))
+                        .getPropertyValues().get("mapperInterface");
+                if (mapperInterface instanceof Class<?> clazz) {
+                    mapperInterfaces.add(clazz);
+                } else if (mapperInterface != null) {
+                    mapperInterfaces.add(ClassUtils.resolveClassName(
+                            mapperInterface.toString(), beanFactory.getBeanClassLoader()));
+                }
+            }
+            if (mapperInterfaces.isEmpty()) {
+                return null;
+            }
+            return (GenerationContext context, BeanFactoryInitializationCode code) -> {
+                RuntimeHints hints = context.getRuntimeHints();
+                mapperInterfaces.forEach(mapper -> registerMapperHints(hints, mapper));
+            };
+        }
+
+        /**
+         * Mapperインタフェース1つ分のヒントを登録する
+         *
+         * @param hints  登録先
+         * @param mapper Mapperインタフェース
+         */
+        private void registerMapperHints(RuntimeHints hints, Class<?> mapper) {
+            hints.proxies().registerJdkProxy(mapper);
+            hints.reflection().registerType(mapper, MemberCategory.INVOKE_PUBLIC_METHODS);
+            for (Method method : ReflectionUtils.getDeclaredMethods(mapper)) {
+                Stream.concat(
+                                Stream.of(ResolvableType.forMethodReturnType(method)),
+                                Stream.of(method.getParameters()).map(
+                                        parameter -> ResolvableType.forClass(
+                                                parameter.getType())))
+                        .flatMap(type -> Stream.concat(Stream.of(type),
+                                Stream.of(type.getGenerics())))
+                        .map(ResolvableType::resolve)
+                        .filter(type -> type != null && !type.isPrimitive()
+                                && type.getName().startsWith("jp.aevic.todo"))
+                        .forEach(type -> hints.reflection().registerType(type,
+                                MemberCategory.values()));
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package jp.aevic.todo.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import jakarta.annotation.PreDestroy;
+import jp.aevic.todo.util.context.ReactiveReadContext;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+/**
+ * 読み込みのリアクティブ版(R2DBC)に関する設定
+ * <p>
+ * Accept: application/x-ndjsonの読み込みを、リクエストごとのスレッドを占有せずに
+ * R2DBCのコネクションプールで処理する。書き込み、その他の読み込みはこれまで通りMyBatis(JDBC)で処理する。
+ * R2DBCのトランザクション管理はJDBCのトランザクション管理と競合するため使用しない
+ * (R2dbcAutoConfiguration、R2dbcTransactionManagerAutoConfigurationはTodoApplicationで除外する)。
+ * </p>
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "todo.reactive-read", name = "enabled", havingValue = "true")
+public class ReactiveReadConfig {
+    //R2DBCのコネクションプール
+    //ConnectionFactoryのBeanがあるとDataSource(JDBC)の自動設定が行われなくなるため、Beanとしては公開しない
+    private final ConnectionPool connectionPool;
+
+    /**
+     * コンストラクタ
+     *
+     * @param context リアクティブ版の設定
+     */
+    public ReactiveReadConfig(ReactiveReadContext context) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(context.getUrl())
+                .mutate()
+                .option(ConnectionFactoryOptions.USER, context.getUsername())
+                .option(ConnectionFactoryOptions.PASSWORD, context.getPassword())
+                .build();
+        this.connectionPool = new ConnectionPool(ConnectionPoolConfiguration
+                .builder(ConnectionFactories.get(options))
+                .name("todo-reactive")
+                .initialSize(0)
+                .maxSize(context.getMaxPoolSize())
+                .maxAcquireTime(context.getAcquireTimeout())
+                .build());
+    }
+
+    /**
+     * SQLを実行するクライアント
+     *
+     * @return SQLを実行するクライアント
+     */
+    @Bean
+    public DatabaseClient databaseClient() {
+        return DatabaseClient.create(connectionPool);
+    }
+
+    /**
+     * 終了時にコネクションプールを閉じる
+     */
+    @PreDestroy
+    public void dispose() {
+        connectionPool.dispose();
+    }
+}
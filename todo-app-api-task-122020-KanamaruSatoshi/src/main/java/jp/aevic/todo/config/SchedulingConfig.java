@@ -0,0 +1,15 @@
+package jp.aevic.todo.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * 定期実行する処理(@Scheduled)に関する設定
+ * <p>
+ * 実行用のスレッドプールはapplication.propertiesのspring.task.scheduling.*で設定する。
+ * </p>
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
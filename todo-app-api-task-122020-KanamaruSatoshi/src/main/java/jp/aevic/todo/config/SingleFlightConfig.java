@@ -0,0 +1,39 @@
+package jp.aevic.todo.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jp.aevic.todo.core.cache.DataGeneration;
+import jp.aevic.todo.core.cache.GenerationKey;
+import jp.aevic.todo.entity.todo.TodoEntity;
+import jp.aevic.todo.queryCondition.todo.GetTodosQueryCondition;
+import jp.aevic.todo.util.concurrent.SingleFlight;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * 同時実行中の同一クエリをまとめるSingleFlightの設定
+ */
+@Configuration
+public class SingleFlightConfig {
+    /**
+     * todo一覧取得用のSingleFlight
+     * 検索条件と世代番号が等しい一覧取得を1回のクエリ実行にまとめる
+     * キーに世代番号を含めるため、更新のコミット後に世代番号を読んだ処理は、更新前の状態を読んでいる
+     * 可能性のある実行中の処理に相乗りしない(世代番号が進んだ時点で実行中の処理の共有もやめる)
+     * 共有するのは検索結果(List)のみで、レスポンスへの変換(JSON・CBOR・Smile、fieldsによる項目の選択)は
+     * リクエストごとに行う
+     *
+     * @param meterRegistry  メトリクスの登録先
+     * @param dataGeneration データの世代番号
+     * @return todo一覧取得用のSingleFlight
+     */
+    @Bean
+    public SingleFlight<GenerationKey<GetTodosQueryCondition>, List<TodoEntity>>
+            todoListSingleFlight(MeterRegistry meterRegistry, DataGeneration dataGeneration) {
+        SingleFlight<GenerationKey<GetTodosQueryCondition>, List<TodoEntity>> singleFlight =
+                new SingleFlight<>("todoList", meterRegistry);
+        dataGeneration.onBump(singleFlight::forget);
+        return singleFlight;
+    }
+}
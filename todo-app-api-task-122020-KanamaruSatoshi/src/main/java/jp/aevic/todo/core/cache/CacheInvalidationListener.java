@@ -0,0 +1,173 @@
+package jp.aevic.todo.core.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jp.aevic.todo.util.context.CacheInvalidationContext;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * 他ノードからのキャッシュ無効化通知(LISTEN)を受信するクラス
+ * <p>
+ * コネクションプールとは別の専用コネクションで通知を待ち受ける。
+ * 短時間に続けて届いた通知はまとめて1回の無効化として反映する。
+ * 接続が切れた場合は再接続し、切断中の通知を取りこぼしている可能性があるため、
+ * 待ち受けを開始するたびにキャッシュをすべて破棄する。
+ * </p>
+ */
+@Component
+public class CacheInvalidationListener implements SmartLifecycle {
+    //ログ出力
+    private final Logger logger = LoggerFactory.getLogger(CacheInvalidationListener.class);
+
+    //依存クラス
+    private final DataSourceProperties dataSourceProperties;
+    private final CacheInvalidationContext context;
+    private final CacheInvalidator invalidator;
+    //受信した他ノードからの通知件数
+    private final Counter receivedCounter;
+    //通知をまとめて反映した回数
+    private final Counter appliedCounter;
+
+    //待ち受けスレッド
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    /**
+     * コンストラクタ
+     *
+     * @param dataSourceProperties 専用コネクションの接続情報
+     * @param context              無効化通知の設定
+     * @param invalidator          キャッシュの無効化を行うクラス
+     * @param meterRegistry        メトリクスの登録先
+     */
+    public CacheInvalidationListener(DataSourceProperties dataSourceProperties,
+                                     CacheInvalidationContext context,
+                                     CacheInvalidator invalidator,
+                                     MeterRegistry meterRegistry) {
+        this.dataSourceProperties = dataSourceProperties;
+        this.context = context;
+        this.invalidator = invalidator;
+        this.receivedCounter = Counter.builder("todo.cache-invalidation.received")
+                .description("他ノードから受信したキャッシュ無効化通知の件数")
+                .register(meterRegistry);
+        this.appliedCounter = Counter.builder("todo.cache-invalidation.applied")
+                .description("受信した通知をまとめてキャッシュの無効化に反映した回数")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        if (!context.isEnabled()) {
+            return;
+        }
+        running = true;
+        listenerThread = new Thread(this::listenLoop, "todo-cache-invalidation");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * 接続と通知の待ち受けを停止されるまで繰り返す
+     */
+    private void listenLoop() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(
+                    dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(),
+                    dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + context.getChannel());
+                }
+                //待ち受け開始前(切断中を含む)の通知は取りこぼしている可能性があるため、すべて破棄する
+                logger.info("Listening cache invalidation channel. Flushing all caches.");
+                invalidator.flushAll();
+                receiveNotifications(connection.unwrap(PGConnection.class));
+            } catch (SQLException e) {
+                logger.warn("Cache invalidation listener disconnected: {}", e.getMessage());
+                sleepBeforeReconnect();
+            }
+        }
+    }
+
+    /**
+     * 通知を受信し、まとめて反映する
+     *
+     * @param connection 待ち受け中のコネクション
+     * @throws SQLException 接続が切れた場合
+     */
+    private void receiveNotifications(PGConnection connection) throws SQLException {
+        int pollTimeoutMillis = (int) context.getPollTimeout().toMillis();
+        while (running) {
+            PGNotification[] notifications = connection.getNotifications(pollTimeoutMillis);
+            int remoteCount = countRemote(notifications);
+            if (remoteCount == 0) {
+                continue;
+            }
+            //続けて届く通知を待ってから、まとめて1回だけ反映する
+            long deadline = System.nanoTime() + context.getCoalesceWindow().toNanos();
+            long remainingMillis;
+            while ((remainingMillis = (deadline - System.nanoTime()) / 1_000_000) > 0) {
+                remoteCount += countRemote(connection.getNotifications((int) remainingMillis));
+            }
+            receivedCounter.increment(remoteCount);
+            appliedCounter.increment();
+            invalidator.invalidateByRemote();
+        }
+    }
+
+    /**
+     * 他ノードから送信された通知の件数を数える
+     *
+     * @param notifications 受信した通知
+     * @return 他ノードから送信された通知の件数
+     */
+    private int countRemote(PGNotification[] notifications) {
+        if (notifications == null) {
+            return 0;
+        }
+        int count = 0;
+        for (PGNotification notification : notifications) {
+            if (!invalidator.isOwnNotification(notification.getParameter())) {
+                logger.debug("Cache invalidation received: {}", notification.getParameter());
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 再接続まで待機する
+     */
+    private void sleepBeforeReconnect() {
+        try {
+            Thread.sleep(context.getReconnectInterval().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package jp.aevic.todo.core.cache;
+
+import jp.aevic.todo.mapper.cache.CacheInvalidationMapper;
+import jp.aevic.todo.util.context.CacheInvalidationContext;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * 更新時のキャッシュ無効化を行うクラス
+ * <p>
+ * 自ノードではコミット後にデータの世代番号を進める。
+ * ノード間の無効化通知が有効な場合は、更新と同じトランザクション内でNOTIFYを送信し、
+ * コミット時に他ノードへ配信させる(ロールバックされた更新は通知されない)。
+ * </p>
+ */
+@Component
+public class CacheInvalidator {
+    //依存クラス
+    private final DataGeneration dataGeneration;
+    private final CacheInvalidationMapper mapper;
+    private final CacheInvalidationContext context;
+    private final CacheManager cacheManager;
+    //自ノードの識別子(自ノードが送信した通知を受信側で無視するために使用)
+    private final String nodeId = UUID.randomUUID().toString();
+
+    /**
+     * コンストラクタ
+     *
+     * @param dataGeneration データの世代番号
+     * @param mapper         無効化通知用のMapper
+     * @param context        無効化通知の設定
+     * @param cacheManager   キャッシュ
+     */
+    public CacheInvalidator(DataGeneration dataGeneration, CacheInvalidationMapper mapper,
+                            CacheInvalidationContext context, CacheManager cacheManager) {
+        this.dataGeneration = dataGeneration;
+        this.mapper = mapper;
+        this.context = context;
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * 更新されたEntityのキャッシュを無効にする
+     * 更新処理と同じトランザクション内で呼び出すこと
+     *
+     * @param type    Entityの種類
+     * @param id      EntityのID
+     * @param version 更新後の更新回数
+     */
+    public void invalidate(CachedEntityType type, int id, int version) {
+        publish(type, String.valueOf(id), String.valueOf(version));
+    }
+
+    /**
+     * 一括更新されたEntityのキャッシュを無効にする
+     * 更新処理と同じトランザクション内で呼び出すこと
+     *
+     * @param type Entityの種類
+     */
+    public void invalidateAll(CachedEntityType type) {
+        publish(type, "*", "*");
+    }
+
+    /**
+     * コミット後に世代番号を進め、有効な場合は他ノードへ通知する
+     *
+     * @param type    Entityの種類
+     * @param id      EntityのID
+     * @param version 更新後の更新回数
+     */
+    private void publish(CachedEntityType type, String id, String version) {
+        dataGeneration.bumpAfterCommit();
+        if (context.isEnabled()) {
+            mapper.publish(context.getChannel(),
+                    String.join(":", nodeId, type.name(), id, version));
+        }
+    }
+
+    /**
+     * 他ノードから受信した無効化通知を反映する
+     * 一覧取得のキャッシュは世代番号をキーに含めているため、世代を進めるだけで無効になる
+     */
+    public void invalidateByRemote() {
+        dataGeneration.bump();
+    }
+
+    /**
+     * キャッシュをすべて破棄する
+     * 通知を受信できていなかった可能性がある場合(再接続時など)に使用する
+     */
+    public void flushAll() {
+        dataGeneration.bump();
+        cacheManager.getCacheNames().stream()
+                .map(cacheManager::getCache)
+                .filter(Objects::nonNull)
+                .forEach(Cache::clear);
+    }
+
+    /**
+     * 通知の送信元が自ノードか
+     *
+     * @param payload 受信した通知の内容
+     * @return 自ノードが送信した通知の場合はtrue
+     */
+    public boolean isOwnNotification(String payload) {
+        return payload.startsWith(nodeId + ":");
+    }
+}
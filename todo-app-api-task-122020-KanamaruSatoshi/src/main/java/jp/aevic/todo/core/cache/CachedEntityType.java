@@ -0,0 +1,11 @@
+package jp.aevic.todo.core.cache;
+
+/**
+ * キャッシュ無効化の対象となるEntityの種類の列挙型
+ */
+public enum CachedEntityType {
+    //todo
+    TODO,
+    //tag
+    TAG
+}
@@ -0,0 +1,58 @@
+package jp.aevic.todo.core.cache;
+
+import jp.aevic.todo.util.TransactionUtil;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * データの世代番号を管理するクラス
+ * <p>
+ * todo及びtagの更新がコミットされるたびに世代番号を進める。
+ * 読み取り結果のキャッシュは世代番号をキーに含めて保持するため、
+ * 世代番号を進めるだけで既存のキャッシュはすべて参照されなくなる(キーの走査は不要)。
+ * </p>
+ */
+@Component
+public class DataGeneration {
+    //現在の世代番号
+    private final AtomicLong generation = new AtomicLong();
+    //世代番号が進んだときに実行する処理
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * 現在の世代番号を取得する
+     *
+     * @return 現在の世代番号
+     */
+    public long current() {
+        return generation.get();
+    }
+
+    /**
+     * 世代番号を進める
+     */
+    public void bump() {
+        generation.incrementAndGet();
+        listeners.forEach(Runnable::run);
+    }
+
+    /**
+     * 現在のトランザクションのコミット後に世代番号を進める
+     * コミット前に進めると、更新前のデータが新しい世代としてキャッシュされる可能性があるため
+     */
+    public void bumpAfterCommit() {
+        TransactionUtil.runAfterCommit(this::bump);
+    }
+
+    /**
+     * 世代番号が進んだときに実行する処理を登録する
+     *
+     * @param listener 世代番号が進んだときに実行する処理
+     */
+    public void onBump(Runnable listener) {
+        listeners.add(listener);
+    }
+}
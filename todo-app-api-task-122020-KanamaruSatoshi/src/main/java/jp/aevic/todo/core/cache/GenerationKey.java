@@ -0,0 +1,20 @@
+package jp.aevic.todo.core.cache;
+
+import lombok.Value;
+
+/**
+ * 世代番号を含めたキー
+ * <p>
+ * 同じ条件でも世代番号が異なれば別のキーとなるため、更新のコミット前に始まった処理の結果を、
+ * コミット後に世代番号を読んだ処理が共有することはない。
+ * </p>
+ *
+ * @param <K> 世代番号以外のキー
+ */
+@Value
+public class GenerationKey<K> {
+    //検索条件などのキー
+    K key;
+    //キーを作成した時点の世代番号
+    long generation;
+}
@@ -0,0 +1,55 @@
+package jp.aevic.todo.core.deadline;
+
+import jp.aevic.todo.core.exception.exception.GatewayTimeoutException;
+import jp.aevic.todo.core.exception.statics.ErrorCodes;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * リクエストの処理期限をリアクティブな処理(R2DBC)に適用するクラス
+ * <p>
+ * R2DBCの処理は別のスレッドで進むため、呼び出し時点のスレッドの処理期限を取り込み、
+ * 期限までに最初の要素が届かなかった場合はGatewayTimeoutExceptionで終了する(購読を解除し、SQLも中断する)。
+ * 最初の要素を返却した後はステータスを変更できず、途中で打ち切るとクライアントからは欠けたことが分からないため、
+ * 期限は適用しない(返却中にクライアントが切断した場合は、書き込みの失敗で購読が解除される)。
+ * </p>
+ */
+public class ReactiveDeadline {
+
+    /**
+     * インスタンス化させない
+     */
+    private ReactiveDeadline() {
+    }
+
+    /**
+     * 現在のスレッドの処理期限を適用する
+     *
+     * @param flux 適用する処理
+     * @param <T>  要素の型
+     * @return 期限までに最初の要素が届かない場合はGatewayTimeoutExceptionで終了する処理
+     * (期限がない場合はそのまま)
+     */
+    public static <T> Flux<T> apply(Flux<T> flux) {
+        Long deadline = RequestDeadline.get();
+        if (deadline == null) {
+            return flux;
+        }
+        Duration remaining = Duration.ofNanos(Math.max(deadline - System.nanoTime(), 0));
+        return flux.timeout(Mono.delay(remaining), item -> Mono.never(),
+                Flux.error(() -> new GatewayTimeoutException(ErrorCodes.DEADLINE_EXCEEDED)));
+    }
+
+    /**
+     * 現在のスレッドの処理期限を適用する
+     *
+     * @param mono 適用する処理
+     * @param <T>  要素の型
+     * @return 期限を過ぎた場合はGatewayTimeoutExceptionで終了する処理(期限がない場合はそのまま)
+     */
+    public static <T> Mono<T> apply(Mono<T> mono) {
+        return apply(mono.flux()).next();
+    }
+}
@@ -0,0 +1,73 @@
+package jp.aevic.todo.core.deadline;
+
+import java.time.Duration;
+
+/**
+ * リクエストの処理期限を保持するクラス
+ * <p>
+ * リクエストを処理するスレッドに期限を設定し、SQLの実行時に残り時間をタイムアウトとして使用する。
+ * 期限が設定されていないスレッド(コマンドライン、スケジュール実行など)では制限しない。
+ * </p>
+ */
+public class RequestDeadline {
+    //処理期限(System.nanoTime基準)
+    private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>();
+
+    /**
+     * インスタンス化させない
+     */
+    private RequestDeadline() {
+    }
+
+    /**
+     * 現在のスレッドに処理期限を設定する
+     *
+     * @param timeout 現在からの処理時間の上限
+     */
+    public static void start(Duration timeout) {
+        DEADLINE.set(System.nanoTime() + timeout.toNanos());
+    }
+
+    /**
+     * 現在のスレッドに設定された処理期限を取得する
+     * 別のスレッドへ期限を引き継ぐ場合に使用する
+     *
+     * @return 処理期限(System.nanoTime基準)。設定されていない場合はnull
+     */
+    public static Long get() {
+        return DEADLINE.get();
+    }
+
+    /**
+     * 現在のスレッドに処理期限を設定する
+     *
+     * @param deadline getで取得した処理期限(nullの場合は解除する)
+     */
+    public static void set(Long deadline) {
+        if (deadline == null) {
+            DEADLINE.remove();
+        } else {
+            DEADLINE.set(deadline);
+        }
+    }
+
+    /**
+     * 現在のスレッドの処理期限を解除する
+     */
+    public static void clear() {
+        DEADLINE.remove();
+    }
+
+    /**
+     * 処理期限までの残り時間を取得する
+     *
+     * @return 残り時間(ミリ秒、期限を過ぎている場合は0以下)。期限が設定されていない場合はnull
+     */
+    public static Long remainingMillis() {
+        Long deadline = DEADLINE.get();
+        if (deadline == null) {
+            return null;
+        }
+        return Duration.ofNanos(deadline - System.nanoTime()).toMillis();
+    }
+}
@@ -0,0 +1,85 @@
+package jp.aevic.todo.core.deadline;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jp.aevic.todo.core.exception.exception.BadRequestException;
+import jp.aevic.todo.core.exception.statics.ErrorCodes;
+import jp.aevic.todo.util.context.DeadlineContext;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.time.Duration;
+
+/**
+ * リクエストの処理期限を設定するインターセプター
+ * <p>
+ * 処理時間の上限は、ヘッダ(ミリ秒)、エンドポイントごとの設定、既定値の順に決定する。
+ * ヘッダで指定された値はtodo.deadline.max-timeoutを上限とする。
+ * </p>
+ */
+public class RequestDeadlineInterceptor implements AsyncHandlerInterceptor {
+    //依存クラス
+    private final DeadlineContext context;
+
+    /**
+     * コンストラクタ
+     *
+     * @param context 処理期限の設定
+     */
+    public RequestDeadlineInterceptor(DeadlineContext context) {
+        this.context = context;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response,
+                             Object handler) {
+        RequestDeadline.start(timeout(request, handler));
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request,
+                                               HttpServletResponse response, Object handler) {
+        //非同期処理を開始したスレッドは、以降別のリクエストの処理に使用される
+        RequestDeadline.clear();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+                                Object handler, Exception ex) {
+        RequestDeadline.clear();
+    }
+
+    /**
+     * リクエストの処理時間の上限を決定する
+     *
+     * @param request リクエスト
+     * @param handler 呼び出すハンドラ
+     * @return 処理時間の上限
+     */
+    private Duration timeout(HttpServletRequest request, Object handler) {
+        String requested = request.getHeader(context.getHeader());
+        if (requested != null) {
+            try {
+                long millis = Long.parseLong(requested.trim());
+                if (millis > 0) {
+                    Duration timeout = Duration.ofMillis(millis);
+                    return timeout.compareTo(context.getMaxTimeout()) < 0
+                            ? timeout : context.getMaxTimeout();
+                }
+            } catch (NumberFormatException e) {
+                //不正な値は下で400とする
+            }
+            throw new BadRequestException(ErrorCodes.INVALID_PARAMETER);
+        }
+        if (handler instanceof HandlerMethod handlerMethod) {
+            Duration endpointTimeout = context.getEndpointTimeouts().get(
+                    handlerMethod.getBeanType().getSimpleName() + "."
+                            + handlerMethod.getMethod().getName());
+            if (endpointTimeout != null) {
+                return endpointTimeout;
+            }
+        }
+        return context.getDefaultTimeout();
+    }
+}
@@ -1,5 +1,6 @@
 package jp.aevic.todo.core.exception;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.boot.autoconfigure.web.ServerProperties;
 import org.springframework.boot.autoconfigure.web.servlet.error.BasicErrorController;
 import org.springframework.boot.web.error.ErrorAttributeOptions;
@@ -18,6 +19,7 @@ import java.util.Map;
  */
 @Order(Ordered.HIGHEST_PRECEDENCE)
 @Component
+@ConditionalOnWebApplication
 public class GlobalErrorController extends BasicErrorController {
     /**
      * コンストラクタ
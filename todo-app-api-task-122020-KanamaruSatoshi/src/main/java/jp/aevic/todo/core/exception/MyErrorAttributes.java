@@ -2,6 +2,7 @@ package jp.aevic.todo.core.exception;
 
 import com.fasterxml.jackson.databind.JsonMappingException;
 import jp.aevic.todo.core.exception.exception.BadRequestException;
+import jp.aevic.todo.core.exception.exception.GatewayTimeoutException;
 import jp.aevic.todo.core.exception.exception.InternalErrorException;
 import jp.aevic.todo.core.exception.exception.NotFoundException;
 import jp.aevic.todo.core.exception.exception.OptimisticLockException;
@@ -11,6 +12,7 @@ import lombok.AllArgsConstructor;
 import org.springframework.boot.web.error.ErrorAttributeOptions;
 import org.springframework.boot.web.servlet.error.DefaultErrorAttributes;
 import org.springframework.context.MessageSource;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -95,6 +97,12 @@ public class MyErrorAttributes extends DefaultErrorAttributes {
         } else if (cause instanceof NoHandlerFoundException error) {
             errorAttributes = noHandlerFoundExceptionHandler(initializeErrorAttributes, error);
         }
+        //SQLのタイムアウト(キャッシュなどでラップされている場合を含む)の場合
+        else if (isQueryTimeout(cause)) {
+            errorAttributes = todoRuntimeExceptionHandler(
+                    new GatewayTimeoutException(ErrorCodes.DEADLINE_EXCEEDED),
+                    initializeErrorAttributes, webRequest);
+        }
         //ハンドリングできない例外(getErrorでエラーを抽出できないような詳細不明なエラー)の場合
         else if (cause == null) {
             errorAttributes = unexpectedErrorHandler(initializeErrorAttributes, webRequest);
@@ -348,6 +356,21 @@ public class MyErrorAttributes extends DefaultErrorAttributes {
         return errorAttributes;
     }
 
+    /**
+     * SQLのタイムアウト(リクエストの処理期限切れ)による例外かを判定する
+     *
+     * @param ex 判定する例外
+     * @return 例外またはその原因がQueryTimeoutExceptionの場合はtrue
+     */
+    private boolean isQueryTimeout(Throwable ex) {
+        for (Throwable current = ex; current != null; current = current.getCause()) {
+            if (current instanceof QueryTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * BadRequestを生成する処理
      *
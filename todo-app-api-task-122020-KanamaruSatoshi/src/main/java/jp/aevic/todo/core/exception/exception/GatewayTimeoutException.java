@@ -0,0 +1,18 @@
+package jp.aevic.todo.core.exception.exception;
+
+import jp.aevic.todo.core.exception.statics.ErrorCodes;
+import org.springframework.http.HttpStatus;
+
+/**
+ * GatewayTimeoutExceptionの独自例外クラス
+ */
+public class GatewayTimeoutException extends TodoRuntimeException {
+    /**
+     * コンストラクタ
+     *
+     * @param errorCodes エラー内容に対応したエラーコード
+     */
+    public GatewayTimeoutException(ErrorCodes errorCodes) {
+        super(HttpStatus.GATEWAY_TIMEOUT, errorCodes);
+    }
+}
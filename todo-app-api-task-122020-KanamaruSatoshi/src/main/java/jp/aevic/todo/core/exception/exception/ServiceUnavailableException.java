@@ -0,0 +1,25 @@
+package jp.aevic.todo.core.exception.exception;
+
+import jp.aevic.todo.core.exception.statics.ErrorCodes;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+
+/**
+ * ServiceUnavailableExceptionの独自例外クラス
+ * 過負荷などで一時的に処理できない場合に使用し、再試行までの待ち時間をRetry-Afterヘッダで返却する
+ */
+public class ServiceUnavailableException extends TodoRuntimeException {
+    /**
+     * コンストラクタ
+     *
+     * @param errorCodes エラー内容に対応したエラーコード
+     * @param retryAfter 再試行までの待ち時間(秒未満は切り上げる)
+     */
+    public ServiceUnavailableException(ErrorCodes errorCodes, Duration retryAfter) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, errorCodes);
+        long seconds = retryAfter.plusNanos(999_999_999).getSeconds();
+        getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(seconds, 1)));
+    }
+}
@@ -14,12 +14,18 @@ public enum ErrorCodes {
     INVALID_PARAMETER("badRequest.invalid-field"),
     //不正なオブジェクトによるリクエスト
     INVALID_JSON("badRequest.invalid-json"),
+    //一括取込のファイルの形式が不正な場合
+    INVALID_IMPORT_FILE("badRequest.invalid-import-file"),
     //リソースが存在しない場合
     NOT_FOUND_RESOURCE("notFound.resource"),
     //リクエストパスが存在しない場合
     NOT_FOUND_PATH("notFound.path"),
     //楽観ロックエラーが発生した場合
     OPTIMISTIC_LOCK("conflict.optimistic"),
+    //同時実行数の上限を超えたため、リクエストを受け付けなかった場合
+    SERVICE_OVERLOADED("serviceUnavailable.overloaded"),
+    //リクエストの処理期限までにSQLの実行が完了しなかった場合
+    DEADLINE_EXCEEDED("gatewayTimeout.deadline-exceeded"),
     //想定外のエラーが生じた場合
     INTERNAL_UNEXPECTED_ERROR("internal-server-error.unexpected"),
     //内部エラーにおいて想定しない引数によるエラーが発生した場合
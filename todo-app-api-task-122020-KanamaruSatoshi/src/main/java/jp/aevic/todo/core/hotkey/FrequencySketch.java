@@ -0,0 +1,121 @@
+package jp.aevic.todo.core.hotkey;
+
+/**
+ * キーごとの参照回数を固定のメモリで推定するカウントミンスケッチ
+ * <p>
+ * カウンタを16個(64バイト)ずつのブロックに分け、キーのハッシュ値で選んだ1ブロックの中で
+ * 4行それぞれ1個ずつカウンタを加算する(1回の参照で触れるメモリを64バイトの範囲に収める)。
+ * 推定値は4個のカウンタの最小値で、他のキーとの衝突により実際より大きくなることはあるが小さくはならない。
+ * 加算回数がカウンタの数の2倍に達するたびに全カウンタを半分にし、古い参照の影響を減らす。
+ * </p>
+ * <p>
+ * 参照の記録を軽くするため、カウンタの加算は同期しない。
+ * 複数スレッドの同時の加算で数回分が失われることはあるが、上位のキーの判定には影響しない。
+ * </p>
+ */
+class FrequencySketch {
+    //1ブロックのカウンタの数(4行×4個)
+    private static final int BLOCK_SIZE = 16;
+
+    //カウンタ(ブロックごとに連続して配置する)
+    private final int[] table;
+    //ブロックの番号を求めるマスク
+    private final int blockMask;
+    //この回数を加算するたびにカウンタを半分にする
+    private final int sampleSize;
+    //前回半分にしてからの加算回数
+    private int additions;
+
+    /**
+     * コンストラクタ
+     *
+     * @param size カウンタの数(16以上の2の累乗に切り上げる)
+     */
+    FrequencySketch(int size) {
+        int tableSize = Integer.highestOneBit(Math.max(size, BLOCK_SIZE) - 1) << 1;
+        this.table = new int[tableSize];
+        this.blockMask = tableSize / BLOCK_SIZE - 1;
+        this.sampleSize = tableSize * 2;
+    }
+
+    /**
+     * キーの参照回数を1加算する
+     *
+     * @param key キー
+     */
+    void increment(int key) {
+        int hash = spread(key);
+        int block = (hash & blockMask) * BLOCK_SIZE;
+        int index = rehash(hash);
+        table[block + (index & 3)]++;
+        table[block + 4 + ((index >>> 8) & 3)]++;
+        table[block + 8 + ((index >>> 16) & 3)]++;
+        table[block + 12 + ((index >>> 24) & 3)]++;
+        if (++additions >= sampleSize) {
+            age();
+        }
+    }
+
+    /**
+     * キーの参照回数を指定した回数分加算する(保存していた記録の読み込みに使用する)
+     * 古い参照を減らす周期には含めない
+     *
+     * @param key   キー
+     * @param count 加算する回数
+     */
+    void add(int key, int count) {
+        int hash = spread(key);
+        int block = (hash & blockMask) * BLOCK_SIZE;
+        int index = rehash(hash);
+        for (int row = 0; row < 4; row++) {
+            int slot = block + row * 4 + ((index >>> (row * 8)) & 3);
+            table[slot] = (int) Math.min((long) table[slot] + count, Integer.MAX_VALUE);
+        }
+    }
+
+    /**
+     * キーの参照回数の推定値を取得する
+     *
+     * @param key キー
+     * @return 推定した参照回数
+     */
+    int estimate(int key) {
+        int hash = spread(key);
+        int block = (hash & blockMask) * BLOCK_SIZE;
+        int index = rehash(hash);
+        int min = table[block + (index & 3)];
+        min = Math.min(min, table[block + 4 + ((index >>> 8) & 3)]);
+        min = Math.min(min, table[block + 8 + ((index >>> 16) & 3)]);
+        return Math.min(min, table[block + 12 + ((index >>> 24) & 3)]);
+    }
+
+    /**
+     * 全カウンタを半分にする
+     * 同時に複数のスレッドが周期に達した場合は、1スレッドのみが行う
+     */
+    private synchronized void age() {
+        if (additions < sampleSize) {
+            return;
+        }
+        for (int i = 0; i < table.length; i++) {
+            table[i] >>>= 1;
+        }
+        additions = 0;
+    }
+
+    /**
+     * キーをハッシュ値に変換する(連番のIDが同じブロックに偏らないようにする)
+     */
+    private static int spread(int key) {
+        int hash = key * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * ブロック内の位置に使用する、ブロックの番号とは別のハッシュ値を求める
+     */
+    private static int rehash(int hash) {
+        int rehashed = hash * 0x31848BAB;
+        return rehashed ^ (rehashed >>> 14);
+    }
+}
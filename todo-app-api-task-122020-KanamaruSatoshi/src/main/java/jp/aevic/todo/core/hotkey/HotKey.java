@@ -0,0 +1,14 @@
+package jp.aevic.todo.core.hotkey;
+
+import lombok.Value;
+
+/**
+ * よく参照されるキー(todoId・tagId)と推定した参照回数
+ */
+@Value
+public class HotKey {
+    //todoId・tagId
+    int id;
+    //推定した参照回数(古い参照ほど小さく数える)
+    int estimatedCount;
+}
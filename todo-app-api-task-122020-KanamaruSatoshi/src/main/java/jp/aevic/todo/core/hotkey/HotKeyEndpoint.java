@@ -0,0 +1,41 @@
+package jp.aevic.todo.core.hotkey;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * よく参照されるtodo・タグを返却するActuatorのエンドポイント(/actuator/hotkeys)
+ */
+@Component
+@Endpoint(id = "hotkeys")
+public class HotKeyEndpoint {
+    //依存クラス
+    private final HotKeyRecorder recorder;
+
+    /**
+     * コンストラクタ
+     *
+     * @param recorder ホットキーを記録するクラス
+     */
+    public HotKeyEndpoint(HotKeyRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    /**
+     * 参照回数の多い上位のtodoId・tagIdを取得する
+     *
+     * @return todos・tagsそれぞれの、推定した参照回数の多い順のID
+     */
+    @ReadOperation
+    public Map<String, List<HotKey>> hotKeys() {
+        Map<String, List<HotKey>> hotKeys = new LinkedHashMap<>();
+        hotKeys.put("todos", recorder.hotTodos());
+        hotKeys.put("tags", recorder.hotTags());
+        return hotKeys;
+    }
+}
@@ -0,0 +1,250 @@
+package jp.aevic.todo.core.hotkey;
+
+import jakarta.annotation.PreDestroy;
+import jp.aevic.todo.core.cache.CachedEntityType;
+import jp.aevic.todo.entity.tag.TagEntity;
+import jp.aevic.todo.entity.todo.TodoEntity;
+import jp.aevic.todo.util.context.HotKeyContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * よく参照されるtodo・タグ(ホットキー)を記録するクラス
+ * <p>
+ * ID指定の取得(1件・複数件)と、一覧取得の結果に含まれるタグの参照を記録し、
+ * Actuatorのhotkeysエンドポイントで参照回数の多い上位のIDを返却する。
+ * 上位のIDは定期的(及び終了時)にファイルへ保存し、起動時に読み込む。
+ * ウォームアップは読み込んだIDを先に取得するため、再起動後も参照の多いデータから読み込み済みとなる。
+ * </p>
+ * <p>
+ * readinessがACCEPTING_TRAFFICの間のみ記録する(ウォームアップ自身のリクエストは数えない)。
+ * </p>
+ */
+@Component
+public class HotKeyRecorder {
+    //ログ出力
+    private final Logger logger = LoggerFactory.getLogger(HotKeyRecorder.class);
+    //保存するファイルの見出し行
+    private static final String SNAPSHOT_HEADER = "#type\tid\testimatedCount";
+
+    //依存クラス
+    private final HotKeyContext context;
+    //todoIdの参照
+    private final HotKeyTracker todoTracker;
+    //tagIdの参照
+    private final HotKeyTracker tagTracker;
+    //参照を記録するか(設定が有効、かつリクエストを受け付けている間のみtrue)
+    private volatile boolean recording;
+
+    /**
+     * コンストラクタ
+     * 保存していたホットキーがあれば読み込む
+     *
+     * @param context ホットキーの記録の設定
+     */
+    public HotKeyRecorder(HotKeyContext context) {
+        this.context = context;
+        this.todoTracker = new HotKeyTracker(context.isEnabled() ? context.getSketchSize() : 0);
+        this.tagTracker = new HotKeyTracker(context.isEnabled() ? context.getSketchSize() : 0);
+        if (context.isEnabled()) {
+            restore();
+        }
+    }
+
+    /**
+     * readinessの変更に合わせて、記録の開始・停止を切り替える
+     *
+     * @param event readinessの変更
+     */
+    @EventListener
+    public void onReadinessChanged(AvailabilityChangeEvent<ReadinessState> event) {
+        recording = context.isEnabled() && event.getState() == ReadinessState.ACCEPTING_TRAFFIC;
+    }
+
+    /**
+     * todoのID指定の参照を記録する
+     *
+     * @param todoId todoId
+     */
+    public void recordTodo(int todoId) {
+        if (recording) {
+            todoTracker.record(todoId);
+        }
+    }
+
+    /**
+     * todoのID指定の複数件の参照を記録する
+     *
+     * @param todoIds todoId
+     */
+    public void recordTodos(List<Integer> todoIds) {
+        if (recording) {
+            todoIds.forEach(todoTracker::record);
+        }
+    }
+
+    /**
+     * タグのID指定の参照を記録する
+     *
+     * @param tagId tagId
+     */
+    public void recordTag(int tagId) {
+        if (recording) {
+            tagTracker.record(tagId);
+        }
+    }
+
+    /**
+     * タグのID指定の複数件の参照を記録する
+     *
+     * @param tagIds tagId
+     */
+    public void recordTags(List<Integer> tagIds) {
+        if (recording) {
+            tagIds.forEach(tagTracker::record);
+        }
+    }
+
+    /**
+     * 一覧取得の結果に含まれるタグの参照を記録する
+     * 取得項目にタグを含まない場合は何もしない
+     *
+     * @param todoEntities 一覧取得の結果
+     */
+    public void recordTagsOf(List<TodoEntity> todoEntities) {
+        if (!recording) {
+            return;
+        }
+        for (TodoEntity todoEntity : todoEntities) {
+            List<TagEntity> tags = todoEntity.getTags();
+            if (tags != null) {
+                for (TagEntity tag : tags) {
+                    tagTracker.record(tag.getTagId());
+                }
+            }
+        }
+    }
+
+    /**
+     * 参照回数の多い上位のtodoIdを取得する
+     * readinessがACCEPTING_TRAFFICになる前は、保存していたファイルから読み込んだ内容となる
+     *
+     * @return 推定した参照回数の多い順のtodoId
+     */
+    public List<HotKey> hotTodos() {
+        return todoTracker.top(context.getTopK());
+    }
+
+    /**
+     * 参照回数の多い上位のtagIdを取得する
+     *
+     * @return 推定した参照回数の多い順のtagId
+     */
+    public List<HotKey> hotTags() {
+        return tagTracker.top(context.getTopK());
+    }
+
+    /**
+     * 上位のキーを定期的にファイルへ保存する
+     */
+    @Scheduled(initialDelayString = "${todo.hot-keys.snapshot-interval:1m}",
+            fixedDelayString = "${todo.hot-keys.snapshot-interval:1m}")
+    public void snapshot() {
+        if (!context.isEnabled()) {
+            return;
+        }
+        Map<CachedEntityType, List<HotKey>> hotKeys = new EnumMap<>(CachedEntityType.class);
+        hotKeys.put(CachedEntityType.TODO, hotTodos());
+        hotKeys.put(CachedEntityType.TAG, hotTags());
+        if (hotKeys.values().stream().allMatch(List::isEmpty)) {
+            //起動直後など、記録がない場合は前回の内容を残す
+            return;
+        }
+        Path file = context.getSnapshotFile().toAbsolutePath();
+        try {
+            Files.createDirectories(file.getParent());
+            //書き込み途中のファイルを読み込まないよう、一時ファイルに書き込んでから置き換える
+            Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(temporary,
+                    StandardCharsets.UTF_8)) {
+                writer.write(SNAPSHOT_HEADER);
+                writer.newLine();
+                for (Map.Entry<CachedEntityType, List<HotKey>> entry : hotKeys.entrySet()) {
+                    for (HotKey hotKey : entry.getValue()) {
+                        writer.write(entry.getKey().name() + "\t" + hotKey.getId() + "\t"
+                                + hotKey.getEstimatedCount());
+                        writer.newLine();
+                    }
+                }
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            logger.debug("Saved hot keys to {}: {} todos, {} tags", file,
+                    hotKeys.get(CachedEntityType.TODO).size(),
+                    hotKeys.get(CachedEntityType.TAG).size());
+        } catch (IOException e) {
+            logger.warn("Failed to save hot keys to {}", file, e);
+        }
+    }
+
+    /**
+     * 終了時に上位のキーを保存する
+     */
+    @PreDestroy
+    public void close() {
+        snapshot();
+    }
+
+    /**
+     * 保存していた上位のキーを読み込む
+     * 読み込めない行がある場合はその行を無視する(起動は止めない)
+     */
+    private void restore() {
+        Path file = context.getSnapshotFile().toAbsolutePath();
+        if (!Files.isRegularFile(file)) {
+            return;
+        }
+        Map<CachedEntityType, List<HotKey>> hotKeys = new EnumMap<>(CachedEntityType.class);
+        for (CachedEntityType type : CachedEntityType.values()) {
+            hotKeys.put(type, new ArrayList<>());
+        }
+        try {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                String[] columns = line.split("\t");
+                if (line.startsWith("#") || columns.length != 3) {
+                    continue;
+                }
+                try {
+                    hotKeys.get(CachedEntityType.valueOf(columns[0])).add(new HotKey(
+                            Integer.parseInt(columns[1]), Integer.parseInt(columns[2])));
+                } catch (IllegalArgumentException e) {
+                    logger.debug("Ignored hot key line: {}", line);
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to load hot keys from {}", file, e);
+            return;
+        }
+        todoTracker.restore(hotKeys.get(CachedEntityType.TODO));
+        tagTracker.restore(hotKeys.get(CachedEntityType.TAG));
+        logger.info("Loaded hot keys from {}: {} todos, {} tags", file,
+                hotKeys.get(CachedEntityType.TODO).size(),
+                hotKeys.get(CachedEntityType.TAG).size());
+    }
+}
@@ -0,0 +1,107 @@
+package jp.aevic.todo.core.hotkey;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * 1種類のキー(todoId・tagId)の参照を記録し、参照回数の多い上位のキーを求めるクラス
+ * <p>
+ * 参照回数はカウントミンスケッチで推定し、直近に参照されたキーを上位の候補としてリングバッファに保持する。
+ * 記録はカウンタの加算と配列への書き込みのみとし、上位のキーは取得の際に候補の推定値を比べて求める。
+ * リングバッファへの書き込みも同期しない(同時の書き込みで候補が1件失われても、頻繁に参照されるキーは
+ * すぐに再び書き込まれる)。
+ * </p>
+ */
+public class HotKeyTracker {
+    //上位の候補として保持する直近のキーの数(2の累乗)
+    private static final int CANDIDATE_CAPACITY = 4096;
+    //リングバッファの位置を求めるマスク
+    private static final int CANDIDATE_MASK = CANDIDATE_CAPACITY - 1;
+    //推定値の小さい順
+    private static final Comparator<HotKey> BY_COUNT =
+            Comparator.comparingInt(HotKey::getEstimatedCount);
+
+    //参照回数
+    private final FrequencySketch sketch;
+    //直近に参照されたキー(0は未使用。IDは1から採番されるため)
+    private final int[] candidates = new int[CANDIDATE_CAPACITY];
+    //次に書き込む位置
+    private int cursor;
+    //保存していた記録から読み込んだキー(リングバッファから押し出された後も候補とする)
+    private volatile int[] restoredKeys = new int[0];
+
+    /**
+     * コンストラクタ
+     *
+     * @param sketchSize 参照回数を数えるカウンタの数
+     */
+    public HotKeyTracker(int sketchSize) {
+        this.sketch = new FrequencySketch(sketchSize);
+    }
+
+    /**
+     * キーの参照を記録する
+     *
+     * @param key todoId・tagId
+     */
+    public void record(int key) {
+        sketch.increment(key);
+        candidates[cursor++ & CANDIDATE_MASK] = key;
+    }
+
+    /**
+     * 参照回数の多い上位のキーを取得する
+     *
+     * @param limit 取得する件数
+     * @return 推定した参照回数の多い順のキー
+     */
+    public List<HotKey> top(int limit) {
+        Set<Integer> keys = new HashSet<>();
+        for (int key : candidates) {
+            if (key != 0) {
+                keys.add(key);
+            }
+        }
+        for (int key : restoredKeys) {
+            keys.add(key);
+        }
+
+        //推定値の小さいものから押し出し、上位limit件を残す
+        PriorityQueue<HotKey> heap = new PriorityQueue<>(BY_COUNT);
+        for (int key : keys) {
+            int estimatedCount = sketch.estimate(key);
+            if (estimatedCount == 0 || limit <= 0) {
+                continue;
+            }
+            if (heap.size() < limit) {
+                heap.add(new HotKey(key, estimatedCount));
+            } else if (heap.peek().getEstimatedCount() < estimatedCount) {
+                heap.poll();
+                heap.add(new HotKey(key, estimatedCount));
+            }
+        }
+        List<HotKey> hotKeys = new ArrayList<>(heap);
+        hotKeys.sort(BY_COUNT.reversed().thenComparingInt(HotKey::getId));
+        return hotKeys;
+    }
+
+    /**
+     * 保存していた記録を読み込む
+     * 再起動前の参照は1回半分にしたものとして加算し、起動後の参照で順位が入れ替わるようにする
+     *
+     * @param hotKeys 保存していた上位のキー
+     */
+    public void restore(List<HotKey> hotKeys) {
+        int[] keys = new int[hotKeys.size()];
+        for (int i = 0; i < keys.length; i++) {
+            HotKey hotKey = hotKeys.get(i);
+            sketch.add(hotKey.getId(), Math.max(hotKey.getEstimatedCount() / 2, 1));
+            keys[i] = hotKey.getId();
+        }
+        restoredKeys = keys;
+    }
+}
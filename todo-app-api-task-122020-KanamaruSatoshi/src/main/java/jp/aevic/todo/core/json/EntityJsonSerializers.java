@@ -0,0 +1,183 @@
+package jp.aevic.todo.core.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import jp.aevic.todo.entity.tag.TagEntity;
+import jp.aevic.todo.entity.todo.TodoEntity;
+import jp.aevic.todo.queryCondition.todo.TodoFields;
+import org.springframework.boot.jackson.JsonComponent;
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * レスポンスで件数の多いEntity(todo, tag)のJSONシリアライザ
+ * <p>
+ * Jacksonの標準のシリアライザはgetterをリフレクションで呼び出し、int型の項目はボクシングされる。
+ * ここではgetterを直接呼び出し、エンコード済みの項目名で出力先へ書き込む。
+ * 出力内容は標準のシリアライザと同じ(項目の順序、nullの出力を含む)とし、
+ * Entityに項目を追加した場合はこのクラスにも追加すること。
+ * todoは、{@link #withTodoFields}で取得項目を指定した場合、指定された項目のみを出力する。
+ * </p>
+ */
+@JsonComponent
+public class EntityJsonSerializers {
+    //エンコード済みの項目名
+    private static final SerializedString TODO_ID = new SerializedString("todoId");
+    private static final SerializedString TITLE = new SerializedString("title");
+    private static final SerializedString CONTENT = new SerializedString("content");
+    private static final SerializedString VERSION = new SerializedString("version");
+    private static final SerializedString TAGS = new SerializedString("tags");
+    private static final SerializedString TAG_ID = new SerializedString("tagId");
+    private static final SerializedString NAME = new SerializedString("name");
+    //取得項目をシリアライザへ渡すフィルタのID
+    private static final String TODO_FIELDS_FILTER = "todoFields";
+
+    /**
+     * todo(またはその一覧)を、指定された項目のみを出力するレスポンスにする
+     *
+     * @param value  todo、またはtodoを含む値
+     * @param fields 出力する項目
+     * @return レスポンス
+     */
+    public static MappingJacksonValue withTodoFields(Object value, TodoFields fields) {
+        MappingJacksonValue jacksonValue = new MappingJacksonValue(value);
+        if (!TodoFields.ALL.equals(fields)) {
+            jacksonValue.setFilters(new SimpleFilterProvider()
+                    .addFilter(TODO_FIELDS_FILTER, new TodoFieldsFilter(fields)));
+        }
+        return jacksonValue;
+    }
+
+    /**
+     * todoのシリアライザ
+     */
+    public static class TodoSerializer extends StdSerializer<TodoEntity> {
+        /**
+         * コンストラクタ
+         */
+        public TodoSerializer() {
+            super(TodoEntity.class);
+        }
+
+        @Override
+        public void serialize(TodoEntity todo, JsonGenerator generator,
+                              SerializerProvider provider) throws IOException {
+            TodoFields fields = todoFields(provider);
+            generator.writeStartObject(todo);
+            generator.writeFieldName(TODO_ID);
+            generator.writeNumber(todo.getTodoId());
+            if (fields.isTitle()) {
+                generator.writeFieldName(TITLE);
+                generator.writeString(todo.getTitle());
+            }
+            if (fields.isContent()) {
+                generator.writeFieldName(CONTENT);
+                generator.writeString(todo.getContent());
+            }
+            if (fields.isVersion()) {
+                generator.writeFieldName(VERSION);
+                generator.writeNumber(todo.getVersion());
+            }
+            if (fields.isTags()) {
+                generator.writeFieldName(TAGS);
+                List<TagEntity> tags = todo.getTags();
+                if (tags == null) {
+                    generator.writeNull();
+                } else {
+                    generator.writeStartArray(tags, tags.size());
+                    //Iteratorを生成しないように添字で参照する
+                    for (int i = 0; i < tags.size(); i++) {
+                        writeTag(tags.get(i), generator, fields);
+                    }
+                    generator.writeEndArray();
+                }
+            }
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * tagのシリアライザ
+     */
+    public static class TagSerializer extends StdSerializer<TagEntity> {
+        /**
+         * コンストラクタ
+         */
+        public TagSerializer() {
+            super(TagEntity.class);
+        }
+
+        @Override
+        public void serialize(TagEntity tag, JsonGenerator generator,
+                              SerializerProvider provider) throws IOException {
+            writeTag(tag, generator, TodoFields.ALL);
+        }
+    }
+
+    /**
+     * tagを1件書き込む
+     *
+     * @param tag       tag(nullの場合はnullを書き込む)
+     * @param generator 出力先
+     * @param fields    出力する項目(tagId以外はtags.name、tags.versionの指定に従う)
+     * @throws IOException 書き込みに失敗した場合
+     */
+    private static void writeTag(TagEntity tag, JsonGenerator generator, TodoFields fields)
+            throws IOException {
+        if (tag == null) {
+            generator.writeNull();
+            return;
+        }
+        generator.writeStartObject(tag);
+        generator.writeFieldName(TAG_ID);
+        generator.writeNumber(tag.getTagId());
+        if (fields.isTagName()) {
+            generator.writeFieldName(NAME);
+            generator.writeString(tag.getName());
+        }
+        if (fields.isTagVersion()) {
+            generator.writeFieldName(VERSION);
+            generator.writeNumber(tag.getVersion());
+        }
+        generator.writeEndObject();
+    }
+
+    /**
+     * シリアライズ中のレスポンスで指定されたtodoの出力項目を取得する
+     *
+     * @param provider シリアライズの設定
+     * @return 出力項目(指定がない場合はすべての項目)
+     */
+    private static TodoFields todoFields(SerializerProvider provider) {
+        FilterProvider filters = provider.getFilterProvider();
+        if (filters != null && filters.findPropertyFilter(TODO_FIELDS_FILTER, null)
+                instanceof TodoFieldsFilter filter) {
+            return filter.fields;
+        }
+        return TodoFields.ALL;
+    }
+
+    /**
+     * todoの出力項目を保持するフィルタ
+     * Entityのプロパティには適用せず、このクラスのシリアライザが出力項目の判定にのみ使用する
+     */
+    private static class TodoFieldsFilter extends SimpleBeanPropertyFilter {
+        private final TodoFields fields;
+
+        /**
+         * コンストラクタ
+         *
+         * @param fields 出力する項目
+         */
+        TodoFieldsFilter(TodoFields fields) {
+            this.fields = fields;
+        }
+    }
+}
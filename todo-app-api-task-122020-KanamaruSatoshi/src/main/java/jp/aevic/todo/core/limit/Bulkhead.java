@@ -0,0 +1,225 @@
+package jp.aevic.todo.core.limit;
+
+import io.micrometer.context.ContextSnapshot;
+import io.micrometer.context.ContextSnapshotFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.ObservationRegistry;
+import jp.aevic.todo.core.deadline.RequestDeadline;
+import jp.aevic.todo.core.exception.exception.ServiceUnavailableException;
+import jp.aevic.todo.core.exception.statics.ErrorCodes;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 処理の種類(読み込み、書き込みなど)ごとに専用のスレッドで処理を実行するクラス(バルクヘッド)
+ * <p>
+ * スレッド数と待ち行列の長さを種類ごとに制限し、ある種類の処理が滞留しても他の種類の処理を妨げないようにする。
+ * 待ち行列が一杯の場合は実行せずに503(Retry-After付き)とする。
+ * 実行中のスレッドではバルクヘッドの名前を参照でき、コネクションプールの振り分けに使用する。
+ * リクエストの処理期限と、トレーシングのスパン(Observation)は実行するスレッドへ引き継ぐ。
+ * </p>
+ */
+public class Bulkhead {
+    //実行中のバルクヘッドの名前
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+    //呼び出し元のスレッドのObservationなどを取り込む
+    private static final ContextSnapshotFactory SNAPSHOT_FACTORY =
+            ContextSnapshotFactory.builder().build();
+
+    //バルクヘッドの名前
+    private final String name;
+    //処理を実行するスレッド(nullの場合は呼び出し元のスレッドで実行する)
+    private final ThreadPoolExecutor executor;
+    //受け付けなかった場合に返却する再試行までの待ち時間
+    private final Duration retryAfter;
+    //待ち行列で待った時間
+    private final Timer waitTimer;
+    //待ち行列が一杯で受け付けなかった回数
+    private final Counter rejectedCounter;
+    //実行中のObservationの管理
+    private final ObservationRegistry observationRegistry;
+
+    /**
+     * コンストラクタ
+     *
+     * @param name          バルクヘッドの名前(メトリクスのタグ、コネクションプールの振り分けに使用する)
+     * @param threads       スレッド数
+     * @param queueCapacity 待ち行列の長さ
+     * @param retryAfter    受け付けなかった場合に返却する再試行までの待ち時間
+     * @param meterRegistry       メトリクスの登録先
+     * @param observationRegistry 実行中のObservationの管理
+     */
+    public Bulkhead(String name, int threads, int queueCapacity, Duration retryAfter,
+                    MeterRegistry meterRegistry, ObservationRegistry observationRegistry) {
+        this.name = name;
+        this.retryAfter = retryAfter;
+        this.observationRegistry = observationRegistry;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable,
+                            "bulkhead-" + name + "-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.waitTimer = Timer.builder("todo.bulkhead.wait")
+                .tag("name", name)
+                .description("待ち行列で実行を待った時間")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("todo.bulkhead.rejected")
+                .tag("name", name)
+                .description("待ち行列が一杯で受け付けなかった数")
+                .register(meterRegistry);
+        Gauge.builder("todo.bulkhead.queue", executor, pool -> pool.getQueue().size())
+                .tag("name", name)
+                .description("実行を待っている数")
+                .register(meterRegistry);
+        Gauge.builder("todo.bulkhead.active", executor, ThreadPoolExecutor::getActiveCount)
+                .tag("name", name)
+                .description("実行中の数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 呼び出し元のスレッドで実行するバルクヘッド(バルクヘッドを使用しない場合)
+     *
+     * @param name バルクヘッドの名前
+     */
+    private Bulkhead(String name) {
+        this.name = name;
+        this.executor = null;
+        this.retryAfter = null;
+        this.waitTimer = null;
+        this.rejectedCounter = null;
+        this.observationRegistry = null;
+    }
+
+    /**
+     * 呼び出し元のスレッドで実行するバルクヘッドを生成する
+     *
+     * @param name バルクヘッドの名前
+     * @return バルクヘッド
+     */
+    public static Bulkhead direct(String name) {
+        return new Bulkhead(name);
+    }
+
+    /**
+     * 現在のスレッドで実行中のバルクヘッドの名前を取得する
+     *
+     * @return バルクヘッドの名前(バルクヘッドで実行中でない場合はnull)
+     */
+    public static String current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 現在のスレッドで、このバルクヘッドのコネクションプールを使用して処理を実行する
+     * 複数のリクエストの処理をまとめて実行するスレッド(バッチローダーなど)で使用する。
+     * 処理期限・Observationは引き継がないため、呼び出し元で設定すること
+     *
+     * @param supplier 実行する処理
+     * @param <T>      処理結果の型
+     * @return 処理結果
+     */
+    public <T> T callOnCurrentThread(Supplier<T> supplier) {
+        String previous = CURRENT.get();
+        CURRENT.set(name);
+        try {
+            return supplier.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * 処理を実行する
+     *
+     * @param supplier 実行する処理
+     * @param <T>      処理結果の型
+     * @return 処理結果(待ち行列が一杯の場合はServiceUnavailableExceptionで完了する)
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> supplier) {
+        if (executor == null) {
+            try {
+                return CompletableFuture.completedFuture(supplier.get());
+            } catch (Throwable e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Long deadline = RequestDeadline.get();
+        ContextSnapshot snapshot = SNAPSHOT_FACTORY.captureAll();
+        long submittedAt = System.nanoTime();
+        try {
+            executor.execute(() -> {
+                waitTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                run(supplier, future, deadline, snapshot);
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            future.completeExceptionally(
+                    new ServiceUnavailableException(ErrorCodes.SERVICE_OVERLOADED, retryAfter));
+        }
+        return future;
+    }
+
+    /**
+     * 実行するスレッドで処理を実行し、結果をfutureに設定する
+     *
+     * @param supplier 処理
+     * @param future   結果の設定先
+     * @param deadline 呼び出し元のリクエストの処理期限
+     * @param snapshot 呼び出し元のスレッドのObservationなど
+     */
+    private <T> void run(Supplier<T> supplier, CompletableFuture<T> future, Long deadline,
+                         ContextSnapshot snapshot) {
+        T result = null;
+        //Errorも含めて結果に設定する(設定しないと呼び出し元が完了を待ち続ける)
+        Throwable failure = null;
+        CURRENT.set(name);
+        RequestDeadline.set(deadline);
+        try (ContextSnapshot.Scope scope = snapshot.setThreadLocals()) {
+            result = supplier.get();
+        } catch (Throwable e) {
+            failure = e;
+        } finally {
+            CURRENT.remove();
+            RequestDeadline.clear();
+        }
+        //完了時の処理(@Observedのスパンの終了)は呼び出し元のスレッドで開いたスコープを閉じるため、
+        //このスレッドの現在のObservationが呼び出し元のものに置き換わる。次の処理に残さないよう破棄する
+        try {
+            if (failure == null) {
+                future.complete(result);
+            } else {
+                future.completeExceptionally(failure);
+            }
+        } finally {
+            observationRegistry.setCurrentObservationScope(null);
+        }
+    }
+
+    /**
+     * 実行を待っている処理の完了を待って、スレッドを停止する
+     */
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+}
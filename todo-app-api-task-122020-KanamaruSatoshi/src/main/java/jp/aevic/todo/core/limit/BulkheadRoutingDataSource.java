@@ -0,0 +1,15 @@
+package jp.aevic.todo.core.limit;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * 実行中のバルクヘッドごとにコネクションプールを振り分けるDataSource
+ * バルクヘッドの外(一括取込・一括出力、スケジュール実行など)では既定のコネクションプールを使用する
+ */
+public class BulkheadRoutingDataSource extends AbstractRoutingDataSource {
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return Bulkhead.current();
+    }
+}
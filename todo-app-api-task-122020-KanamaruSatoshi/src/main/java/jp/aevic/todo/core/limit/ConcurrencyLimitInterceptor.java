@@ -0,0 +1,66 @@
+package jp.aevic.todo.core.limit;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jp.aevic.todo.core.exception.exception.ServiceUnavailableException;
+import jp.aevic.todo.core.exception.statics.ErrorCodes;
+import jp.aevic.todo.util.concurrent.AdaptiveConcurrencyLimiter;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.Duration;
+
+/**
+ * APIの同時実行数を制限するインターセプター
+ * <p>
+ * 上限を超えたリクエストはコントローラーを呼び出さずに503(Retry-Afterヘッダ付き)を返却する。
+ * 非同期処理の再ディスパッチでは改めて受け付けず、最初の受け付けからの処理時間で上限を調整する。
+ * </p>
+ */
+public class ConcurrencyLimitInterceptor implements HandlerInterceptor {
+    //受け付けた時刻を保持するリクエスト属性
+    private static final String ACQUIRED_AT =
+            ConcurrencyLimitInterceptor.class.getName() + ".ACQUIRED_AT";
+
+    //依存クラス
+    private final AdaptiveConcurrencyLimiter limiter;
+    //再試行までの待ち時間
+    private final Duration retryAfter;
+
+    /**
+     * コンストラクタ
+     *
+     * @param limiter    同時実行数の上限を管理するクラス
+     * @param retryAfter 受け付けなかったリクエストに返却する再試行までの待ち時間
+     */
+    public ConcurrencyLimitInterceptor(AdaptiveConcurrencyLimiter limiter, Duration retryAfter) {
+        this.limiter = limiter;
+        this.retryAfter = retryAfter;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response,
+                             Object handler) {
+        //非同期処理の再ディスパッチでは受け付け済み
+        if (request.getAttribute(ACQUIRED_AT) != null) {
+            return true;
+        }
+        boolean write = !HttpMethod.GET.matches(request.getMethod())
+                && !HttpMethod.HEAD.matches(request.getMethod());
+        if (!limiter.tryAcquire(write)) {
+            throw new ServiceUnavailableException(ErrorCodes.SERVICE_OVERLOADED, retryAfter);
+        }
+        request.setAttribute(ACQUIRED_AT, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+                                Object handler, Exception ex) {
+        //非同期処理を開始したディスパッチでは呼ばれず、完了後の再ディスパッチで呼ばれる
+        if (request.getAttribute(ACQUIRED_AT) instanceof Long acquiredAt) {
+            request.removeAttribute(ACQUIRED_AT);
+            limiter.release(System.nanoTime() - acquiredAt);
+        }
+    }
+}
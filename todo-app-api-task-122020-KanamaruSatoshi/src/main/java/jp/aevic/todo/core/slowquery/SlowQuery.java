@@ -0,0 +1,62 @@
+package jp.aevic.todo.core.slowquery;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * 記録した遅いSQLの1件
+ * <p>
+ * パラメータは値を出力せず、型(文字列の場合は長さ)のみを保持する。
+ * 同じMapperのSQLでも動的SQLの分岐によりSQLが異なるため、SQLのハッシュ値(sqlHash)で分岐を区別する。
+ * 例外で終了したSQL(処理期限によるタイムアウト、キャンセルなど)は、件数の代わりに例外のクラス名を保持する。
+ * </p>
+ */
+@Getter
+public class SlowQuery {
+    //実行が完了(例外で終了)した日時
+    private final Instant executedAt;
+    //MapperのステートメントID(例: jp.aevic.todo.mapper.todo.TodoMapper.selectAll)
+    private final String statementId;
+    //空白をまとめたSQL(パラメータは?のまま)
+    private final String sql;
+    //SQLのハッシュ値(動的SQLの分岐の区別に使用する)
+    private final String sqlHash;
+    //パラメータ名と、値を伏せた型
+    private final Map<String, String> parameters;
+    //取得・更新した件数(例外で終了した場合はnull)
+    private final Long rows;
+    //例外で終了した場合の例外のクラス名(正常に終了した場合はnull)
+    private final String error;
+    //実行時間(ミリ秒)
+    private final double durationMillis;
+    //実行計画(EXPLAIN (ANALYZE, BUFFERS)の結果。取得対象外・取得前はnull)
+    @Setter
+    private volatile String plan;
+
+    /**
+     * コンストラクタ
+     *
+     * @param executedAt     実行が完了した日時
+     * @param statementId    MapperのステートメントID
+     * @param sql            SQL
+     * @param parameters     パラメータ名と、値を伏せた型
+     * @param rows           取得・更新した件数(例外で終了した場合はnull)
+     * @param error          例外で終了した場合の例外のクラス名(正常に終了した場合はnull)
+     * @param durationMillis 実行時間(ミリ秒)
+     */
+    public SlowQuery(Instant executedAt, String statementId, String sql,
+                     Map<String, String> parameters, Long rows, String error,
+                     double durationMillis) {
+        this.executedAt = executedAt;
+        this.statementId = statementId;
+        this.sql = sql;
+        this.sqlHash = String.format("%08x", sql.hashCode());
+        this.parameters = parameters;
+        this.rows = rows;
+        this.error = error;
+        this.durationMillis = durationMillis;
+    }
+}
@@ -0,0 +1,46 @@
+package jp.aevic.todo.core.slowquery;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 直近の遅いSQLを返却するActuatorのエンドポイント(/actuator/slowqueries)
+ * DELETEで記録を破棄する
+ */
+@Component
+@Endpoint(id = "slowqueries")
+public class SlowQueryEndpoint {
+    //依存クラス
+    private final SlowQueryRecorder recorder;
+
+    /**
+     * コンストラクタ
+     *
+     * @param recorder 遅いSQLを記録するクラス
+     */
+    public SlowQueryEndpoint(SlowQueryRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    /**
+     * 直近の遅いSQLを取得する
+     *
+     * @return 新しい順の記録
+     */
+    @ReadOperation
+    public List<SlowQuery> slowQueries() {
+        return recorder.recent();
+    }
+
+    /**
+     * 記録を破棄する
+     */
+    @DeleteOperation
+    public void clear() {
+        recorder.clear();
+    }
+}
@@ -0,0 +1,190 @@
+package jp.aevic.todo.core.slowquery;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jp.aevic.todo.util.context.SlowQueryContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 遅いSQLを記録するクラス
+ * <p>
+ * 直近のcapacity件をリングバッファに保持し、Actuatorのslowqueriesエンドポイントで参照できるようにする。
+ * SELECTのうちexplainSampleRateの割合は、コネクションプールとは別の専用コネクションで
+ * EXPLAIN (ANALYZE, BUFFERS)を実行し、実行計画を記録に追加する。
+ * EXPLAIN ANALYZEはSQLを実際に実行するため、読み込み専用のトランザクションで実行してロールバックする。
+ * 実行計画の取得は1つのスレッドで順に行い、待ちが多い場合は取得しない(リクエストの処理を待たせない)。
+ * </p>
+ */
+@Component
+public class SlowQueryRecorder {
+    //ログ出力
+    private final Logger logger = LoggerFactory.getLogger(SlowQueryRecorder.class);
+    //実行計画の取得を待たせる上限件数
+    private static final int EXPLAIN_QUEUE_CAPACITY = 10;
+
+    //依存クラス
+    private final SlowQueryContext context;
+    private final DataSourceProperties dataSourceProperties;
+    private final MeterRegistry meterRegistry;
+    //実行計画を取得するスレッド
+    private final ThreadPoolExecutor explainExecutor;
+
+    //直近の記録(リングバッファ)
+    private final SlowQuery[] recent;
+    //次に記録する位置
+    private int nextIndex;
+    //記録している件数
+    private int size;
+
+    /**
+     * コンストラクタ
+     *
+     * @param context              遅いSQLの記録の設定
+     * @param dataSourceProperties 実行計画を取得する専用コネクションの接続情報
+     * @param meterRegistry        メトリクスの登録先
+     */
+    public SlowQueryRecorder(SlowQueryContext context, DataSourceProperties dataSourceProperties,
+                             MeterRegistry meterRegistry) {
+        this.context = context;
+        this.dataSourceProperties = dataSourceProperties;
+        this.meterRegistry = meterRegistry;
+        this.recent = new SlowQuery[Math.max(context.getCapacity(), 1)];
+        this.explainExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(EXPLAIN_QUEUE_CAPACITY), runnable -> {
+                    Thread thread = new Thread(runnable, "slow-query-explain");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    /**
+     * 遅いSQLを記録するか(設定が有効、かつ実行時間が閾値以上か)を判定する
+     *
+     * @param durationNanos 実行時間
+     * @return 記録する場合はtrue
+     */
+    public boolean isSlow(long durationNanos) {
+        return context.isEnabled() && durationNanos >= context.getThreshold().toNanos();
+    }
+
+    /**
+     * 遅いSQLを記録する
+     *
+     * @param slowQuery 遅いSQL
+     * @param binder    実行計画の取得時にパラメータを設定する処理(実行計画を取得しない場合はnull)
+     */
+    public void record(SlowQuery slowQuery, ParameterBinder binder) {
+        synchronized (recent) {
+            recent[nextIndex] = slowQuery;
+            nextIndex = (nextIndex + 1) % recent.length;
+            size = Math.min(size + 1, recent.length);
+        }
+        Counter.builder("todo.slow-query")
+                .tag("statement", slowQuery.getStatementId())
+                .description("閾値以上の時間がかかったSQLの数")
+                .register(meterRegistry)
+                .increment();
+        if (slowQuery.getError() == null) {
+            logger.warn("Slow query: {} ({}) {}ms, {} rows", slowQuery.getStatementId(),
+                    slowQuery.getSqlHash(), Math.round(slowQuery.getDurationMillis()),
+                    slowQuery.getRows());
+        } else {
+            logger.warn("Slow query: {} ({}) {}ms, failed with {}", slowQuery.getStatementId(),
+                    slowQuery.getSqlHash(), Math.round(slowQuery.getDurationMillis()),
+                    slowQuery.getError());
+        }
+        if (binder != null
+                && ThreadLocalRandom.current().nextDouble() < context.getExplainSampleRate()) {
+            explainExecutor.execute(() -> explain(slowQuery, binder));
+        }
+    }
+
+    /**
+     * 直近の記録を取得する
+     *
+     * @return 新しい順の記録
+     */
+    public List<SlowQuery> recent() {
+        synchronized (recent) {
+            List<SlowQuery> result = new ArrayList<>(size);
+            for (int i = 1; i <= size; i++) {
+                result.add(recent[Math.floorMod(nextIndex - i, recent.length)]);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * 記録をすべて破棄する
+     */
+    public void clear() {
+        synchronized (recent) {
+            Arrays.fill(recent, null);
+            nextIndex = 0;
+            size = 0;
+        }
+    }
+
+    /**
+     * 専用コネクションで実行計画を取得し、記録に追加する
+     *
+     * @param slowQuery 遅いSQL
+     * @param binder    パラメータを設定する処理
+     */
+    private void explain(SlowQuery slowQuery, ParameterBinder binder) {
+        try (Connection connection = DriverManager.getConnection(
+                dataSourceProperties.determineUrl(), dataSourceProperties.determineUsername(),
+                dataSourceProperties.determinePassword())) {
+            connection.setReadOnly(true);
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "EXPLAIN (ANALYZE, BUFFERS) " + slowQuery.getSql())) {
+                statement.setQueryTimeout(
+                        (int) Math.max(context.getExplainTimeout().toSeconds(), 1));
+                binder.bind(statement);
+                StringJoiner plan = new StringJoiner("\n");
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        plan.add(resultSet.getString(1));
+                    }
+                }
+                slowQuery.setPlan(plan.toString());
+            } finally {
+                connection.rollback();
+            }
+        } catch (SQLException | RuntimeException e) {
+            logger.warn("Failed to explain slow query: {}", slowQuery.getStatementId(), e);
+        }
+    }
+
+    /**
+     * 実行計画の取得時に、記録したSQLと同じパラメータを設定する処理
+     */
+    @FunctionalInterface
+    public interface ParameterBinder {
+        /**
+         * パラメータを設定する
+         *
+         * @param statement EXPLAINを実行するステートメント
+         * @throws SQLException 設定に失敗した場合
+         */
+        void bind(PreparedStatement statement) throws SQLException;
+    }
+}
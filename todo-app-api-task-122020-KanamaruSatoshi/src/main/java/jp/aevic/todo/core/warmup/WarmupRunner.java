@@ -0,0 +1,329 @@
+package jp.aevic.todo.core.warmup;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import jp.aevic.todo.core.cache.CacheInvalidator;
+import jp.aevic.todo.core.hotkey.HotKey;
+import jp.aevic.todo.core.hotkey.HotKeyRecorder;
+import jp.aevic.todo.util.context.StorageContext;
+import jp.aevic.todo.util.context.WarmupContext;
+import lombok.Value;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 起動時にAPIへリクエストを送り、JITコンパイル・コネクションの確立を済ませてからリクエストを受け付けるクラス
+ * <p>
+ * Webサーバーの起動後、自身のポートへ読み込みのリクエスト(一覧・1件・ID指定・タグ一覧、
+ * CBOR・gzipでの返却、404・400のエラーレスポンス)を設定された時間送り続ける。
+ * 同時にコネクションプールを最小の接続数まで確立し、繰り返し実行されたSQLはサーバー側でprepareされる。
+ * ストレージエンジンがmybatis以外(DBを使用しない)の場合はコネクションプールを確立しない。
+ * 起動時にDBへ接続できない場合も起動は中断せず、ログを出力してリクエストの送信を続ける。
+ * 前回の起動で保存したホットキー(よく参照されるtodo・タグ)がある場合は、最初にそれらをID指定で取得し、
+ * 1件取得のリクエストにも一覧の先頭の代わりに参照の多いtodoを使用する。
+ * 一覧・総件数・タグ一覧は同じ条件の2回目以降キャッシュから返却されるため、1巡ごとにキャッシュを破棄し、
+ * 条件を巡ごとに変えて(1巡の中でも、並行する巡とも異なる条件とし)、毎回SQLの実行・結果のマッピングまで行う。
+ * readinessはすべてのApplicationRunnerの完了後にACCEPTING_TRAFFICとなるため、
+ * ウォームアップ中は/actuator/health/readinessがOUT_OF_SERVICE(503)を返却する。
+ * </p>
+ */
+@Component
+@ConditionalOnWebApplication
+@ConditionalOnProperty(prefix = "todo.warmup", name = "enabled", havingValue = "true")
+public class WarmupRunner implements ApplicationRunner {
+    //ログ出力
+    private final Logger logger = LoggerFactory.getLogger(WarmupRunner.class);
+
+    //一覧取得のレスポンスからtodoIdを取得する
+    private static final Pattern TODO_ID = Pattern.compile("\"todoId\":(\\d+)");
+    //1件取得・ID指定の複数件取得に使用するtodoIdの件数
+    private static final int SAMPLE_SIZE = 20;
+    //一覧取得のタイトルの条件(巡ごとに順に使用する)
+    private static final String TITLES = "aeiounst";
+    //ID指定の複数件取得で1回に指定できるIDの上限
+    private static final int IDS_PER_REQUEST = 100;
+    //1リクエストのタイムアウト
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+
+    //コネクションプールを確立するストレージエンジン
+    private static final String POOLED_ENGINE = "mybatis";
+
+    //依存クラス
+    private final WarmupContext context;
+    private final StorageContext storageContext;
+    private final Environment environment;
+    private final ApplicationContext applicationContext;
+    private final HotKeyRecorder hotKeyRecorder;
+    private final CacheInvalidator cacheInvalidator;
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(REQUEST_TIMEOUT)
+            .build();
+
+    /**
+     * コンストラクタ
+     *
+     * @param context            ウォームアップの設定
+     * @param storageContext     コネクションプールを確立するかの判定に使用する
+     * @param environment        Webサーバーのポートの取得に使用する
+     * @param applicationContext コネクションプールの取得に使用する
+     * @param hotKeyRecorder     前回の起動で保存したホットキーの取得に使用する
+     * @param cacheInvalidator   1巡ごとのキャッシュの破棄に使用する
+     */
+    public WarmupRunner(WarmupContext context, StorageContext storageContext,
+                        Environment environment,
+                        ApplicationContext applicationContext, HotKeyRecorder hotKeyRecorder,
+                        CacheInvalidator cacheInvalidator) {
+        this.context = context;
+        this.storageContext = storageContext;
+        this.environment = environment;
+        this.applicationContext = applicationContext;
+        this.hotKeyRecorder = hotKeyRecorder;
+        this.cacheInvalidator = cacheInvalidator;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        long startNanos = System.nanoTime();
+        if (POOLED_ENGINE.equals(storageContext.getEngine())) {
+            try {
+                fillPools();
+            } catch (SQLException | RuntimeException e) {
+                //DBの一時的な停止などで起動を中断させない(リクエストの送信で接続を再度試みる)
+                logger.warn("Failed to fill connection pools, continuing warm-up", e);
+            }
+        }
+
+        String baseUrl = "http://localhost:" + environment.getProperty("local.server.port");
+        List<String> todoIds = prepareTodoIds(baseUrl);
+
+        AtomicLong rounds = new AtomicLong();
+        AtomicLong sent = new AtomicLong();
+        AtomicLong unexpected = new AtomicLong();
+        long endNanos = System.nanoTime() + context.getDuration().toNanos();
+        List<Long> roundMillis = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(context.getConcurrency());
+        try {
+            List<Future<List<Long>>> workers = new ArrayList<>();
+            for (int i = 0; i < context.getConcurrency(); i++) {
+                workers.add(executor.submit(() ->
+                        sendUntil(endNanos, baseUrl, todoIds, rounds, sent, unexpected)));
+            }
+            for (Future<List<Long>> worker : workers) {
+                roundMillis.addAll(worker.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        logger.info("Warm-up finished: {} requests ({} unexpected), {} ms, "
+                        + "first round {} ms, last round {} ms",
+                sent.get(), unexpected.get(), (System.nanoTime() - startNanos) / 1_000_000,
+                roundMillis.isEmpty() ? "-" : roundMillis.get(0),
+                roundMillis.isEmpty() ? "-" : roundMillis.get(roundMillis.size() - 1));
+    }
+
+    /**
+     * コネクションプールごとに接続を開始し、最小の接続数に達するまで待つ
+     */
+    private void fillPools() throws SQLException, InterruptedException {
+        long deadline = System.nanoTime() + context.getPoolFillTimeout().toNanos();
+        Map<String, HikariDataSource> pools =
+                applicationContext.getBeansOfType(HikariDataSource.class);
+        for (HikariDataSource pool : pools.values()) {
+            //最初の接続の取得でプールが開始し、残りはHikariCPが裏で確立する
+            try (Connection connection = pool.getConnection()) {
+                connection.isValid(1);
+            }
+        }
+        for (HikariDataSource pool : pools.values()) {
+            HikariPoolMXBean poolBean = pool.getHikariPoolMXBean();
+            while (poolBean.getTotalConnections() < pool.getMinimumIdle()
+                    && System.nanoTime() < deadline) {
+                Thread.sleep(50);
+            }
+            logger.info("Connection pool {}: {} connections", pool.getPoolName(),
+                    poolBean.getTotalConnections());
+        }
+    }
+
+    /**
+     * ホットキーを取得し、1件取得などに使用するtodoIdを決める
+     * 応答しない場合(DBへの接続待ちでタイムアウトした場合など)は、1件取得などを除いてウォームアップを続ける
+     *
+     * @return 1件取得・ID指定の複数件取得に使用するtodoId
+     */
+    private List<String> prepareTodoIds(String baseUrl) throws InterruptedException {
+        List<String> hotTodoIds = ids(hotKeyRecorder.hotTodos());
+        try {
+            preloadHotKeys(baseUrl, hotTodoIds, ids(hotKeyRecorder.hotTags()));
+            return hotTodoIds.isEmpty() ? sampleTodoIds(baseUrl)
+                    : hotTodoIds.subList(0, Math.min(SAMPLE_SIZE, hotTodoIds.size()));
+        } catch (IOException e) {
+            logger.warn("Failed to pre-load warm-up ids, continuing warm-up", e);
+            return List.of();
+        }
+    }
+
+    /**
+     * 前回の起動で保存したホットキーのtodo・タグを、ID指定の複数件取得でまとめて取得する
+     */
+    private void preloadHotKeys(String baseUrl, List<String> todoIds, List<String> tagIds)
+            throws IOException, InterruptedException {
+        if (todoIds.isEmpty() && tagIds.isEmpty()) {
+            return;
+        }
+        long startNanos = System.nanoTime();
+        getByIds(baseUrl + "/todos?ids=", todoIds);
+        getByIds(baseUrl + "/tags?ids=", tagIds);
+        logger.info("Pre-loaded hot keys: {} todos, {} tags, {} ms", todoIds.size(),
+                tagIds.size(), (System.nanoTime() - startNanos) / 1_000_000);
+    }
+
+    /**
+     * 1回に指定できる件数ずつに分けて、ID指定の複数件取得を送る
+     */
+    private void getByIds(String url, List<String> ids) throws IOException, InterruptedException {
+        for (int from = 0; from < ids.size(); from += IDS_PER_REQUEST) {
+            List<String> chunk = ids.subList(from, Math.min(from + IDS_PER_REQUEST, ids.size()));
+            client.send(request(url + String.join(",", chunk), "application/json").build(),
+                    HttpResponse.BodyHandlers.discarding());
+        }
+    }
+
+    private static List<String> ids(List<HotKey> hotKeys) {
+        return hotKeys.stream().map(hotKey -> String.valueOf(hotKey.getId())).toList();
+    }
+
+    /**
+     * 1件取得などに使用するtodoIdを一覧取得で取得する
+     */
+    private List<String> sampleTodoIds(String baseUrl) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(
+                request(baseUrl + "/todos?limit=" + SAMPLE_SIZE + "&fields=todoId",
+                        "application/json").build(), HttpResponse.BodyHandlers.ofString());
+        List<String> todoIds = new ArrayList<>();
+        Matcher matcher = TODO_ID.matcher(response.body());
+        while (matcher.find()) {
+            todoIds.add(matcher.group(1));
+        }
+        return todoIds;
+    }
+
+    /**
+     * 1巡で送るリクエスト
+     * 一覧取得は巡ごとに件数(SAMPLE_SIZE以上、その2倍未満)・タイトルの条件を変え、
+     * 総件数(推定・正確)、タグ一覧(全件・名前の条件あり)は奇数・偶数の巡で交互に取得する
+     *
+     * @param todoIds 1件取得・ID指定の複数件取得に使用するtodoId
+     * @param round   何巡目か(0始まり)
+     */
+    private List<WarmupRequest> requests(List<String> todoIds, long round) {
+        String limit = "/todos?limit=" + (SAMPLE_SIZE + round % SAMPLE_SIZE);
+        char title = TITLES.charAt((int) (round % TITLES.length()));
+        boolean even = round % 2 == 0;
+        String count = even ? "&count=estimated" : "&count=exact";
+        List<WarmupRequest> requests = new ArrayList<>(List.of(
+                new WarmupRequest(limit, "application/json", 200),
+                new WarmupRequest(limit + "&fields=todoId,title" + count,
+                        "application/json", 200),
+                new WarmupRequest(limit + "&title=" + title + count, "application/cbor", 200),
+                new WarmupRequest(even ? "/tags" : "/tags?name=" + title,
+                        "application/json", 200),
+                //エラーレスポンス(存在しないtodo、入力チェックのエラー)
+                new WarmupRequest("/todos/0", "application/json", 404),
+                new WarmupRequest("/todos?limit=0", "application/json", 400)));
+        for (String todoId : todoIds) {
+            requests.add(new WarmupRequest("/todos/" + todoId, "application/json", 200));
+        }
+        if (!todoIds.isEmpty()) {
+            requests.add(new WarmupRequest("/todos?ids=" + String.join(",", todoIds),
+                    "application/json", 200));
+        }
+        return requests;
+    }
+
+    /**
+     * 終了時刻まで、リクエストを1巡ずつ送り続ける
+     * 各巡の開始時にキャッシュを破棄する(自ノードのみ。他ノードへは通知しない)
+     * 応答のないリクエスト(タイムアウトなど)は、想定外の応答として数えて次のリクエストへ進む
+     *
+     * @param rounds 送信を開始した巡の数(並行する巡で一覧取得の条件が重ならないよう、全スレッドで共有する)
+     * @return 1巡ごとにかかった時間(ミリ秒)
+     */
+    private List<Long> sendUntil(long endNanos, String baseUrl, List<String> todoIds,
+                                 AtomicLong rounds, AtomicLong sent, AtomicLong unexpected)
+            throws Exception {
+        List<Long> roundMillis = new ArrayList<>();
+        while (System.nanoTime() < endNanos) {
+            long roundStart = System.nanoTime();
+            cacheInvalidator.flushAll();
+            for (WarmupRequest warmupRequest : requests(todoIds, rounds.getAndIncrement())) {
+                HttpResponse<byte[]> response;
+                try {
+                    response = client.send(
+                            request(baseUrl + warmupRequest.getPath(), warmupRequest.getAccept())
+                                    .header("Accept-Encoding", "gzip").build(),
+                            HttpResponse.BodyHandlers.ofByteArray());
+                } catch (IOException e) {
+                    sent.incrementAndGet();
+                    unexpected.incrementAndGet();
+                    logger.debug("Warm-up request failed: {} {}", warmupRequest.getPath(),
+                            e.toString());
+                    continue;
+                }
+                sent.incrementAndGet();
+                if (response.statusCode() != warmupRequest.getExpectedStatus()) {
+                    unexpected.incrementAndGet();
+                    logger.debug("Unexpected warm-up response: {} {}", warmupRequest.getPath(),
+                            response.statusCode());
+                }
+            }
+            roundMillis.add((System.nanoTime() - roundStart) / 1_000_000);
+        }
+        return roundMillis;
+    }
+
+    private HttpRequest.Builder request(String url, String accept) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Accept", accept);
+    }
+
+    /**
+     * ウォームアップで送るリクエスト
+     */
+    @Value
+    private static class WarmupRequest {
+        //パス(クエリを含む)
+        String path;
+        //返却される形式
+        String accept;
+        //期待するステータス
+        int expectedStatus;
+    }
+}
@@ -1,12 +1,16 @@
 package jp.aevic.todo.entity.tag;
 
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 /**
  * TagのEntityクラス
  * 
  */
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class TagEntity {
     // tagID
     private int tagId;
@@ -0,0 +1,40 @@
+package jp.aevic.todo.logic.service.bulk;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * 一括取込・一括出力のファイル形式の列挙型
+ */
+@Getter
+@AllArgsConstructor
+public enum BulkFormat {
+    //カンマ区切り(1行目はヘッダ)
+    CSV("text/csv", ".csv"),
+    //1行1件のJSON
+    NDJSON("application/x-ndjson", ".ndjson");
+
+    //Content-Type
+    private final String mediaType;
+    //ファイルの拡張子
+    private final String extension;
+
+    /**
+     * ファイル名の拡張子から形式を判定する
+     * 圧縮ファイル(.gz)の場合は、その前の拡張子で判定する
+     *
+     * @param fileName ファイル名
+     * @return 判定した形式(判定できない場合は空)
+     */
+    public static Optional<BulkFormat> fromFileName(String fileName) {
+        String name = fileName.toLowerCase(Locale.ROOT);
+        String withoutGzip = name.endsWith(".gz") ? name.substring(0, name.length() - 3) : name;
+        return Arrays.stream(values())
+                .filter(format -> withoutGzip.endsWith(format.getExtension()))
+                .findFirst();
+    }
+}
@@ -0,0 +1,22 @@
+package jp.aevic.todo.logic.service.bulk;
+
+/**
+ * 一括取込で取り込まなかった行の理由の列挙型
+ * 名前はそのまま取込結果に出力する(ステージングテーブルでの判定はMapperのXMLで同じ名前を使用している)
+ */
+public enum ImportRejectReason {
+    //JSONとして解析できない行
+    INVALID_JSON,
+    //タイトルが未入力、または長すぎる
+    INVALID_TITLE,
+    //コンテンツが未入力、または長すぎる
+    INVALID_CONTENT,
+    //タグのIDが数値でない
+    INVALID_TAG_ID,
+    //紐づけるタグが上限数を超えている
+    TOO_MANY_TAGS,
+    //同じタグを重複して指定している
+    DUPLICATE_TAG_ID,
+    //存在しないタグを指定している
+    TAG_NOT_FOUND
+}
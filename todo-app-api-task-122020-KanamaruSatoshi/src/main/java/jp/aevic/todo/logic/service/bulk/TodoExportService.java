@@ -0,0 +1,297 @@
+package jp.aevic.todo.logic.service.bulk;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPOutputStream;
+
+import javax.sql.DataSource;
+
+import org.postgresql.PGConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.support.SQLStateSQLExceptionTranslator;
+import org.springframework.stereotype.Service;
+
+/**
+ * todo一括出力のServiceクラス
+ * <p>
+ * タグ名を集約したtodoをPostgreSQLのCOPY TO STDOUTで出力し、
+ * ドライバが受信したデータをそのまま出力先へ書き込む(TodoEntityは生成しない)。
+ * ファイル出力ではtodoIdの範囲ごとに並列に出力し、全範囲で同じスナップショットを参照する。
+ * </p>
+ */
+@Service
+public class TodoExportService {
+    //ログ出力
+    private final Logger logger = LoggerFactory.getLogger(TodoExportService.class);
+
+    //CSVの出力内容(tagsは|区切りのタグ名)
+    private static final String CSV_SELECT = """
+            SELECT
+                TODO.TODO_ID,
+                TODO.TITLE,
+                TODO.CONTENT,
+                TODO.VERSION,
+                COALESCE(STRING_AGG(TAG.NAME, '|' ORDER BY TAG.TAG_ID), '') AS TAGS
+            FROM
+                TODO
+                LEFT JOIN TODO_TAG ON TODO.TODO_ID = TODO_TAG.TODO_ID
+                LEFT JOIN TAG ON TODO_TAG.TAG_ID = TAG.TAG_ID
+            %s
+            GROUP BY TODO.TODO_ID, TODO.TITLE, TODO.CONTENT, TODO.VERSION
+            ORDER BY TODO.TODO_ID
+            """;
+    //NDJSONの出力内容(APIのレスポンスと同じ形式)
+    private static final String NDJSON_SELECT = """
+            SELECT
+                JSON_BUILD_OBJECT(
+                    'todoId', TODO.TODO_ID,
+                    'title', TODO.TITLE,
+                    'content', TODO.CONTENT,
+                    'version', TODO.VERSION,
+                    'tags', COALESCE(
+                        JSON_AGG(JSON_BUILD_OBJECT(
+                            'tagId', TAG.TAG_ID, 'name', TAG.NAME, 'version', TAG.VERSION)
+                            ORDER BY TAG.TAG_ID) FILTER (WHERE TAG.TAG_ID IS NOT NULL),
+                        '[]'::JSON)
+                )::TEXT
+            FROM
+                TODO
+                LEFT JOIN TODO_TAG ON TODO.TODO_ID = TODO_TAG.TODO_ID
+                LEFT JOIN TAG ON TODO_TAG.TAG_ID = TAG.TAG_ID
+            %s
+            GROUP BY TODO.TODO_ID, TODO.TITLE, TODO.CONTENT, TODO.VERSION
+            ORDER BY TODO.TODO_ID
+            """;
+    //CSVはヘッダ付きで出力する
+    private static final String COPY_CSV = "COPY (%s) TO STDOUT (FORMAT csv, HEADER true)";
+    //NDJSONは1列のCSVとして出力する
+    //JSONの文字列は制御文字・改行をエスケープ済みのため、引用符・区切り文字に使用しない制御文字を指定すると
+    //CSVの引用やTEXT形式のバックスラッシュのエスケープが行われず、JSONがそのまま1行ずつ出力される
+    private static final String COPY_NDJSON =
+            "COPY (%s) TO STDOUT (FORMAT csv, QUOTE E'\\x01', DELIMITER E'\\x02')";
+    //出力時のバッファサイズ(バイト数)
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+
+    //依存クラス
+    private final DataSource dataSource;
+
+    /**
+     * コンストラクタ
+     *
+     * @param dataSource COPYを実行するコネクションの取得元
+     */
+    public TodoExportService(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * todo一括出力
+     * 1回のCOPYで出力するため、出力内容は開始時点のスナップショットとなる
+     *
+     * @param format 出力形式
+     * @param fromId 出力するtodoIdの下限(nullの場合は指定なし)
+     * @param toId   出力するtodoIdの上限(nullの場合は指定なし)
+     * @param output 出力先
+     * @return 出力した件数
+     */
+    public long export(BulkFormat format, Long fromId, Long toId, OutputStream output) {
+        long startNanos = System.nanoTime();
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setReadOnly(true);
+            long rows = copyOut(connection, buildCopySql(format, fromId, toId), output);
+            logThroughput("Exported", rows, startNanos);
+            return rows;
+        } catch (SQLException e) {
+            throw new SQLStateSQLExceptionTranslator().translate("COPY", null, e);
+        }
+    }
+
+    /**
+     * todoIdの範囲を分けて、並列にファイルへ一括出力する
+     * 出力ファイル名は todos-(連番).(拡張子)[.gz] とする
+     * 各範囲は同じスナップショット(pg_export_snapshot)を参照するため、出力中の更新は含まれない
+     *
+     * @param format     出力形式
+     * @param directory  出力先のディレクトリ
+     * @param partitions 並列に出力する数
+     * @param gzip       gzipで圧縮するか
+     * @return 出力した件数
+     */
+    public long exportToFiles(BulkFormat format, Path directory, int partitions, boolean gzip) {
+        long startNanos = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(partitions);
+        // スナップショットは、エクスポートしたトランザクションが終了するまで参照できる
+        try (Connection coordinator = dataSource.getConnection()) {
+            beginSnapshotTransaction(coordinator);
+            String snapshotId;
+            long minId;
+            long maxId;
+            try (Statement statement = coordinator.createStatement();
+                 ResultSet resultSet = statement.executeQuery(
+                         "SELECT PG_EXPORT_SNAPSHOT(), MIN(TODO_ID), MAX(TODO_ID) FROM TODO")) {
+                resultSet.next();
+                snapshotId = resultSet.getString(1);
+                minId = resultSet.getLong(2);
+                maxId = resultSet.getLong(3);
+            }
+            Files.createDirectories(directory);
+
+            // todoIdの値の範囲で等分する(採番順に登録されるため、件数もおおむね等分される)
+            long rangeSize = Math.max((maxId - minId + partitions) / partitions, 1);
+            List<Future<Long>> results = new ArrayList<>();
+            for (int i = 0; i < partitions; i++) {
+                long fromId = minId + rangeSize * i;
+                long toId = i == partitions - 1 ? maxId : fromId + rangeSize - 1;
+                Path file = directory.resolve(String.format("todos-%03d%s%s", i + 1,
+                        format.getExtension(), gzip ? ".gz" : ""));
+                results.add(executor.submit(() ->
+                        exportPartition(format, snapshotId, fromId, toId, file, gzip)));
+            }
+            long rows = 0;
+            for (Future<Long> result : results) {
+                rows += result.get();
+            }
+            coordinator.rollback();
+            logThroughput("Exported (" + partitions + " partitions)", rows, startNanos);
+            return rows;
+        } catch (SQLException e) {
+            throw new SQLStateSQLExceptionTranslator().translate("COPY", null, e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Export interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Export partition failed.", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * todoIdの範囲1つ分をファイルへ出力する
+     *
+     * @param format     出力形式
+     * @param snapshotId 参照するスナップショット
+     * @param fromId     出力するtodoIdの下限
+     * @param toId       出力するtodoIdの上限
+     * @param file       出力先のファイル
+     * @param gzip       gzipで圧縮するか
+     * @return 出力した件数
+     * @throws SQLException COPYに失敗した場合
+     * @throws IOException  ファイルの書き込みに失敗した場合
+     */
+    private long exportPartition(BulkFormat format, String snapshotId, long fromId, long toId,
+                                 Path file, boolean gzip) throws SQLException, IOException {
+        long startNanos = System.nanoTime();
+        try (Connection connection = dataSource.getConnection();
+             OutputStream output = openFile(file, gzip)) {
+            beginSnapshotTransaction(connection);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET TRANSACTION SNAPSHOT '" + snapshotId + "'");
+            }
+            long rows = copyOut(connection, buildCopySql(format, fromId, toId), output);
+            connection.rollback();
+            logThroughput("Exported " + file.getFileName(), rows, startNanos);
+            return rows;
+        }
+    }
+
+    /**
+     * スナップショットを共有するための読み取り専用のトランザクションを開始する
+     *
+     * @param connection 使用するコネクション
+     * @throws SQLException 設定に失敗した場合
+     */
+    private void beginSnapshotTransaction(Connection connection) throws SQLException {
+        connection.setAutoCommit(false);
+        connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+        connection.setReadOnly(true);
+    }
+
+    /**
+     * COPY TO STDOUTの結果を出力先へ書き込む
+     *
+     * @param connection COPYを実行するコネクション
+     * @param sql        COPY文
+     * @param output     出力先
+     * @return 出力した件数
+     * @throws SQLException COPYに失敗した場合
+     */
+    private long copyOut(Connection connection, String sql, OutputStream output)
+            throws SQLException {
+        try {
+            long rows = connection.unwrap(PGConnection.class).getCopyAPI().copyOut(sql, output);
+            output.flush();
+            return rows;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * COPY文を生成する
+     * COPYはバインド変数を使用できないため、数値の範囲のみを埋め込む
+     *
+     * @param format 出力形式
+     * @param fromId 出力するtodoIdの下限(nullの場合は指定なし)
+     * @param toId   出力するtodoIdの上限(nullの場合は指定なし)
+     * @return COPY文
+     */
+    private String buildCopySql(BulkFormat format, Long fromId, Long toId) {
+        List<String> conditions = new ArrayList<>();
+        if (fromId != null) {
+            conditions.add("TODO.TODO_ID >= " + fromId.longValue());
+        }
+        if (toId != null) {
+            conditions.add("TODO.TODO_ID <= " + toId.longValue());
+        }
+        String where = conditions.isEmpty() ? "" : "WHERE " + String.join(" AND ", conditions);
+        return switch (format) {
+            case CSV -> String.format(COPY_CSV, String.format(CSV_SELECT, where));
+            case NDJSON -> String.format(COPY_NDJSON, String.format(NDJSON_SELECT, where));
+        };
+    }
+
+    /**
+     * 出力先のファイルを開く
+     *
+     * @param file 出力先のファイル
+     * @param gzip gzipで圧縮するか
+     * @return 出力先
+     * @throws IOException 開けなかった場合
+     */
+    private OutputStream openFile(Path file, boolean gzip) throws IOException {
+        OutputStream output = Files.newOutputStream(file);
+        return gzip ? new GZIPOutputStream(output, OUTPUT_BUFFER_SIZE)
+                : new BufferedOutputStream(output, OUTPUT_BUFFER_SIZE);
+    }
+
+    /**
+     * 出力件数と1秒あたりの件数をログに出力する
+     *
+     * @param label      出力内容
+     * @param rows       出力した件数
+     * @param startNanos 開始時刻
+     */
+    private void logThroughput(String label, long rows, long startNanos) {
+        long elapsedMillis = Math.max((System.nanoTime() - startNanos) / 1_000_000, 1);
+        logger.info("{}: {} rows in {} ms ({} rows/s).",
+                label, rows, elapsedMillis, rows * 1000 / elapsedMillis);
+    }
+}
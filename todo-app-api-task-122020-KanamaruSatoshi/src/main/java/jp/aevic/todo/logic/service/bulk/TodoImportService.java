@@ -0,0 +1,350 @@
+package jp.aevic.todo.logic.service.bulk;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.StringJoiner;
+
+import javax.sql.DataSource;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.support.SQLStateSQLExceptionTranslator;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.validation.Validator;
+import jakarta.validation.constraints.Size;
+import jakarta.validation.metadata.ConstraintDescriptor;
+import jp.aevic.todo.core.cache.CacheInvalidator;
+import jp.aevic.todo.core.cache.CachedEntityType;
+import jp.aevic.todo.core.exception.exception.BadRequestException;
+import jp.aevic.todo.core.exception.statics.ErrorCodes;
+import jp.aevic.todo.form.todo.TodoPostForm;
+import jp.aevic.todo.mapper.bulk.TodoImportMapper;
+import jp.aevic.todo.response.ImportResult;
+import jp.aevic.todo.response.ImportResult.RejectedRow;
+import jp.aevic.todo.util.context.BulkImportContext;
+import jp.aevic.todo.util.context.DenormalizedTagsContext;
+import jp.aevic.todo.util.context.LimitContext;
+
+/**
+ * todo一括取込のServiceクラス
+ * <p>
+ * 入力をPostgreSQLのCOPYでステージングテーブル(一時テーブル)へ流し込み、
+ * 入力チェックとタグの存在チェックをSQLでまとめて行った後、TODO/TODO_TAGへ一括登録する。
+ * 入力は先頭から順に読みながら送信するため、ファイルの大きさに関わらずメモリ使用量は一定となる。
+ * 取り込めない行は取り込まずに理由を記録し、それ以外の行は取り込む。
+ * </p>
+ */
+@Service
+public class TodoImportService {
+    //ログ出力
+    private final Logger logger = LoggerFactory.getLogger(TodoImportService.class);
+
+    //CSVはそのままステージングテーブルへ流し込む(行番号は取り込んだ順に採番される)
+    private static final String COPY_CSV =
+            "COPY TODO_IMPORT_STAGING (TITLE, CONTENT, TAG_IDS)"
+                    + " FROM STDIN (FORMAT csv, HEADER true)";
+    //NDJSONは1行ずつ解析し、行番号と解析結果をCSVとして流し込む
+    private static final String COPY_PARSED =
+            "COPY TODO_IMPORT_STAGING (ROW_NO, TITLE, CONTENT, TAG_IDS, REJECT_REASON)"
+                    + " FROM STDIN (FORMAT csv)";
+    //COPYへ送信する単位(バイト数)
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+    //CSVのtags列でのtagIdの区切り文字
+    private static final String TAG_ID_DELIMITER = "|";
+
+    //依存クラス
+    private final DataSource dataSource;
+    private final TodoImportMapper mapper;
+    private final LimitContext limitContext;
+    private final BulkImportContext context;
+    private final DenormalizedTagsContext denormalizedTagsContext;
+    private final CacheInvalidator cacheInvalidator;
+    private final ObjectMapper objectMapper;
+    //タイトル・コンテンツの最大文字数(TodoPostFormの入力チェックの@Sizeから取得する)
+    private final int titleMaxLength;
+    private final int contentMaxLength;
+
+    /**
+     * コンストラクタ
+     *
+     * @param dataSource              COPYを実行するコネクションの取得元
+     * @param mapper                  一括取込用のMapper
+     * @param limitContext            タグの紐づけ上限数の設定
+     * @param context                 一括取込の設定
+     * @param denormalizedTagsContext TODO.TAGS列の設定
+     * @param cacheInvalidator        キャッシュの無効化を行うクラス
+     * @param objectMapper            NDJSONの解析に使用するObjectMapper
+     * @param validator               最大文字数を取得する入力チェック
+     */
+    public TodoImportService(DataSource dataSource, TodoImportMapper mapper,
+            LimitContext limitContext, BulkImportContext context,
+            DenormalizedTagsContext denormalizedTagsContext,
+            CacheInvalidator cacheInvalidator, ObjectMapper objectMapper,
+            Validator validator) {
+        this.dataSource = dataSource;
+        this.mapper = mapper;
+        this.limitContext = limitContext;
+        this.context = context;
+        this.denormalizedTagsContext = denormalizedTagsContext;
+        this.cacheInvalidator = cacheInvalidator;
+        this.objectMapper = objectMapper;
+        this.titleMaxLength = maxLength(validator, "title");
+        this.contentMaxLength = maxLength(validator, "content");
+    }
+
+    /**
+     * todo一括取込
+     * 1トランザクションで取り込み、途中でエラーが発生した場合は1件も取り込まない
+     *
+     * @param input  取込データ
+     * @param format 取込データの形式
+     * @return 取込結果
+     */
+    @Transactional
+    public ImportResult importTodos(InputStream input, BulkFormat format) {
+        long startNanos = System.nanoTime();
+
+        // ステージングテーブルへ流し込み
+        mapper.createStagingTable();
+        long staged = copyToStaging(input, format);
+        mapper.createTagStagingTable();
+        mapper.analyzeStagingTables();
+
+        // 入力チェック、タグの存在チェック
+        // チェックの前にタグをロックし、並行して削除されたタグはTAG_NOT_FOUNDとする(登録時の外部キー違反としない)
+        mapper.lockStagedTags(denormalizedTagsContext.isEnabled());
+        mapper.markRejected(titleMaxLength, contentMaxLength,
+                limitContext.getLinkedTagLimit());
+
+        // todo、todo_tagへ一括登録
+        mapper.createAcceptedTable();
+        long imported = mapper.insertTodos();
+        mapper.insertTodoTags();
+        if (denormalizedTagsContext.isEnabled()) {
+            // タグなしのtodoは列の既定値(空の配列)のまま
+            mapper.updateImportedTags();
+        }
+        if (imported > 0) {
+            // コミット後に一覧取得のキャッシュを無効にする
+            cacheInvalidator.invalidateAll(CachedEntityType.TODO);
+        }
+
+        // 取り込めなかった行は上限件数まで返却する
+        long rejected = staged - imported;
+        List<RejectedRow> rejectedRows = rejected == 0 ? List.of()
+                : mapper.selectRejected(context.getMaxReportedRejections());
+
+        long elapsedMillis = Math.max((System.nanoTime() - startNanos) / 1_000_000, 1);
+        logger.info("Imported {} todos ({} rejected) in {} ms ({} rows/s).",
+                imported, rejected, elapsedMillis, staged * 1000 / elapsedMillis);
+        return new ImportResult(imported, rejected, rejectedRows,
+                rejected > rejectedRows.size());
+    }
+
+    /**
+     * 取込データをステージングテーブルへ流し込む
+     *
+     * @param input  取込データ
+     * @param format 取込データの形式
+     * @return 流し込んだ件数
+     */
+    private long copyToStaging(InputStream input, BulkFormat format) {
+        // MyBatisと同じトランザクションのコネクションを使用する(一時テーブルはコネクションごとのため)
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            return switch (format) {
+                case CSV -> copyManager.copyIn(COPY_CSV, input, COPY_BUFFER_SIZE);
+                case NDJSON -> copyParsedNdjson(copyManager, input);
+            };
+        } catch (SQLException e) {
+            // 列数の不一致や文字コードの不正など、データの形式が不正な場合(SQLState 22xxx)は400を返す
+            if (e.getSQLState() != null && e.getSQLState().startsWith("22")) {
+                logger.debug("Import file rejected by COPY: {}", e.getMessage());
+                throw new BadRequestException(ErrorCodes.INVALID_IMPORT_FILE);
+            }
+            throw new SQLStateSQLExceptionTranslator().translate("COPY", null, e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    /**
+     * NDJSONを1行ずつ解析し、ステージングテーブルへ流し込む
+     * 解析できない行は、理由を設定して流し込む(取込結果に含めるため)
+     *
+     * @param copyManager COPYの実行に使用するCopyManager
+     * @param input       取込データ
+     * @return 流し込んだ件数
+     * @throws SQLException COPYに失敗した場合
+     * @throws IOException  取込データの読み込みに失敗した場合
+     */
+    private long copyParsedNdjson(CopyManager copyManager, InputStream input)
+            throws SQLException, IOException {
+        CopyIn copyIn = copyManager.copyIn(COPY_PARSED);
+        try {
+            BufferedReader reader =
+                    new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+            StringBuilder buffer = new StringBuilder(COPY_BUFFER_SIZE);
+            long lineNo = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                // 空行は読み飛ばす(行番号はファイルの行番号とする)
+                if (line.isBlank()) {
+                    continue;
+                }
+                appendParsedRow(buffer, lineNo, line);
+                if (buffer.length() >= COPY_BUFFER_SIZE) {
+                    writeToCopy(copyIn, buffer);
+                }
+            }
+            writeToCopy(copyIn, buffer);
+            return copyIn.endCopy();
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+    }
+
+    /**
+     * NDJSONの1行を解析し、ステージングテーブルの1行(CSV)として追加する
+     *
+     * @param buffer 追加先
+     * @param lineNo 行番号
+     * @param line   NDJSONの1行
+     */
+    private void appendParsedRow(StringBuilder buffer, long lineNo, String line) {
+        String title = null;
+        String content = null;
+        String tagIds = null;
+        ImportRejectReason reason = null;
+        try {
+            JsonNode node = objectMapper.readTree(line);
+            if (!node.isObject()) {
+                reason = ImportRejectReason.INVALID_JSON;
+            } else {
+                title = textOrNull(node.get("title"));
+                content = textOrNull(node.get("content"));
+                JsonNode tags = node.get("tags");
+                if (tags != null && !tags.isNull()) {
+                    tagIds = joinTagIds(tags);
+                    if (tagIds == null) {
+                        reason = ImportRejectReason.INVALID_TAG_ID;
+                    }
+                }
+            }
+        } catch (JsonProcessingException e) {
+            reason = ImportRejectReason.INVALID_JSON;
+        }
+
+        buffer.append(lineNo).append(',');
+        appendCsvField(buffer, title);
+        buffer.append(',');
+        appendCsvField(buffer, content);
+        buffer.append(',');
+        appendCsvField(buffer, tagIds);
+        buffer.append(',');
+        appendCsvField(buffer, reason == null ? null : reason.name());
+        buffer.append('\n');
+    }
+
+    /**
+     * TodoPostFormの項目の最大文字数を取得する
+     * APIの登録と一括取込で、同じ長さまでを受け付けるようにする
+     *
+     * @param validator 入力チェック
+     * @param property  項目名
+     * @return 項目の@Sizeのmax
+     */
+    private static int maxLength(Validator validator, String property) {
+        return validator.getConstraintsForClass(TodoPostForm.class)
+                .getConstraintsForProperty(property)
+                .getConstraintDescriptors().stream()
+                .map(ConstraintDescriptor::getAnnotation)
+                .filter(Size.class::isInstance)
+                .mapToInt(annotation -> ((Size) annotation).max())
+                .min()
+                .orElseThrow(() -> new IllegalStateException(
+                        "TodoPostForm." + property + " has no @Size constraint"));
+    }
+
+    /**
+     * 文字列の項目の値を取得する
+     *
+     * @param node 項目
+     * @return 文字列の場合はその値、それ以外はnull(入力チェックで取り込めない行となる)
+     */
+    private String textOrNull(JsonNode node) {
+        return node != null && node.isTextual() ? node.asText() : null;
+    }
+
+    /**
+     * tagIdの配列をCSVのtags列と同じ形式(|区切り)にする
+     *
+     * @param tags tagIdの配列
+     * @return |区切りのtagId(配列でない場合、整数でない要素を含む場合はnull)
+     */
+    private String joinTagIds(JsonNode tags) {
+        if (!tags.isArray()) {
+            return null;
+        }
+        StringJoiner joiner = new StringJoiner(TAG_ID_DELIMITER);
+        for (JsonNode tag : tags) {
+            if (!tag.isIntegralNumber()) {
+                return null;
+            }
+            joiner.add(tag.asText());
+        }
+        return joiner.toString();
+    }
+
+    /**
+     * CSVの1項目を追加する(nullは空の項目、それ以外は引用符で囲む)
+     *
+     * @param buffer 追加先
+     * @param value  値
+     */
+    private void appendCsvField(StringBuilder buffer, String value) {
+        if (value == null) {
+            return;
+        }
+        buffer.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+
+    /**
+     * バッファの内容をCOPYへ送信し、バッファを空にする
+     *
+     * @param copyIn 送信先
+     * @param buffer 送信する内容
+     * @throws SQLException 送信に失敗した場合
+     */
+    private void writeToCopy(CopyIn copyIn, StringBuilder buffer) throws SQLException {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        buffer.setLength(0);
+    }
+}
@@ -0,0 +1,41 @@
+package jp.aevic.todo.logic.service.tag;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import jp.aevic.todo.core.deadline.ReactiveDeadline;
+import jp.aevic.todo.entity.tag.TagEntity;
+import jp.aevic.todo.storage.r2dbc.R2dbcTagReader;
+import reactor.core.publisher.Flux;
+
+/**
+ * tagの読み込みをR2DBCで行うServiceクラス
+ * 一覧取得のキャッシュは使用せず、毎回DBから読み込む。書き込みはTagServiceで行う
+ */
+@Service
+@ConditionalOnProperty(prefix = "todo.reactive-read", name = "enabled", havingValue = "true")
+public class ReactiveTagService {
+
+    // DI対象クラス
+    private final R2dbcTagReader reader;
+
+    /**
+     * コンストラクタ
+     * 
+     * @param reader
+     */
+    public ReactiveTagService(R2dbcTagReader reader) {
+        // コンストラクタインジェクション
+        this.reader = reader;
+    }
+
+    /**
+     * 一覧取得
+     * 
+     * @param name
+     * @return
+     */
+    public Flux<TagEntity> getAllTags(String name) {
+        return ReactiveDeadline.apply(reader.selectAll(name));
+    }
+}
@@ -1,35 +1,53 @@
 package jp.aevic.todo.logic.service.tag;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+import io.micrometer.observation.annotation.Observed;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import jp.aevic.todo.core.cache.CacheInvalidator;
+import jp.aevic.todo.core.cache.CachedEntityType;
 import jp.aevic.todo.core.exception.exception.NotFoundException;
 import jp.aevic.todo.core.exception.exception.OptimisticLockException;
 import jp.aevic.todo.core.exception.statics.ErrorCodes;
+import jp.aevic.todo.core.hotkey.HotKeyRecorder;
 import jp.aevic.todo.entity.tag.TagEntity;
-import jp.aevic.todo.mapper.tag.TagMapper;
 import jp.aevic.todo.queryCondition.tag.GetTagsQueryCondition;
+import jp.aevic.todo.response.MultiGetResult;
+import jp.aevic.todo.storage.TagStorage;
 
 /**
  * ビジネスロジック用のServiceクラス
  * 
  */
 @Service
+@Observed(name = "todo.service")
 public class TagService {
 
     // DI対象クラス
-    private final TagMapper mapper;
+    private final TagStorage storage;
+    private final CacheInvalidator cacheInvalidator;
+    private final HotKeyRecorder hotKeyRecorder;
 
     /**
      * コンストラクタ
      * 
-     * @param mapper
+     * @param storage
+     * @param cacheInvalidator
+     * @param hotKeyRecorder
      */
-    public TagService(TagMapper mapper) {
+    public TagService(TagStorage storage, CacheInvalidator cacheInvalidator,
+            HotKeyRecorder hotKeyRecorder) {
         // コンストラクタインジェクション
-        this.mapper = mapper;
+        this.storage = storage;
+        this.cacheInvalidator = cacheInvalidator;
+        this.hotKeyRecorder = hotKeyRecorder;
     }
 
     /**
@@ -39,7 +57,10 @@ public class TagService {
      * @return
      */
     public int postTag(TagEntity tagEntity) {
-        mapper.insertTag(tagEntity);
+        storage.insertTag(tagEntity);
+        // 一覧取得のキャッシュを無効にする
+        cacheInvalidator.invalidate(CachedEntityType.TAG, tagEntity.getTagId(),
+                tagEntity.getVersion());
         return tagEntity.getTagId();
     }
 
@@ -50,17 +71,43 @@ public class TagService {
      * @return
      */
     public TagEntity getTagById(int tagId) {
+        // よく参照されるタグとして記録
+        hotKeyRecorder.recordTag(tagId);
         return findTodoOrThrow(tagId);
     }
 
+    /**
+     * ID指定の複数件取得
+     * 1回のクエリでまとめて取得し、リクエストされた順で返却する
+     * 
+     * @param tagIds
+     * @return 存在しないIDはfound=falseとした取得結果
+     */
+    public List<MultiGetResult<TagEntity>> getTagsByIds(List<Integer> tagIds) {
+        hotKeyRecorder.recordTags(tagIds);
+        // 重複を除いたIDでまとめて検索
+        List<Integer> distinctIds = tagIds.stream().distinct().toList();
+        Map<Integer, TagEntity> foundTags = storage.selectByIds(distinctIds).stream()
+                .collect(Collectors.toMap(TagEntity::getTagId, Function.identity()));
+
+        // リクエスト順に結果を詰め直す
+        return tagIds.stream()
+                .map(tagId -> new MultiGetResult<>(tagId, foundTags.containsKey(tagId),
+                        foundTags.get(tagId)))
+                .toList();
+    }
+
     /**
      * 全件取得
+     * 検索条件と世代番号をキーにキャッシュする
      * 
      * @param queryCondition
      * @return
      */
+    @Cacheable(cacheNames = "tagList", key = "{#queryCondition, @dataGeneration.current()}",
+            sync = true)
     public List<TagEntity> getAllTags(GetTagsQueryCondition queryCondition) {
-        return mapper.selectAll(queryCondition);
+        return storage.selectAll(queryCondition);
     }
 
     /**
@@ -69,14 +116,19 @@ public class TagService {
      * @param tagEntity
      * @return
      */
+    @Transactional
     public void putTag(TagEntity tagEntity) {
         // 存在チェック
         findTodoOrThrow(tagEntity.getTagId());
 
         // 更新処理
-        int updatedNum = mapper.updateTag(tagEntity);
+        int updatedNum = storage.updateTag(tagEntity);
         // 楽観ロックチェック
         updateOrDeleteFailedOrThrow(updatedNum);
+
+        // todo一覧にもタグ名が含まれるため、todo・tag両方のキャッシュを無効にする
+        cacheInvalidator.invalidate(CachedEntityType.TAG, tagEntity.getTagId(),
+                tagEntity.getVersion() + 1);
     }
 
     /**
@@ -84,14 +136,19 @@ public class TagService {
      * 
      * @param tagEntity
      */
+    @Transactional
     public void deleteTag(TagEntity tagEntity) {
         // 存在チェック
         findTodoOrThrow(tagEntity.getTagId());
 
         // 削除処理
-        int deletedNum = mapper.deleteTag(tagEntity);
+        int deletedNum = storage.deleteTag(tagEntity);
         // 楽観ロックチェック
         updateOrDeleteFailedOrThrow(deletedNum);
+
+        // todo一覧にもタグ名が含まれるため、todo・tag両方のキャッシュを無効にする
+        cacheInvalidator.invalidate(CachedEntityType.TAG, tagEntity.getTagId(),
+                tagEntity.getVersion());
     }
 
     /**
@@ -102,7 +159,7 @@ public class TagService {
      */
     private TagEntity findTodoOrThrow(int tagId) {
         // todoIdよりtodoを検索
-        TagEntity resultEntity = mapper.selectById(tagId);
+        TagEntity resultEntity = storage.selectById(tagId);
         // todoが存在しなかった場合、404NotFoundを投げる
         if (Objects.isNull(resultEntity)) {
             // 404 notFound
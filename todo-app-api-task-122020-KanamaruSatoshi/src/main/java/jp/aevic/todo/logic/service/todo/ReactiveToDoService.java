@@ -0,0 +1,58 @@
+package jp.aevic.todo.logic.service.todo;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import jp.aevic.todo.core.deadline.ReactiveDeadline;
+import jp.aevic.todo.core.exception.exception.NotFoundException;
+import jp.aevic.todo.core.exception.statics.ErrorCodes;
+import jp.aevic.todo.entity.todo.TodoEntity;
+import jp.aevic.todo.storage.r2dbc.R2dbcTodoReader;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * todoの読み込みをR2DBCで行うServiceクラス
+ * 一覧取得のキャッシュは使用せず、毎回DBから読み込む。書き込みはToDoServiceで行う
+ */
+@Service
+@ConditionalOnProperty(prefix = "todo.reactive-read", name = "enabled", havingValue = "true")
+public class ReactiveToDoService {
+
+    // DI対象クラス
+    private final R2dbcTodoReader reader;
+
+    /**
+     * コンストラクタ
+     * 
+     * @param reader
+     */
+    public ReactiveToDoService(R2dbcTodoReader reader) {
+        // コンストラクタインジェクション
+        this.reader = reader;
+    }
+
+    /**
+     * 一件取得
+     * 
+     * @param todoId
+     * @return 存在しない場合はNotFoundExceptionで終了する
+     */
+    public Mono<TodoEntity> getTodoById(int todoId) {
+        return ReactiveDeadline.apply(reader.selectById(todoId)
+                // todoが存在しなかった場合、404NotFoundを投げる
+                .switchIfEmpty(Mono.error(
+                        () -> new NotFoundException(ErrorCodes.NOT_FOUND_RESOURCE))));
+    }
+
+    /**
+     * 一覧取得
+     * 
+     * @param title
+     * @param limit
+     * @return
+     */
+    public Flux<TodoEntity> getAllTodos(String title, Integer limit) {
+        return ReactiveDeadline.apply(reader.selectAll(title, limit));
+    }
+}
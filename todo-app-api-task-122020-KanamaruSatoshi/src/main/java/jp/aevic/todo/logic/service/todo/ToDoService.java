@@ -1,45 +1,85 @@
 package jp.aevic.todo.logic.service.todo;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import io.micrometer.observation.annotation.Observed;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import jp.aevic.todo.core.cache.CacheInvalidator;
+import jp.aevic.todo.core.cache.CachedEntityType;
+import jp.aevic.todo.core.cache.DataGeneration;
+import jp.aevic.todo.core.cache.GenerationKey;
 import jp.aevic.todo.core.exception.exception.NotFoundException;
 import jp.aevic.todo.core.exception.exception.OptimisticLockException;
 import jp.aevic.todo.core.exception.statics.ErrorCodes;
+import jp.aevic.todo.core.hotkey.HotKeyRecorder;
 import jp.aevic.todo.entity.tag.TagEntity;
 import jp.aevic.todo.entity.todo.TodoEntity;
 import jp.aevic.todo.entity.todo.TodoTagEntity;
-import jp.aevic.todo.mapper.tag.TagMapper;
-import jp.aevic.todo.mapper.todo.TodoMapper;
-import jp.aevic.todo.mapper.todo.TodoTagMapper;
 import jp.aevic.todo.queryCondition.todo.GetTodosQueryCondition;
+import jp.aevic.todo.queryCondition.todo.TodoFields;
+import jp.aevic.todo.response.MultiGetResult;
+import jp.aevic.todo.response.TotalCount;
+import jp.aevic.todo.storage.TagStorage;
+import jp.aevic.todo.storage.TodoStorage;
+import jp.aevic.todo.storage.TodoTagStorage;
+import jp.aevic.todo.util.concurrent.SingleFlight;
+import jp.aevic.todo.util.context.TotalCountContext;
 
 /**
  * ToDoServiceクラス
  */
 @Service
+@Observed(name = "todo.service")
 public class ToDoService {
 
     // DI対象クラス
-    private TodoMapper todoMapper;
-    private TagMapper tagMapper;
-    private TodoTagMapper todoTagMapper;
+    private TodoStorage todoStorage;
+    private TagStorage tagStorage;
+    private TodoTagStorage todoTagStorage;
+    private TodoBatchLoader batchLoader;
+    private SingleFlight<GenerationKey<GetTodosQueryCondition>, List<TodoEntity>> todoListFlight;
+    private CacheInvalidator cacheInvalidator;
+    private DataGeneration dataGeneration;
+    private TotalCountContext totalCountContext;
+    private HotKeyRecorder hotKeyRecorder;
 
     /**
      * コンストラクタ
      * 
-     * @param todoMapper
-     * @param tagMapper
-     * @param todoTagMapper
+     * @param todoStorage
+     * @param tagStorage
+     * @param todoTagStorage
+     * @param batchLoader
+     * @param todoListFlight
+     * @param cacheInvalidator
+     * @param dataGeneration
+     * @param totalCountContext
+     * @param hotKeyRecorder
      */
-    public ToDoService(TodoMapper todoMapper, TagMapper tagMapper, TodoTagMapper todoTagMapper) {
-        this.todoMapper = todoMapper;
-        this.tagMapper = tagMapper;
-        this.todoTagMapper = todoTagMapper;
+    public ToDoService(TodoStorage todoStorage, TagStorage tagStorage,
+            TodoTagStorage todoTagStorage,
+            TodoBatchLoader batchLoader,
+            SingleFlight<GenerationKey<GetTodosQueryCondition>, List<TodoEntity>> todoListFlight,
+            CacheInvalidator cacheInvalidator,
+            DataGeneration dataGeneration,
+            TotalCountContext totalCountContext,
+            HotKeyRecorder hotKeyRecorder) {
+        this.todoStorage = todoStorage;
+        this.tagStorage = tagStorage;
+        this.todoTagStorage = todoTagStorage;
+        this.batchLoader = batchLoader;
+        this.todoListFlight = todoListFlight;
+        this.cacheInvalidator = cacheInvalidator;
+        this.dataGeneration = dataGeneration;
+        this.totalCountContext = totalCountContext;
+        this.hotKeyRecorder = hotKeyRecorder;
     }
 
     /**
@@ -55,7 +95,7 @@ public class ToDoService {
         findTagsOrThrow(requestTagIds);
 
         // 新規todo登録処理
-        todoMapper.insertTodo(todoEntity);
+        todoStorage.insertTodo(todoEntity);
         // 自動採番されたtodoId取得
         int resultTodoId = todoEntity.getTodoId();
 
@@ -69,30 +109,104 @@ public class ToDoService {
                         return todoTagEntity;
                     }).toList();
             // todo_tag登録
-            todoTagMapper.insertTodoTag(todoTagEntities);
+            todoTagStorage.insertTodoTag(todoTagEntities);
         }
 
+        // コミット後に一覧取得のキャッシュを無効にする
+        cacheInvalidator.invalidate(CachedEntityType.TODO, resultTodoId, todoEntity.getVersion());
+
         return resultTodoId;
     }
 
     /**
      * 一件取得
+     * 取得項目が指定された場合は、バッチローダーを使用せずに指定された項目のみを検索する
      * 
      * @param todoId
+     * @param fields
      * @return
      */
-    public TodoEntity getTodoById(int todoId) {
-        return findTodoOrThrow(todoId);
+    public TodoEntity getTodoById(int todoId, TodoFields fields) {
+        // よく参照されるtodoとして記録
+        hotKeyRecorder.recordTodo(todoId);
+        if (!TodoFields.ALL.equals(fields)) {
+            TodoEntity resultEntity = todoStorage.selectById(todoId, fields);
+            if (Objects.isNull(resultEntity)) {
+                // 404 notFound
+                throw new NotFoundException(ErrorCodes.NOT_FOUND_RESOURCE);
+            }
+            return resultEntity;
+        }
+        // バッチローダーが無効な場合は1件ずつ検索する
+        if (!batchLoader.isEnabled()) {
+            return findTodoOrThrow(todoId);
+        }
+        // 他のリクエストとまとめて検索
+        TodoEntity resultEntity = batchLoader.load(todoId);
+        // todoが存在しなかった場合、404NotFoundを投げる
+        if (Objects.isNull(resultEntity)) {
+            // 404 notFound
+            throw new NotFoundException(ErrorCodes.NOT_FOUND_RESOURCE);
+        }
+        return resultEntity;
+    }
+
+    /**
+     * ID指定の複数件取得
+     * 1回のクエリでまとめて取得し、リクエストされた順で返却する
+     * 
+     * @param todoIds
+     * @return 存在しないIDはfound=falseとした取得結果
+     */
+    public List<MultiGetResult<TodoEntity>> getTodosByIds(List<Integer> todoIds) {
+        hotKeyRecorder.recordTodos(todoIds);
+        // 重複を除いたIDでまとめて検索
+        List<Integer> distinctIds = todoIds.stream().distinct().toList();
+        Map<Integer, TodoEntity> foundTodos = todoStorage.selectByIds(distinctIds).stream()
+                .collect(Collectors.toMap(TodoEntity::getTodoId, Function.identity()));
+
+        // リクエスト順に結果を詰め直す
+        return todoIds.stream()
+                .map(todoId -> new MultiGetResult<>(todoId, foundTodos.containsKey(todoId),
+                        foundTodos.get(todoId)))
+                .toList();
     }
 
     /**
      * 一覧取得
+     * 検索条件と世代番号をキーにキャッシュする
      * 
      * @param queryCondition
      * @return
      */
+    @Cacheable(cacheNames = "todoList", key = "{#queryCondition, @dataGeneration.current()}",
+            sync = true)
     public List<TodoEntity> getAllTodos(GetTodosQueryCondition queryCondition) {
-        return todoMapper.selectAll(queryCondition);
+        // 同じ検索条件・世代で実行中の一覧取得があれば、その結果を共有する
+        return todoListFlight.execute(
+                new GenerationKey<>(queryCondition, dataGeneration.current()),
+                () -> todoStorage.selectAll(queryCondition));
+    }
+
+    /**
+     * 一覧取得の総件数
+     * 推定件数が指定された場合でも、推定件数が少ない(または推定できない)場合は正確な件数を数える
+     * 検索条件と世代番号をキーにキャッシュする(登録・更新・削除で世代が進むと数え直す)
+     * 
+     * @param title
+     * @param estimated 推定件数でよいか(falseの場合はCOUNT(*)で数える)
+     * @return
+     */
+    @Cacheable(cacheNames = "todoCount", key = "{#title, #estimated, @dataGeneration.current()}",
+            sync = true)
+    public TotalCount countTodos(String title, boolean estimated) {
+        if (estimated) {
+            long estimatedCount = todoStorage.estimateCount(title);
+            if (estimatedCount >= totalCountContext.getExactThreshold()) {
+                return new TotalCount(estimatedCount, true);
+            }
+        }
+        return new TotalCount(todoStorage.countAll(title), false);
     }
 
     /**
@@ -109,7 +223,7 @@ public class ToDoService {
         findTagsOrThrow(requestTagIds);
 
         // todo更新処理
-        int updatedNum = todoMapper.updateTodo(todoEntity);
+        int updatedNum = todoStorage.updateTodo(todoEntity);
         updateOrDeleteFailedOrThrow(updatedNum);
 
         // todo_tag更新処理
@@ -123,9 +237,13 @@ public class ToDoService {
                         return todoTagEntity;
                     }).toList();
             // 既存todo_tag削除後、新todo_tagに更新
-            todoTagMapper.deleteTodoTagByTodoId(todoEntity.getTodoId());
-            todoTagMapper.insertTodoTag(todoTagEntities);
+            todoTagStorage.deleteTodoTagByTodoId(todoEntity.getTodoId());
+            todoTagStorage.insertTodoTag(todoTagEntities);
         }
+
+        // コミット後に一覧取得のキャッシュを無効にする
+        cacheInvalidator.invalidate(CachedEntityType.TODO, todoEntity.getTodoId(),
+                todoEntity.getVersion() + 1);
     }
 
     /**
@@ -139,11 +257,15 @@ public class ToDoService {
         findTodoOrThrow(todoEntity.getTodoId());
 
         // todo削除
-        int deletedNum = todoMapper.deleteTodo(todoEntity);
+        int deletedNum = todoStorage.deleteTodo(todoEntity);
         updateOrDeleteFailedOrThrow(deletedNum);
 
         // todo_tag削除
-        todoTagMapper.deleteTodoTagByTodoId(todoEntity.getTodoId());
+        todoTagStorage.deleteTodoTagByTodoId(todoEntity.getTodoId());
+
+        // コミット後に一覧取得のキャッシュを無効にする
+        cacheInvalidator.invalidate(CachedEntityType.TODO, todoEntity.getTodoId(),
+                todoEntity.getVersion());
     }
 
     /**
@@ -154,7 +276,7 @@ public class ToDoService {
      */
     private TodoEntity findTodoOrThrow(int todoId) {
         // todoIdよりtodoを検索
-        TodoEntity resultEntity = todoMapper.selectById(todoId);
+        TodoEntity resultEntity = todoStorage.selectById(todoId);
         // todoが存在しなかった場合、404NotFoundを投げる
         if (Objects.isNull(resultEntity)) {
             // 404 notFound
@@ -165,6 +287,7 @@ public class ToDoService {
 
     /**
      * 指定されたtagが一つでも存在しなかった場合に404を投げる
+     * todoの登録・更新より先に呼び出す(必要な場合は、ここで紐づけるtagをロックする)
      * 
      * @param requestTagIds
      */
@@ -174,7 +297,7 @@ public class ToDoService {
             return;
         }
         // 指定されたtagIdたちよりtagを検索
-        List<TagEntity> existsTags = tagMapper.selectByIds(requestTagIds);
+        List<TagEntity> existsTags = tagStorage.selectByIdsForLink(requestTagIds);
         // tagが一つでも存在しなかった場合、404NotFoundを投げる
         if (requestTagIds.size() != existsTags.size()) {
             // 404 notFound
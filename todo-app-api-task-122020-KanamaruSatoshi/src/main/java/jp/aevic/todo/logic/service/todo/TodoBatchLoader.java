@@ -0,0 +1,258 @@
+package jp.aevic.todo.logic.service.todo;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.context.ContextSnapshot;
+import io.micrometer.context.ContextSnapshotFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jp.aevic.todo.core.exception.exception.GatewayTimeoutException;
+import jp.aevic.todo.core.exception.statics.ErrorCodes;
+import jp.aevic.todo.core.deadline.RequestDeadline;
+import jp.aevic.todo.core.limit.Bulkhead;
+import jp.aevic.todo.entity.todo.TodoEntity;
+import jp.aevic.todo.storage.TodoStorage;
+import jp.aevic.todo.util.context.BatchLoaderContext;
+
+/**
+ * ID指定のtodo取得を、スレッドをまたいでまとめて1回のクエリで実行するローダー
+ * <p>
+ * 最初のIDを受け付けてから設定された待ち時間が経過するか、最大件数に達した時点で
+ * 溜まったIDをまとめてselectByIdsで取得し、各呼び出し元に結果を返す。
+ * 同じIDが同時に要求された場合は1件として検索し、結果を共有する。
+ * </p>
+ * <p>
+ * クエリは呼び出し元とは別のスレッドで実行するため、呼び出し元の状態を次のように引き継ぐ。
+ * <ul>
+ * <li>処理期限: まとめた呼び出し元のうち最も遅い期限(SQLのタイムアウトとする。
+ * 期限のない呼び出し元を含む場合は制限しない)</li>
+ * <li>コネクションプール: 読み込みのバルクヘッドのコネクションプール</li>
+ * <li>トレーシング: 最初に受け付けた呼び出し元のスパン</li>
+ * </ul>
+ * 読み込みのバルクヘッドのスレッドは呼び出し元の待機で埋まっている可能性があるため、
+ * クエリはバルクヘッドのスレッドでは実行しない(コネクションプールのみ使用する)。
+ * </p>
+ * <p>
+ * 短い期限の呼び出し元に他の呼び出し元が巻き込まれないよう、各呼び出し元は自身の期限までのみ結果を待ち、
+ * 期限を過ぎた呼び出し元のみGatewayTimeoutException(504)とする(クエリは他の呼び出し元のために継続する)。
+ * </p>
+ */
+@Component
+public class TodoBatchLoader {
+
+    // 呼び出し元のスレッドのObservationなどを取り込む
+    private static final ContextSnapshotFactory SNAPSHOT_FACTORY =
+            ContextSnapshotFactory.builder().build();
+
+    // DI対象クラス
+    private final TodoStorage todoStorage;
+    private final BatchLoaderContext context;
+    private final Bulkhead readBulkhead;
+
+    // メトリクス
+    private final DistributionSummary batchSizeSummary;
+    private final Timer waitTimer;
+    private final Counter deduplicatedCounter;
+
+    // クエリ発行タイミングを管理するスケジューラ(無効時はnull)
+    private final ScheduledExecutorService scheduler;
+
+    // 発行待ちのIDと結果の受け渡し先
+    private final Object lock = new Object();
+    private Map<Integer, PendingLoad> pending = new LinkedHashMap<>();
+    private ScheduledFuture<?> scheduledDispatch;
+    // 発行待ちの呼び出し元のうち最も遅い処理期限(期限のない呼び出し元を含む場合はnull)
+    private Long pendingDeadline;
+    // 発行待ちの呼び出し元に期限のないものが含まれるか
+    private boolean pendingUnbounded;
+    // 最初に受け付けた呼び出し元のスレッドのObservationなど
+    private ContextSnapshot pendingSnapshot;
+
+    /**
+     * コンストラクタ
+     *
+     * @param todoStorage
+     * @param context
+     * @param readBulkhead
+     * @param meterRegistry
+     */
+    public TodoBatchLoader(TodoStorage todoStorage, BatchLoaderContext context,
+                           @Qualifier("readBulkhead") Bulkhead readBulkhead,
+                           MeterRegistry meterRegistry) {
+        this.todoStorage = todoStorage;
+        this.context = context;
+        this.readBulkhead = readBulkhead;
+        this.batchSizeSummary = DistributionSummary.builder("todo.batch-loader.batch.size")
+                .description("1回のクエリでまとめて取得したIDの件数")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("todo.batch-loader.wait")
+                .description("IDを受け付けてからクエリを発行するまでに追加で待った時間")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.deduplicatedCounter = Counter.builder("todo.batch-loader.deduplicated")
+                .description("同時に要求された同一IDとして、まとめられた件数")
+                .register(meterRegistry);
+        this.scheduler = context.isEnabled()
+                ? Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "todo-batch-loader");
+                    thread.setDaemon(true);
+                    return thread;
+                })
+                : null;
+    }
+
+    /**
+     * バッチローダーが有効か
+     *
+     * @return
+     */
+    public boolean isEnabled() {
+        return context.isEnabled();
+    }
+
+    /**
+     * todoIdに対応するtodoを取得する
+     * 他のスレッドからの要求とまとめてクエリが発行されるまで待機する
+     * 処理期限が設定されている場合は、期限までのみ待機する
+     *
+     * @param todoId
+     * @return 存在しない場合はnull
+     */
+    public TodoEntity load(int todoId) {
+        CompletableFuture<TodoEntity> future;
+        boolean dispatchNow = false;
+        Long deadline = RequestDeadline.get();
+        synchronized (lock) {
+            if (deadline == null) {
+                pendingUnbounded = true;
+                pendingDeadline = null;
+            } else if (!pendingUnbounded
+                    && (pendingDeadline == null || deadline > pendingDeadline)) {
+                pendingDeadline = deadline;
+            }
+            PendingLoad load = pending.get(todoId);
+            if (load != null) {
+                // 同じIDがすでに発行待ちの場合は結果を共有する
+                deduplicatedCounter.increment();
+                future = load.future();
+            } else {
+                future = new CompletableFuture<>();
+                pending.put(todoId, new PendingLoad(future, System.nanoTime()));
+                // 最初の1件で発行を予約し、最大件数に達したら即時発行する
+                if (pending.size() == 1) {
+                    pendingSnapshot = SNAPSHOT_FACTORY.captureAll();
+                    scheduledDispatch = scheduler.schedule(this::dispatch,
+                            context.getWindow().toNanos(), TimeUnit.NANOSECONDS);
+                }
+                dispatchNow = pending.size() >= context.getMaxBatchSize();
+            }
+        }
+        if (dispatchNow) {
+            dispatch();
+        }
+
+        try {
+            if (deadline == null) {
+                return future.join();
+            }
+            // 結果の受け渡し先は同じIDの呼び出し元と共有するため、キャンセルせずに待機のみ打ち切る
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (CompletionException | ExecutionException e) {
+            // クエリで発生した例外(Errorを含む)はそのまま呼び出し元に投げ直す
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new CompletionException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new GatewayTimeoutException(ErrorCodes.DEADLINE_EXCEEDED);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * 溜まっているIDをまとめて検索し、各呼び出し元に結果を返す
+     */
+    private void dispatch() {
+        Map<Integer, PendingLoad> batch;
+        Long deadline;
+        ContextSnapshot snapshot;
+        synchronized (lock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            deadline = pendingDeadline;
+            snapshot = pendingSnapshot;
+            pending = new LinkedHashMap<>();
+            pendingDeadline = null;
+            pendingUnbounded = false;
+            pendingSnapshot = null;
+            scheduledDispatch.cancel(false);
+        }
+
+        // 待ち時間と件数の記録
+        long now = System.nanoTime();
+        batch.values().forEach(load -> waitTimer.record(now - load.enqueuedNanos(),
+                TimeUnit.NANOSECONDS));
+        batchSizeSummary.record(batch.size());
+
+        // 最大件数に達した場合は呼び出し元のスレッドで実行するため、元の処理期限に戻す
+        Long callerDeadline = RequestDeadline.get();
+        RequestDeadline.set(deadline);
+        try (ContextSnapshot.Scope scope = snapshot.setThreadLocals()) {
+            List<Integer> todoIds = new ArrayList<>(batch.keySet());
+            Map<Integer, TodoEntity> foundTodos = readBulkhead.callOnCurrentThread(
+                            () -> todoStorage.selectByIds(todoIds)).stream()
+                    .collect(Collectors.toMap(TodoEntity::getTodoId, Function.identity()));
+            batch.forEach((todoId, load) -> load.future().complete(foundTodos.get(todoId)));
+        } catch (Throwable e) {
+            batch.values().forEach(load -> load.future().completeExceptionally(e));
+        } finally {
+            RequestDeadline.set(callerDeadline);
+        }
+    }
+
+    /**
+     * 終了時にスケジューラを停止する
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * 発行待ちの1件分の情報
+     *
+     * @param future        結果の受け渡し先
+     * @param enqueuedNanos 受け付けた時刻
+     */
+    private record PendingLoad(CompletableFuture<TodoEntity> future, long enqueuedNanos) {
+    }
+}
@@ -0,0 +1,87 @@
+package jp.aevic.todo.mapper.bulk;
+
+import java.util.List;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import jp.aevic.todo.response.ImportResult.RejectedRow;
+
+/**
+ * todo一括取込用のMapperインタフェース
+ * ステージングテーブルは一時テーブルのため、全メソッドを同じトランザクション内で呼び出すこと
+ */
+@Mapper
+public interface TodoImportMapper {
+
+    /**
+     * ステージングテーブル作成(コミット時に削除される)
+     */
+    public void createStagingTable();
+
+    /**
+     * ステージングテーブルのtagIdを1件1行に展開したテーブルを作成
+     * COPYでステージングテーブルに取り込んだ後に呼び出す
+     */
+    public void createTagStagingTable();
+
+    /**
+     * ステージングテーブルの統計情報を更新(一時テーブルは自動で更新されないため)
+     */
+    public void analyzeStagingTables();
+
+    /**
+     * ステージングテーブルで指定されたタグをロック(トランザクションの終了まで削除されない)
+     * タグの存在チェック(markRejected)の前に呼び出す
+     * 
+     * @param denormalizedTags TODO.TAGS列を使用するか(使用する場合は名前の変更もロックで待つ)
+     * @return ロックしたタグの件数
+     */
+    public long lockStagedTags(@Param("denormalizedTags") boolean denormalizedTags);
+
+    /**
+     * 取り込めない行に理由を設定
+     * 
+     * @param titleMaxLength
+     * @param contentMaxLength
+     * @param linkedTagLimit
+     * @return 取り込めない行の件数
+     */
+    public long markRejected(@Param("titleMaxLength") int titleMaxLength,
+            @Param("contentMaxLength") int contentMaxLength,
+            @Param("linkedTagLimit") int linkedTagLimit);
+
+    /**
+     * 取り込む行にtodoIdを採番したテーブルを作成
+     */
+    public void createAcceptedTable();
+
+    /**
+     * todo一括登録
+     * 
+     * @return 登録件数
+     */
+    public long insertTodos();
+
+    /**
+     * todo_tag一括登録
+     * 
+     * @return 登録件数
+     */
+    public long insertTodoTags();
+
+    /**
+     * 取り込んだtodoのTODO.TAGS列を作成
+     * 
+     * @return 更新件数
+     */
+    public long updateImportedTags();
+
+    /**
+     * 取り込めない行の取得(行番号順)
+     * 
+     * @param limit
+     * @return
+     */
+    public List<RejectedRow> selectRejected(@Param("limit") int limit);
+}
@@ -0,0 +1,21 @@
+package jp.aevic.todo.mapper.cache;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+/**
+ * ノード間のキャッシュ無効化通知用のMapperインタフェース
+ *
+ */
+@Mapper
+public interface CacheInvalidationMapper {
+
+    /**
+     * 無効化通知の送信(NOTIFY)
+     * トランザクション内で送信した通知は、コミット時に配信される
+     *
+     * @param channel
+     * @param payload
+     */
+    public void publish(@Param("channel") String channel, @Param("payload") String payload);
+}
@@ -0,0 +1,167 @@
+package jp.aevic.todo.mapper.handler;
+
+import jp.aevic.todo.core.slowquery.SlowQuery;
+import jp.aevic.todo.core.slowquery.SlowQueryRecorder;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.reflection.ExceptionUtil;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 閾値以上の時間がかかったSQLを記録するMyBatisのプラグイン
+ * <p>
+ * Mapperのメソッド単位(結果のマッピングを含む)で実行時間を計測し、
+ * ステートメントID、動的SQLを組み立てた後のSQL、値を伏せたパラメータ、件数、実行時間を記録する。
+ * SELECTは同じパラメータで実行計画を取得できるよう、パラメータの設定処理を記録に渡す。
+ * 例外で終了したSQL(処理期限によるタイムアウト、キャンセルなど)も、例外までの時間と例外のクラス名を記録する。
+ * </p>
+ */
+@Component
+@Intercepts({
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class,
+                        ResultHandler.class}),
+        @Signature(type = Executor.class, method = "update",
+                args = {MappedStatement.class, Object.class})})
+public class SlowQueryInterceptor implements Interceptor {
+    //依存クラス
+    private final SlowQueryRecorder recorder;
+
+    /**
+     * コンストラクタ
+     *
+     * @param recorder 遅いSQLを記録するクラス
+     */
+    public SlowQueryInterceptor(SlowQueryRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = invocation.proceed();
+        } catch (Throwable e) {
+            try {
+                recordIfSlow(invocation, null, e, System.nanoTime() - start);
+            } catch (RuntimeException recordFailure) {
+                //記録の失敗で、SQLの例外を置き換えない
+                e.addSuppressed(recordFailure);
+            }
+            throw e;
+        }
+        recordIfSlow(invocation, result, null, System.nanoTime() - start);
+        return result;
+    }
+
+    /**
+     * 実行時間が閾値以上の場合に記録する
+     *
+     * @param invocation    Executorの呼び出し
+     * @param result        実行結果(例外で終了した場合はnull)
+     * @param failure       SQLの例外(正常に終了した場合はnull)
+     * @param durationNanos 実行時間
+     */
+    private void recordIfSlow(Invocation invocation, Object result, Throwable failure,
+                              long durationNanos) {
+        if (recorder.isSlow(durationNanos)) {
+            MappedStatement mappedStatement = (MappedStatement) invocation.getArgs()[0];
+            Object parameter = invocation.getArgs()[1];
+            record(mappedStatement, parameter, result, failure, durationNanos);
+        }
+    }
+
+    /**
+     * 遅いSQLを記録する
+     *
+     * @param mappedStatement 実行したステートメント
+     * @param parameter       パラメータ
+     * @param result          実行結果(取得したリスト、または更新件数。例外で終了した場合はnull)
+     * @param failure         SQLの例外(正常に終了した場合はnull)
+     * @param durationNanos   実行時間
+     */
+    private void record(MappedStatement mappedStatement, Object parameter, Object result,
+                        Throwable failure, long durationNanos) {
+        BoundSql boundSql = mappedStatement.getBoundSql(parameter);
+        Configuration configuration = mappedStatement.getConfiguration();
+        Long rows = failure != null ? null
+                : result instanceof Collection<?> collection ? (long) collection.size()
+                : result instanceof Number number ? number.longValue() : 0L;
+        SlowQuery slowQuery = new SlowQuery(Instant.now(), mappedStatement.getId(),
+                boundSql.getSql().replaceAll("\\s+", " ").trim(),
+                redactParameters(configuration, boundSql, parameter), rows,
+                //proceedはリフレクションで呼び出すため、InvocationTargetExceptionを外す
+                failure == null ? null
+                        : ExceptionUtil.unwrapThrowable(failure).getClass().getName(),
+                durationNanos / 1_000_000.0);
+        //実行計画の取得ではSQLを実行するため、SELECTのみを対象とする
+        SlowQueryRecorder.ParameterBinder binder =
+                mappedStatement.getSqlCommandType() == SqlCommandType.SELECT
+                        ? statement -> configuration.newParameterHandler(mappedStatement,
+                        parameter, boundSql).setParameters(statement)
+                        : null;
+        recorder.record(slowQuery, binder);
+    }
+
+    /**
+     * パラメータの値を伏せ、型(文字列の場合は長さ)に置き換える
+     * 値の解決はMyBatisのDefaultParameterHandlerと同じ順で行う
+     *
+     * @param configuration MyBatisの設定
+     * @param boundSql      組み立てたSQL
+     * @param parameter     パラメータ
+     * @return パラメータ名と、値を伏せた型
+     */
+    private static Map<String, String> redactParameters(Configuration configuration,
+                                                        BoundSql boundSql, Object parameter) {
+        Map<String, String> redacted = new LinkedHashMap<>();
+        for (ParameterMapping parameterMapping : boundSql.getParameterMappings()) {
+            String property = parameterMapping.getProperty();
+            Object value;
+            if (boundSql.hasAdditionalParameter(property)) {
+                value = boundSql.getAdditionalParameter(property);
+            } else if (parameter == null) {
+                value = null;
+            } else if (configuration.getTypeHandlerRegistry()
+                    .hasTypeHandler(parameter.getClass())) {
+                value = parameter;
+            } else {
+                value = configuration.newMetaObject(parameter).getValue(property);
+            }
+            redacted.put(property, redact(value));
+        }
+        return redacted;
+    }
+
+    /**
+     * 値を伏せた文字列にする
+     *
+     * @param value 値
+     * @return 型(文字列の場合は長さ)
+     */
+    private static String redact(Object value) {
+        if (value == null) {
+            return "null";
+        }
+        if (value instanceof CharSequence text) {
+            return "String(" + text.length() + ")";
+        }
+        return value.getClass().getSimpleName();
+    }
+}
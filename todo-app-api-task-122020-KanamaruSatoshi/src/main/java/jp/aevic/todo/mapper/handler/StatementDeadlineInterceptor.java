@@ -0,0 +1,107 @@
+package jp.aevic.todo.mapper.handler;
+
+import jp.aevic.todo.core.deadline.RequestDeadline;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.postgresql.jdbc.PgStatement;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.InvocationTargetException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+
+/**
+ * リクエストの処理期限までの残り時間を、SQLのタイムアウトに設定するMyBatisのプラグイン
+ * <p>
+ * MyBatisの設定(またはトランザクション)によるタイムアウトの方が短い場合はそちらを使用する。
+ * 実行前に期限を過ぎている場合は、SQLを実行せずにSQLTimeoutExceptionとする。
+ * タイムアウトしたSQLはPostgreSQL側でキャンセルされ、コネクションはすぐにプールへ返却される。
+ * キャンセルによるエラー(SQLSTATE 57014)も、期限を過ぎている場合はSQLTimeoutExceptionとする
+ * (SpringのQueryTimeoutExceptionに変換される)。
+ * </p>
+ */
+@Component
+@Intercepts({
+        @Signature(type = StatementHandler.class, method = "prepare",
+                args = {Connection.class, Integer.class}),
+        @Signature(type = StatementHandler.class, method = "query",
+                args = {Statement.class, ResultHandler.class}),
+        @Signature(type = StatementHandler.class, method = "queryCursor",
+                args = Statement.class),
+        @Signature(type = StatementHandler.class, method = "update", args = Statement.class),
+        @Signature(type = StatementHandler.class, method = "batch", args = Statement.class)})
+public class StatementDeadlineInterceptor implements Interceptor {
+    //クエリのキャンセルを表すSQLSTATE
+    private static final String QUERY_CANCELED = "57014";
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        if (!"prepare".equals(invocation.getMethod().getName())) {
+            return execute(invocation);
+        }
+        Statement statement = (Statement) invocation.proceed();
+        Long remainingMillis = RequestDeadline.remainingMillis();
+        if (remainingMillis == null) {
+            return statement;
+        }
+        if (remainingMillis <= 0) {
+            statement.close();
+            throw new SQLTimeoutException("Request deadline exceeded before executing statement.");
+        }
+        setTimeout(statement, remainingMillis);
+        return statement;
+    }
+
+    /**
+     * SQLを実行する
+     * 処理期限によりキャンセルされた場合はSQLTimeoutExceptionとする
+     *
+     * @param invocation SQLの実行
+     * @return 実行結果
+     * @throws Throwable 実行に失敗した場合
+     */
+    private static Object execute(Invocation invocation) throws Throwable {
+        try {
+            return invocation.proceed();
+        } catch (InvocationTargetException e) {
+            Long remainingMillis = RequestDeadline.remainingMillis();
+            if (e.getCause() instanceof SQLException sqlException
+                    && QUERY_CANCELED.equals(sqlException.getSQLState())
+                    && remainingMillis != null && remainingMillis <= 0) {
+                throw new SQLTimeoutException("Request deadline exceeded.",
+                        sqlException.getSQLState(), sqlException);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * SQLのタイムアウトを設定する(既に設定されているタイムアウトより長くはしない)
+     *
+     * @param statement     SQL
+     * @param timeoutMillis タイムアウト(ミリ秒)
+     * @throws SQLException 設定できなかった場合
+     */
+    private static void setTimeout(Statement statement, long timeoutMillis) throws SQLException {
+        //PostgreSQLのドライバはミリ秒単位で設定できる
+        if (statement.isWrapperFor(PgStatement.class)) {
+            PgStatement pgStatement = statement.unwrap(PgStatement.class);
+            long current = pgStatement.getQueryTimeoutMs();
+            if (current == 0 || timeoutMillis < current) {
+                pgStatement.setQueryTimeoutMs(timeoutMillis);
+            }
+            return;
+        }
+        int timeoutSeconds = (int) Math.max((timeoutMillis + 999) / 1000, 1);
+        int current = statement.getQueryTimeout();
+        if (current == 0 || timeoutSeconds < current) {
+            statement.setQueryTimeout(timeoutSeconds);
+        }
+    }
+}
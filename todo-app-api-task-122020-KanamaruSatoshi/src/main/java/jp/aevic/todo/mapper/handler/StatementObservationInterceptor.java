@@ -0,0 +1,71 @@
+package jp.aevic.todo.mapper.handler;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.Collection;
+
+/**
+ * Mapperのメソッドの実行ごとにObservation(トレーシングのスパン、メトリクスtodo.sql)を記録するMyBatisのプラグイン
+ * <p>
+ * スパン名はMapperのメソッド(例: TodoMapper.selectAll)とし、ステートメントID・SQLの種類をタグに、
+ * 取得・更新した件数をスパンの属性に設定する。
+ * 実行中のObservation(コントローラー、Service)の子となるため、リクエスト内のどのSQLに時間がかかったかを確認できる。
+ * </p>
+ */
+@Component
+@Intercepts({
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class,
+                        ResultHandler.class}),
+        @Signature(type = Executor.class, method = "update",
+                args = {MappedStatement.class, Object.class})})
+public class StatementObservationInterceptor implements Interceptor {
+    //依存クラス
+    private final ObservationRegistry observationRegistry;
+
+    /**
+     * コンストラクタ
+     *
+     * @param observationRegistry Observationの登録先
+     */
+    public StatementObservationInterceptor(ObservationRegistry observationRegistry) {
+        this.observationRegistry = observationRegistry;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        MappedStatement mappedStatement = (MappedStatement) invocation.getArgs()[0];
+        String statementId = mappedStatement.getId();
+        Observation observation = Observation.createNotStarted("todo.sql", observationRegistry)
+                .contextualName(statementId.substring(
+                        statementId.lastIndexOf('.', statementId.lastIndexOf('.') - 1) + 1))
+                .lowCardinalityKeyValue(KeyValue.of("statement", statementId))
+                .lowCardinalityKeyValue(KeyValue.of("type",
+                        mappedStatement.getSqlCommandType().name()))
+                .start();
+        try (Observation.Scope scope = observation.openScope()) {
+            Object result = invocation.proceed();
+            long rows = result instanceof Collection<?> collection ? collection.size()
+                    : result instanceof Number number ? number.longValue() : 0;
+            observation.highCardinalityKeyValue(KeyValue.of("rows", String.valueOf(rows)));
+            return result;
+        } catch (InvocationTargetException e) {
+            observation.error(e.getCause());
+            throw e;
+        } finally {
+            observation.stop();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package jp.aevic.todo.mapper.handler;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jp.aevic.todo.entity.tag.TagEntity;
+import jp.aevic.todo.util.context.TagInterningContext;
+import org.apache.ibatis.executor.resultset.ResultSetHandler;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.springframework.stereotype.Component;
+
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * todoの検索結果に含まれるタグを、(tagId, version)ごとに1つのインスタンスへまとめるMyBatisのプラグイン
+ * <p>
+ * 一覧では同じタグが多数のtodoから参照される。結果のマッピング(handleResultSets)の間、まとめる範囲を開き、
+ * タグの生成時(TagInterningObjectFactory、TagListTypeHandler)に同じ(tagId, version)の生成済みのタグを返却する。
+ * キャッシュした一覧などが保持するオブジェクトを減らす(マッピング時の割り当ては、行ごとに読み込む名前の文字列などが
+ * 大半のため、ほぼ変わらない)。
+ * versionはタグの更新ごとに増えるため、同じ(tagId, version)のタグの内容は変わらない。
+ * 取得項目の指定によりtagIdのみを取得したタグ(名前がnull)は、内容が揃っていないためまとめない。
+ * まとめたタグは複数のtodoで共有するため、検索結果のタグは変更しないこと。
+ * </p>
+ */
+@Component
+@Intercepts(@Signature(type = ResultSetHandler.class, method = "handleResultSets",
+        args = Statement.class))
+public class TagInterningInterceptor implements Interceptor {
+    //マッピング中のスレッドでタグをまとめる範囲(マッピング中でない場合はnull)
+    private static final ThreadLocal<Map<Long, TagEntity>> CURRENT_SCOPE = new ThreadLocal<>();
+
+    //依存クラス
+    private final TagInterningContext context;
+    //検索をまたいで共有するタグ(共有しない場合はnull)
+    private final Cache<Long, TagEntity> sharedTags;
+
+    /**
+     * コンストラクタ
+     *
+     * @param context タグの共有の設定
+     */
+    public TagInterningInterceptor(TagInterningContext context) {
+        this.context = context;
+        this.sharedTags = context.getSharedCacheSize() > 0
+                ? Caffeine.newBuilder().maximumSize(context.getSharedCacheSize()).build()
+                : null;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        // ネストした検索(association等のselect)は、外側の検索の範囲でまとめる
+        if (!context.isEnabled() || CURRENT_SCOPE.get() != null) {
+            return invocation.proceed();
+        }
+        CURRENT_SCOPE.set(sharedTags == null ? new HashMap<>() : sharedTags.asMap());
+        try {
+            return invocation.proceed();
+        } finally {
+            CURRENT_SCOPE.remove();
+        }
+    }
+
+    /**
+     * タグを取得する(マッピング中の場合は、同じ(tagId, version)の生成済みのタグを返却する)
+     *
+     * @param tagId   tagId
+     * @param name    名前(取得していない場合はnull)
+     * @param version 更新回数
+     * @return タグ
+     */
+    public static TagEntity intern(int tagId, String name, int version) {
+        Map<Long, TagEntity> scope = CURRENT_SCOPE.get();
+        if (scope == null || name == null) {
+            return new TagEntity(tagId, name, version);
+        }
+        Long key = key(tagId, version);
+        TagEntity tag = scope.get(key);
+        if (tag == null) {
+            tag = new TagEntity(tagId, name, version);
+            TagEntity existing = scope.putIfAbsent(key, tag);
+            return existing == null ? tag : existing;
+        }
+        return tag;
+    }
+
+    /**
+     * タグを識別するキー(上位32ビットがtagId、下位32ビットがversion)
+     *
+     * @param tagId   tagId
+     * @param version 更新回数
+     * @return キー
+     */
+    private static long key(int tagId, int version) {
+        return ((long) tagId << Integer.SIZE) | (version & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,36 @@
+package jp.aevic.todo.mapper.handler;
+
+import jp.aevic.todo.entity.tag.TagEntity;
+import org.apache.ibatis.reflection.factory.DefaultObjectFactory;
+import org.apache.ibatis.session.Configuration;
+import org.mybatis.spring.boot.autoconfigure.ConfigurationCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 結果のマッピングで、タグ(コンストラクタの引数でマッピングしたTagEntity)をまとめて生成するObjectFactory
+ * <p>
+ * 引数の値がわかる生成時にTagInterningInterceptorへ問い合わせ、同じ(tagId, version)の生成済みのタグを返却する。
+ * タグ以外の生成はMyBatisの既定の処理と同じ。
+ * </p>
+ */
+@Component
+public class TagInterningObjectFactory extends DefaultObjectFactory
+        implements ConfigurationCustomizer {
+
+    @Override
+    public void customize(Configuration configuration) {
+        configuration.setObjectFactory(this);
+    }
+
+    @Override
+    public <T> T create(Class<T> type, List<Class<?>> constructorArgTypes,
+                        List<Object> constructorArgs) {
+        if (type == TagEntity.class && constructorArgs != null && constructorArgs.size() == 3) {
+            return type.cast(TagInterningInterceptor.intern((Integer) constructorArgs.get(0),
+                    (String) constructorArgs.get(1), (Integer) constructorArgs.get(2)));
+        }
+        return super.create(type, constructorArgTypes, constructorArgs);
+    }
+}
@@ -0,0 +1,95 @@
+package jp.aevic.todo.mapper.handler;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jp.aevic.todo.entity.tag.TagEntity;
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+
+import java.io.IOException;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * jsonbの配列([{"tagId": 1, "name": "...", "version": 0}, ...])とタグのリストを変換するTypeHandler
+ * <p>
+ * TODO.TAGS列の読み書きに使用する。
+ * </p>
+ */
+public class TagListTypeHandler extends BaseTypeHandler<List<TagEntity>> {
+    //変換に使用するObjectMapper(スレッドセーフ)
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @Override
+    public void setNonNullParameter(PreparedStatement ps, int i, List<TagEntity> parameter,
+                                    JdbcType jdbcType) throws SQLException {
+        try {
+            ps.setObject(i, OBJECT_MAPPER.writeValueAsString(parameter), Types.OTHER);
+        } catch (JsonProcessingException e) {
+            throw new SQLException("Failed to serialize tags.", e);
+        }
+    }
+
+    @Override
+    public List<TagEntity> getNullableResult(ResultSet rs, String columnName)
+            throws SQLException {
+        return parse(rs.getString(columnName));
+    }
+
+    @Override
+    public List<TagEntity> getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+        return parse(rs.getString(columnIndex));
+    }
+
+    @Override
+    public List<TagEntity> getNullableResult(CallableStatement cs, int columnIndex)
+            throws SQLException {
+        return parse(cs.getString(columnIndex));
+    }
+
+    /**
+     * jsonbの文字列をタグのリストに変換する
+     * タグは要素の値を読み込んでから生成し、検索結果のマッピング中は同じタグをまとめる(TagInterningInterceptor)
+     *
+     * @param json jsonbの文字列
+     * @return タグのリスト(nullの場合は空のリスト)
+     * @throws SQLException 変換できなかった場合
+     */
+    private List<TagEntity> parse(String json) throws SQLException {
+        List<TagEntity> tags = new ArrayList<>();
+        if (json == null) {
+            return tags;
+        }
+        try (JsonParser parser = OBJECT_MAPPER.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new SQLException("Failed to parse tags: " + json);
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                int tagId = 0;
+                String name = null;
+                int version = 0;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    parser.nextToken();
+                    switch (field) {
+                        case "tagId" -> tagId = parser.getIntValue();
+                        case "name" -> name = parser.getValueAsString();
+                        case "version" -> version = parser.getIntValue();
+                        default -> parser.skipChildren();
+                    }
+                }
+                tags.add(TagInterningInterceptor.intern(tagId, name, version));
+            }
+            return tags;
+        } catch (IOException e) {
+            throw new SQLException("Failed to parse tags: " + json, e);
+        }
+    }
+}
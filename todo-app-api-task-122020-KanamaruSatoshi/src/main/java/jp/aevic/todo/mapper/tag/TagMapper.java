@@ -37,6 +37,15 @@ public interface TagMapper {
      */
     public List<TagEntity> selectByIds(List<Integer> tagIds);
 
+    /**
+     * 複数件取得(共有ロックを取得する)
+     * tagIdの昇順にロックし、トランザクションの終了までタグの更新・削除を待たせる
+     * 
+     * @param tagIds
+     * @return
+     */
+    public List<TagEntity> selectByIdsForShare(List<Integer> tagIds);
+
     /**
      * 一覧取得
      * 
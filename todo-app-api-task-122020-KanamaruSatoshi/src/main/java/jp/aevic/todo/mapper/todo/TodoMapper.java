@@ -3,9 +3,11 @@ package jp.aevic.todo.mapper.todo;
 import java.util.List;
 
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
 
 import jp.aevic.todo.entity.todo.TodoEntity;
 import jp.aevic.todo.queryCondition.todo.GetTodosQueryCondition;
+import jp.aevic.todo.queryCondition.todo.TodoFields;
 
 /**
  * TodoMapperクラス
@@ -28,6 +30,25 @@ public interface TodoMapper {
      */
     public TodoEntity selectById(int todoId);
 
+    /**
+     * 取得項目を指定した一件取得
+     * タグの名前・更新回数を取得しない場合はTAGを結合しない
+     * 
+     * @param todoId
+     * @param fields
+     * @return
+     */
+    public TodoEntity selectFieldsById(@Param("todoId") int todoId,
+            @Param("fields") TodoFields fields);
+
+    /**
+     * 複数件取得
+     * 
+     * @param todoIds
+     * @return
+     */
+    public List<TodoEntity> selectByIds(List<Integer> todoIds);
+
     /**
      * 一覧取得
      * 
@@ -36,6 +57,29 @@ public interface TodoMapper {
      */
     public List<TodoEntity> selectAll(GetTodosQueryCondition queryCondition);
 
+    /**
+     * 件数取得(タイトルの部分一致)
+     * 
+     * @param title
+     * @return
+     */
+    public long countAll(@Param("title") String title);
+
+    /**
+     * 統計情報によるTODOの推定行数の取得
+     * 
+     * @return 統計情報が収集されていない場合は負の値
+     */
+    public long selectEstimatedRows();
+
+    /**
+     * タイトルの部分一致による検索の実行計画(JSON形式)
+     * 
+     * @param title
+     * @return
+     */
+    public String explainFilteredRows(@Param("title") String title);
+
     /**
      * 更新
      * 
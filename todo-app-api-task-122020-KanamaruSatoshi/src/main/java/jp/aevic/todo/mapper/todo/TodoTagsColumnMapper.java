@@ -0,0 +1,96 @@
+package jp.aevic.todo.mapper.todo;
+
+import java.util.List;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import jp.aevic.todo.entity.tag.TagEntity;
+import jp.aevic.todo.entity.todo.TodoEntity;
+import jp.aevic.todo.queryCondition.todo.GetTodosQueryCondition;
+import jp.aevic.todo.queryCondition.todo.TodoFields;
+
+/**
+ * TODO.TAGS列(todoに紐づくタグを非正規化したjsonbの配列)を読み書きするMapperインタフェース
+ * 
+ */
+@Mapper
+public interface TodoTagsColumnMapper {
+
+    /**
+     * 一件取得(TODO.TAGS列からタグを取得する)
+     * 
+     * @param todoId
+     * @return
+     */
+    public TodoEntity selectById(int todoId);
+
+    /**
+     * 取得項目を指定した一件取得(TODO.TAGS列からタグを取得する)
+     * 
+     * @param todoId
+     * @param fields
+     * @return
+     */
+    public TodoEntity selectFieldsById(@Param("todoId") int todoId,
+            @Param("fields") TodoFields fields);
+
+    /**
+     * 複数件取得(TODO.TAGS列からタグを取得する)
+     * 
+     * @param todoIds
+     * @return
+     */
+    public List<TodoEntity> selectByIds(@Param("todoIds") List<Integer> todoIds);
+
+    /**
+     * 一覧取得(TODO.TAGS列からタグを取得する)
+     * 
+     * @param queryCondition
+     * @return
+     */
+    public List<TodoEntity> selectAll(GetTodosQueryCondition queryCondition);
+
+    /**
+     * TODO_TAG・TAGの内容からTODO.TAGS列を作り直す
+     * 参照するタグは共有ロックを取得し、更新中のタグはコミット後の内容を反映する
+     * タグのロックはTODOより先に取得しておくこと(TagStorage#selectByIdsForLink)
+     * 
+     * @param todoIds
+     * @return 更新件数
+     */
+    public int refreshTags(@Param("todoIds") List<Integer> todoIds);
+
+    /**
+     * 更新したタグを、そのタグを含むTODO.TAGS列に反映する
+     * 
+     * @param tagEntity 更新前の更新回数を持つタグ
+     * @return 更新件数
+     */
+    public int replaceTag(TagEntity tagEntity);
+
+    /**
+     * 削除したタグを、そのタグを含むTODO.TAGS列から取り除く
+     * 
+     * @param tagId
+     * @return 更新件数
+     */
+    public int removeTag(int tagId);
+
+    /**
+     * todoIdの最大値を取得する
+     * 
+     * @return todoが存在しない場合は0
+     */
+    public int selectMaxTodoId();
+
+    /**
+     * TODO.TAGS列がTODO_TAG・TAGの内容と一致しないtodoIdを取得する
+     * 
+     * @param fromId 比較するtodoIdの下限
+     * @param toId   比較するtodoIdの上限
+     * @return
+     */
+    public List<Integer> selectInconsistentTodoIds(@Param("fromId") int fromId,
+            @Param("toId") int toId);
+}
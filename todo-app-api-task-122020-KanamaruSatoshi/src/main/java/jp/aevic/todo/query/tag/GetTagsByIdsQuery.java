@@ -0,0 +1,20 @@
+package jp.aevic.todo.query.tag;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+/**
+ * ID指定の複数件getで使用するqueryクラス
+ *
+ */
+@Data
+public class GetTagsByIdsQuery {
+    @NotEmpty
+    @Size(max = 100)
+    // 取得対象のtagID(カンマ区切り)
+    private List<@NotNull Integer> ids;
+}
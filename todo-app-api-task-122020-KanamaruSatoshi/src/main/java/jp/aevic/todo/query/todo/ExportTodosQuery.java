@@ -0,0 +1,22 @@
+package jp.aevic.todo.query.todo;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Pattern;
+import lombok.Data;
+
+/**
+ * 一括出力で使用するqueryクラス
+ * fromId、toIdを指定すると、その範囲のtodoIdのみを出力する(範囲を分けて並列に取得する場合に使用)
+ */
+@Data
+public class ExportTodosQuery {
+    @Pattern(regexp = "csv|ndjson")
+    // 出力形式
+    private String format = "csv";
+    @Min(1)
+    // 出力するtodoIdの下限(この値を含む)
+    private Long fromId;
+    @Min(1)
+    // 出力するtodoIdの上限(この値を含む)
+    private Long toId;
+}
@@ -0,0 +1,15 @@
+package jp.aevic.todo.query.todo;
+
+import java.util.List;
+
+import jakarta.validation.constraints.Pattern;
+import lombok.Data;
+
+/**
+ * 一件getで使用するqueryクラス
+ */
+@Data
+public class GetTodoQuery {
+    // 取得する項目(カンマ区切り。指定がない場合はすべての項目)
+    private List<@Pattern(regexp = GetTodosQuery.FIELDS_PATTERN) String> fields;
+}
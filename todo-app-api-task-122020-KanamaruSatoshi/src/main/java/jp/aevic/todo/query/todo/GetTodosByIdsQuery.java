@@ -0,0 +1,19 @@
+package jp.aevic.todo.query.todo;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+/**
+ * ID指定の複数件getで使用するqueryクラス
+ */
+@Data
+public class GetTodosByIdsQuery {
+    @NotEmpty
+    @Size(max = 100)
+    // 取得対象のtodoID(カンマ区切り)
+    private List<@NotNull Integer> ids;
+}
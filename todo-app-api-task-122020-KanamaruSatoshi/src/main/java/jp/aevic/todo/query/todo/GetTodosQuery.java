@@ -1,6 +1,9 @@
 package jp.aevic.todo.query.todo;
 
+import java.util.List;
+
 import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Pattern;
 import lombok.Data;
 
 /**
@@ -8,9 +11,18 @@ import lombok.Data;
  */
 @Data
 public class GetTodosQuery {
+    // fieldsに指定できる項目名
+    public static final String FIELDS_PATTERN =
+            "todoId|title|content|version|tags|tags\\.tagId|tags\\.name|tags\\.version";
+
     @Min(1)
     // 取得上限数
     private Integer limit;
     // タイトル
     private String title;
+    // 取得する項目(カンマ区切り。指定がない場合はすべての項目)
+    private List<@Pattern(regexp = FIELDS_PATTERN) String> fields;
+    @Pattern(regexp = "exact|estimated")
+    // 総件数(X-Total-Count)の数え方(指定がない場合は返却しない)
+    private String count;
 }
@@ -11,4 +11,6 @@ public class GetTodosQueryCondition {
     private Integer limit;
     // タイトル
     private String title;
+    // 取得する項目
+    private TodoFields fields = TodoFields.ALL;
 }
@@ -0,0 +1,57 @@
+package jp.aevic.todo.queryCondition.todo;
+
+import java.util.List;
+
+import lombok.Value;
+
+/**
+ * todoの取得項目(fieldsパラメータ)を表すクラス
+ * todoIdは常に取得する。tagsの項目を1つでも指定した場合は、tags.tagIdも取得する
+ */
+@Value
+public class TodoFields {
+    // すべての項目を取得する(fieldsの指定なし)
+    public static final TodoFields ALL = new TodoFields(true, true, true, true, true, true);
+
+    // タイトル
+    boolean title;
+    // コンテンツ
+    boolean content;
+    // 更新回数
+    boolean version;
+    // todoに紐づいているタグ(tagId)
+    boolean tags;
+    // タグの名前
+    boolean tagName;
+    // タグの更新回数
+    boolean tagVersion;
+
+    /**
+     * fieldsパラメータの項目名から生成する
+     * 
+     * @param names 項目名(todoId, title, content, version, tags, tags.tagId, tags.name,
+     *              tags.version)。nullまたは空の場合はすべての項目
+     * @return
+     */
+    public static TodoFields of(List<String> names) {
+        if (names == null || names.isEmpty()) {
+            return ALL;
+        }
+        boolean allTags = names.contains("tags");
+        boolean tagName = allTags || names.contains("tags.name");
+        boolean tagVersion = allTags || names.contains("tags.version");
+        return new TodoFields(names.contains("title"), names.contains("content"),
+                names.contains("version"),
+                allTags || tagName || tagVersion || names.contains("tags.tagId"),
+                tagName, tagVersion);
+    }
+
+    /**
+     * タグの名前・更新回数のいずれかを取得するか(TAGを結合する必要があるか)
+     * 
+     * @return
+     */
+    public boolean isTagDetails() {
+        return tagName || tagVersion;
+    }
+}
@@ -0,0 +1,35 @@
+package jp.aevic.todo.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 一括取込の結果を表すクラス
+ * 取り込まなかった行の詳細は上限件数までとし、件数は全件を返却する
+ */
+@Data
+@AllArgsConstructor
+public class ImportResult {
+    // 取り込んだ件数
+    private long imported;
+    // 取り込まなかった件数
+    private long rejected;
+    // 取り込まなかった行(行番号順、上限件数まで)
+    private List<RejectedRow> rejectedRows;
+    // 取り込まなかった行が上限件数を超えて省略されているか
+    private boolean rejectedRowsTruncated;
+
+    /**
+     * 取り込まなかった1行を表すクラス
+     */
+    @Data
+    @AllArgsConstructor
+    public static class RejectedRow {
+        // 行番号(CSVはヘッダ行を除いた1始まりのレコード番号、NDJSONはファイルの行番号)
+        private long row;
+        // 理由
+        private String reason;
+    }
+}
@@ -0,0 +1,21 @@
+package jp.aevic.todo.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * ID指定の複数件取得で、1件ごとの取得結果を表すクラス
+ * 存在しないIDはリクエスト全体を404にせず、found=falseとして返却する
+ *
+ * @param <T> 取得対象のEntity
+ */
+@Data
+@AllArgsConstructor
+public class MultiGetResult<T> {
+    // リクエストされたID
+    private int id;
+    // 存在したかどうか
+    private boolean found;
+    // 取得結果(存在しない場合はnull)
+    private T resource;
+}
@@ -0,0 +1,16 @@
+package jp.aevic.todo.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 一覧取得の総件数を表すクラス
+ */
+@Data
+@AllArgsConstructor
+public class TotalCount {
+    // 件数
+    private long count;
+    // 実行計画の統計情報による推定件数かどうか(falseの場合はCOUNT(*)で数えた件数)
+    private boolean estimated;
+}
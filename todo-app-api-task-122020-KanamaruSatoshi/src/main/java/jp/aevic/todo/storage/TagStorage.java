@@ -0,0 +1,73 @@
+package jp.aevic.todo.storage;
+
+import java.util.List;
+
+import jp.aevic.todo.entity.tag.TagEntity;
+import jp.aevic.todo.queryCondition.tag.GetTagsQueryCondition;
+
+/**
+ * tagの永続化を行うインタフェース
+ * 実装はtodo.storage.engineの設定により切り替える
+ */
+public interface TagStorage {
+
+    /**
+     * タグの新規登録
+     * 採番したtagIdを引数のtagEntityに設定する
+     * 
+     * @param tagEntity
+     */
+    public void insertTag(TagEntity tagEntity);
+
+    /**
+     * 1件取得
+     * 
+     * @param tagId
+     * @return 存在しない場合はnull
+     */
+    public TagEntity selectById(int tagId);
+
+    /**
+     * 複数件取得
+     * 
+     * @param tagIds
+     * @return 存在したtag
+     */
+    public List<TagEntity> selectByIds(List<Integer> tagIds);
+
+    /**
+     * 複数件取得(todoに紐づけるタグの取得)
+     * todoを更新するトランザクションで、todoより先に呼び出す
+     * 紐づけるタグの更新・削除をトランザクションの終了まで待たせる必要がある場合は、ここでロックする
+     * 
+     * @param tagIds
+     * @return 存在したtag
+     */
+    public List<TagEntity> selectByIdsForLink(List<Integer> tagIds);
+
+    /**
+     * 一覧取得
+     * 
+     * @param queryCondition
+     * @return tagIdの昇順
+     */
+    public List<TagEntity> selectAll(GetTagsQueryCondition queryCondition);
+
+    /**
+     * 更新
+     * 更新回数が一致する場合のみ更新し、更新回数を1増やす
+     * 
+     * @param tagEntity
+     * @return 更新件数
+     */
+    public int updateTag(TagEntity tagEntity);
+
+    /**
+     * 削除
+     * 更新回数が一致する場合のみ削除する(紐づくtodo_tagも削除される)
+     * 
+     * @param tagEntity
+     * @return 削除件数
+     */
+    public int deleteTag(TagEntity tagEntity);
+}
@@ -0,0 +1,92 @@
+package jp.aevic.todo.storage;
+
+import java.util.List;
+
+import jp.aevic.todo.entity.todo.TodoEntity;
+import jp.aevic.todo.queryCondition.todo.GetTodosQueryCondition;
+import jp.aevic.todo.queryCondition.todo.TodoFields;
+
+/**
+ * todoの永続化を行うインタフェース
+ * 実装はtodo.storage.engineの設定により切り替える
+ */
+public interface TodoStorage {
+
+    /**
+     * 新規todo登録
+     * 採番したtodoIdを引数のtodoEntityに設定する
+     * 
+     * @param todoEntity
+     */
+    public void insertTodo(TodoEntity todoEntity);
+
+    /**
+     * 一件取得
+     * 
+     * @param todoId
+     * @return 存在しない場合はnull
+     */
+    public TodoEntity selectById(int todoId);
+
+    /**
+     * 取得項目を指定した一件取得
+     * 指定されていない項目を取得するかは実装による(レスポンスには含めない)
+     * 
+     * @param todoId
+     * @param fields
+     * @return 存在しない場合はnull
+     */
+    public TodoEntity selectById(int todoId, TodoFields fields);
+
+    /**
+     * 複数件取得
+     * 
+     * @param todoIds
+     * @return todoIdの昇順
+     */
+    public List<TodoEntity> selectByIds(List<Integer> todoIds);
+
+    /**
+     * 一覧取得
+     * 検索条件の取得項目に指定されていない項目を取得するかは実装による(レスポンスには含めない)
+     * 
+     * @param queryCondition
+     * @return todoIdの昇順
+     */
+    public List<TodoEntity> selectAll(GetTodosQueryCondition queryCondition);
+
+    /**
+     * 件数取得
+     * 
+     * @param title タイトルの部分一致(nullまたは空の場合は全件)
+     * @return
+     */
+    public long countAll(String title);
+
+    /**
+     * 推定件数取得
+     * 数えずに統計情報などから推定する(実装によっては正確な件数を返す)
+     * 
+     * @param title タイトルの部分一致(nullまたは空の場合は全件)
+     * @return 推定できない場合は負の値
+     */
+    public long estimateCount(String title);
+
+    /**
+     * 更新
+     * 更新回数が一致する場合のみ更新し、更新回数を1増やす
+     * 
+     * @param todoEntity
+     * @return 更新件数
+     */
+    public int updateTodo(TodoEntity todoEntity);
+
+    /**
+     * 削除
+     * 更新回数が一致する場合のみ削除する
+     * 
+     * @param todoEntity
+     * @return 削除件数
+     */
+    public int deleteTodo(TodoEntity todoEntity);
+}
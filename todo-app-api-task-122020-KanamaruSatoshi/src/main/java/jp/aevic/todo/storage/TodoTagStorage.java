@@ -0,0 +1,26 @@
+package jp.aevic.todo.storage;
+
+import java.util.List;
+
+import jp.aevic.todo.entity.todo.TodoTagEntity;
+
+/**
+ * todoとtagの紐づけ(todo_tag)の永続化を行うインタフェース
+ * 実装はtodo.storage.engineの設定により切り替える
+ */
+public interface TodoTagStorage {
+
+    /**
+     * 新規todo_tag登録
+     * 
+     * @param todoTagEntities
+     */
+    public void insertTodoTag(List<TodoTagEntity> todoTagEntities);
+
+    /**
+     * todoIdより削除
+     * 
+     * @param todoId
+     */
+    public void deleteTodoTagByTodoId(int todoId);
+}
@@ -0,0 +1,231 @@
+package jp.aevic.todo.storage.embedded;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongConsumer;
+import java.util.zip.CRC32C;
+
+/**
+ * メモリマップしたファイルに追記のみを行うログ
+ * <p>
+ * ファイルは固定長のセグメント単位でメモリにマップし、レコードはセグメントをまたがないように書き込む。
+ * レコードの形式は [長さ(int)][CRC32C(int)][本体] とし、位置(オフセット)で参照する。
+ * 長さ0はログの終端、-1はセグメントの残りが未使用であることを表す。
+ * スレッドセーフではないため、呼び出し側で排他制御を行うこと。
+ * </p>
+ */
+class AppendOnlyLog implements AutoCloseable {
+    //レコードのヘッダ長(長さ + CRC)
+    static final int HEADER_SIZE = Integer.BYTES * 2;
+    //ログの終端を表す長さ
+    private static final int END_OF_LOG = 0;
+    //セグメントの残りが未使用であることを表す長さ
+    private static final int SEGMENT_PADDING = -1;
+
+    private final FileChannel channel;
+    private final int segmentSize;
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    //次に書き込む位置
+    private long end;
+
+    /**
+     * ログファイルを開く
+     * 既存のファイルの場合は、終端(または破損したレコード)の位置から追記する
+     *
+     * @param file        ログファイル
+     * @param segmentSize セグメントの大きさ
+     */
+    AppendOnlyLog(Path file, int segmentSize) {
+        this.segmentSize = segmentSize;
+        try {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long existingSegments = (channel.size() + segmentSize - 1) / segmentSize;
+            for (long i = 0; i < Math.max(existingSegments, 1); i++) {
+                mapSegment();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 先頭から有効なレコードを順に読み、その位置を通知する
+     * 終端または破損したレコードに達した時点で読み込みを終え、そこを追記位置とする
+     * 破損したレコードで終えた場合は、以降の内容を破棄する
+     * (残したまま追記すると、追記したレコードの直後に残った古いレコードを有効なレコードとして読み込むため)
+     *
+     * @param consumer レコードの位置を受け取る処理
+     */
+    void replay(LongConsumer consumer) {
+        long position = 0;
+        boolean corrupted = false;
+        while (true) {
+            int segmentIndex = (int) (position / segmentSize);
+            int offset = (int) (position % segmentSize);
+            if (segmentIndex >= segments.size()) {
+                break;
+            }
+            MappedByteBuffer segment = segments.get(segmentIndex);
+            int length = offset + HEADER_SIZE <= segmentSize
+                    ? segment.getInt(offset) : SEGMENT_PADDING;
+            if (length == SEGMENT_PADDING) {
+                position = (long) (segmentIndex + 1) * segmentSize;
+                continue;
+            }
+            if (length == END_OF_LOG) {
+                break;
+            }
+            if (length < 0 || offset + HEADER_SIZE + length > segmentSize
+                    || segment.getInt(offset + Integer.BYTES)
+                            != checksum(segment, offset, length)) {
+                corrupted = true;
+                break;
+            }
+            consumer.accept(position);
+            position += HEADER_SIZE + length;
+        }
+        if (corrupted) {
+            end = (long) segments.size() * segmentSize;
+            truncate(position);
+        } else {
+            end = position;
+        }
+    }
+
+    /**
+     * レコードを追記する
+     *
+     * @param body レコードの本体(読み込み位置から上限までを書き込む)
+     * @return 追記したレコードの位置
+     */
+    long append(ByteBuffer body) {
+        int length = body.remaining();
+        if (HEADER_SIZE + length > segmentSize) {
+            throw new IllegalArgumentException("Record is larger than segment: " + length);
+        }
+        int offset = (int) (end % segmentSize);
+        if (offset + HEADER_SIZE + length > segmentSize) {
+            //セグメントの残りに収まらない場合は次のセグメントへ
+            if (offset + Integer.BYTES <= segmentSize) {
+                segment(end).putInt(offset, SEGMENT_PADDING);
+            }
+            end = (end / segmentSize + 1) * segmentSize;
+            offset = 0;
+        }
+        MappedByteBuffer segment = segment(end);
+        segment.put(offset + HEADER_SIZE, body, body.position(), length);
+        segment.putInt(offset + Integer.BYTES, checksum(segment, offset, length));
+        //長さは最後に書き込む(途中で停止した場合は終端として扱われる)
+        segment.putInt(offset, length);
+        long position = end;
+        end += HEADER_SIZE + length;
+        return position;
+    }
+
+    /**
+     * レコードの本体を読み込む
+     *
+     * @param position レコードの位置
+     * @return レコードの本体(読み取り専用)
+     */
+    ByteBuffer read(long position) {
+        MappedByteBuffer segment = segments.get((int) (position / segmentSize));
+        int offset = (int) (position % segmentSize);
+        int length = segment.getInt(offset);
+        return segment.slice(offset + HEADER_SIZE, length).asReadOnlyBuffer();
+    }
+
+    /**
+     * 次に書き込む位置を取得する
+     *
+     * @return 次に書き込む位置
+     */
+    long end() {
+        return end;
+    }
+
+    /**
+     * 指定した位置以降を破棄し、そこを追記位置に戻す
+     *
+     * @param position 破棄する先頭の位置
+     */
+    void truncate(long position) {
+        for (long zeroFrom = position; zeroFrom < end; ) {
+            MappedByteBuffer segment = segments.get((int) (zeroFrom / segmentSize));
+            int offset = (int) (zeroFrom % segmentSize);
+            int to = (int) Math.min(segmentSize, offset + (end - zeroFrom));
+            for (int i = offset; i < to; i++) {
+                segment.put(i, (byte) 0);
+            }
+            zeroFrom += to - offset;
+        }
+        end = position;
+    }
+
+    /**
+     * 書き込んだ内容をディスクへ書き出す
+     */
+    void force() {
+        segments.forEach(MappedByteBuffer::force);
+    }
+
+    @Override
+    public void close() {
+        force();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 位置に対応するセグメントを取得する(必要に応じてファイルを拡張してマップする)
+     *
+     * @param position 位置
+     * @return セグメント
+     */
+    private MappedByteBuffer segment(long position) {
+        int segmentIndex = (int) (position / segmentSize);
+        while (segments.size() <= segmentIndex) {
+            try {
+                mapSegment();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return segments.get(segmentIndex);
+    }
+
+    /**
+     * 次のセグメントをメモリにマップする
+     *
+     * @throws IOException マップできなかった場合
+     */
+    private void mapSegment() throws IOException {
+        segments.add(channel.map(FileChannel.MapMode.READ_WRITE,
+                (long) segments.size() * segmentSize, segmentSize));
+    }
+
+    /**
+     * レコードの本体のCRC32Cを計算する
+     *
+     * @param segment セグメント
+     * @param offset  レコードのセグメント内の位置
+     * @param length  レコードの本体の長さ
+     * @return CRC32C
+     */
+    private static int checksum(MappedByteBuffer segment, int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(segment.slice(offset + HEADER_SIZE, length));
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,494 @@
+package jp.aevic.todo.storage.embedded;
+
+import jakarta.annotation.PreDestroy;
+import jp.aevic.todo.entity.tag.TagEntity;
+import jp.aevic.todo.entity.todo.TodoEntity;
+import jp.aevic.todo.util.context.StorageContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 組み込みストレージ本体
+ * <p>
+ * todo、tag、todo_tagの変更を1つの追記型ログ({@link AppendOnlyLog})に記録し、
+ * IDから最新のレコードの位置を引く索引({@link IntLongMap})をメモリ上に持つ。
+ * 起動時はログを先頭から読み直して索引を再構築する。
+ * </p>
+ * <p>
+ * 書き込みは1トランザクションずつ(書き込みロックを保持したまま)行い、
+ * トランザクションのレコードの後にCOMMITレコードを書き込む。
+ * ロールバック時は索引の変更を取り消し(undoログ)、ログをトランザクション開始位置まで戻す。
+ * COMMITレコードのないレコードは、起動時に破棄する。
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(prefix = "todo.storage", name = "engine", havingValue = "embedded")
+public class EmbeddedStore {
+    //ログ出力
+    private final Logger logger = LoggerFactory.getLogger(EmbeddedStore.class);
+
+    //レコードの種類
+    private static final byte TODO_PUT = 1;
+    private static final byte TODO_DELETE = 2;
+    private static final byte TAG_PUT = 3;
+    private static final byte TAG_DELETE = 4;
+    private static final byte LINKS_PUT = 5;
+    private static final byte LINKS_DELETE = 6;
+    private static final byte COMMIT = 7;
+    //ログファイル名
+    private static final String LOG_FILE_NAME = "todo.log";
+    //索引の初期容量
+    private static final int INITIAL_INDEX_SIZE = 1024;
+
+    private final AppendOnlyLog log;
+    private final boolean syncOnCommit;
+    //IDから最新のレコードの位置を引く索引
+    private final IntLongMap todoIndex = new IntLongMap(INITIAL_INDEX_SIZE);
+    private final IntLongMap tagIndex = new IntLongMap(INITIAL_INDEX_SIZE);
+    private final IntLongMap linksIndex = new IntLongMap(INITIAL_INDEX_SIZE);
+    //採番済みのIDの最大値
+    private int maxTodoId;
+    private int maxTagId;
+    //読み込みは並行、書き込みはトランザクション単位で排他
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * コンストラクタ
+     * ログファイルを開き、索引を再構築する
+     *
+     * @param context ストレージの設定
+     */
+    public EmbeddedStore(StorageContext context) {
+        StorageContext.Embedded embedded = context.getEmbedded();
+        try {
+            Files.createDirectories(embedded.getDirectory());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.syncOnCommit = embedded.isSyncOnCommit();
+        this.log = new AppendOnlyLog(embedded.getDirectory().resolve(LOG_FILE_NAME),
+                (int) embedded.getSegmentSize().toBytes());
+        recover();
+        logger.info("Embedded storage opened: {} todos, {} tags, log size {} bytes.",
+                todoIndex.size(), tagIndex.size(), log.end());
+    }
+
+    /**
+     * 読み込みロックを取得して処理を実行する
+     *
+     * @param reader 読み込み処理
+     * @param <T>    読み込み結果の型
+     * @return 読み込み結果
+     */
+    <T> T read(Supplier<T> reader) {
+        lock.readLock().lock();
+        try {
+            return reader.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 現在のトランザクション内で書き込みを行う
+     * トランザクション外で呼ばれた場合は、この書き込みだけのトランザクションとして実行する
+     *
+     * @param writer 書き込み処理
+     * @param <T>    書き込み結果の型
+     * @return 書き込み結果
+     */
+    <T> T write(Function<EmbeddedTransaction, T> writer) {
+        EmbeddedTransaction current =
+                (EmbeddedTransaction) TransactionSynchronizationManager.getResource(this);
+        if (current != null) {
+            return writer.apply(current);
+        }
+        EmbeddedTransaction transaction = begin();
+        T result;
+        try {
+            result = writer.apply(transaction);
+        } catch (RuntimeException | Error e) {
+            rollback(transaction);
+            throw e;
+        }
+        commit(transaction);
+        return result;
+    }
+
+    /**
+     * トランザクションを開始する(書き込みロックを取得する)
+     *
+     * @return 開始したトランザクション
+     */
+    EmbeddedTransaction begin() {
+        lock.writeLock().lock();
+        return new EmbeddedTransaction(log.end());
+    }
+
+    /**
+     * トランザクションをコミットする(書き込みロックを解放する)
+     *
+     * @param transaction コミットするトランザクション
+     */
+    void commit(EmbeddedTransaction transaction) {
+        try {
+            if (log.end() != transaction.startPosition) {
+                log.append(ByteBuffer.wrap(new byte[]{COMMIT}));
+                if (syncOnCommit) {
+                    log.force();
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * トランザクションをロールバックする(書き込みロックを解放する)
+     *
+     * @param transaction ロールバックするトランザクション
+     */
+    void rollback(EmbeddedTransaction transaction) {
+        try {
+            while (!transaction.undoLog.isEmpty()) {
+                transaction.undoLog.pop().run();
+            }
+            log.truncate(transaction.startPosition);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * todoを取得する
+     *
+     * @param todoId todoId
+     * @return todo(存在しない場合はnull)。tagsは未設定
+     */
+    TodoEntity findTodo(int todoId) {
+        long position = todoIndex.get(todoId);
+        if (position == IntLongMap.MISSING) {
+            return null;
+        }
+        ByteBuffer record = log.read(position);
+        record.get();
+        TodoEntity todoEntity = new TodoEntity();
+        todoEntity.setTodoId(record.getInt());
+        todoEntity.setVersion(record.getInt());
+        todoEntity.setTitle(getString(record));
+        todoEntity.setContent(getString(record));
+        return todoEntity;
+    }
+
+    /**
+     * tagを取得する
+     *
+     * @param tagId tagId
+     * @return tag(存在しない場合はnull)
+     */
+    TagEntity findTag(int tagId) {
+        long position = tagIndex.get(tagId);
+        if (position == IntLongMap.MISSING) {
+            return null;
+        }
+        ByteBuffer record = log.read(position);
+        record.get();
+        TagEntity tagEntity = new TagEntity();
+        tagEntity.setTagId(record.getInt());
+        tagEntity.setVersion(record.getInt());
+        tagEntity.setName(getString(record));
+        return tagEntity;
+    }
+
+    /**
+     * todoに紐づくtagIdを取得する
+     *
+     * @param todoId todoId
+     * @return 紐づくtagId(登録順)
+     */
+    int[] findLinks(int todoId) {
+        long position = linksIndex.get(todoId);
+        if (position == IntLongMap.MISSING) {
+            return new int[0];
+        }
+        ByteBuffer record = log.read(position);
+        record.get();
+        record.getInt();
+        int[] tagIds = new int[record.getInt()];
+        for (int i = 0; i < tagIds.length; i++) {
+            tagIds[i] = record.getInt();
+        }
+        return tagIds;
+    }
+
+    /**
+     * 全todoIdを昇順で取得する
+     *
+     * @return todoId
+     */
+    int[] todoIds() {
+        return todoIndex.sortedKeys();
+    }
+
+    /**
+     * 全tagIdを昇順で取得する
+     *
+     * @return tagId
+     */
+    int[] tagIds() {
+        return tagIndex.sortedKeys();
+    }
+
+    /**
+     * todoIdを採番する
+     *
+     * @return 採番したtodoId
+     */
+    int nextTodoId() {
+        return ++maxTodoId;
+    }
+
+    /**
+     * tagIdを採番する
+     *
+     * @return 採番したtagId
+     */
+    int nextTagId() {
+        return ++maxTagId;
+    }
+
+    /**
+     * todoの登録・更新を記録する
+     *
+     * @param transaction トランザクション
+     * @param todoEntity  登録・更新後のtodo
+     */
+    void putTodo(EmbeddedTransaction transaction, TodoEntity todoEntity) {
+        byte[] title = todoEntity.getTitle().getBytes(StandardCharsets.UTF_8);
+        byte[] content = todoEntity.getContent().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer record = ByteBuffer.allocate(1 + Integer.BYTES * 4 + title.length
+                + content.length);
+        record.put(TODO_PUT).putInt(todoEntity.getTodoId()).putInt(todoEntity.getVersion());
+        putString(record, title);
+        putString(record, content);
+        append(transaction, record);
+    }
+
+    /**
+     * todoの削除を記録する(紐づくtodo_tagも削除する)
+     *
+     * @param transaction トランザクション
+     * @param todoId      削除するtodoId
+     */
+    void deleteTodo(EmbeddedTransaction transaction, int todoId) {
+        append(transaction, ByteBuffer.allocate(1 + Integer.BYTES).put(TODO_DELETE).putInt(todoId));
+    }
+
+    /**
+     * tagの登録・更新を記録する
+     *
+     * @param transaction トランザクション
+     * @param tagEntity   登録・更新後のtag
+     */
+    void putTag(EmbeddedTransaction transaction, TagEntity tagEntity) {
+        byte[] name = tagEntity.getName().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer record = ByteBuffer.allocate(1 + Integer.BYTES * 3 + name.length);
+        record.put(TAG_PUT).putInt(tagEntity.getTagId()).putInt(tagEntity.getVersion());
+        putString(record, name);
+        append(transaction, record);
+    }
+
+    /**
+     * tagの削除を記録する
+     * 紐づくtodo_tagは読み込み時に除外する(削除したtagIdは再利用しないため)
+     *
+     * @param transaction トランザクション
+     * @param tagId       削除するtagId
+     */
+    void deleteTag(EmbeddedTransaction transaction, int tagId) {
+        append(transaction, ByteBuffer.allocate(1 + Integer.BYTES).put(TAG_DELETE).putInt(tagId));
+    }
+
+    /**
+     * todoに紐づくtagIdを記録する(既存の紐づけは置き換える)
+     *
+     * @param transaction トランザクション
+     * @param todoId      todoId
+     * @param tagIds      紐づけるtagId
+     */
+    void putLinks(EmbeddedTransaction transaction, int todoId, int[] tagIds) {
+        ByteBuffer record = ByteBuffer.allocate(1 + Integer.BYTES * (2 + tagIds.length));
+        record.put(LINKS_PUT).putInt(todoId).putInt(tagIds.length);
+        for (int tagId : tagIds) {
+            record.putInt(tagId);
+        }
+        append(transaction, record);
+    }
+
+    /**
+     * todoに紐づくtagIdをすべて削除する
+     *
+     * @param transaction トランザクション
+     * @param todoId      todoId
+     */
+    void deleteLinks(EmbeddedTransaction transaction, int todoId) {
+        append(transaction,
+                ByteBuffer.allocate(1 + Integer.BYTES).put(LINKS_DELETE).putInt(todoId));
+    }
+
+    /**
+     * ログを閉じる
+     */
+    @PreDestroy
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            log.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * レコードを追記し、索引に反映する
+     *
+     * @param transaction トランザクション
+     * @param record      レコード
+     */
+    private void append(EmbeddedTransaction transaction, ByteBuffer record) {
+        record.flip();
+        apply(log.append(record), transaction.undoLog);
+    }
+
+    /**
+     * ログを先頭から読み直し、コミット済みのレコードから索引を再構築する
+     */
+    private void recover() {
+        List<Long> pending = new ArrayList<>();
+        log.replay(position -> {
+            if (log.read(position).get(0) == COMMIT) {
+                pending.forEach(pendingPosition -> apply(pendingPosition, null));
+                pending.clear();
+            } else {
+                pending.add(position);
+            }
+        });
+        if (!pending.isEmpty()) {
+            //コミットされなかったトランザクションのレコードは破棄する
+            logger.warn("Discarding {} uncommitted records of embedded storage.", pending.size());
+            log.truncate(pending.get(0));
+        }
+    }
+
+    /**
+     * レコードを索引に反映する
+     *
+     * @param position レコードの位置
+     * @param undoLog  取り消し処理の記録先(起動時の再構築ではnull)
+     */
+    private void apply(long position, Deque<Runnable> undoLog) {
+        ByteBuffer record = log.read(position);
+        byte type = record.get();
+        int id = record.getInt();
+        switch (type) {
+            case TODO_PUT -> {
+                maxTodoId = Math.max(maxTodoId, id);
+                updateIndex(todoIndex, id, position, undoLog);
+            }
+            case TODO_DELETE -> {
+                updateIndex(todoIndex, id, IntLongMap.MISSING, undoLog);
+                updateIndex(linksIndex, id, IntLongMap.MISSING, undoLog);
+            }
+            case TAG_PUT -> {
+                maxTagId = Math.max(maxTagId, id);
+                updateIndex(tagIndex, id, position, undoLog);
+            }
+            case TAG_DELETE -> updateIndex(tagIndex, id, IntLongMap.MISSING, undoLog);
+            case LINKS_PUT -> updateIndex(linksIndex, id, position, undoLog);
+            case LINKS_DELETE -> updateIndex(linksIndex, id, IntLongMap.MISSING, undoLog);
+            default -> throw new IllegalStateException("Unknown record type: " + type);
+        }
+    }
+
+    /**
+     * 索引を更新し、取り消し処理を記録する
+     *
+     * @param index    索引
+     * @param id       ID
+     * @param position レコードの位置(削除の場合はMISSING)
+     * @param undoLog  取り消し処理の記録先(nullの場合は記録しない)
+     */
+    private void updateIndex(IntLongMap index, int id, long position, Deque<Runnable> undoLog) {
+        long previous = position == IntLongMap.MISSING ? index.remove(id)
+                : index.put(id, position);
+        if (undoLog == null) {
+            return;
+        }
+        undoLog.push(() -> {
+            if (previous == IntLongMap.MISSING) {
+                index.remove(id);
+            } else {
+                index.put(id, previous);
+            }
+        });
+    }
+
+    /**
+     * 長さ付きの文字列を書き込む
+     *
+     * @param record 書き込み先
+     * @param value  UTF-8の文字列
+     */
+    private static void putString(ByteBuffer record, byte[] value) {
+        record.putInt(value.length).put(value);
+    }
+
+    /**
+     * 長さ付きの文字列を読み込む
+     *
+     * @param record 読み込み元
+     * @return 文字列
+     */
+    private static String getString(ByteBuffer record) {
+        byte[] value = new byte[record.getInt()];
+        record.get(value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 組み込みストレージのトランザクション
+     */
+    static class EmbeddedTransaction {
+        //開始時のログの終端(ロールバック時はここまで戻す)
+        private final long startPosition;
+        //索引の変更の取り消し処理(新しいものから実行する)
+        private final Deque<Runnable> undoLog = new ArrayDeque<>();
+        //参加したトランザクションでロールバックが指示されたか(コミット時に全体をロールバックする)
+        boolean rollbackOnly;
+
+        /**
+         * コンストラクタ
+         *
+         * @param startPosition 開始時のログの終端
+         */
+        EmbeddedTransaction(long startPosition) {
+            this.startPosition = startPosition;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package jp.aevic.todo.storage.embedded;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import jp.aevic.todo.entity.tag.TagEntity;
+import jp.aevic.todo.queryCondition.tag.GetTagsQueryCondition;
+import jp.aevic.todo.storage.TagStorage;
+
+/**
+ * 組み込みストレージによるtagの永続化クラス
+ */
+@Component
+@ConditionalOnProperty(prefix = "todo.storage", name = "engine", havingValue = "embedded")
+public class EmbeddedTagStorage implements TagStorage {
+
+    // DI対象クラス
+    private final EmbeddedStore store;
+
+    /**
+     * コンストラクタ
+     * 
+     * @param store
+     */
+    public EmbeddedTagStorage(EmbeddedStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public void insertTag(TagEntity tagEntity) {
+        store.write(transaction -> {
+            tagEntity.setTagId(store.nextTagId());
+            store.putTag(transaction, tagEntity);
+            return null;
+        });
+    }
+
+    @Override
+    public TagEntity selectById(int tagId) {
+        return store.read(() -> store.findTag(tagId));
+    }
+
+    @Override
+    public List<TagEntity> selectByIds(List<Integer> tagIds) {
+        return store.read(() -> tagIds.stream()
+                .distinct()
+                .map(store::findTag)
+                .filter(Objects::nonNull)
+                .toList());
+    }
+
+    @Override
+    public List<TagEntity> selectByIdsForLink(List<Integer> tagIds) {
+        // 書き込みは1件ずつ実行するため、ロックは不要
+        return selectByIds(tagIds);
+    }
+
+    @Override
+    public List<TagEntity> selectAll(GetTagsQueryCondition queryCondition) {
+        // 名前の部分一致(大文字小文字を区別しない)
+        String name = queryCondition.getName();
+        String keyword = name == null || name.isEmpty() ? null : name.toLowerCase(Locale.ROOT);
+
+        return store.read(() -> {
+            List<TagEntity> result = new ArrayList<>();
+            for (int tagId : store.tagIds()) {
+                TagEntity tagEntity = store.findTag(tagId);
+                if (keyword == null
+                        || tagEntity.getName().toLowerCase(Locale.ROOT).contains(keyword)) {
+                    result.add(tagEntity);
+                }
+            }
+            return result;
+        });
+    }
+
+    @Override
+    public int updateTag(TagEntity tagEntity) {
+        return store.write(transaction -> {
+            TagEntity current = store.findTag(tagEntity.getTagId());
+            // 楽観ロック(更新回数が一致しない場合は更新しない)
+            if (current == null || current.getVersion() != tagEntity.getVersion()) {
+                return 0;
+            }
+            current.setName(tagEntity.getName());
+            current.setVersion(tagEntity.getVersion() + 1);
+            store.putTag(transaction, current);
+            return 1;
+        });
+    }
+
+    @Override
+    public int deleteTag(TagEntity tagEntity) {
+        return store.write(transaction -> {
+            TagEntity current = store.findTag(tagEntity.getTagId());
+            // 楽観ロック(更新回数が一致しない場合は削除しない)
+            if (current == null || current.getVersion() != tagEntity.getVersion()) {
+                return 0;
+            }
+            store.deleteTag(transaction, tagEntity.getTagId());
+            return 1;
+        });
+    }
+}
@@ -0,0 +1,171 @@
+package jp.aevic.todo.storage.embedded;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import jp.aevic.todo.entity.tag.TagEntity;
+import jp.aevic.todo.entity.todo.TodoEntity;
+import jp.aevic.todo.queryCondition.todo.GetTodosQueryCondition;
+import jp.aevic.todo.queryCondition.todo.TodoFields;
+import jp.aevic.todo.storage.TodoStorage;
+
+/**
+ * 組み込みストレージによるtodoの永続化クラス
+ */
+@Component
+@ConditionalOnProperty(prefix = "todo.storage", name = "engine", havingValue = "embedded")
+public class EmbeddedTodoStorage implements TodoStorage {
+
+    // DI対象クラス
+    private final EmbeddedStore store;
+
+    /**
+     * コンストラクタ
+     * 
+     * @param store
+     */
+    public EmbeddedTodoStorage(EmbeddedStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public void insertTodo(TodoEntity todoEntity) {
+        store.write(transaction -> {
+            todoEntity.setTodoId(store.nextTodoId());
+            store.putTodo(transaction, todoEntity);
+            return null;
+        });
+    }
+
+    @Override
+    public TodoEntity selectById(int todoId) {
+        return store.read(() -> findWithTags(todoId));
+    }
+
+    @Override
+    public TodoEntity selectById(int todoId, TodoFields fields) {
+        // レコード単位で読み込むため、すべての項目を取得する
+        return selectById(todoId);
+    }
+
+    @Override
+    public List<TodoEntity> selectByIds(List<Integer> todoIds) {
+        return store.read(() -> todoIds.stream()
+                .distinct()
+                .sorted()
+                .map(this::findWithTags)
+                .filter(Objects::nonNull)
+                .toList());
+    }
+
+    @Override
+    public List<TodoEntity> selectAll(GetTodosQueryCondition queryCondition) {
+        // タイトルの部分一致(大文字小文字を区別しない)
+        String title = queryCondition.getTitle();
+        String keyword = title == null || title.isEmpty() ? null : title.toLowerCase(Locale.ROOT);
+        int limit = queryCondition.getLimit() == null ? Integer.MAX_VALUE
+                : queryCondition.getLimit();
+
+        return store.read(() -> {
+            List<TodoEntity> result = new ArrayList<>();
+            for (int todoId : store.todoIds()) {
+                if (result.size() >= limit) {
+                    break;
+                }
+                TodoEntity todoEntity = store.findTodo(todoId);
+                if (keyword == null
+                        || todoEntity.getTitle().toLowerCase(Locale.ROOT).contains(keyword)) {
+                    todoEntity.setTags(findTags(todoId));
+                    result.add(todoEntity);
+                }
+            }
+            return result;
+        });
+    }
+
+    @Override
+    public long countAll(String title) {
+        String keyword = title == null || title.isEmpty() ? null : title.toLowerCase(Locale.ROOT);
+        return store.read(() -> {
+            long count = 0;
+            for (int todoId : store.todoIds()) {
+                if (keyword == null || store.findTodo(todoId).getTitle()
+                        .toLowerCase(Locale.ROOT).contains(keyword)) {
+                    count++;
+                }
+            }
+            return count;
+        });
+    }
+
+    @Override
+    public long estimateCount(String title) {
+        // 統計情報を持たないため、正確な件数を返す
+        return countAll(title);
+    }
+
+    @Override
+    public int updateTodo(TodoEntity todoEntity) {
+        return store.write(transaction -> {
+            TodoEntity current = store.findTodo(todoEntity.getTodoId());
+            // 楽観ロック(更新回数が一致しない場合は更新しない)
+            if (current == null || current.getVersion() != todoEntity.getVersion()) {
+                return 0;
+            }
+            current.setTitle(todoEntity.getTitle());
+            current.setContent(todoEntity.getContent());
+            current.setVersion(todoEntity.getVersion() + 1);
+            store.putTodo(transaction, current);
+            return 1;
+        });
+    }
+
+    @Override
+    public int deleteTodo(TodoEntity todoEntity) {
+        return store.write(transaction -> {
+            TodoEntity current = store.findTodo(todoEntity.getTodoId());
+            // 楽観ロック(更新回数が一致しない場合は削除しない)
+            if (current == null || current.getVersion() != todoEntity.getVersion()) {
+                return 0;
+            }
+            store.deleteTodo(transaction, todoEntity.getTodoId());
+            return 1;
+        });
+    }
+
+    /**
+     * tagを含めたtodoを取得する
+     * 
+     * @param todoId
+     * @return 存在しない場合はnull
+     */
+    private TodoEntity findWithTags(int todoId) {
+        TodoEntity todoEntity = store.findTodo(todoId);
+        if (todoEntity != null) {
+            todoEntity.setTags(findTags(todoId));
+        }
+        return todoEntity;
+    }
+
+    /**
+     * todoに紐づくtagを取得する(削除済みのtagは除く)
+     * 
+     * @param todoId
+     * @return
+     */
+    private List<TagEntity> findTags(int todoId) {
+        List<TagEntity> tags = new ArrayList<>();
+        for (int tagId : store.findLinks(todoId)) {
+            TagEntity tagEntity = store.findTag(tagId);
+            if (tagEntity != null) {
+                tags.add(tagEntity);
+            }
+        }
+        return tags;
+    }
+}
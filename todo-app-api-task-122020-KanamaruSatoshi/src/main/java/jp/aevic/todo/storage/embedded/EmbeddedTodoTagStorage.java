@@ -0,0 +1,60 @@
+package jp.aevic.todo.storage.embedded;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import jp.aevic.todo.entity.todo.TodoTagEntity;
+import jp.aevic.todo.storage.TodoTagStorage;
+
+/**
+ * 組み込みストレージによるtodo_tagの永続化クラス
+ * todoごとに、紐づくtagIdの配列を1レコードとして記録する
+ */
+@Component
+@ConditionalOnProperty(prefix = "todo.storage", name = "engine", havingValue = "embedded")
+public class EmbeddedTodoTagStorage implements TodoTagStorage {
+
+    // DI対象クラス
+    private final EmbeddedStore store;
+
+    /**
+     * コンストラクタ
+     * 
+     * @param store
+     */
+    public EmbeddedTodoTagStorage(EmbeddedStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public void insertTodoTag(List<TodoTagEntity> todoTagEntities) {
+        // todoごとにまとめて、既存の紐づけに追加する
+        Map<Integer, List<Integer>> tagIdsByTodo = todoTagEntities.stream()
+                .collect(Collectors.groupingBy(TodoTagEntity::getTodoId, LinkedHashMap::new,
+                        Collectors.mapping(TodoTagEntity::getTagId, Collectors.toList())));
+        store.write(transaction -> {
+            tagIdsByTodo.forEach((todoId, tagIds) -> {
+                int[] linked = IntStream.concat(IntStream.of(store.findLinks(todoId)),
+                        tagIds.stream().mapToInt(Integer::intValue)).distinct().toArray();
+                store.putLinks(transaction, todoId, linked);
+            });
+            return null;
+        });
+    }
+
+    @Override
+    public void deleteTodoTagByTodoId(int todoId) {
+        store.write(transaction -> {
+            if (store.findLinks(todoId).length > 0) {
+                store.deleteLinks(transaction, todoId);
+            }
+            return null;
+        });
+    }
+}
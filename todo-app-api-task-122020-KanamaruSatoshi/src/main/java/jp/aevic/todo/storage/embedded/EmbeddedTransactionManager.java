@@ -0,0 +1,99 @@
+package jp.aevic.todo.storage.embedded;
+
+import jp.aevic.todo.storage.embedded.EmbeddedStore.EmbeddedTransaction;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.SmartTransactionObject;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 組み込みストレージのトランザクションマネージャ
+ * <p>
+ * 組み込みストレージを使用する場合、DataSourceTransactionManagerの代わりに登録され、
+ * {@code @Transactional}のトランザクションを組み込みストレージのトランザクションとして扱う。
+ * トランザクションの中断(REQUIRES_NEWなど)には対応しない。
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(prefix = "todo.storage", name = "engine", havingValue = "embedded")
+public class EmbeddedTransactionManager extends AbstractPlatformTransactionManager {
+    //依存クラス
+    private final transient EmbeddedStore store;
+
+    /**
+     * コンストラクタ
+     *
+     * @param store 組み込みストレージ
+     */
+    public EmbeddedTransactionManager(EmbeddedStore store) {
+        this.store = store;
+    }
+
+    @Override
+    protected Object doGetTransaction() {
+        return new TransactionObject(
+                (EmbeddedTransaction) TransactionSynchronizationManager.getResource(store));
+    }
+
+    @Override
+    protected boolean isExistingTransaction(Object transaction) {
+        return ((TransactionObject) transaction).transaction != null;
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        EmbeddedTransaction embeddedTransaction = store.begin();
+        TransactionSynchronizationManager.bindResource(store, embeddedTransaction);
+        ((TransactionObject) transaction).transaction = embeddedTransaction;
+    }
+
+    @Override
+    protected void doCommit(DefaultTransactionStatus status) {
+        store.commit(((TransactionObject) status.getTransaction()).transaction);
+    }
+
+    @Override
+    protected void doRollback(DefaultTransactionStatus status) {
+        store.rollback(((TransactionObject) status.getTransaction()).transaction);
+    }
+
+    @Override
+    protected void doSetRollbackOnly(DefaultTransactionStatus status) {
+        ((TransactionObject) status.getTransaction()).transaction.rollbackOnly = true;
+    }
+
+    @Override
+    protected void doCleanupAfterCompletion(Object transaction) {
+        TransactionSynchronizationManager.unbindResource(store);
+    }
+
+    /**
+     * トランザクションの状態
+     */
+    private static class TransactionObject implements SmartTransactionObject {
+        //実行中のトランザクション(未開始の場合はnull)
+        private EmbeddedTransaction transaction;
+
+        /**
+         * コンストラクタ
+         *
+         * @param transaction 実行中のトランザクション
+         */
+        TransactionObject(EmbeddedTransaction transaction) {
+            this.transaction = transaction;
+        }
+
+        @Override
+        public boolean isRollbackOnly() {
+            return transaction != null && transaction.rollbackOnly;
+        }
+
+        @Override
+        public void flush() {
+            //ログへの書き込みは即時に行うため、何もしない
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package jp.aevic.todo.storage.embedded;
+
+import java.util.Arrays;
+
+/**
+ * intのキーとlongの値を持つハッシュマップ(オープンアドレス法)
+ * <p>
+ * IDからログ上の位置を引く索引に使用する。ボクシングを行わないため、
+ * HashMap&lt;Integer, Long&gt;に比べてメモリ使用量が少なく、GCの負荷も小さい。
+ * キーは1以上(IDは1から採番される)とし、0は空きを表す。スレッドセーフではない。
+ * </p>
+ */
+class IntLongMap {
+    //値が存在しない場合の戻り値
+    static final long MISSING = -1L;
+    //空きを表すキー
+    private static final int EMPTY = 0;
+    //この使用率を超えたら拡張する
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private int[] keys;
+    private long[] values;
+    private int size;
+
+    /**
+     * コンストラクタ
+     *
+     * @param expectedSize 想定する件数
+     */
+    IntLongMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max((int) (expectedSize / LOAD_FACTOR), 16) - 1)
+                << 1;
+        keys = new int[capacity];
+        values = new long[capacity];
+    }
+
+    /**
+     * 値を取得する
+     *
+     * @param key キー
+     * @return 値(存在しない場合はMISSING)
+     */
+    long get(int key) {
+        int mask = keys.length - 1;
+        for (int slot = hash(key) & mask; keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+        }
+        return MISSING;
+    }
+
+    /**
+     * 値を設定する
+     *
+     * @param key   キー(1以上)
+     * @param value 値
+     * @return 直前の値(存在しなかった場合はMISSING)
+     */
+    long put(int key, long value) {
+        if (key <= EMPTY) {
+            throw new IllegalArgumentException("key must be positive: " + key);
+        }
+        if (size + 1 > keys.length * LOAD_FACTOR) {
+            resize(keys.length << 1);
+        }
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                long previous = values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+        return MISSING;
+    }
+
+    /**
+     * 値を削除する
+     * 線形探索の連続性を保つため、後続の要素を詰め直す
+     *
+     * @param key キー
+     * @return 削除した値(存在しなかった場合はMISSING)
+     */
+    long remove(int key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (keys[slot] != key) {
+            if (keys[slot] == EMPTY) {
+                return MISSING;
+            }
+            slot = (slot + 1) & mask;
+        }
+        long removed = values[slot];
+        int gap = slot;
+        for (int next = (gap + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+            int home = hash(keys[next]) & mask;
+            //本来の位置から見て、空いた位置が探索経路上にある要素だけを詰める
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+        }
+        keys[gap] = EMPTY;
+        size--;
+        return removed;
+    }
+
+    /**
+     * 件数を取得する
+     *
+     * @return 件数
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * キーを昇順で取得する
+     *
+     * @return 昇順に並べたキー
+     */
+    int[] sortedKeys() {
+        int[] result = new int[size];
+        int index = 0;
+        for (int key : keys) {
+            if (key != EMPTY) {
+                result[index++] = key;
+            }
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * 容量を変更する
+     *
+     * @param capacity 変更後の容量(2のべき乗)
+     */
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        long[] oldValues = values;
+        keys = new int[capacity];
+        values = new long[capacity];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    /**
+     * キーのハッシュ値(連番のIDが偏らないように混ぜる)
+     *
+     * @param key キー
+     * @return ハッシュ値
+     */
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,80 @@
+package jp.aevic.todo.storage.mybatis;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jp.aevic.todo.mapper.todo.TodoTagsColumnMapper;
+import jp.aevic.todo.util.context.DenormalizedTagsContext;
+
+/**
+ * TODO.TAGS列とTODO_TAG・TAGの内容が一致しているかを定期的に確認するクラス
+ * <p>
+ * todoIdの範囲ごとに比較し、一致しないtodoを見つけた場合はログに出力する。
+ * todo.denormalized-tags.repairの場合は、TODO_TAG・TAGの内容から列を作り直す。
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(prefix = "todo.storage", name = "engine", havingValue = "mybatis",
+        matchIfMissing = true)
+public class DenormalizedTagsChecker {
+    //ログ出力
+    private final Logger logger = LoggerFactory.getLogger(DenormalizedTagsChecker.class);
+
+    //依存クラス
+    private final TodoTagsColumnMapper mapper;
+    private final DenormalizedTagsContext context;
+    //一致しなかったtodoの件数
+    private final Counter inconsistentCounter;
+
+    /**
+     * コンストラクタ
+     *
+     * @param mapper        TODO.TAGS列を読み書きするMapper
+     * @param context       TODO.TAGS列の設定
+     * @param meterRegistry メトリクスの登録先
+     */
+    public DenormalizedTagsChecker(TodoTagsColumnMapper mapper, DenormalizedTagsContext context,
+                                   MeterRegistry meterRegistry) {
+        this.mapper = mapper;
+        this.context = context;
+        this.inconsistentCounter = Counter.builder("todo.denormalized-tags.inconsistent")
+                .description("TODO.TAGS列がTODO_TAG・TAGの内容と一致しなかったtodoの件数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 全todoのTODO.TAGS列を確認する
+     * 比較は範囲ごとに1回のクエリで行うため、実行中のトランザクションの途中の状態は不一致としない
+     */
+    @Scheduled(initialDelayString = "${todo.denormalized-tags.check-interval:10m}",
+            fixedDelayString = "${todo.denormalized-tags.check-interval:10m}")
+    public void check() {
+        if (!context.isEnabled()) {
+            return;
+        }
+        int maxTodoId = mapper.selectMaxTodoId();
+        int inconsistent = 0;
+        for (long fromId = 1; fromId <= maxTodoId; fromId += context.getCheckBatchSize()) {
+            int toId = (int) Math.min(fromId + context.getCheckBatchSize() - 1, maxTodoId);
+            List<Integer> todoIds = mapper.selectInconsistentTodoIds((int) fromId, toId);
+            if (todoIds.isEmpty()) {
+                continue;
+            }
+            logger.warn("Denormalized tags are inconsistent: todoIds={}", todoIds);
+            inconsistent += todoIds.size();
+            if (context.isRepair()) {
+                mapper.refreshTags(todoIds);
+            }
+        }
+        inconsistentCounter.increment(inconsistent);
+        logger.info("Checked denormalized tags up to todoId {}: {} inconsistent{}.", maxTodoId,
+                inconsistent, inconsistent > 0 && context.isRepair() ? " (repaired)" : "");
+    }
+}
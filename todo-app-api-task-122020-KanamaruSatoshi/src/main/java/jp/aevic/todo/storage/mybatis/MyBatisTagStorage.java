@@ -0,0 +1,91 @@
+package jp.aevic.todo.storage.mybatis;
+
+import java.util.List;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import jp.aevic.todo.entity.tag.TagEntity;
+import jp.aevic.todo.mapper.tag.TagMapper;
+import jp.aevic.todo.mapper.todo.TodoTagsColumnMapper;
+import jp.aevic.todo.queryCondition.tag.GetTagsQueryCondition;
+import jp.aevic.todo.storage.TagStorage;
+import jp.aevic.todo.util.context.DenormalizedTagsContext;
+
+/**
+ * MyBatis(PostgreSQL)によるtagの永続化クラス
+ * todo.denormalized-tags.enabledの場合、更新・削除したタグを同じトランザクションで
+ * そのタグを含むTODO.TAGS列へ反映する
+ */
+@Component
+@ConditionalOnProperty(prefix = "todo.storage", name = "engine", havingValue = "mybatis",
+        matchIfMissing = true)
+public class MyBatisTagStorage implements TagStorage {
+
+    // DI対象クラス
+    private final TagMapper mapper;
+    private final TodoTagsColumnMapper tagsColumnMapper;
+    private final DenormalizedTagsContext denormalizedTagsContext;
+
+    /**
+     * コンストラクタ
+     * 
+     * @param mapper
+     * @param tagsColumnMapper
+     * @param denormalizedTagsContext
+     */
+    public MyBatisTagStorage(TagMapper mapper, TodoTagsColumnMapper tagsColumnMapper,
+            DenormalizedTagsContext denormalizedTagsContext) {
+        this.mapper = mapper;
+        this.tagsColumnMapper = tagsColumnMapper;
+        this.denormalizedTagsContext = denormalizedTagsContext;
+    }
+
+    @Override
+    public void insertTag(TagEntity tagEntity) {
+        mapper.insertTag(tagEntity);
+    }
+
+    @Override
+    public TagEntity selectById(int tagId) {
+        return mapper.selectById(tagId);
+    }
+
+    @Override
+    public List<TagEntity> selectByIds(List<Integer> tagIds) {
+        return mapper.selectByIds(tagIds);
+    }
+
+    @Override
+    public List<TagEntity> selectByIdsForLink(List<Integer> tagIds) {
+        // TODO.TAGS列を使用する場合、タグの更新はTAG、TODOの順にロックするため、
+        // todoの更新も同じ順にロックする(TODOを先にロックすると、待ち合いが循環してデッドロックとなる)
+        if (denormalizedTagsContext.isEnabled()) {
+            return mapper.selectByIdsForShare(tagIds);
+        }
+        return mapper.selectByIds(tagIds);
+    }
+
+    @Override
+    public List<TagEntity> selectAll(GetTagsQueryCondition queryCondition) {
+        return mapper.selectAll(queryCondition);
+    }
+
+    @Override
+    public int updateTag(TagEntity tagEntity) {
+        int updatedNum = mapper.updateTag(tagEntity);
+        if (updatedNum > 0 && denormalizedTagsContext.isEnabled()) {
+            tagsColumnMapper.replaceTag(tagEntity);
+        }
+        return updatedNum;
+    }
+
+    @Override
+    public int deleteTag(TagEntity tagEntity) {
+        int deletedNum = mapper.deleteTag(tagEntity);
+        if (deletedNum > 0 && denormalizedTagsContext.isEnabled()) {
+            tagsColumnMapper.removeTag(tagEntity.getTagId());
+        }
+        return deletedNum;
+    }
+}
@@ -0,0 +1,114 @@
+package jp.aevic.todo.storage.mybatis;
+
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import jp.aevic.todo.entity.todo.TodoEntity;
+import jp.aevic.todo.mapper.todo.TodoMapper;
+import jp.aevic.todo.mapper.todo.TodoTagsColumnMapper;
+import jp.aevic.todo.queryCondition.todo.GetTodosQueryCondition;
+import jp.aevic.todo.queryCondition.todo.TodoFields;
+import jp.aevic.todo.storage.TodoStorage;
+import jp.aevic.todo.util.context.DenormalizedTagsContext;
+
+/**
+ * MyBatis(PostgreSQL)によるtodoの永続化クラス
+ * todo.denormalized-tags.enabledの場合、タグはTODO.TAGS列から取得する(結合しない)
+ */
+@Component
+@ConditionalOnProperty(prefix = "todo.storage", name = "engine", havingValue = "mybatis",
+        matchIfMissing = true)
+public class MyBatisTodoStorage implements TodoStorage {
+    //実行計画(JSON形式)の読み込みに使用するObjectMapper(スレッドセーフ)
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    // DI対象クラス
+    private final TodoMapper mapper;
+    private final TodoTagsColumnMapper tagsColumnMapper;
+    private final DenormalizedTagsContext denormalizedTagsContext;
+
+    /**
+     * コンストラクタ
+     * 
+     * @param mapper
+     * @param tagsColumnMapper
+     * @param denormalizedTagsContext
+     */
+    public MyBatisTodoStorage(TodoMapper mapper, TodoTagsColumnMapper tagsColumnMapper,
+            DenormalizedTagsContext denormalizedTagsContext) {
+        this.mapper = mapper;
+        this.tagsColumnMapper = tagsColumnMapper;
+        this.denormalizedTagsContext = denormalizedTagsContext;
+    }
+
+    @Override
+    public void insertTodo(TodoEntity todoEntity) {
+        mapper.insertTodo(todoEntity);
+    }
+
+    @Override
+    public TodoEntity selectById(int todoId) {
+        if (denormalizedTagsContext.isEnabled()) {
+            return tagsColumnMapper.selectById(todoId);
+        }
+        return mapper.selectById(todoId);
+    }
+
+    @Override
+    public TodoEntity selectById(int todoId, TodoFields fields) {
+        if (denormalizedTagsContext.isEnabled()) {
+            return tagsColumnMapper.selectFieldsById(todoId, fields);
+        }
+        return mapper.selectFieldsById(todoId, fields);
+    }
+
+    @Override
+    public List<TodoEntity> selectByIds(List<Integer> todoIds) {
+        if (denormalizedTagsContext.isEnabled()) {
+            return tagsColumnMapper.selectByIds(todoIds);
+        }
+        return mapper.selectByIds(todoIds);
+    }
+
+    @Override
+    public List<TodoEntity> selectAll(GetTodosQueryCondition queryCondition) {
+        if (denormalizedTagsContext.isEnabled()) {
+            return tagsColumnMapper.selectAll(queryCondition);
+        }
+        return mapper.selectAll(queryCondition);
+    }
+
+    @Override
+    public long countAll(String title) {
+        return mapper.countAll(title);
+    }
+
+    @Override
+    public long estimateCount(String title) {
+        // 絞り込みがない場合はテーブルの推定行数(ANALYZE、autovacuumで更新される)
+        if (title == null || title.isEmpty()) {
+            return mapper.selectEstimatedRows();
+        }
+        // 絞り込みがある場合は実行計画の推定行数
+        try {
+            return OBJECT_MAPPER.readTree(mapper.explainFilteredRows(title))
+                    .path(0).path("Plan").path("Plan Rows").asLong(-1);
+        } catch (JsonProcessingException e) {
+            return -1;
+        }
+    }
+
+    @Override
+    public int updateTodo(TodoEntity todoEntity) {
+        return mapper.updateTodo(todoEntity);
+    }
+
+    @Override
+    public int deleteTodo(TodoEntity todoEntity) {
+        return mapper.deleteTodo(todoEntity);
+    }
+}
@@ -0,0 +1,60 @@
+package jp.aevic.todo.storage.mybatis;
+
+import java.util.List;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import jp.aevic.todo.entity.todo.TodoTagEntity;
+import jp.aevic.todo.mapper.todo.TodoTagMapper;
+import jp.aevic.todo.mapper.todo.TodoTagsColumnMapper;
+import jp.aevic.todo.storage.TodoTagStorage;
+import jp.aevic.todo.util.context.DenormalizedTagsContext;
+
+/**
+ * MyBatis(PostgreSQL)によるtodo_tagの永続化クラス
+ * todo.denormalized-tags.enabledの場合、同じトランザクションでTODO.TAGS列を作り直す
+ */
+@Component
+@ConditionalOnProperty(prefix = "todo.storage", name = "engine", havingValue = "mybatis",
+        matchIfMissing = true)
+public class MyBatisTodoTagStorage implements TodoTagStorage {
+
+    // DI対象クラス
+    private final TodoTagMapper mapper;
+    private final TodoTagsColumnMapper tagsColumnMapper;
+    private final DenormalizedTagsContext denormalizedTagsContext;
+
+    /**
+     * コンストラクタ
+     * 
+     * @param mapper
+     * @param tagsColumnMapper
+     * @param denormalizedTagsContext
+     */
+    public MyBatisTodoTagStorage(TodoTagMapper mapper, TodoTagsColumnMapper tagsColumnMapper,
+            DenormalizedTagsContext denormalizedTagsContext) {
+        this.mapper = mapper;
+        this.tagsColumnMapper = tagsColumnMapper;
+        this.denormalizedTagsContext = denormalizedTagsContext;
+    }
+
+    @Override
+    public void insertTodoTag(List<TodoTagEntity> todoTagEntities) {
+        mapper.insertTodoTag(todoTagEntities);
+        if (denormalizedTagsContext.isEnabled()) {
+            tagsColumnMapper.refreshTags(todoTagEntities.stream()
+                    .map(TodoTagEntity::getTodoId)
+                    .distinct()
+                    .toList());
+        }
+    }
+
+    @Override
+    public void deleteTodoTagByTodoId(int todoId) {
+        mapper.deleteTodoTagByTodoId(todoId);
+        if (denormalizedTagsContext.isEnabled()) {
+            tagsColumnMapper.refreshTags(List.of(todoId));
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package jp.aevic.todo.storage.r2dbc;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+
+import io.r2dbc.spi.Readable;
+import jp.aevic.todo.entity.tag.TagEntity;
+import reactor.core.publisher.Flux;
+
+/**
+ * R2DBC(PostgreSQL)によるtagの読み込みクラス
+ */
+@Component
+@ConditionalOnProperty(prefix = "todo.reactive-read", name = "enabled", havingValue = "true")
+public class R2dbcTagReader {
+
+    // DI対象クラス
+    private final DatabaseClient client;
+
+    /**
+     * コンストラクタ
+     * 
+     * @param client
+     */
+    public R2dbcTagReader(DatabaseClient client) {
+        this.client = client;
+    }
+
+    /**
+     * 一覧取得
+     * 
+     * @param name 名前(部分一致。nullまたは空文字の場合は絞り込まない)
+     * @return tagId順のtag
+     */
+    public Flux<TagEntity> selectAll(String name) {
+        if (name == null || name.isEmpty()) {
+            return client.sql("SELECT TAG_ID, NAME, VERSION FROM TAG ORDER BY TAG_ID")
+                    .map(R2dbcTagReader::toEntity)
+                    .all();
+        }
+        return client.sql("SELECT TAG_ID, NAME, VERSION FROM TAG"
+                        + " WHERE NAME ILIKE CONCAT('%', :name, '%') ORDER BY TAG_ID")
+                .bind("name", name)
+                .map(R2dbcTagReader::toEntity)
+                .all();
+    }
+
+    /**
+     * 取得した行からtagを生成する
+     * 
+     * @param row
+     * @return
+     */
+    private static TagEntity toEntity(Readable row) {
+        TagEntity tagEntity = new TagEntity();
+        tagEntity.setTagId(row.get("TAG_ID", Integer.class));
+        tagEntity.setName(row.get("NAME", String.class));
+        tagEntity.setVersion(row.get("VERSION", Integer.class));
+        return tagEntity;
+    }
+}
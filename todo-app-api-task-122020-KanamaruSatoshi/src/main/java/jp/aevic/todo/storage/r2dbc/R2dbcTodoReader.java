@@ -0,0 +1,150 @@
+package jp.aevic.todo.storage.r2dbc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+
+import io.r2dbc.spi.Readable;
+import jp.aevic.todo.entity.tag.TagEntity;
+import jp.aevic.todo.entity.todo.TodoEntity;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * R2DBC(PostgreSQL)によるtodoの読み込みクラス
+ * todoとタグを結合した行をtodoId順に受け取り、同じtodoIdの行をまとめて1件のtodoとする。
+ * 行は下流の要求に応じて受け取るため、件数に関わらずメモリに保持するのは1件分の行のみとなる
+ */
+@Component
+@ConditionalOnProperty(prefix = "todo.reactive-read", name = "enabled", havingValue = "true")
+public class R2dbcTodoReader {
+    // todoとタグを結合して取得するSQL(FROM句のTODOは副問い合わせで絞り込む)
+    private static final String SELECT_WITH_TAGS = """
+            SELECT
+                TODO.TODO_ID, TODO.TITLE, TODO.CONTENT, TODO.VERSION,
+                TAG.TAG_ID, TAG.NAME, TAG.VERSION AS TAG_VERSION
+            FROM
+                %s TODO
+                LEFT JOIN TODO_TAG ON TODO.TODO_ID = TODO_TAG.TODO_ID
+                LEFT JOIN TAG ON TODO_TAG.TAG_ID = TAG.TAG_ID
+            %s
+            ORDER BY TODO.TODO_ID
+            """;
+
+    // DI対象クラス
+    private final DatabaseClient client;
+
+    /**
+     * コンストラクタ
+     * 
+     * @param client
+     */
+    public R2dbcTodoReader(DatabaseClient client) {
+        this.client = client;
+    }
+
+    /**
+     * 一件取得
+     * 
+     * @param todoId
+     * @return 存在しない場合は空
+     */
+    public Mono<TodoEntity> selectById(int todoId) {
+        return groupByTodo(client.sql(SELECT_WITH_TAGS.formatted("TODO",
+                        "WHERE TODO.TODO_ID = :todoId"))
+                .bind("todoId", todoId)
+                .map(TodoTagRow::of)
+                .all())
+                .next();
+    }
+
+    /**
+     * 一覧取得
+     * 
+     * @param title タイトル(部分一致。nullまたは空文字の場合は絞り込まない)
+     * @param limit 取得上限数(nullの場合は全件)
+     * @return todoId順のtodo
+     */
+    public Flux<TodoEntity> selectAll(String title, Integer limit) {
+        boolean filtered = title != null && !title.isEmpty();
+        String todos = "(SELECT TODO_ID, TITLE, CONTENT, VERSION FROM TODO"
+                + (filtered ? " WHERE TITLE ILIKE CONCAT('%', :title, '%')" : "")
+                + " ORDER BY TODO_ID"
+                + (limit != null ? " LIMIT :limit" : "")
+                + ")";
+        DatabaseClient.GenericExecuteSpec spec = client.sql(SELECT_WITH_TAGS.formatted(todos, ""));
+        if (filtered) {
+            spec = spec.bind("title", title);
+        }
+        if (limit != null) {
+            spec = spec.bind("limit", limit);
+        }
+        return groupByTodo(spec.map(TodoTagRow::of).all());
+    }
+
+    /**
+     * todoId順の行を、同じtodoIdごとにタグをまとめたtodoにする
+     * 
+     * @param rows todoId順の行
+     * @return todo
+     */
+    private static Flux<TodoEntity> groupByTodo(Flux<TodoTagRow> rows) {
+        return rows.bufferUntilChanged(TodoTagRow::todoId)
+                .map(R2dbcTodoReader::toEntity);
+    }
+
+    /**
+     * 同じtodoの行からtodoを生成する
+     * 
+     * @param rows 同じtodoIdの行(タグがない場合はタグの列がnullの1行)
+     * @return todo
+     */
+    private static TodoEntity toEntity(List<TodoTagRow> rows) {
+        TodoTagRow first = rows.get(0);
+        TodoEntity todoEntity = new TodoEntity();
+        todoEntity.setTodoId(first.todoId());
+        todoEntity.setTitle(first.title());
+        todoEntity.setContent(first.content());
+        todoEntity.setVersion(first.version());
+        List<TagEntity> tags = new ArrayList<>(rows.size());
+        for (TodoTagRow row : rows) {
+            if (row.tagId() != null) {
+                TagEntity tagEntity = new TagEntity();
+                tagEntity.setTagId(row.tagId());
+                tagEntity.setName(row.tagName());
+                tagEntity.setVersion(Objects.requireNonNullElse(row.tagVersion(), 0));
+                tags.add(tagEntity);
+            }
+        }
+        todoEntity.setTags(tags);
+        return todoEntity;
+    }
+
+    /**
+     * todoとタグを結合した1行
+     */
+    private record TodoTagRow(int todoId, String title, String content, int version,
+            Integer tagId, String tagName, Integer tagVersion) {
+
+        /**
+         * 取得した行から生成する
+         * 
+         * @param row
+         * @return
+         */
+        static TodoTagRow of(Readable row) {
+            return new TodoTagRow(
+                    row.get("TODO_ID", Integer.class),
+                    row.get("TITLE", String.class),
+                    row.get("CONTENT", String.class),
+                    row.get("VERSION", Integer.class),
+                    row.get("TAG_ID", Integer.class),
+                    row.get("NAME", String.class),
+                    row.get("TAG_VERSION", Integer.class));
+        }
+    }
+}
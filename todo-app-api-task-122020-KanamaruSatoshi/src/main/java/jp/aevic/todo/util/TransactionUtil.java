@@ -0,0 +1,35 @@
+package jp.aevic.todo.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * トランザクションに関するUtil
+ */
+public class TransactionUtil {
+
+    /**
+     * インスタンス化させない
+     */
+    private TransactionUtil() {
+    }
+
+    /**
+     * 現在のトランザクションのコミット後に処理を実行する
+     * トランザクション外で呼ばれた場合(各SQLが自動コミットされる場合)は即時に実行する
+     *
+     * @param action コミット後に実行する処理
+     */
+    public static void runAfterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,129 @@
+package jp.aevic.todo.util.concurrent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+
+/**
+ * 処理時間に応じて同時実行数の上限を調整するクラス(AIMD)
+ * <p>
+ * 処理時間が閾値以内で、上限の半分以上を使用している間は上限を少しずつ上げ(上限1つ分の完了ごとに+1)、
+ * 閾値を超えた処理があった場合は上限に割合を掛けて下げる。
+ * 同時に完了した複数の遅い処理で下げすぎないよう、下げるのは閾値の時間あたり1回までとする。
+ * 上限のうち一定の割合は書き込みのみが使用でき、過負荷の際は読み込みから先に受け付けなくなる。
+ * </p>
+ */
+public class AdaptiveConcurrencyLimiter {
+    //上限の範囲
+    private final int minLimit;
+    private final int maxLimit;
+    //上限を下げる処理時間
+    private final long latencyThresholdNanos;
+    //上限を下げる場合に掛ける割合
+    private final double backoffRatio;
+    //上限のうち書き込みのみが使用できる割合
+    private final double writeReserveRatio;
+    //受け付けなかった回数
+    private final Counter rejectedReadCounter;
+    private final Counter rejectedWriteCounter;
+
+    //現在の上限
+    private double limit;
+    //実行中の数
+    private int inFlight;
+    //最後に上限を下げた時刻
+    private long lastBackoffNanos;
+
+    /**
+     * コンストラクタ
+     *
+     * @param initialLimit      起動時の上限
+     * @param minLimit          上限の下限値
+     * @param maxLimit          上限の上限値
+     * @param latencyThreshold  上限を下げる処理時間
+     * @param backoffRatio      上限を下げる場合に掛ける割合
+     * @param writeReserveRatio 上限のうち書き込みのみが使用できる割合
+     * @param meterRegistry     メトリクスの登録先
+     */
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit,
+                                      Duration latencyThreshold, double backoffRatio,
+                                      double writeReserveRatio, MeterRegistry meterRegistry) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.backoffRatio = backoffRatio;
+        this.writeReserveRatio = writeReserveRatio;
+        this.limit = Math.min(Math.max(initialLimit, minLimit), maxLimit);
+        this.lastBackoffNanos = System.nanoTime() - latencyThresholdNanos;
+        Gauge.builder("todo.concurrency-limit.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+                .description("同時実行数の上限")
+                .register(meterRegistry);
+        Gauge.builder("todo.concurrency-limit.in-flight", this,
+                        AdaptiveConcurrencyLimiter::getInFlight)
+                .description("実行中のリクエスト数")
+                .register(meterRegistry);
+        this.rejectedReadCounter = Counter.builder("todo.concurrency-limit.rejected")
+                .tag("type", "read")
+                .description("上限を超えたため受け付けなかったリクエスト数")
+                .register(meterRegistry);
+        this.rejectedWriteCounter = Counter.builder("todo.concurrency-limit.rejected")
+                .tag("type", "write")
+                .description("上限を超えたため受け付けなかったリクエスト数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 実行を開始する
+     * 受け付けた場合は、完了時に必ずreleaseを呼ぶこと
+     *
+     * @param write 書き込みか(書き込み専用の枠も使用できる)
+     * @return 受け付けた場合はtrue、上限を超えている場合はfalse
+     */
+    public synchronized boolean tryAcquire(boolean write) {
+        double available = write ? limit : limit * (1 - writeReserveRatio);
+        if (inFlight >= Math.max((int) available, 1)) {
+            (write ? rejectedWriteCounter : rejectedReadCounter).increment();
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    /**
+     * 実行の完了を通知し、処理時間に応じて上限を調整する
+     *
+     * @param latencyNanos 処理時間(ナノ秒)
+     */
+    public synchronized void release(long latencyNanos) {
+        int inFlightBeforeRelease = inFlight--;
+        if (latencyNanos > latencyThresholdNanos) {
+            long now = System.nanoTime();
+            if (now - lastBackoffNanos >= latencyThresholdNanos) {
+                limit = Math.max(limit * backoffRatio, minLimit);
+                lastBackoffNanos = now;
+            }
+        } else if (inFlightBeforeRelease * 2 >= limit) {
+            limit = Math.min(limit + 1 / limit, maxLimit);
+        }
+    }
+
+    /**
+     * 現在の上限を取得する
+     *
+     * @return 現在の上限
+     */
+    public synchronized double getLimit() {
+        return limit;
+    }
+
+    /**
+     * 実行中の数を取得する
+     *
+     * @return 実行中の数
+     */
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+}
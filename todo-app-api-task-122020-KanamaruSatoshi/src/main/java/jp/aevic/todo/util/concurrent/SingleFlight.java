@@ -0,0 +1,108 @@
+package jp.aevic.todo.util.concurrent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * 同じキーに対する同時実行中の処理を1回にまとめるクラス
+ * <p>
+ * 実行中の処理がある間に同じキーで呼ばれた場合は、新たに実行せずその結果を共有する。
+ * 結果は処理の完了と同時に破棄するため、完了後に呼ばれた場合は改めて実行する(キャッシュはしない)。
+ * 相乗りした呼び出し元には同じインスタンスを返却するため、結果を変更しないこと。
+ * </p>
+ *
+ * @param <K> まとめる単位となるキー(equals/hashCodeで同一判定する)
+ * @param <V> 処理結果
+ */
+public class SingleFlight<K, V> {
+    //実行中の処理
+    private final ConcurrentMap<K, CompletableFuture<V>> flights = new ConcurrentHashMap<>();
+    //実際に実行した回数
+    private final Counter executedCounter;
+    //実行中の処理に相乗りした回数
+    private final Counter coalescedCounter;
+
+    /**
+     * コンストラクタ
+     *
+     * @param name          メトリクスのタグに使用する名前
+     * @param meterRegistry メトリクスの登録先
+     */
+    public SingleFlight(String name, MeterRegistry meterRegistry) {
+        this.executedCounter = Counter.builder("todo.single-flight.requests")
+                .tag("name", name)
+                .tag("result", "executed")
+                .register(meterRegistry);
+        this.coalescedCounter = Counter.builder("todo.single-flight.requests")
+                .tag("name", name)
+                .tag("result", "coalesced")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 処理を実行する
+     * 同じキーの処理が実行中であれば、その完了を待って結果を返す
+     *
+     * @param key      まとめる単位となるキー
+     * @param supplier 実行する処理
+     * @return 処理結果
+     */
+    public V execute(K key, Supplier<V> supplier) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> inFlight = flights.putIfAbsent(key, flight);
+        //実行中の処理があれば相乗りする
+        if (inFlight != null) {
+            coalescedCounter.increment();
+            return join(inFlight);
+        }
+
+        executedCounter.increment();
+        try {
+            V result = supplier.get();
+            flight.complete(result);
+            return result;
+        } catch (Throwable e) {
+            //Errorも含めて完了させる(完了させないと相乗りした呼び出し元が待ち続ける)
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            //完了した結果は共有しない
+            flights.remove(key, flight);
+        }
+    }
+
+    /**
+     * 実行中の処理を以降の呼び出しで共有しないようにする
+     * データ更新後に、更新前の状態を読んでいる可能性のある処理へ相乗りさせないために使用する
+     */
+    public void forget() {
+        flights.clear();
+    }
+
+    /**
+     * 実行中の処理の完了を待つ
+     *
+     * @param inFlight 実行中の処理
+     * @return 処理結果
+     */
+    private V join(CompletableFuture<V> inFlight) {
+        try {
+            return inFlight.join();
+        } catch (CompletionException e) {
+            //処理で発生した例外はそのまま投げ直す
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
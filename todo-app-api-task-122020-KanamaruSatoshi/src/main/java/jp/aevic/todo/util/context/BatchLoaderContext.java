@@ -0,0 +1,39 @@
+package jp.aevic.todo.util.context;
+
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * ID指定の1件取得をまとめて実行するバッチローダーの外部設定された値をもってくるクラス
+ * <p>
+ * application.propertiesファイルのtodo.batch-loaderに対応した値を管理する
+ * </p>
+ */
+@ConfigurationProperties(prefix = "todo.batch-loader")
+@Getter
+public class BatchLoaderContext {
+    //バッチローダーを使用するか
+    private final boolean enabled;
+    //最初のIDを受け付けてからクエリを発行するまでの待ち時間
+    private final Duration window;
+    //この件数が集まった時点で待ち時間を待たずにクエリを発行する
+    private final int maxBatchSize;
+
+    /**
+     * コンストラクタ
+     *
+     * @param enabled      バッチローダーを使用するか
+     * @param window       クエリ発行までの待ち時間
+     * @param maxBatchSize 1回のクエリで取得する最大件数
+     */
+    public BatchLoaderContext(@DefaultValue("false") boolean enabled,
+                              @DefaultValue("2ms") Duration window,
+                              @DefaultValue("50") int maxBatchSize) {
+        this.enabled = enabled;
+        this.window = window;
+        this.maxBatchSize = maxBatchSize;
+    }
+}
@@ -0,0 +1,27 @@
+package jp.aevic.todo.util.context;
+
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * 一括出力に関する外部設定された値をもってくるクラス
+ * <p>
+ * application.propertiesファイルのtodo.bulk-exportに対応した値を管理する
+ * </p>
+ */
+@ConfigurationProperties(prefix = "todo.bulk-export")
+@Getter
+public class BulkExportContext {
+    //ファイル出力時に、todoIdの範囲を分けて並列に出力する数(コネクションプールの上限未満とすること)
+    private final int partitions;
+
+    /**
+     * コンストラクタ
+     *
+     * @param partitions 並列に出力する数
+     */
+    public BulkExportContext(@DefaultValue("4") int partitions) {
+        this.partitions = partitions;
+    }
+}
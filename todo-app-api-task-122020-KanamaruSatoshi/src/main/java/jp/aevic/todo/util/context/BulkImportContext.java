@@ -0,0 +1,27 @@
+package jp.aevic.todo.util.context;
+
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * 一括取込に関する外部設定された値をもってくるクラス
+ * <p>
+ * application.propertiesファイルのtodo.bulk-importに対応した値を管理する
+ * </p>
+ */
+@ConfigurationProperties(prefix = "todo.bulk-import")
+@Getter
+public class BulkImportContext {
+    //取込結果に詳細を返却する、取り込まなかった行の上限件数
+    private final int maxReportedRejections;
+
+    /**
+     * コンストラクタ
+     *
+     * @param maxReportedRejections 取込結果に詳細を返却する、取り込まなかった行の上限件数
+     */
+    public BulkImportContext(@DefaultValue("1000") int maxReportedRejections) {
+        this.maxReportedRejections = maxReportedRejections;
+    }
+}
@@ -0,0 +1,60 @@
+package jp.aevic.todo.util.context;
+
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * 読み込み・書き込みのバルクヘッド(専用のスレッド、コネクションプール)に関する外部設定された値をもってくるクラス
+ * <p>
+ * application.propertiesファイルのtodo.bulkheadに対応した値を管理する
+ * </p>
+ */
+@ConfigurationProperties(prefix = "todo.bulkhead")
+@Getter
+public class BulkheadContext {
+    //バルクヘッドを使用するか(falseの場合はリクエストを受け付けたスレッドで実行する)
+    private final boolean enabled;
+    //読み込みのスレッド数、待ち行列の長さ、コネクションプールの上限
+    private final int readThreads;
+    private final int readQueueCapacity;
+    private final int readPoolSize;
+    //書き込みのスレッド数、待ち行列の長さ、コネクションプールの上限
+    private final int writeThreads;
+    private final int writeQueueCapacity;
+    private final int writePoolSize;
+    //待ち行列が一杯で受け付けなかったリクエストに返却する再試行までの待ち時間(Retry-After)
+    private final Duration retryAfter;
+
+    /**
+     * コンストラクタ
+     *
+     * @param enabled            バルクヘッドを使用するか
+     * @param readThreads        読み込みのスレッド数
+     * @param readQueueCapacity  読み込みの待ち行列の長さ
+     * @param readPoolSize       読み込みのコネクションプールの上限
+     * @param writeThreads       書き込みのスレッド数
+     * @param writeQueueCapacity 書き込みの待ち行列の長さ
+     * @param writePoolSize      書き込みのコネクションプールの上限
+     * @param retryAfter         再試行までの待ち時間
+     */
+    public BulkheadContext(@DefaultValue("false") boolean enabled,
+                           @DefaultValue("8") int readThreads,
+                           @DefaultValue("100") int readQueueCapacity,
+                           @DefaultValue("6") int readPoolSize,
+                           @DefaultValue("4") int writeThreads,
+                           @DefaultValue("50") int writeQueueCapacity,
+                           @DefaultValue("4") int writePoolSize,
+                           @DefaultValue("1s") Duration retryAfter) {
+        this.enabled = enabled;
+        this.readThreads = readThreads;
+        this.readQueueCapacity = readQueueCapacity;
+        this.readPoolSize = readPoolSize;
+        this.writeThreads = writeThreads;
+        this.writeQueueCapacity = writeQueueCapacity;
+        this.writePoolSize = writePoolSize;
+        this.retryAfter = retryAfter;
+    }
+}
@@ -0,0 +1,49 @@
+package jp.aevic.todo.util.context;
+
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * ノード間のキャッシュ無効化通知(PostgreSQLのLISTEN/NOTIFY)に関する外部設定された値をもってくるクラス
+ * <p>
+ * application.propertiesファイルのtodo.cache-invalidationに対応した値を管理する
+ * </p>
+ */
+@ConfigurationProperties(prefix = "todo.cache-invalidation")
+@Getter
+public class CacheInvalidationContext {
+    //ノード間の無効化通知を使用するか
+    private final boolean enabled;
+    //通知に使用するチャンネル名
+    private final String channel;
+    //通知が届いてから、続けて届く通知をまとめて処理するまでの待ち時間
+    private final Duration coalesceWindow;
+    //通知を待つ1回あたりの時間(停止要求の確認間隔)
+    private final Duration pollTimeout;
+    //接続が切れた場合の再接続までの待ち時間
+    private final Duration reconnectInterval;
+
+    /**
+     * コンストラクタ
+     *
+     * @param enabled           ノード間の無効化通知を使用するか
+     * @param channel           通知に使用するチャンネル名
+     * @param coalesceWindow    続けて届く通知をまとめる待ち時間
+     * @param pollTimeout       通知を待つ1回あたりの時間
+     * @param reconnectInterval 再接続までの待ち時間
+     */
+    public CacheInvalidationContext(@DefaultValue("false") boolean enabled,
+                                    @DefaultValue("todo_cache_invalidation") String channel,
+                                    @DefaultValue("50ms") Duration coalesceWindow,
+                                    @DefaultValue("1s") Duration pollTimeout,
+                                    @DefaultValue("5s") Duration reconnectInterval) {
+        this.enabled = enabled;
+        this.channel = channel;
+        this.coalesceWindow = coalesceWindow;
+        this.pollTimeout = pollTimeout;
+        this.reconnectInterval = reconnectInterval;
+    }
+}
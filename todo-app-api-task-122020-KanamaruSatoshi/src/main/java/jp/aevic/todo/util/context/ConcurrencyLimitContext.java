@@ -0,0 +1,64 @@
+package jp.aevic.todo.util.context;
+
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * APIの同時実行数の制限に関する外部設定された値をもってくるクラス
+ * <p>
+ * application.propertiesファイルのtodo.concurrency-limitに対応した値を管理する
+ * </p>
+ */
+@ConfigurationProperties(prefix = "todo.concurrency-limit")
+@Getter
+public class ConcurrencyLimitContext {
+    //同時実行数を制限するか
+    private final boolean enabled;
+    //起動時の同時実行数の上限
+    private final int initialLimit;
+    //同時実行数の上限の下限値
+    private final int minLimit;
+    //同時実行数の上限の上限値
+    private final int maxLimit;
+    //この時間を超えて完了したリクエストがあった場合に、上限を下げる
+    private final Duration latencyThreshold;
+    //上限を下げる場合に掛ける割合
+    private final double backoffRatio;
+    //上限のうち書き込み(GET、HEAD以外)のみが使用できる割合
+    private final double writeReserveRatio;
+    //受け付けなかったリクエストに返却する再試行までの待ち時間(Retry-After)
+    private final Duration retryAfter;
+
+    /**
+     * コンストラクタ
+     *
+     * @param enabled           同時実行数を制限するか
+     * @param initialLimit      起動時の同時実行数の上限
+     * @param minLimit          同時実行数の上限の下限値
+     * @param maxLimit          同時実行数の上限の上限値
+     * @param latencyThreshold  上限を下げる処理時間
+     * @param backoffRatio      上限を下げる場合に掛ける割合
+     * @param writeReserveRatio 上限のうち書き込みのみが使用できる割合
+     * @param retryAfter        再試行までの待ち時間
+     */
+    public ConcurrencyLimitContext(@DefaultValue("false") boolean enabled,
+                                   @DefaultValue("20") int initialLimit,
+                                   @DefaultValue("4") int minLimit,
+                                   @DefaultValue("200") int maxLimit,
+                                   @DefaultValue("200ms") Duration latencyThreshold,
+                                   @DefaultValue("0.9") double backoffRatio,
+                                   @DefaultValue("0.2") double writeReserveRatio,
+                                   @DefaultValue("1s") Duration retryAfter) {
+        this.enabled = enabled;
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThreshold = latencyThreshold;
+        this.backoffRatio = backoffRatio;
+        this.writeReserveRatio = writeReserveRatio;
+        this.retryAfter = retryAfter;
+    }
+}
@@ -0,0 +1,50 @@
+package jp.aevic.todo.util.context;
+
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * リクエストの処理期限(SQLのタイムアウト)に関する外部設定された値をもってくるクラス
+ * <p>
+ * application.propertiesファイルのtodo.deadlineに対応した値を管理する
+ * </p>
+ */
+@ConfigurationProperties(prefix = "todo.deadline")
+@Getter
+public class DeadlineContext {
+    //処理期限を設定するか
+    private final boolean enabled;
+    //クライアントが処理時間の上限(ミリ秒)を指定するヘッダ
+    private final String header;
+    //ヘッダ、エンドポイントごとの指定がない場合の処理時間の上限
+    private final Duration defaultTimeout;
+    //ヘッダで指定できる処理時間の上限の最大値
+    private final Duration maxTimeout;
+    //エンドポイント(コントローラーのクラス名.メソッド名)ごとの処理時間の上限
+    private final Map<String, Duration> endpointTimeouts;
+
+    /**
+     * コンストラクタ
+     *
+     * @param enabled          処理期限を設定するか
+     * @param header           処理時間の上限を指定するヘッダ
+     * @param defaultTimeout   既定の処理時間の上限
+     * @param maxTimeout       ヘッダで指定できる処理時間の上限の最大値
+     * @param endpointTimeouts エンドポイントごとの処理時間の上限
+     */
+    public DeadlineContext(@DefaultValue("false") boolean enabled,
+                           @DefaultValue("X-Request-Timeout") String header,
+                           @DefaultValue("10s") Duration defaultTimeout,
+                           @DefaultValue("30s") Duration maxTimeout,
+                           Map<String, Duration> endpointTimeouts) {
+        this.enabled = enabled;
+        this.header = header;
+        this.defaultTimeout = defaultTimeout;
+        this.maxTimeout = maxTimeout;
+        this.endpointTimeouts = endpointTimeouts == null ? Map.of() : endpointTimeouts;
+    }
+}
@@ -0,0 +1,37 @@
+package jp.aevic.todo.util.context;
+
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * todoに非正規化して持たせるタグ(TODO.TAGS列)に関する外部設定された値をもってくるクラス
+ * <p>
+ * application.propertiesファイルのtodo.denormalized-tagsに対応した値を管理する
+ * </p>
+ */
+@ConfigurationProperties(prefix = "todo.denormalized-tags")
+@Getter
+public class DenormalizedTagsContext {
+    //TODO.TAGS列を読み書きするか(falseの場合はTODO_TAG・TAGを結合して取得する)
+    private final boolean enabled;
+    //整合性チェックで1回に比較するtodoIdの範囲
+    private final int checkBatchSize;
+    //整合性チェックで不一致を見つけた場合に修復するか
+    private final boolean repair;
+
+    /**
+     * コンストラクタ
+     *
+     * @param enabled        TODO.TAGS列を読み書きするか
+     * @param checkBatchSize 整合性チェックで1回に比較するtodoIdの範囲
+     * @param repair         整合性チェックで不一致を見つけた場合に修復するか
+     */
+    public DenormalizedTagsContext(@DefaultValue("false") boolean enabled,
+                                   @DefaultValue("1000") int checkBatchSize,
+                                   @DefaultValue("true") boolean repair) {
+        this.enabled = enabled;
+        this.checkBatchSize = checkBatchSize;
+        this.repair = repair;
+    }
+}
@@ -0,0 +1,50 @@
+package jp.aevic.todo.util.context;
+
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * よく参照されるtodo・タグ(ホットキー)の記録に関する外部設定された値をもってくるクラス
+ * <p>
+ * application.propertiesファイルのtodo.hot-keysに対応した値を管理する
+ * </p>
+ */
+@ConfigurationProperties(prefix = "todo.hot-keys")
+@Getter
+public class HotKeyContext {
+    //参照回数を記録するか
+    private final boolean enabled;
+    //参照回数を数えるカウンタの数(2の累乗に切り上げる。todo・タグそれぞれ4バイト×この数を使用する)
+    private final int sketchSize;
+    //ホットキーとして返却・保存する件数
+    private final int topK;
+    //ホットキーを保存するファイル(起動時に読み込み、ウォームアップで先に取得する)
+    private final Path snapshotFile;
+    //ホットキーをファイルへ保存する間隔
+    private final Duration snapshotInterval;
+
+    /**
+     * コンストラクタ
+     *
+     * @param enabled          参照回数を記録するか
+     * @param sketchSize       参照回数を数えるカウンタの数
+     * @param topK             ホットキーとして返却・保存する件数
+     * @param snapshotFile     ホットキーを保存するファイル
+     * @param snapshotInterval ホットキーをファイルへ保存する間隔
+     */
+    public HotKeyContext(@DefaultValue("false") boolean enabled,
+                         @DefaultValue("65536") int sketchSize,
+                         @DefaultValue("100") int topK,
+                         @DefaultValue("data/hot-keys.tsv") Path snapshotFile,
+                         @DefaultValue("1m") Duration snapshotInterval) {
+        this.enabled = enabled;
+        this.sketchSize = sketchSize;
+        this.topK = topK;
+        this.snapshotFile = snapshotFile;
+        this.snapshotInterval = snapshotInterval;
+    }
+}
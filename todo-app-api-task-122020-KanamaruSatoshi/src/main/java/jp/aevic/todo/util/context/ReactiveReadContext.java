@@ -0,0 +1,52 @@
+package jp.aevic.todo.util.context;
+
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * 読み込みのリアクティブ版(R2DBC)に関する外部設定された値をもってくるクラス
+ * <p>
+ * application.propertiesファイルのtodo.reactive-readに対応した値を管理する
+ * </p>
+ */
+@ConfigurationProperties(prefix = "todo.reactive-read")
+@Getter
+public class ReactiveReadContext {
+    //Accept: application/x-ndjsonの読み込みをR2DBCで処理するか
+    private final boolean enabled;
+    //R2DBCの接続先(r2dbc:postgresql://ホスト:ポート/DB名)とアカウント情報
+    private final String url;
+    private final String username;
+    private final String password;
+    //コネクションプールの上限
+    private final int maxPoolSize;
+    //コネクションの取得を待つ時間の上限
+    private final Duration acquireTimeout;
+
+    /**
+     * コンストラクタ
+     *
+     * @param enabled        R2DBCで処理するか
+     * @param url            R2DBCの接続先
+     * @param username       ユーザー名
+     * @param password       パスワード
+     * @param maxPoolSize    コネクションプールの上限
+     * @param acquireTimeout コネクションの取得を待つ時間の上限
+     */
+    public ReactiveReadContext(@DefaultValue("false") boolean enabled,
+                               @DefaultValue("r2dbc:postgresql://localhost:5432/todo") String url,
+                               String username,
+                               String password,
+                               @DefaultValue("10") int maxPoolSize,
+                               @DefaultValue("5s") Duration acquireTimeout) {
+        this.enabled = enabled;
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.maxPoolSize = maxPoolSize;
+        this.acquireTimeout = acquireTimeout;
+    }
+}
@@ -0,0 +1,49 @@
+package jp.aevic.todo.util.context;
+
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * 遅いSQLの記録に関する外部設定された値をもってくるクラス
+ * <p>
+ * application.propertiesファイルのtodo.slow-queryに対応した値を管理する
+ * </p>
+ */
+@ConfigurationProperties(prefix = "todo.slow-query")
+@Getter
+public class SlowQueryContext {
+    //遅いSQLを記録するか
+    private final boolean enabled;
+    //この時間以上かかったSQLを記録する
+    private final Duration threshold;
+    //記録したSELECTのうち、実行計画(EXPLAIN ANALYZE)を取得する割合(0〜1)
+    private final double explainSampleRate;
+    //実行計画の取得のタイムアウト
+    private final Duration explainTimeout;
+    //保持する件数(古いものから破棄する)
+    private final int capacity;
+
+    /**
+     * コンストラクタ
+     *
+     * @param enabled           遅いSQLを記録するか
+     * @param threshold         記録する実行時間の閾値
+     * @param explainSampleRate 実行計画を取得する割合
+     * @param explainTimeout    実行計画の取得のタイムアウト
+     * @param capacity          保持する件数
+     */
+    public SlowQueryContext(@DefaultValue("false") boolean enabled,
+                            @DefaultValue("200ms") Duration threshold,
+                            @DefaultValue("0.1") double explainSampleRate,
+                            @DefaultValue("10s") Duration explainTimeout,
+                            @DefaultValue("100") int capacity) {
+        this.enabled = enabled;
+        this.threshold = threshold;
+        this.explainSampleRate = explainSampleRate;
+        this.explainTimeout = explainTimeout;
+        this.capacity = capacity;
+    }
+}
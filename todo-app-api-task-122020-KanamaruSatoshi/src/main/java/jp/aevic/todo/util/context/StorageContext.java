@@ -0,0 +1,63 @@
+package jp.aevic.todo.util.context;
+
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+
+/**
+ * 永続化の方式(ストレージエンジン)に関する外部設定された値をもってくるクラス
+ * <p>
+ * application.propertiesファイルのtodo.storageに対応した値を管理する
+ * </p>
+ */
+@ConfigurationProperties(prefix = "todo.storage")
+@Getter
+public class StorageContext {
+    //ストレージエンジン(mybatis: PostgreSQL、embedded: 組み込みのファイル)
+    private final String engine;
+    //組み込みストレージの設定
+    private final Embedded embedded;
+
+    /**
+     * コンストラクタ
+     *
+     * @param engine   ストレージエンジン
+     * @param embedded 組み込みストレージの設定
+     */
+    public StorageContext(@DefaultValue("mybatis") String engine,
+                          @DefaultValue Embedded embedded) {
+        this.engine = engine;
+        this.embedded = embedded;
+    }
+
+    /**
+     * 組み込みストレージ(todo.storage.embedded)の設定
+     */
+    @Getter
+    public static class Embedded {
+        //ログファイルを配置するディレクトリ
+        private final Path directory;
+        //ログファイルをメモリにマップする単位(1件のデータはこの大きさを超えられない)
+        private final DataSize segmentSize;
+        //コミットのたびにディスクへ書き出すか(falseの場合はOSに任せる)
+        private final boolean syncOnCommit;
+
+        /**
+         * コンストラクタ
+         *
+         * @param directory    ログファイルを配置するディレクトリ
+         * @param segmentSize  ログファイルをメモリにマップする単位
+         * @param syncOnCommit コミットのたびにディスクへ書き出すか
+         */
+        public Embedded(@DefaultValue("data") Path directory,
+                        @DefaultValue("64MB") DataSize segmentSize,
+                        @DefaultValue("false") boolean syncOnCommit) {
+            this.directory = directory;
+            this.segmentSize = segmentSize;
+            this.syncOnCommit = syncOnCommit;
+        }
+    }
+}
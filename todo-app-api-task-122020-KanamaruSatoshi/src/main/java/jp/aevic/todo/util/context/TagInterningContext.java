@@ -0,0 +1,32 @@
+package jp.aevic.todo.util.context;
+
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * todoに紐づくタグの共有(同じタグを1つのインスタンスにまとめる)に関する外部設定された値をもってくるクラス
+ * <p>
+ * application.propertiesファイルのtodo.tag-interningに対応した値を管理する
+ * </p>
+ */
+@ConfigurationProperties(prefix = "todo.tag-interning")
+@Getter
+public class TagInterningContext {
+    //検索結果のタグを共有するか
+    private final boolean enabled;
+    //検索をまたいで共有するタグの上限件数(0の場合は1回の検索結果の中でのみ共有する)
+    private final long sharedCacheSize;
+
+    /**
+     * コンストラクタ
+     *
+     * @param enabled         検索結果のタグを共有するか
+     * @param sharedCacheSize 検索をまたいで共有するタグの上限件数
+     */
+    public TagInterningContext(@DefaultValue("false") boolean enabled,
+                               @DefaultValue("0") long sharedCacheSize) {
+        this.enabled = enabled;
+        this.sharedCacheSize = sharedCacheSize;
+    }
+}
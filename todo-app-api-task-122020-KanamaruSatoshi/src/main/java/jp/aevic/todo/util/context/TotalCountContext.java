@@ -0,0 +1,27 @@
+package jp.aevic.todo.util.context;
+
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * 一覧取得の総件数(X-Total-Count)に関する外部設定された値をもってくるクラス
+ * <p>
+ * application.propertiesファイルのtodo.total-countに対応した値を管理する
+ * </p>
+ */
+@ConfigurationProperties(prefix = "todo.total-count")
+@Getter
+public class TotalCountContext {
+    //推定件数がこの件数未満の場合は、推定件数の代わりに正確な件数を数える
+    private final long exactThreshold;
+
+    /**
+     * コンストラクタ
+     *
+     * @param exactThreshold 推定件数の代わりに正確な件数を数える上限
+     */
+    public TotalCountContext(@DefaultValue("10000") long exactThreshold) {
+        this.exactThreshold = exactThreshold;
+    }
+}
@@ -0,0 +1,44 @@
+package jp.aevic.todo.util.context;
+
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * 起動時のウォームアップに関する外部設定された値をもってくるクラス
+ * <p>
+ * application.propertiesファイルのtodo.warmupに対応した値を管理する
+ * </p>
+ */
+@ConfigurationProperties(prefix = "todo.warmup")
+@Getter
+public class WarmupContext {
+    //起動時にウォームアップを行うか
+    private final boolean enabled;
+    //ウォームアップのリクエストを送り続ける時間
+    private final Duration duration;
+    //同時に送るリクエスト数
+    private final int concurrency;
+    //コネクションプールが最小の接続数に達するまで待つ時間の上限
+    private final Duration poolFillTimeout;
+
+    /**
+     * コンストラクタ
+     *
+     * @param enabled         起動時にウォームアップを行うか
+     * @param duration        ウォームアップのリクエストを送り続ける時間
+     * @param concurrency     同時に送るリクエスト数
+     * @param poolFillTimeout コネクションプールが最小の接続数に達するまで待つ時間の上限
+     */
+    public WarmupContext(@DefaultValue("false") boolean enabled,
+                         @DefaultValue("10s") Duration duration,
+                         @DefaultValue("2") int concurrency,
+                         @DefaultValue("10s") Duration poolFillTimeout) {
+        this.enabled = enabled;
+        this.duration = duration;
+        this.concurrency = concurrency;
+        this.poolFillTimeout = poolFillTimeout;
+    }
+}
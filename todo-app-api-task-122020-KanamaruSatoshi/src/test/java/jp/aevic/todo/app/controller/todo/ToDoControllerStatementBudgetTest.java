@@ -0,0 +1,184 @@
+package jp.aevic.todo.app.controller.todo;
+
+import com.github.springtestdbunit.DbUnitTestExecutionListener;
+import com.github.springtestdbunit.annotation.DatabaseSetup;
+import jp.aevic.todo.form.todo.TodoDeleteForm;
+import jp.aevic.todo.form.todo.TodoPostForm;
+import jp.aevic.todo.form.todo.TodoPutForm;
+import jp.aevic.todo.testTools.StatementCounter;
+import jp.aevic.todo.testTools.TestUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestExecutionListeners;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * ToDoControllerのエンドポイントごとのSQLの件数・DBとの往復回数のテスト
+ * <p>
+ * エンドポイントごとに上限を決め、SQLの追加やN+1を検知する。
+ * 一覧取得・総件数はキャッシュから返却されるため、計測の前にキャッシュを破棄する。
+ * </p>
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestExecutionListeners(value = DbUnitTestExecutionListener.class,
+        mergeMode = TestExecutionListeners.MergeMode.MERGE_WITH_DEFAULTS)
+@DatabaseSetup("/META-INF/dbunit/app/controller/todo/setup.xml")
+class ToDoControllerStatementBudgetTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private StatementCounter statementCounter;
+    @Autowired
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void clearCaches() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @Test
+    @DisplayName("一覧取得は、タグを含めて1件のSQLで取得する")
+    void getAllTodos() throws Exception {
+        statementCounter.measure(() -> perform(get("/todos").param("limit", "3"),
+                        status().isOk()))
+                .assertStatementsAtMost(1)
+                .assertRoundTripsAtMost(1);
+    }
+
+    @Test
+    @DisplayName("キャッシュした一覧取得は、SQLを実行しない")
+    void getAllTodosFromCache() throws Exception {
+        perform(get("/todos").param("limit", "3"), status().isOk());
+
+        statementCounter.measure(() -> perform(get("/todos").param("limit", "3"),
+                        status().isOk()))
+                .assertStatementsAtMost(0);
+    }
+
+    @Test
+    @DisplayName("総件数を含む一覧取得は、一覧と総件数の2件のSQLで取得する")
+    void getAllTodosWithCount() throws Exception {
+        statementCounter.measure(() -> perform(get("/todos").param("count", "exact"),
+                        status().isOk()))
+                .assertStatementsAtMost(2)
+                .assertRoundTripsAtMost(2)
+                .assertNoRepeatedStatements();
+    }
+
+    @Test
+    @DisplayName("一件取得は、タグを含めて1件のSQLで取得する")
+    void getTodoById() throws Exception {
+        statementCounter.measure(() -> perform(get("/todos/1"), status().isOk()))
+                .assertStatementsAtMost(1)
+                .assertRoundTripsAtMost(1);
+    }
+
+    @Test
+    @DisplayName("ID指定の複数件取得は、件数によらず1件のSQLで取得する(N+1とならない)")
+    void getTodosByIds() throws Exception {
+        statementCounter.measure(() -> perform(get("/todos").param("ids", "1,2,3"),
+                        status().isOk()))
+                .assertStatementsAtMost(1)
+                .assertRoundTripsAtMost(1);
+    }
+
+    @Test
+    @DisplayName("登録は、todoの登録・タグの存在チェック・todo_tagの一括登録で行う")
+    void postTodo() throws Exception {
+        TodoPostForm form = new TodoPostForm();
+        form.setTitle("title4");
+        form.setContent("content4");
+        form.setTags(List.of(1, 2));
+
+        statementCounter.measure(() -> perform(post("/todos")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(TestUtil.convertJSON(form)), status().isCreated()))
+                .assertStatementsAtMost(3)
+                .assertRoundTripsAtMost(4)
+                .assertNoRepeatedStatements();
+    }
+
+    @Test
+    @DisplayName("タグを変更しない更新は、todoの取得・更新の2件のSQLで行う")
+    void putTodoWithoutTags() throws Exception {
+        statementCounter.measure(() -> perform(put("/todos/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(TestUtil.convertJSON(putForm(List.of()))),
+                        status().isNoContent()))
+                .assertStatementsAtMost(2)
+                .assertRoundTripsAtMost(3)
+                .assertNoRepeatedStatements();
+    }
+
+    @Test
+    @DisplayName("タグを変更する更新は、todo_tagを1件ずつ登録しない(5件のSQLで行う)")
+    void putTodoWithTags() throws Exception {
+        statementCounter.measure(() -> perform(put("/todos/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(TestUtil.convertJSON(putForm(List.of(1, 2)))),
+                        status().isNoContent()))
+                .assertStatementsAtMost(5)
+                .assertRoundTripsAtMost(6)
+                .assertNoRepeatedStatements();
+    }
+
+    @Test
+    @DisplayName("削除は、todoの取得・削除・todo_tagの削除で行う")
+    void deleteTodo() throws Exception {
+        TodoDeleteForm form = new TodoDeleteForm();
+        form.setVersion(0);
+
+        statementCounter.measure(() -> perform(delete("/todos/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(TestUtil.convertJSON(form)), status().isNoContent()))
+                .assertStatementsAtMost(3)
+                .assertRoundTripsAtMost(4)
+                .assertNoRepeatedStatements();
+    }
+
+    /**
+     * リクエストを送信し、非同期処理(バルクヘッド)の完了を待ってステータスを検証する
+     *
+     * @param request リクエスト
+     * @param status  期待するステータス
+     * @throws Exception リクエストが失敗した場合
+     */
+    private void perform(RequestBuilder request, ResultMatcher status) throws Exception {
+        MvcResult result = mockMvc.perform(request).andReturn();
+        mockMvc.perform(asyncDispatch(result)).andExpect(status);
+    }
+
+    /**
+     * todo1を更新するformを生成する
+     *
+     * @param tags 紐づけるtagId
+     * @return form
+     */
+    private static TodoPutForm putForm(List<Integer> tags) {
+        TodoPutForm form = new TodoPutForm();
+        form.setTitle("updated");
+        form.setContent("content1");
+        form.setTags(tags);
+        form.setVersion(0);
+        return form;
+    }
+}
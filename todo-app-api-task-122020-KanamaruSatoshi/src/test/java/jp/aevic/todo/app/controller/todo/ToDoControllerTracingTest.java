@@ -0,0 +1,110 @@
+package jp.aevic.todo.app.controller.todo;
+
+import com.github.springtestdbunit.DbUnitTestExecutionListener;
+import com.github.springtestdbunit.annotation.DatabaseSetup;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import jp.aevic.todo.testTools.TracingConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestExecutionListeners;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * ToDoControllerのトレーシングのテスト
+ * <p>
+ * すべてのリクエストのスパンを記録し、リクエストからSQLまでが1つのトレースにまとまることを確認する。
+ * 一覧取得はキャッシュから返却されるため、計測の前にキャッシュを破棄する。
+ * </p>
+ */
+@SpringBootTest(properties = "management.tracing.sampling.probability=1.0")
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@Import(TracingConfig.class)
+@TestExecutionListeners(value = DbUnitTestExecutionListener.class,
+        mergeMode = TestExecutionListeners.MergeMode.MERGE_WITH_DEFAULTS)
+@DatabaseSetup("/META-INF/dbunit/app/controller/todo/setup.xml")
+class ToDoControllerTracingTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private InMemorySpanExporter spanExporter;
+    @Autowired
+    private SdkTracerProvider tracerProvider;
+    @Autowired
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        tracerProvider.forceFlush().join(5, TimeUnit.SECONDS);
+        spanExporter.reset();
+    }
+
+    @Test
+    @DisplayName("SQLのスパンは、バルクヘッドのスレッドを経由してもservice・controller・httpのスパンの子となる")
+    void sqlSpanIsChildOfServiceControllerAndHttpSpans() throws Exception {
+        MvcResult result = mockMvc.perform(get("/todos").param("limit", "3")).andReturn();
+        //バルクヘッドのスレッドで処理するため、非同期処理となる
+        assertThat(result.getRequest().isAsyncStarted()).isTrue();
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+        tracerProvider.forceFlush().join(5, TimeUnit.SECONDS);
+        List<SpanData> spans = spanExporter.getFinishedSpanItems();
+
+        SpanData sql = spans.stream()
+                .filter(span -> "todo-mapper.select-all".equals(span.getName()))
+                .findFirst().orElseThrow();
+        assertThat(sql.getAttributes().get(AttributeKey.stringKey("statement")))
+                .isEqualTo("jp.aevic.todo.mapper.todo.TodoMapper.selectAll");
+        assertThat(sql.getAttributes().get(AttributeKey.stringKey("rows"))).isEqualTo("3");
+
+        SpanData service = parent(sql, spans);
+        assertThat(service.getName()).isEqualTo("to-do-service#get-all-todos");
+        SpanData controller = parent(service, spans);
+        assertThat(controller.getName()).isEqualTo("to-do-controller#get-all-todos");
+        //controllerとhttpの間には、Spring Securityのスパンが入る
+        List<String> ancestors = new ArrayList<>();
+        SpanData root = controller;
+        while (root.getParentSpanContext().isValid()) {
+            root = parent(root, spans);
+            ancestors.add(root.getName());
+        }
+        assertThat(root.getName()).isEqualTo("http get /todos");
+        assertThat(ancestors).allMatch(name -> name.equals("http get /todos")
+                || name.startsWith("secured") || name.startsWith("security"));
+        assertThat(spans).extracting(SpanData::getTraceId).containsOnly(root.getTraceId());
+    }
+
+    /**
+     * 親のスパンを取得する
+     *
+     * @param span  スパン
+     * @param spans 記録されたスパン
+     * @return 親のスパン
+     */
+    private static SpanData parent(SpanData span, List<SpanData> spans) {
+        return spans.stream()
+                .filter(candidate -> candidate.getSpanId().equals(span.getParentSpanId()))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("parent of " + span.getName()));
+    }
+}
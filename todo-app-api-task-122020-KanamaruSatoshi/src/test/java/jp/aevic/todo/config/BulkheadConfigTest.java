@@ -0,0 +1,74 @@
+package jp.aevic.todo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jp.aevic.todo.util.context.BulkheadContext;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * バルクヘッドごとのコネクションプールの設定のテスト
+ * <p>
+ * コネクションプールは接続を要求するまでDBに接続しないため、DBなしで設定値のみを確認する。
+ * </p>
+ */
+class BulkheadConfigTest {
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(PropertiesConfig.class,
+                    BulkheadConfig.BulkheadDataSourceConfig.class)
+            .withPropertyValues(
+                    "todo.bulkhead.enabled=true",
+                    "todo.bulkhead.read-pool-size=6",
+                    "todo.bulkhead.write-pool-size=4",
+                    "spring.datasource.url=jdbc:postgresql://localhost:5432/todo",
+                    "spring.datasource.hikari.maximum-pool-size=10",
+                    "spring.datasource.hikari.connection-timeout=1234",
+                    "spring.datasource.hikari.max-lifetime=600000",
+                    "spring.datasource.hikari.pool-name=configured");
+
+    @Test
+    @DisplayName("読み込み・書き込みのコネクションプールにも、spring.datasource.hikari.*の設定を適用する")
+    void appliesHikariPropertiesToAllPools() {
+        contextRunner.run(context -> {
+            for (String name : new String[]{"defaultDataSource", "readDataSource",
+                    "writeDataSource"}) {
+                HikariDataSource dataSource = context.getBean(name, HikariDataSource.class);
+                assertThat(dataSource.getConnectionTimeout()).as(name).isEqualTo(1234);
+                assertThat(dataSource.getMaxLifetime()).as(name).isEqualTo(600000);
+            }
+        });
+    }
+
+    @Test
+    @DisplayName("最大数はバルクヘッドの設定で置き換え、名前はプールごとに付ける")
+    void overridesPoolSizeAndName() {
+        contextRunner.run(context -> {
+            HikariDataSource defaultDataSource =
+                    context.getBean("defaultDataSource", HikariDataSource.class);
+            HikariDataSource readDataSource =
+                    context.getBean("readDataSource", HikariDataSource.class);
+            HikariDataSource writeDataSource =
+                    context.getBean("writeDataSource", HikariDataSource.class);
+
+            assertThat(defaultDataSource.getMaximumPoolSize()).isEqualTo(10);
+            assertThat(readDataSource.getMaximumPoolSize()).isEqualTo(6);
+            assertThat(writeDataSource.getMaximumPoolSize()).isEqualTo(4);
+            assertThat(defaultDataSource.getPoolName()).isEqualTo("todo-default");
+            assertThat(readDataSource.getPoolName()).isEqualTo("todo-read");
+            assertThat(writeDataSource.getPoolName()).isEqualTo("todo-write");
+        });
+    }
+
+    /**
+     * コネクションプールの生成に使用する設定値
+     */
+    @Configuration
+    @EnableConfigurationProperties({DataSourceProperties.class, BulkheadContext.class})
+    static class PropertiesConfig {
+    }
+}
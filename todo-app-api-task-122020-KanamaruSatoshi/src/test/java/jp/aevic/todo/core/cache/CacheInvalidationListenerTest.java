@@ -0,0 +1,209 @@
+package jp.aevic.todo.core.cache;
+
+import com.github.springtestdbunit.DbUnitTestExecutionListener;
+import com.github.springtestdbunit.annotation.DatabaseSetup;
+import jp.aevic.todo.TodoApplication;
+import jp.aevic.todo.entity.todo.TodoEntity;
+import jp.aevic.todo.form.todo.TodoPutForm;
+import jp.aevic.todo.logic.service.todo.ToDoService;
+import jp.aevic.todo.queryCondition.todo.GetTodosQueryCondition;
+import jp.aevic.todo.testTools.TestUtil;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestExecutionListeners;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * ノード間のキャッシュ無効化通知(LISTEN/NOTIFY)のテスト
+ * <p>
+ * テストのアプリケーションをノードA、別に起動するアプリケーションをノードBとし、
+ * 同じDB(DbunitでセットアップしたdataSourceの接続先)を介して無効化が伝わることを確認する。
+ * </p>
+ */
+@SpringBootTest(properties = {
+        "todo.cache-invalidation.enabled=true",
+        "todo.cache-invalidation.channel=" + CacheInvalidationListenerTest.CHANNEL,
+        "todo.cache-invalidation.poll-timeout=100ms",
+        "todo.cache-invalidation.reconnect-interval=200ms"})
+@AutoConfigureMockMvc
+@TestExecutionListeners(value = DbUnitTestExecutionListener.class,
+        mergeMode = TestExecutionListeners.MergeMode.MERGE_WITH_DEFAULTS)
+@DatabaseSetup("/META-INF/dbunit/core/cache/setup.xml")
+@DirtiesContext
+class CacheInvalidationListenerTest {
+    //テスト用の通知チャンネル(他の環境の通知を受信しないようにする)
+    static final String CHANNEL = "todo_cache_invalidation_test";
+    //通知の反映を待つ上限
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    //ノードB
+    private static ConfigurableApplicationContext nodeB;
+
+    //ノードA
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+
+    @BeforeAll
+    static void startNodeB() {
+        nodeB = new SpringApplicationBuilder(TodoApplication.class)
+                .properties("server.port=0",
+                        "todo.cache-invalidation.enabled=true",
+                        "todo.cache-invalidation.channel=" + CHANNEL,
+                        "todo.cache-invalidation.poll-timeout=100ms",
+                        "todo.cache-invalidation.reconnect-interval=200ms")
+                .run();
+    }
+
+    @AfterAll
+    static void stopNodeB() {
+        if (nodeB != null) {
+            nodeB.close();
+        }
+    }
+
+    @Test
+    @DisplayName("ノードAの更新がコミットされると、ノードBの一覧取得のキャッシュが無効になる")
+    void writeOnNodeAInvalidatesCacheOnNodeB() throws Exception {
+        awaitListening();
+        ToDoService serviceB = nodeB.getBean(ToDoService.class);
+        DataGeneration generationB = nodeB.getBean(DataGeneration.class);
+        GetTodosQueryCondition condition = new GetTodosQueryCondition();
+
+        //ノードBで一覧をキャッシュする
+        assertThat(serviceB.getAllTodos(condition).get(0).getVersion()).isZero();
+        List<TodoEntity> cached = serviceB.getAllTodos(condition);
+        assertThat(serviceB.getAllTodos(condition)).isSameAs(cached);
+        long generationBeforeWrite = generationB.current();
+
+        //ノードAで更新する
+        putTodo(1, "updated", 0);
+
+        //通知を受信したノードBは世代を進め、キャッシュした一覧を返却しなくなる
+        await().atMost(TIMEOUT)
+                .until(() -> generationB.current() > generationBeforeWrite);
+        List<TodoEntity> todos = serviceB.getAllTodos(condition);
+        assertThat(todos).isNotSameAs(cached);
+        assertThat(todos.get(0).getTitle()).isEqualTo("updated");
+        assertThat(todos.get(0).getVersion()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("待ち受けのコネクションが切れると、再接続した時点でノードBのキャッシュをすべて破棄する")
+    void reconnectFlushesAllCachesOnNodeB() throws Exception {
+        awaitListening();
+        ToDoService serviceB = nodeB.getBean(ToDoService.class);
+        DataGeneration generationB = nodeB.getBean(DataGeneration.class);
+        CaffeineCache todoListB =
+                (CaffeineCache) nodeB.getBean(CacheManager.class).getCache("todoList");
+
+        //ノードBで一覧をキャッシュする
+        serviceB.getAllTodos(new GetTodosQueryCondition());
+        assertThat(todoListB.getNativeCache().asMap()).isNotEmpty();
+        long generationBeforeDisconnect = generationB.current();
+
+        //切断中の通知は届かないため、再接続後に通知なしでキャッシュが破棄されることを確認する
+        assertThat(terminateListeners()).isGreaterThan(0);
+
+        await().atMost(TIMEOUT).until(() -> generationB.current() > generationBeforeDisconnect
+                && todoListB.getNativeCache().asMap().isEmpty());
+        awaitListening();
+    }
+
+    /**
+     * ノードA・Bの両方が通知の待ち受けを開始するまで待つ
+     */
+    private void awaitListening() {
+        await().atMost(TIMEOUT).until(() -> countListeners() >= 2);
+    }
+
+    /**
+     * todoを更新する(ノードA)
+     *
+     * @param todoId  todoId
+     * @param title   更新後のタイトル
+     * @param version 更新前の更新回数
+     * @throws Exception リクエストが失敗した場合
+     */
+    private void putTodo(int todoId, String title, int version) throws Exception {
+        TodoPutForm form = new TodoPutForm();
+        form.setTitle(title);
+        form.setContent("content" + todoId);
+        form.setTags(List.of());
+        form.setVersion(version);
+        MvcResult result = mockMvc.perform(put("/todos/" + todoId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(TestUtil.convertJSON(form)))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isNoContent());
+    }
+
+    /**
+     * チャンネルを待ち受けているコネクションの数を数える
+     *
+     * @return 待ち受けているコネクションの数
+     * @throws SQLException 接続に失敗した場合
+     */
+    private int countListeners() throws SQLException {
+        return executeOnListeners("count(*)");
+    }
+
+    /**
+     * チャンネルを待ち受けているコネクションをすべて切断する
+     *
+     * @return 切断したコネクションの数
+     * @throws SQLException 接続に失敗した場合
+     */
+    private int terminateListeners() throws SQLException {
+        return executeOnListeners("count(pg_terminate_backend(pid))");
+    }
+
+    /**
+     * チャンネルを待ち受けているコネクション(pg_stat_activity)を対象に集計を行う
+     *
+     * @param aggregate 集計の式
+     * @return 集計結果
+     * @throws SQLException 接続に失敗した場合
+     */
+    private int executeOnListeners(String aggregate) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(
+                dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(),
+                dataSourceProperties.determinePassword());
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT " + aggregate
+                     + " FROM pg_stat_activity WHERE datname = current_database()"
+                     + " AND query = 'LISTEN " + CHANNEL + "'")) {
+            resultSet.next();
+            return resultSet.getInt(1);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package jp.aevic.todo.core.json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jp.aevic.todo.entity.tag.TagEntity;
+import jp.aevic.todo.entity.todo.TodoEntity;
+import jp.aevic.todo.queryCondition.todo.TodoFields;
+import jp.aevic.todo.response.MultiGetResult;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * EntityJsonSerializersの出力内容のテスト
+ * <p>
+ * 独自のシリアライザを登録したObjectMapperと、標準のシリアライザのみのObjectMapperで
+ * 同じ値を出力し、文字列として一致すること(項目の順序、nullの出力を含む)を確認する。
+ * </p>
+ */
+class EntityJsonSerializersTest {
+    private final ObjectMapper customMapper = new ObjectMapper().registerModule(new SimpleModule()
+            .addSerializer(TodoEntity.class, new EntityJsonSerializers.TodoSerializer())
+            .addSerializer(TagEntity.class, new EntityJsonSerializers.TagSerializer()));
+    private final ObjectMapper plainMapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("todoは、標準のシリアライザと同じ内容を出力する")
+    void todo() throws Exception {
+        assertSameOutput(todo(1, "title1", "content1", List.of(new TagEntity(1, "tag1", 0))));
+    }
+
+    @Test
+    @DisplayName("項目がnullのtodoは、標準のシリアライザと同じくnullを出力する")
+    void todoWithNulls() throws Exception {
+        assertSameOutput(todo(1, null, null, null));
+        assertSameOutput(todo(2, "", "", List.of()));
+        assertSameOutput(todo(3, "title3", "content3", tagsWithNull()));
+    }
+
+    @Test
+    @DisplayName("tagは、標準のシリアライザと同じ内容を出力する")
+    void tag() throws Exception {
+        assertSameOutput(new TagEntity(1, "tag1", 2));
+        assertSameOutput(new TagEntity(2, null, 0));
+        assertSameOutput(new TagEntity(3, "\"quoted\" \\ 日本語\n", Integer.MAX_VALUE));
+    }
+
+    @Test
+    @DisplayName("todoの一覧は、標準のシリアライザと同じ内容を出力する")
+    void todoList() throws Exception {
+        assertSameOutput(todos());
+        assertSameOutput(List.of());
+    }
+
+    @Test
+    @DisplayName("ID指定の複数件取得の結果は、標準のシリアライザと同じ内容を出力する")
+    void multiGetResult() throws Exception {
+        assertSameOutput(multiGetResults());
+        assertSameOutput(List.of(new MultiGetResult<>(1, true, new TagEntity(1, "tag1", 0)),
+                new MultiGetResult<TagEntity>(2, false, null)));
+    }
+
+    @Test
+    @DisplayName("取得項目を指定した場合は、標準のシリアライザの出力から指定外の項目を除いた内容を出力する")
+    void withTodoFields() throws Exception {
+        List<List<String>> fieldsList = List.of(List.of(), List.of("todoId"),
+                List.of("title"), List.of("content", "version"), List.of("tags"),
+                List.of("tags.tagId"), List.of("tags.name"), List.of("title", "tags.version"),
+                List.of("todoId", "title", "content", "version", "tags.tagId", "tags.name",
+                        "tags.version"));
+        for (List<String> names : fieldsList) {
+            TodoFields fields = TodoFields.of(names);
+            for (Object value : List.of(todos().get(0), todos(), multiGetResults())) {
+                MappingJacksonValue jacksonValue =
+                        EntityJsonSerializers.withTodoFields(value, fields);
+                String actual = customMapper.writer(jacksonValue.getFilters())
+                        .writeValueAsString(jacksonValue.getValue());
+
+                JsonNode expected = plainMapper.valueToTree(value);
+                prune(expected, fields);
+                assertThat(actual).as("fields=%s, value=%s", names, value)
+                        .isEqualTo(plainMapper.writeValueAsString(expected));
+            }
+        }
+    }
+
+    /**
+     * 独自のシリアライザと標準のシリアライザの出力が一致することを検証する
+     *
+     * @param value 出力する値
+     * @throws Exception 出力に失敗した場合
+     */
+    private void assertSameOutput(Object value) throws Exception {
+        assertThat(customMapper.writeValueAsString(value)).as("value=%s", value)
+                .isEqualTo(plainMapper.writeValueAsString(value));
+    }
+
+    /**
+     * 標準のシリアライザの出力から、取得項目に含まれないtodo・tagの項目を除く
+     *
+     * @param node   todo、todoの一覧、またはID指定の複数件取得の結果
+     * @param fields 取得項目
+     */
+    private static void prune(JsonNode node, TodoFields fields) {
+        if (node.isArray()) {
+            node.forEach(element -> prune(element, fields));
+            return;
+        }
+        if (node.has("resource")) {
+            prune(node.get("resource"), fields);
+            return;
+        }
+        if (!(node instanceof ObjectNode todo)) {
+            return;
+        }
+        removeUnless(todo, "title", fields.isTitle());
+        removeUnless(todo, "content", fields.isContent());
+        removeUnless(todo, "version", fields.isVersion());
+        removeUnless(todo, "tags", fields.isTags());
+        if (fields.isTags() && todo.get("tags").isArray()) {
+            for (JsonNode tag : todo.get("tags")) {
+                if (tag instanceof ObjectNode tagNode) {
+                    removeUnless(tagNode, "name", fields.isTagName());
+                    removeUnless(tagNode, "version", fields.isTagVersion());
+                }
+            }
+        }
+    }
+
+    /**
+     * 取得しない項目を除く
+     *
+     * @param node     出力内容
+     * @param name     項目名
+     * @param included 取得するかどうか
+     */
+    private static void removeUnless(ObjectNode node, String name, boolean included) {
+        if (!included) {
+            node.remove(name);
+        }
+    }
+
+    /**
+     * todoを生成する
+     *
+     * @param todoId  todoId
+     * @param title   タイトル
+     * @param content コンテンツ
+     * @param tags    タグ
+     * @return todo
+     */
+    private static TodoEntity todo(int todoId, String title, String content,
+                                   List<TagEntity> tags) {
+        TodoEntity todoEntity = new TodoEntity();
+        todoEntity.setTodoId(todoId);
+        todoEntity.setTitle(title);
+        todoEntity.setContent(content);
+        todoEntity.setVersion(todoId);
+        todoEntity.setTags(tags);
+        return todoEntity;
+    }
+
+    /**
+     * nullを含むタグの一覧を生成する(List.ofはnullを含められないため)
+     *
+     * @return タグ
+     */
+    private static List<TagEntity> tagsWithNull() {
+        return new ArrayList<>(Arrays.asList(new TagEntity(1, "tag1", 0), null,
+                new TagEntity(2, null, 1)));
+    }
+
+    /**
+     * 出力内容の異なるtodoの一覧を生成する
+     *
+     * @return todoの一覧
+     */
+    private static List<TodoEntity> todos() {
+        return List.of(
+                todo(1, "title1", "content1",
+                        List.of(new TagEntity(1, "tag1", 0), new TagEntity(2, "tag2", 3))),
+                todo(2, null, "content2", List.of()),
+                todo(3, "title3", null, null),
+                todo(4, "title4", "content4", tagsWithNull()));
+    }
+
+    /**
+     * 存在するIDと存在しないIDを含む、ID指定の複数件取得の結果を生成する
+     *
+     * @return 取得結果
+     */
+    private static List<MultiGetResult<TodoEntity>> multiGetResults() {
+        List<TodoEntity> todos = todos();
+        return List.of(new MultiGetResult<>(1, true, todos.get(0)),
+                new MultiGetResult<>(99, false, null),
+                new MultiGetResult<>(3, true, todos.get(2)));
+    }
+}
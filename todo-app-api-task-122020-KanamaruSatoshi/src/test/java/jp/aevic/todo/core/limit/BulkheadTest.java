@@ -0,0 +1,57 @@
+package jp.aevic.todo.core.limit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Bulkheadの処理結果の設定のテスト
+ */
+class BulkheadTest {
+    private final Bulkhead bulkhead = new Bulkhead("test", 1, 10, Duration.ofSeconds(1),
+            new SimpleMeterRegistry(), ObservationRegistry.create());
+
+    @AfterEach
+    void tearDown() {
+        bulkhead.shutdown();
+    }
+
+    @Test
+    @DisplayName("処理でErrorが発生した場合も、呼び出し元のfutureをそのErrorで完了させる")
+    void completesExceptionallyOnError() {
+        StackOverflowError error = new StackOverflowError();
+
+        CompletableFuture<Object> future = bulkhead.submit(() -> {
+            throw error;
+        });
+
+        assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCause(error);
+        //Errorの後も、同じスレッドで次の処理を実行できる
+        assertThat(bulkhead.submit(() -> "next").join()).isEqualTo("next");
+    }
+
+    @Test
+    @DisplayName("バルクヘッドが無効な場合も、Errorをfutureの完了として返却する")
+    void directCompletesExceptionallyOnError() {
+        StackOverflowError error = new StackOverflowError();
+
+        CompletableFuture<Object> future = Bulkhead.direct("test").submit(() -> {
+            throw error;
+        });
+
+        assertThat(future).isCompletedExceptionally();
+        assertThatThrownBy(future::join).hasCause(error);
+    }
+}
@@ -0,0 +1,186 @@
+package jp.aevic.todo.logic.service.bulk;
+
+import com.github.springtestdbunit.DbUnitTestExecutionListener;
+import com.github.springtestdbunit.annotation.DatabaseSetup;
+import jp.aevic.todo.response.ImportResult;
+import jp.aevic.todo.response.ImportResult.RejectedRow;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestExecutionListeners;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * todo一括取込の入力チェックのテスト
+ * <p>
+ * APIの登録(TodoPostForm)で受け付けない行は、一括取込でも取り込まないことを確認する。
+ * 並行して削除されたタグを指定した行も、登録時のエラーとせず取り込まない行とすることを確認する。
+ * </p>
+ */
+@SpringBootTest
+@TestExecutionListeners(value = DbUnitTestExecutionListener.class,
+        mergeMode = TestExecutionListeners.MergeMode.MERGE_WITH_DEFAULTS)
+@DatabaseSetup("/META-INF/dbunit/logic/service/bulk/setup.xml")
+class TodoImportServiceTest {
+    //タイトルの最大文字数(30文字)
+    private static final String TITLE_30 = "a".repeat(30);
+    //コンテンツの最大文字数(100文字)
+    private static final String CONTENT_100 = "b".repeat(100);
+    //待ち合いの上限
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @Autowired
+    private TodoImportService service;
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+
+    @Test
+    @DisplayName("TodoPostFormの最大文字数までを取り込み、超えた行は取り込まない")
+    void rejectsRowsLongerThanTodoPostForm() {
+        ImportResult result = importCsv("title,content,tags\n"
+                + TITLE_30 + "," + CONTENT_100 + ",1\n"
+                + TITLE_30 + "a,content,\n"
+                + "title," + CONTENT_100 + "b,\n");
+
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getRejectedRows())
+                .extracting(RejectedRow::getRow, RejectedRow::getReason)
+                .containsExactly(
+                        tuple(2L, "INVALID_TITLE"),
+                        tuple(3L, "INVALID_CONTENT"));
+    }
+
+    @Test
+    @DisplayName("同じタグを重複して指定した行は、APIの登録と同じく取り込まない")
+    void rejectsRowsWithDuplicateTagIds() {
+        ImportResult result = importCsv("title,content,tags\n"
+                + "title1,content1,1|2\n"
+                + "title2,content2,1|1\n"
+                + "title3,content3,2| 02\n");
+
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getRejectedRows())
+                .extracting(RejectedRow::getRow, RejectedRow::getReason)
+                .containsExactly(
+                        tuple(2L, "DUPLICATE_TAG_ID"),
+                        tuple(3L, "DUPLICATE_TAG_ID"));
+    }
+
+    @Test
+    @DisplayName("取込中に削除されたタグを指定した行は、外部キー違反とせずTAG_NOT_FOUNDとして取り込まない")
+    void rejectsRowsWithTagDeletedDuringImport() throws Exception {
+        ImportResult result;
+        try (Connection tagDelete = connect()) {
+            tagDelete.setAutoCommit(false);
+            //タグの削除(コミット前)
+            execute(tagDelete, "DELETE FROM TAG WHERE TAG_ID = 2");
+
+            //削除中のタグを指定して取り込む(タグの存在チェックの前に、タグのロックを待つ)
+            CompletableFuture<ImportResult> importing = CompletableFuture.supplyAsync(
+                    () -> importCsv("title,content,tags\n"
+                            + "title1,content1,1\n"
+                            + "title2,content2,1|2\n"));
+            int tagDeletePid = pid(tagDelete);
+            await().atMost(TIMEOUT).until(() -> countBlockedBy(tagDeletePid) > 0);
+            tagDelete.commit();
+
+            //存在チェックの後にロックした場合は、todo_tagの登録が外部キー違反となる
+            result = importing.get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getRejectedRows())
+                .extracting(RejectedRow::getRow, RejectedRow::getReason)
+                .containsExactly(tuple(2L, "TAG_NOT_FOUND"));
+    }
+
+    /**
+     * CSVを取り込む
+     *
+     * @param csv 取込データ
+     * @return 取込結果
+     */
+    private ImportResult importCsv(String csv) {
+        return service.importTodos(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), BulkFormat.CSV);
+    }
+
+    /**
+     * アプリケーションと別のコネクションで接続する
+     *
+     * @return コネクション
+     * @throws SQLException 接続に失敗した場合
+     */
+    private Connection connect() throws SQLException {
+        return DriverManager.getConnection(
+                dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(),
+                dataSourceProperties.determinePassword());
+    }
+
+    /**
+     * 更新のSQLを実行する
+     *
+     * @param connection コネクション
+     * @param sql        SQL
+     * @return 更新件数
+     * @throws SQLException SQLの実行に失敗した場合
+     */
+    private static int execute(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            return statement.executeUpdate(sql);
+        }
+    }
+
+    /**
+     * コネクションのバックエンドのプロセスIDを取得する
+     *
+     * @param connection コネクション
+     * @return プロセスID
+     * @throws SQLException SQLの実行に失敗した場合
+     */
+    private static int pid(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT pg_backend_pid()")) {
+            resultSet.next();
+            return resultSet.getInt(1);
+        }
+    }
+
+    /**
+     * 指定したプロセスのロックを待っているバックエンドの数を数える
+     *
+     * @param pid ロックを保持しているプロセスID
+     * @return ロックを待っているバックエンドの数
+     * @throws SQLException 接続に失敗した場合
+     */
+    private int countBlockedBy(int pid) throws SQLException {
+        try (Connection connection = connect();
+             PreparedStatement statement = connection.prepareStatement(
+                     "SELECT count(*) FROM pg_stat_activity"
+                             + " WHERE ? = ANY(pg_blocking_pids(pid))")) {
+            statement.setInt(1, pid);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return resultSet.getInt(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package jp.aevic.todo.logic.service.todo;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jp.aevic.todo.core.cache.CacheInvalidator;
+import jp.aevic.todo.core.cache.DataGeneration;
+import jp.aevic.todo.core.cache.GenerationKey;
+import jp.aevic.todo.core.hotkey.HotKeyRecorder;
+import jp.aevic.todo.entity.todo.TodoEntity;
+import jp.aevic.todo.queryCondition.todo.GetTodosQueryCondition;
+import jp.aevic.todo.storage.TagStorage;
+import jp.aevic.todo.storage.TodoStorage;
+import jp.aevic.todo.storage.TodoTagStorage;
+import jp.aevic.todo.util.concurrent.SingleFlight;
+import jp.aevic.todo.util.context.TotalCountContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * ToDoService.getAllTodosの、同時実行中の一覧取得の共有と世代番号のテスト
+ * <p>
+ * 一覧取得のキャッシュ(@Cacheable)と同じく、呼び出し前に読んだ世代番号をキーに結果を保持し、
+ * 更新のコミット後の読み込みが、コミット前の状態を返却しないことを確認する。
+ * </p>
+ */
+class ToDoServiceGetAllTodosTest {
+    //検索条件(すべてのテストで同じ条件を使用する)
+    private final GetTodosQueryCondition condition = new GetTodosQueryCondition();
+    //DBのtodoのversion(更新のコミットで進める)
+    private final AtomicInteger committedVersion = new AtomicInteger();
+    //selectAllを実行した回数
+    private final AtomicInteger selectCount = new AtomicInteger();
+    //一覧取得のキャッシュの代わり(キーは{検索条件, 世代番号})
+    private final Map<List<Object>, List<TodoEntity>> cache = new ConcurrentHashMap<>();
+
+    private TodoStorage todoStorage;
+    private DataGeneration dataGeneration;
+    private ToDoService service;
+
+    @BeforeEach
+    void setUp() {
+        todoStorage = mock(TodoStorage.class);
+        dataGeneration = new DataGeneration();
+    }
+
+    @Test
+    @DisplayName("世代番号が進んだ直後の読み込みは、コミット前に始まった一覧取得に相乗りしない")
+    void readDuringBumpDoesNotJoinFlightStartedBeforeCommit() throws Exception {
+        CountDownLatch firstSelectStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstSelect = new CountDownLatch(1);
+        CountDownLatch secondSelectStarted = new CountDownLatch(1);
+        when(todoStorage.selectAll(any())).thenAnswer(invocation -> {
+            //実行を始めた時点のDBの状態を読む
+            int version = committedVersion.get();
+            if (selectCount.incrementAndGet() == 1) {
+                firstSelectStarted.countDown();
+                releaseFirstSelect.await(5, TimeUnit.SECONDS);
+            } else {
+                secondSelectStarted.countDown();
+            }
+            return List.of(todo(version));
+        });
+
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            //世代番号を進めた後、実行中の処理の共有をやめる前に別の読み込みを行う
+            AtomicReference<Future<List<TodoEntity>>> readDuringBump = new AtomicReference<>();
+            dataGeneration.onBump(() -> {
+                readDuringBump.set(executor.submit(this::read));
+                try {
+                    secondSelectStarted.await(1, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            createService();
+
+            //コミット前に始まった一覧取得
+            Future<List<TodoEntity>> readBeforeCommit = executor.submit(this::read);
+            assertThat(firstSelectStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+            //更新のコミットと世代番号を進める処理
+            committedVersion.incrementAndGet();
+            dataGeneration.bump();
+            releaseFirstSelect.countDown();
+
+            assertThat(readBeforeCommit.get(5, TimeUnit.SECONDS).get(0).getVersion())
+                    .isZero();
+            assertThat(readDuringBump.get().get(5, TimeUnit.SECONDS).get(0).getVersion())
+                    .isEqualTo(1);
+            //コミット後の読み込み(キャッシュから返却される)
+            assertThat(read().get(0).getVersion()).isEqualTo(1);
+            assertThat(selectCount.get()).isEqualTo(2);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("更新と読み込みを並行して繰り返しても、コミット後の読み込みはコミット前の状態を返却しない")
+    void readAfterCommitNeverReturnsDataFromBeforeCommit() throws Exception {
+        when(todoStorage.selectAll(any())).thenAnswer(invocation -> {
+            int version = committedVersion.get();
+            selectCount.incrementAndGet();
+            Thread.sleep(0, 200_000);
+            return List.of(todo(version));
+        });
+        createService();
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> readers = new ArrayList<>();
+            for (int reader = 0; reader < 4; reader++) {
+                readers.add(executor.submit(() -> {
+                    for (int i = 0; i < 2000; i++) {
+                        read();
+                    }
+                    return null;
+                }));
+            }
+            for (int write = 0; write < 200; write++) {
+                committedVersion.incrementAndGet();
+                dataGeneration.bump();
+                //コミット(世代番号を進める処理)の完了後の読み込み
+                int committed = committedVersion.get();
+                assertThat(read().get(0).getVersion()).isGreaterThanOrEqualTo(committed);
+            }
+            for (Future<?> reader : readers) {
+                reader.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 一覧取得のキャッシュを経由して読み込む
+     * キャッシュのキーの世代番号は、@Cacheableと同じくメソッドの呼び出し前に読む
+     */
+    private List<TodoEntity> read() {
+        List<Object> key = List.of(condition, dataGeneration.current());
+        List<TodoEntity> cached = cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        List<TodoEntity> loaded = service.getAllTodos(condition);
+        List<TodoEntity> existing = cache.putIfAbsent(key, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    /**
+     * テスト対象を生成する
+     * 実行中の処理の共有をやめる処理は、アプリケーションと同じく世代番号が進んだときに実行する
+     */
+    private void createService() {
+        SingleFlight<GenerationKey<GetTodosQueryCondition>, List<TodoEntity>> singleFlight =
+                new SingleFlight<>("todoList", new SimpleMeterRegistry());
+        dataGeneration.onBump(singleFlight::forget);
+        service = new ToDoService(todoStorage, mock(TagStorage.class),
+                mock(TodoTagStorage.class), mock(TodoBatchLoader.class), singleFlight,
+                mock(CacheInvalidator.class), dataGeneration, mock(TotalCountContext.class),
+                mock(HotKeyRecorder.class));
+    }
+
+    private static TodoEntity todo(int version) {
+        TodoEntity todoEntity = new TodoEntity();
+        todoEntity.setTodoId(1);
+        todoEntity.setTitle("title");
+        todoEntity.setVersion(version);
+        return todoEntity;
+    }
+}
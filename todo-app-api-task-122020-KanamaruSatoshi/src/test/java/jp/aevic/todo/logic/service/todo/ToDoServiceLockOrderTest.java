@@ -0,0 +1,167 @@
+package jp.aevic.todo.logic.service.todo;
+
+import com.github.springtestdbunit.DbUnitTestExecutionListener;
+import com.github.springtestdbunit.annotation.DatabaseSetup;
+import jp.aevic.todo.entity.tag.TagEntity;
+import jp.aevic.todo.entity.todo.TodoEntity;
+import jp.aevic.todo.queryCondition.todo.TodoFields;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestExecutionListeners;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * todoの更新と、紐づくタグの更新のロック順のテスト
+ * <p>
+ * TODO.TAGS列を使用する場合、タグの更新はTAG、TODOの順にロックする。
+ * 並行するtodoの更新も同じ順にロックし、デッドロックとならないことを確認する。
+ * </p>
+ */
+@SpringBootTest(properties = "todo.denormalized-tags.enabled=true")
+@TestExecutionListeners(value = DbUnitTestExecutionListener.class,
+        mergeMode = TestExecutionListeners.MergeMode.MERGE_WITH_DEFAULTS)
+@DatabaseSetup("/META-INF/dbunit/logic/service/todo/setup.xml")
+class ToDoServiceLockOrderTest {
+    //待ち合いの上限(デッドロックの検出(deadlock_timeout)より長くする)
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @Autowired
+    private ToDoService service;
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+
+    @Test
+    @DisplayName("タグの更新中に紐づくtodoを更新すると、todoはタグのロックを待ち、デッドロックとならない")
+    void putTodoWaitsForTagUpdateBeforeLockingTodo() throws Exception {
+        //todoにタグを紐づける(TODO.TAGS列にタグが入る)
+        service.putTodo(todo(1, "title1", 0), List.of(2));
+
+        try (Connection tagUpdate = connect()) {
+            tagUpdate.setAutoCommit(false);
+            //タグの更新(TagMapper.updateTag)でTAGをロックした状態にする
+            execute(tagUpdate, "UPDATE TAG SET NAME = 'renamed', VERSION = VERSION + 1"
+                    + " WHERE TAG_ID = 2");
+
+            //同じタグを紐づけたtodoを更新する(タグのロックを待つ)
+            CompletableFuture<Void> putTodo = CompletableFuture.runAsync(
+                    () -> service.putTodo(todo(1, "updated", 1), List.of(2)));
+            int tagUpdatePid = pid(tagUpdate);
+            await().atMost(TIMEOUT).until(() -> countBlockedBy(tagUpdatePid) > 0);
+
+            //タグの更新を、そのタグを含むTODO.TAGS列に反映する(TodoTagsColumnMapper.replaceTag)
+            //todoの更新がTODOを先にロックしていた場合は、互いに待ち合ってデッドロックとなる
+            execute(tagUpdate, "SET LOCAL lock_timeout = '" + TIMEOUT.toMillis() + "ms'");
+            int updatedNum = execute(tagUpdate, "UPDATE TODO"
+                    + " SET TAGS = '[{\"tagId\": 2, \"name\": \"renamed\", \"version\": 1}]'"
+                    + " WHERE TAGS @> '[{\"tagId\": 2}]'");
+            tagUpdate.commit();
+
+            assertThat(updatedNum).isEqualTo(1);
+            putTodo.get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        //todoの更新は、コミットされたタグの内容でTODO.TAGS列を作り直す
+        TodoEntity todoEntity = service.getTodoById(1, TodoFields.ALL);
+        assertThat(todoEntity.getTitle()).isEqualTo("updated");
+        assertThat(todoEntity.getVersion()).isEqualTo(2);
+        assertThat(todoEntity.getTags())
+                .extracting(TagEntity::getTagId, TagEntity::getName, TagEntity::getVersion)
+                .containsExactly(tuple(2, "renamed", 1));
+    }
+
+    /**
+     * アプリケーションと別のコネクションで接続する
+     *
+     * @return コネクション
+     * @throws SQLException 接続に失敗した場合
+     */
+    private Connection connect() throws SQLException {
+        return DriverManager.getConnection(
+                dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(),
+                dataSourceProperties.determinePassword());
+    }
+
+    /**
+     * 更新のSQLを実行する
+     *
+     * @param connection コネクション
+     * @param sql        SQL
+     * @return 更新件数
+     * @throws SQLException SQLの実行に失敗した場合
+     */
+    private static int execute(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            return statement.executeUpdate(sql);
+        }
+    }
+
+    /**
+     * コネクションのバックエンドのプロセスIDを取得する
+     *
+     * @param connection コネクション
+     * @return プロセスID
+     * @throws SQLException SQLの実行に失敗した場合
+     */
+    private static int pid(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT pg_backend_pid()")) {
+            resultSet.next();
+            return resultSet.getInt(1);
+        }
+    }
+
+    /**
+     * 指定したプロセスのロックを待っているバックエンドの数を数える
+     *
+     * @param pid ロックを保持しているプロセスID
+     * @return ロックを待っているバックエンドの数
+     * @throws SQLException 接続に失敗した場合
+     */
+    private int countBlockedBy(int pid) throws SQLException {
+        try (Connection connection = connect();
+             PreparedStatement statement = connection.prepareStatement(
+                     "SELECT count(*) FROM pg_stat_activity"
+                             + " WHERE ? = ANY(pg_blocking_pids(pid))")) {
+            statement.setInt(1, pid);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return resultSet.getInt(1);
+            }
+        }
+    }
+
+    /**
+     * 更新するtodoを生成する
+     *
+     * @param todoId  todoId
+     * @param title   更新後のタイトル
+     * @param version 更新前の更新回数
+     * @return todo
+     */
+    private static TodoEntity todo(int todoId, String title, int version) {
+        TodoEntity todoEntity = new TodoEntity();
+        todoEntity.setTodoId(todoId);
+        todoEntity.setTitle(title);
+        todoEntity.setContent("content" + todoId);
+        todoEntity.setVersion(version);
+        return todoEntity;
+    }
+}
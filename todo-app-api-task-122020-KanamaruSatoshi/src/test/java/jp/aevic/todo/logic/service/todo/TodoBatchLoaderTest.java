@@ -0,0 +1,141 @@
+package jp.aevic.todo.logic.service.todo;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jp.aevic.todo.core.deadline.RequestDeadline;
+import jp.aevic.todo.core.exception.exception.GatewayTimeoutException;
+import jp.aevic.todo.core.limit.Bulkhead;
+import jp.aevic.todo.entity.todo.TodoEntity;
+import jp.aevic.todo.storage.TodoStorage;
+import jp.aevic.todo.util.context.BatchLoaderContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * TodoBatchLoaderの処理期限・例外の引き継ぎのテスト
+ */
+class TodoBatchLoaderTest {
+    private final TodoStorage todoStorage = mock(TodoStorage.class);
+    private TodoBatchLoader batchLoader;
+
+    @AfterEach
+    void tearDown() {
+        batchLoader.shutdown();
+    }
+
+    @Test
+    @DisplayName("期限の短い呼び出し元のみ504となり、まとめた他の呼び出し元は最も遅い期限で取得できる")
+    void onlyLateCallerFailsAndQueryRunsUnderLatestDeadline() throws Exception {
+        batchLoader = batchLoader(Duration.ofMillis(500), 50);
+        AtomicReference<Long> queryDeadline = new AtomicReference<>();
+        when(todoStorage.selectByIds(anyList())).thenAnswer(invocation -> {
+            queryDeadline.set(RequestDeadline.get());
+            List<Integer> todoIds = invocation.getArgument(0);
+            return todoIds.stream().map(TodoBatchLoaderTest::todo).toList();
+        });
+        AtomicLong longDeadline = new AtomicLong();
+
+        //クエリの発行(500ms後)より前に期限を過ぎる呼び出し元と、十分な期限のある呼び出し元
+        CompletableFuture<TodoEntity> shortCaller = withDeadline(Duration.ofMillis(100),
+                () -> batchLoader.load(1));
+        CompletableFuture<TodoEntity> longCaller = withDeadline(Duration.ofSeconds(10), () -> {
+            longDeadline.set(RequestDeadline.get());
+            return batchLoader.load(2);
+        });
+
+        assertThatThrownBy(() -> shortCaller.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(GatewayTimeoutException.class);
+        assertThat(longCaller.get(5, TimeUnit.SECONDS).getTodoId()).isEqualTo(2);
+        assertThat(queryDeadline.get()).isEqualTo(longDeadline.get());
+    }
+
+    @Test
+    @DisplayName("期限のない呼び出し元を含む場合は、クエリの実行時間を制限しない")
+    void queryRunsWithoutDeadlineWhenAnyCallerHasNone() throws Exception {
+        batchLoader = batchLoader(Duration.ofMillis(200), 50);
+        AtomicReference<Long> queryDeadline = new AtomicReference<>(0L);
+        when(todoStorage.selectByIds(anyList())).thenAnswer(invocation -> {
+            queryDeadline.set(RequestDeadline.get());
+            List<Integer> todoIds = invocation.getArgument(0);
+            return todoIds.stream().map(TodoBatchLoaderTest::todo).toList();
+        });
+
+        CompletableFuture<TodoEntity> bounded = withDeadline(Duration.ofSeconds(10),
+                () -> batchLoader.load(1));
+        CompletableFuture<TodoEntity> unbounded = CompletableFuture.supplyAsync(
+                () -> batchLoader.load(2));
+
+        assertThat(bounded.get(5, TimeUnit.SECONDS).getTodoId()).isEqualTo(1);
+        assertThat(unbounded.get(5, TimeUnit.SECONDS).getTodoId()).isEqualTo(2);
+        assertThat(queryDeadline.get()).isNull();
+    }
+
+    @Test
+    @DisplayName("クエリでErrorが発生した場合は、CompletionExceptionで包まずにそのErrorを投げる")
+    void rethrowsError() {
+        batchLoader = batchLoader(Duration.ofSeconds(1), 1);
+        StackOverflowError error = new StackOverflowError();
+        when(todoStorage.selectByIds(anyList())).thenThrow(error);
+
+        assertThatThrownBy(() -> batchLoader.load(1)).isSameAs(error);
+    }
+
+    /**
+     * バッチローダーを生成する
+     *
+     * @param window       クエリ発行までの待ち時間
+     * @param maxBatchSize 1回のクエリで取得する最大件数
+     * @return バッチローダー
+     */
+    private TodoBatchLoader batchLoader(Duration window, int maxBatchSize) {
+        return new TodoBatchLoader(todoStorage, new BatchLoaderContext(true, window, maxBatchSize),
+                Bulkhead.direct("read"), new SimpleMeterRegistry());
+    }
+
+    /**
+     * 処理期限を設定した別のスレッドで処理を実行する
+     *
+     * @param timeout  処理期限までの時間
+     * @param supplier 処理
+     * @return 処理結果
+     */
+    private static CompletableFuture<TodoEntity> withDeadline(Duration timeout,
+                                                             Supplier<TodoEntity> supplier) {
+        return CompletableFuture.supplyAsync(() -> {
+            RequestDeadline.start(timeout);
+            try {
+                return supplier.get();
+            } finally {
+                RequestDeadline.clear();
+            }
+        });
+    }
+
+    /**
+     * todoを生成する
+     *
+     * @param todoId todoId
+     * @return todo
+     */
+    private static TodoEntity todo(int todoId) {
+        TodoEntity todoEntity = new TodoEntity();
+        todoEntity.setTodoId(todoId);
+        return todoEntity;
+    }
+}
@@ -0,0 +1,89 @@
+package jp.aevic.todo.mapper.handler;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jp.aevic.todo.core.slowquery.SlowQuery;
+import jp.aevic.todo.core.slowquery.SlowQueryRecorder;
+import jp.aevic.todo.util.context.SlowQueryContext;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Plugin;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * SlowQueryInterceptorの記録内容のテスト
+ * <p>
+ * MyBatisと同じくExecutorをプラグインで包んで呼び出し、閾値を0msとしてすべてのSQLを記録する
+ * (実行計画は取得しない)。
+ * </p>
+ */
+class SlowQueryInterceptorTest {
+    private final SlowQueryRecorder recorder = new SlowQueryRecorder(
+            new SlowQueryContext(true, Duration.ZERO, 0, Duration.ofSeconds(1), 10),
+            new DataSourceProperties(), new SimpleMeterRegistry());
+    private final Executor target = mock(Executor.class);
+    private final Executor executor =
+            (Executor) Plugin.wrap(target, new SlowQueryInterceptor(recorder));
+
+    @Test
+    @DisplayName("正常に終了したSQLは、取得した件数を記録する")
+    void recordsRowsOfSucceededStatement() throws Exception {
+        when(target.query(any(), any(), any(), any())).thenReturn(List.of(1, 2, 3));
+
+        assertThat(query()).isEqualTo(List.of(1, 2, 3));
+
+        SlowQuery slowQuery = recorder.recent().get(0);
+        assertThat(slowQuery.getStatementId()).isEqualTo("test.select");
+        assertThat(slowQuery.getRows()).isEqualTo(3L);
+        assertThat(slowQuery.getError()).isNull();
+    }
+
+    @Test
+    @DisplayName("例外で終了したSQLも、例外までの時間と例外のクラス名を記録し、件数は空とする")
+    void recordsFailedStatement() throws Exception {
+        SQLTimeoutException timeout = new SQLTimeoutException("Request deadline exceeded.");
+        when(target.query(any(), any(), any(), any())).thenAnswer(invocation -> {
+            Thread.sleep(50);
+            throw timeout;
+        });
+
+        assertThatThrownBy(this::query).isSameAs(timeout);
+
+        SlowQuery slowQuery = recorder.recent().get(0);
+        assertThat(slowQuery.getStatementId()).isEqualTo("test.select");
+        assertThat(slowQuery.getRows()).isNull();
+        assertThat(slowQuery.getError()).isEqualTo(SQLTimeoutException.class.getName());
+        assertThat(slowQuery.getDurationMillis()).isGreaterThanOrEqualTo(50);
+    }
+
+    /**
+     * プラグインで包んだExecutorで、SELECTを実行する
+     *
+     * @return 取得結果
+     * @throws SQLException SQLの実行に失敗した場合
+     */
+    private List<Object> query() throws SQLException {
+        Configuration configuration = new Configuration();
+        MappedStatement mappedStatement = new MappedStatement.Builder(configuration,
+                "test.select", new StaticSqlSource(configuration, "SELECT 1"),
+                SqlCommandType.SELECT).build();
+        return executor.query(mappedStatement, null, RowBounds.DEFAULT,
+                Executor.NO_RESULT_HANDLER);
+    }
+}
@@ -0,0 +1,77 @@
+package jp.aevic.todo.mapper.handler;
+
+import com.github.springtestdbunit.DbUnitTestExecutionListener;
+import com.github.springtestdbunit.annotation.DatabaseSetup;
+import jp.aevic.todo.entity.tag.TagEntity;
+import jp.aevic.todo.entity.todo.TodoEntity;
+import jp.aevic.todo.mapper.todo.TodoMapper;
+import jp.aevic.todo.mapper.todo.TodoTagsColumnMapper;
+import jp.aevic.todo.queryCondition.todo.GetTodosQueryCondition;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestExecutionListeners;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * todoの検索結果のタグを、マッピング時に(tagId, version)ごとにまとめるテスト
+ */
+@SpringBootTest(properties = "todo.tag-interning.enabled=true")
+@TestExecutionListeners(value = DbUnitTestExecutionListener.class,
+        mergeMode = TestExecutionListeners.MergeMode.MERGE_WITH_DEFAULTS)
+@DatabaseSetup("/META-INF/dbunit/mapper/handler/setup.xml")
+class TagInterningInterceptorTest {
+    @Autowired
+    private TodoMapper todoMapper;
+    @Autowired
+    private TodoTagsColumnMapper tagsColumnMapper;
+
+    @Test
+    @DisplayName("TODO_TAG・TAGを結合した一覧では、同じタグを1つのインスタンスにまとめる")
+    void sharesTagsMappedFromJoin() {
+        List<TodoEntity> todos = todoMapper.selectAll(new GetTodosQueryCondition());
+
+        assertSharedTags(todos);
+    }
+
+    @Test
+    @DisplayName("TODO.TAGS列から取得した一覧でも、同じタグを1つのインスタンスにまとめる")
+    void sharesTagsParsedFromTagsColumn() {
+        tagsColumnMapper.refreshTags(List.of(1, 2, 3));
+
+        List<TodoEntity> todos = tagsColumnMapper.selectAll(new GetTodosQueryCondition());
+
+        assertSharedTags(todos);
+    }
+
+    @Test
+    @DisplayName("まとめたタグは通常のTagEntityで、検索ごとに別のインスタンスとなる")
+    void sharedTagsAreScopedToOneQuery() {
+        TagEntity first = todoMapper.selectAll(new GetTodosQueryCondition()).get(0).getTags()
+                .get(0);
+        TagEntity second = todoMapper.selectAll(new GetTodosQueryCondition()).get(0).getTags()
+                .get(0);
+
+        assertThat(first).isExactlyInstanceOf(TagEntity.class).isEqualTo(second)
+                .isNotSameAs(second);
+    }
+
+    /**
+     * tag1を紐づけたtodo(1～3)が、同じインスタンスのタグを参照していることを確認する
+     *
+     * @param todos todoの一覧
+     */
+    private static void assertSharedTags(List<TodoEntity> todos) {
+        assertThat(todos).extracting(TodoEntity::getTodoId).containsExactly(1, 2, 3);
+        TagEntity tag1 = todos.get(0).getTags().get(0);
+        assertThat(tag1).extracting(TagEntity::getTagId, TagEntity::getName, TagEntity::getVersion)
+                .containsExactly(1, "tag1", 3);
+        assertThat(todos.get(0).getTags().get(1).getName()).isEqualTo("tag2");
+        assertThat(todos.get(1).getTags()).singleElement().isSameAs(tag1);
+        assertThat(todos.get(2).getTags()).singleElement().isSameAs(tag1);
+    }
+}
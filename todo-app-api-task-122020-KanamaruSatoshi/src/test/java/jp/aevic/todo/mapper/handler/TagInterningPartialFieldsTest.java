@@ -0,0 +1,78 @@
+package jp.aevic.todo.mapper.handler;
+
+import com.github.springtestdbunit.DbUnitTestExecutionListener;
+import com.github.springtestdbunit.annotation.DatabaseSetup;
+import jp.aevic.todo.entity.tag.TagEntity;
+import jp.aevic.todo.entity.todo.TodoEntity;
+import jp.aevic.todo.mapper.todo.TodoMapper;
+import jp.aevic.todo.queryCondition.todo.GetTodosQueryCondition;
+import jp.aevic.todo.queryCondition.todo.TodoFields;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestExecutionListeners;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * 取得項目の指定(fields)でtagIdのみを取得したタグを、検索をまたいで共有するタグに含めないことのテスト
+ * <p>
+ * tagIdのみのタグは名前・更新回数を持たないため、同じ(tagId, version)のキーで共有すると、
+ * 後の検索で名前のないタグを返却する(または、tagIdのみの検索で取得していない項目を返却する)。
+ * </p>
+ */
+@SpringBootTest(properties = {
+        "todo.tag-interning.enabled=true",
+        "todo.tag-interning.shared-cache-size=100"})
+@TestExecutionListeners(value = DbUnitTestExecutionListener.class,
+        mergeMode = TestExecutionListeners.MergeMode.MERGE_WITH_DEFAULTS)
+@DatabaseSetup("/META-INF/dbunit/mapper/handler/setup.xml")
+class TagInterningPartialFieldsTest {
+    @Autowired
+    private TodoMapper todoMapper;
+
+    @Test
+    @DisplayName("tagIdのみを取得した後にすべての項目を取得しても、名前と更新回数を持つタグを返却する")
+    void fullReadAfterPartialReadReturnsCompleteTags() {
+        List<TodoEntity> partial = todoMapper.selectAll(tagIdOnly());
+        List<TodoEntity> full = todoMapper.selectAll(new GetTodosQueryCondition());
+
+        assertThat(partial).flatExtracting(TodoEntity::getTags)
+                .extracting(TagEntity::getTagId, TagEntity::getName)
+                .containsExactly(tuple(1, null), tuple(2, null), tuple(1, null), tuple(1, null));
+        assertThat(full).flatExtracting(TodoEntity::getTags)
+                .extracting(TagEntity::getTagId, TagEntity::getName, TagEntity::getVersion)
+                .containsExactly(tuple(1, "tag1", 3), tuple(2, "tag2", 0), tuple(1, "tag1", 3),
+                        tuple(1, "tag1", 3));
+        assertThat(full.get(1).getTags().get(0)).isSameAs(full.get(0).getTags().get(0));
+    }
+
+    @Test
+    @DisplayName("すべての項目を取得した後にtagIdのみを取得しても、共有するタグを返却しない")
+    void partialReadAfterFullReadDoesNotReturnSharedTags() {
+        List<TodoEntity> full = todoMapper.selectAll(new GetTodosQueryCondition());
+        List<TodoEntity> partial = todoMapper.selectAll(tagIdOnly());
+
+        assertThat(partial).flatExtracting(TodoEntity::getTags)
+                .extracting(TagEntity::getTagId, TagEntity::getName)
+                .containsExactly(tuple(1, null), tuple(2, null), tuple(1, null), tuple(1, null));
+        assertThat(partial.get(1).getTags().get(0))
+                .isNotSameAs(partial.get(2).getTags().get(0))
+                .isNotSameAs(full.get(1).getTags().get(0));
+    }
+
+    /**
+     * タグはtagIdのみを取得する検索条件
+     *
+     * @return 検索条件
+     */
+    private static GetTodosQueryCondition tagIdOnly() {
+        GetTodosQueryCondition condition = new GetTodosQueryCondition();
+        condition.setFields(TodoFields.of(List.of("title", "tags.tagId")));
+        return condition;
+    }
+}
@@ -0,0 +1,230 @@
+package jp.aevic.todo.storage.embedded;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * AppendOnlyLogのテスト
+ */
+class AppendOnlyLogTest {
+    //セグメントの大きさ(ヘッダ8バイト + 本体10バイトのレコードが3件収まる)
+    private static final int SEGMENT_SIZE = 64;
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    @DisplayName("追記したレコードを、開き直した後も同じ位置から読み込める")
+    void appendAndReopen() {
+        Path file = directory.resolve("todo.log");
+        List<Long> positions = new ArrayList<>();
+        try (AppendOnlyLog log = new AppendOnlyLog(file, SEGMENT_SIZE)) {
+            log.replay(position -> {
+            });
+            positions.add(log.append(body("record-01")));
+            positions.add(log.append(body("record-02")));
+        }
+
+        try (AppendOnlyLog log = new AppendOnlyLog(file, SEGMENT_SIZE)) {
+            assertThat(replay(log)).containsExactlyElementsOf(positions);
+            assertThat(text(log.read(positions.get(0)))).isEqualTo("record-01");
+            assertThat(text(log.read(positions.get(1)))).isEqualTo("record-02");
+            //続きから追記する
+            long next = log.append(body("record-03"));
+            assertThat(next).isEqualTo(positions.get(1) + AppendOnlyLog.HEADER_SIZE + 9);
+        }
+    }
+
+    @Test
+    @DisplayName("セグメントの残りに収まらないレコードは次のセグメントの先頭に書き込む")
+    void rollsOverToNextSegment() {
+        Path file = directory.resolve("todo.log");
+        List<Long> positions = new ArrayList<>();
+        try (AppendOnlyLog log = new AppendOnlyLog(file, SEGMENT_SIZE)) {
+            log.replay(position -> {
+            });
+            for (int i = 0; i < 10; i++) {
+                positions.add(log.append(body(String.format("record-%03d", i))));
+            }
+        }
+
+        //1セグメントに3件(18バイト×3=54バイト)ずつ書き込まれ、4件目から次のセグメントとなる
+        assertThat(positions).containsExactly(0L, 18L, 36L, 64L, 82L, 100L, 128L, 146L, 164L,
+                192L);
+        try (AppendOnlyLog log = new AppendOnlyLog(file, SEGMENT_SIZE)) {
+            assertThat(replay(log)).containsExactlyElementsOf(positions);
+            for (int i = 0; i < 10; i++) {
+                assertThat(text(log.read(positions.get(i))))
+                        .isEqualTo(String.format("record-%03d", i));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("セグメントより大きいレコードは追記できない")
+    void rejectsRecordLargerThanSegment() {
+        try (AppendOnlyLog log = new AppendOnlyLog(directory.resolve("todo.log"),
+                SEGMENT_SIZE)) {
+            log.replay(position -> {
+            });
+
+            assertThatThrownBy(() -> log.append(ByteBuffer.allocate(SEGMENT_SIZE)))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Test
+    @DisplayName("CRCが一致しない末尾のレコードは読み込まず、その位置から追記する")
+    void stopsAtCorruptTailRecord() throws IOException {
+        Path file = directory.resolve("todo.log");
+        long corrupted;
+        try (AppendOnlyLog log = new AppendOnlyLog(file, SEGMENT_SIZE)) {
+            log.replay(position -> {
+            });
+            log.append(body("record-01"));
+            corrupted = log.append(body("record-02"));
+        }
+        //本体の1バイトを書き換える
+        overwrite(file, corrupted + AppendOnlyLog.HEADER_SIZE, (byte) 'X');
+
+        try (AppendOnlyLog log = new AppendOnlyLog(file, SEGMENT_SIZE)) {
+            assertThat(replay(log)).containsExactly(0L);
+            assertThat(log.end()).isEqualTo(corrupted);
+            assertThat(log.append(body("record-03"))).isEqualTo(corrupted);
+        }
+        try (AppendOnlyLog log = new AppendOnlyLog(file, SEGMENT_SIZE)) {
+            assertThat(replay(log)).containsExactly(0L, corrupted);
+            assertThat(text(log.read(corrupted))).isEqualTo("record-03");
+        }
+    }
+
+    @Test
+    @DisplayName("破損したレコード以降の内容は破棄し、追記したレコードの後に古いレコードを読み込まない")
+    void discardsRecordsAfterCorruptRecord() throws IOException {
+        Path file = directory.resolve("todo.log");
+        long corrupted;
+        try (AppendOnlyLog log = new AppendOnlyLog(file, SEGMENT_SIZE)) {
+            log.replay(position -> {
+            });
+            log.append(body("record-01"));
+            corrupted = log.append(body("record-02"));
+            log.append(body("record-03"));
+        }
+        overwrite(file, corrupted + AppendOnlyLog.HEADER_SIZE, (byte) 'X');
+
+        //破損したレコードと同じ長さのレコードを追記する(直後がrecord-03の位置となる)
+        try (AppendOnlyLog log = new AppendOnlyLog(file, SEGMENT_SIZE)) {
+            assertThat(replay(log)).containsExactly(0L);
+            log.append(body("record-04"));
+        }
+
+        try (AppendOnlyLog log = new AppendOnlyLog(file, SEGMENT_SIZE)) {
+            assertThat(replay(log)).containsExactly(0L, corrupted);
+            assertThat(text(log.read(corrupted))).isEqualTo("record-04");
+        }
+    }
+
+    @Test
+    @DisplayName("書き込みの途中で切れた末尾のレコードは読み込まない")
+    void stopsAtTruncatedTailRecord() throws IOException {
+        Path file = directory.resolve("todo.log");
+        long truncated;
+        try (AppendOnlyLog log = new AppendOnlyLog(file, SEGMENT_SIZE)) {
+            log.replay(position -> {
+            });
+            log.append(body("record-01"));
+            truncated = log.append(body("record-02"));
+        }
+        //2件目の本体の途中でファイルを切り詰める(再度開くとセグメントの残りは0で埋まる)
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(truncated + AppendOnlyLog.HEADER_SIZE + 4);
+        }
+
+        try (AppendOnlyLog log = new AppendOnlyLog(file, SEGMENT_SIZE)) {
+            assertThat(replay(log)).containsExactly(0L);
+            assertThat(log.end()).isEqualTo(truncated);
+        }
+    }
+
+    @Test
+    @DisplayName("切り詰めた位置以降のレコードは、開き直した後も読み込まない")
+    void truncateDiscardsRecords() {
+        Path file = directory.resolve("todo.log");
+        long discarded;
+        try (AppendOnlyLog log = new AppendOnlyLog(file, SEGMENT_SIZE)) {
+            log.replay(position -> {
+            });
+            log.append(body("record-01"));
+            discarded = log.append(body("record-02"));
+            log.append(body("record-03"));
+            log.append(body("record-04"));
+
+            log.truncate(discarded);
+
+            assertThat(log.end()).isEqualTo(discarded);
+        }
+
+        try (AppendOnlyLog log = new AppendOnlyLog(file, SEGMENT_SIZE)) {
+            assertThat(replay(log)).containsExactly(0L);
+        }
+    }
+
+    /**
+     * ログを先頭から読み、レコードの位置を取得する
+     *
+     * @param log ログ
+     * @return レコードの位置
+     */
+    private static List<Long> replay(AppendOnlyLog log) {
+        List<Long> positions = new ArrayList<>();
+        log.replay(positions::add);
+        return positions;
+    }
+
+    /**
+     * 文字列をレコードの本体にする
+     *
+     * @param text 文字列
+     * @return レコードの本体
+     */
+    private static ByteBuffer body(String text) {
+        return ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * レコードの本体を文字列にする
+     *
+     * @param body レコードの本体
+     * @return 文字列
+     */
+    private static String text(ByteBuffer body) {
+        return StandardCharsets.UTF_8.decode(body).toString();
+    }
+
+    /**
+     * ファイルの1バイトを書き換える
+     *
+     * @param file     ファイル
+     * @param position 書き換える位置
+     * @param value    書き換える値
+     * @throws IOException 書き込みに失敗した場合
+     */
+    private static void overwrite(Path file, long position, byte value) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{value}), position);
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package jp.aevic.todo.storage.embedded;
+
+import jp.aevic.todo.entity.tag.TagEntity;
+import jp.aevic.todo.entity.todo.TodoEntity;
+import jp.aevic.todo.storage.embedded.EmbeddedStore.EmbeddedTransaction;
+import jp.aevic.todo.util.context.StorageContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * EmbeddedStoreのテスト
+ */
+class EmbeddedStoreTest {
+    //セグメントの大きさ(複数のセグメントにまたがるように小さくする)
+    private static final DataSize SEGMENT_SIZE = DataSize.ofBytes(256);
+
+    @TempDir
+    private Path directory;
+
+    private EmbeddedStore store;
+
+    @AfterEach
+    void tearDown() {
+        if (store != null) {
+            store.close();
+        }
+    }
+
+    @Test
+    @DisplayName("コミットした内容は、開き直した後も索引から取得できる")
+    void committedRecordsSurviveReopen() {
+        store = open();
+        int tagId = store.write(transaction -> {
+            TagEntity tagEntity = tag(store.nextTagId(), "tag", 0);
+            store.putTag(transaction, tagEntity);
+            return tagEntity.getTagId();
+        });
+        for (int i = 1; i <= 20; i++) {
+            int version = i;
+            store.write(transaction -> {
+                int todoId = store.nextTodoId();
+                store.putTodo(transaction, todo(todoId, "title" + todoId, 0));
+                store.putLinks(transaction, todoId, new int[]{tagId});
+                return null;
+            });
+            if (version % 5 == 0) {
+                store.write(transaction -> {
+                    store.putTodo(transaction, todo(version, "updated" + version, 1));
+                    return null;
+                });
+            }
+        }
+        store.write(transaction -> {
+            store.deleteTodo(transaction, 3);
+            return null;
+        });
+
+        reopen();
+
+        assertThat(store.todoIds()).hasSize(19).doesNotContain(3);
+        assertThat(store.findTodo(3)).isNull();
+        assertThat(store.findLinks(3)).isEmpty();
+        assertThat(store.findTodo(5).getTitle()).isEqualTo("updated5");
+        assertThat(store.findTodo(5).getVersion()).isEqualTo(1);
+        assertThat(store.findTodo(6).getTitle()).isEqualTo("title6");
+        assertThat(store.findLinks(20)).containsExactly(tagId);
+        assertThat(store.findTag(tagId).getName()).isEqualTo("tag");
+        //採番はコミット済みの最大値から続ける
+        assertThat(store.nextTodoId()).isEqualTo(21);
+        assertThat(store.nextTagId()).isEqualTo(tagId + 1);
+    }
+
+    @Test
+    @DisplayName("ロールバックすると、undoログで索引を開始前の状態に戻し、ログも開始位置まで戻す")
+    void rollbackRestoresIndexWithUndoLog() {
+        store = open();
+        store.write(transaction -> {
+            store.putTodo(transaction, todo(store.nextTodoId(), "title1", 0));
+            store.putLinks(transaction, 1, new int[]{1});
+            return null;
+        });
+
+        EmbeddedTransaction transaction = store.begin();
+        store.putTodo(transaction, todo(1, "updated", 1));
+        store.putTodo(transaction, todo(store.nextTodoId(), "title2", 0));
+        store.deleteLinks(transaction, 1);
+        store.putTodo(transaction, todo(1, "updated twice", 2));
+        store.rollback(transaction);
+
+        assertThat(store.findTodo(1).getTitle()).isEqualTo("title1");
+        assertThat(store.findTodo(1).getVersion()).isZero();
+        assertThat(store.findTodo(2)).isNull();
+        assertThat(store.findLinks(1)).containsExactly(1);
+        assertThat(store.todoIds()).containsExactly(1);
+
+        //ログが戻っていない場合、ロールバックしたレコードは次のCOMMITでコミット済みとして読み込まれる
+        commitTag();
+        reopen();
+        assertThat(store.findTodo(1).getTitle()).isEqualTo("title1");
+        assertThat(store.findLinks(1)).containsExactly(1);
+        assertThat(store.todoIds()).containsExactly(1);
+    }
+
+    @Test
+    @DisplayName("書き込み処理で例外が発生した場合は、その書き込みをロールバックする")
+    void writeRollsBackOnException() {
+        store = open();
+
+        assertThatThrownBy(() -> store.write(transaction -> {
+            store.putTodo(transaction, todo(store.nextTodoId(), "title1", 0));
+            throw new IllegalStateException("failure");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(store.todoIds()).isEmpty();
+        commitTag();
+        reopen();
+        assertThat(store.todoIds()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("COMMITレコードのないトランザクションのレコードは、開き直したときに破棄する")
+    void discardsUncommittedTailOnRecovery() {
+        store = open();
+        store.write(transaction -> {
+            store.putTodo(transaction, todo(store.nextTodoId(), "title1", 0));
+            return null;
+        });
+        //コミットせずに停止した状態(レコードのみ書き込まれている)
+        EmbeddedTransaction transaction = store.begin();
+        store.putTodo(transaction, todo(1, "uncommitted", 1));
+        store.putTodo(transaction, todo(store.nextTodoId(), "uncommitted", 0));
+
+        reopen();
+
+        assertThat(store.findTodo(1).getTitle()).isEqualTo("title1");
+        assertThat(store.todoIds()).containsExactly(1);
+        assertThat(store.nextTodoId()).isEqualTo(2);
+        //破棄したレコードは、後続のトランザクションのCOMMITでも読み込まれない
+        commitTag();
+        reopen();
+        assertThat(store.findTodo(1).getTitle()).isEqualTo("title1");
+        assertThat(store.todoIds()).containsExactly(1);
+    }
+
+    @Test
+    @DisplayName("末尾のレコードが破損している場合は、そのトランザクションを破棄して続きから書き込める")
+    void discardsCorruptTailOnRecovery() throws IOException {
+        store = open();
+        store.write(transaction -> {
+            store.putTodo(transaction, todo(store.nextTodoId(), "title1", 0));
+            return null;
+        });
+        store.write(transaction -> {
+            store.putTodo(transaction, todo(store.nextTodoId(), "title2", 0));
+            return null;
+        });
+        store.close();
+        store = null;
+        //2件目のtodoのレコードのタイトルを書き換える(COMMITレコードは残っている)
+        Path file = directory.resolve("todo.log");
+        byte[] bytes = Files.readAllBytes(file);
+        int titlePosition = new String(bytes, StandardCharsets.ISO_8859_1).indexOf("title2");
+        assertThat(titlePosition).isPositive();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{'T'}), titlePosition);
+        }
+
+        store = open();
+
+        assertThat(store.todoIds()).containsExactly(1);
+        store.write(transaction -> {
+            store.putTodo(transaction, todo(store.nextTodoId(), "title2 again", 0));
+            return null;
+        });
+        reopen();
+        assertThat(store.findTodo(2).getTitle()).isEqualTo("title2 again");
+    }
+
+    /**
+     * 一時ディレクトリのログファイルでストレージを開く
+     *
+     * @return ストレージ
+     */
+    private EmbeddedStore open() {
+        return new EmbeddedStore(new StorageContext("embedded",
+                new StorageContext.Embedded(directory, SEGMENT_SIZE, false)));
+    }
+
+    /**
+     * ストレージを閉じて開き直す
+     */
+    private void reopen() {
+        store.close();
+        store = open();
+    }
+
+    /**
+     * tagを登録するトランザクションをコミットする(COMMITレコードを書き込む)
+     */
+    private void commitTag() {
+        store.write(transaction -> {
+            store.putTag(transaction, tag(store.nextTagId(), "tag", 0));
+            return null;
+        });
+    }
+
+    /**
+     * todoを生成する
+     *
+     * @param todoId  todoId
+     * @param title   タイトル
+     * @param version 更新回数
+     * @return todo
+     */
+    private static TodoEntity todo(int todoId, String title, int version) {
+        TodoEntity todoEntity = new TodoEntity();
+        todoEntity.setTodoId(todoId);
+        todoEntity.setTitle(title);
+        todoEntity.setContent("content" + todoId);
+        todoEntity.setVersion(version);
+        return todoEntity;
+    }
+
+    /**
+     * tagを生成する
+     *
+     * @param tagId   tagId
+     * @param name    名前
+     * @param version 更新回数
+     * @return tag
+     */
+    private static TagEntity tag(int tagId, String name, int version) {
+        TagEntity tagEntity = new TagEntity();
+        tagEntity.setTagId(tagId);
+        tagEntity.setName(name);
+        tagEntity.setVersion(version);
+        return tagEntity;
+    }
+}
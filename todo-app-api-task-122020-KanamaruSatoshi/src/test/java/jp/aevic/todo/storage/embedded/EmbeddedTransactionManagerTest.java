@@ -0,0 +1,149 @@
+package jp.aevic.todo.storage.embedded;
+
+import jp.aevic.todo.entity.todo.TodoEntity;
+import jp.aevic.todo.util.context.StorageContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.UnexpectedRollbackException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * EmbeddedTransactionManagerのテスト
+ * <p>
+ * {@code @Transactional}と同じくTransactionTemplateでトランザクションを開始し、
+ * 組み込みストレージへの書き込みがトランザクション単位でコミット・ロールバックされることを確認する。
+ * </p>
+ */
+class EmbeddedTransactionManagerTest {
+    @TempDir
+    private Path directory;
+
+    private EmbeddedStore store;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        store = new EmbeddedStore(new StorageContext("embedded",
+                new StorageContext.Embedded(directory, DataSize.ofKilobytes(64), false)));
+        transactionTemplate = new TransactionTemplate(new EmbeddedTransactionManager(store));
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    @DisplayName("トランザクション内の複数の書き込みは、まとめてコミットされる")
+    void commitsAllWritesInTransaction() {
+        AtomicBoolean afterCommitCalled = new AtomicBoolean();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            putTodo("title1");
+            putTodo("title2");
+            TransactionSynchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public void afterCommit() {
+                            afterCommitCalled.set(true);
+                        }
+                    });
+        });
+
+        assertThat(store.todoIds()).containsExactly(1, 2);
+        assertThat(afterCommitCalled).isTrue();
+        assertThat(TransactionSynchronizationManager.getResource(store)).isNull();
+    }
+
+    @Test
+    @DisplayName("例外が発生したトランザクションの書き込みは、すべてロールバックされる")
+    void rollsBackAllWritesOnException() {
+        putTodo("committed");
+
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> {
+            updateTodo(1, "updated");
+            putTodo("title2");
+            throw new IllegalStateException("failure");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(store.findTodo(1).getTitle()).isEqualTo("committed");
+        assertThat(store.todoIds()).containsExactly(1);
+        assertThat(TransactionSynchronizationManager.getResource(store)).isNull();
+    }
+
+    @Test
+    @DisplayName("参加したトランザクションでロールバックが指示された場合は、全体をロールバックする")
+    void rollsBackWholeTransactionWhenParticipantIsRollbackOnly() {
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(outer -> {
+            putTodo("outer");
+            transactionTemplate.executeWithoutResult(inner -> {
+                putTodo("inner");
+                inner.setRollbackOnly();
+            });
+        })).isInstanceOf(UnexpectedRollbackException.class);
+
+        assertThat(store.todoIds()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("トランザクションの完了後は、他のスレッドが書き込める(書き込みロックを解放する)")
+    void releasesWriteLockAfterCompletion() throws Exception {
+        transactionTemplate.executeWithoutResult(status -> putTodo("title1"));
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> {
+            putTodo("title2");
+            status.setRollbackOnly();
+            throw new IllegalStateException("failure");
+        })).isInstanceOf(IllegalStateException.class);
+
+        Thread writer = new Thread(() -> putTodo("other thread"));
+        writer.start();
+        writer.join(5_000);
+
+        assertThat(writer.isAlive()).isFalse();
+        assertThat(store.todoIds()).hasSize(2);
+    }
+
+    /**
+     * todoを登録する(トランザクション内の場合はそのトランザクションで書き込む)
+     *
+     * @param title タイトル
+     */
+    private void putTodo(String title) {
+        store.write(transaction -> {
+            TodoEntity todoEntity = new TodoEntity();
+            todoEntity.setTodoId(store.nextTodoId());
+            todoEntity.setTitle(title);
+            todoEntity.setContent("content");
+            store.putTodo(transaction, todoEntity);
+            return null;
+        });
+    }
+
+    /**
+     * todoのタイトルを更新する
+     *
+     * @param todoId todoId
+     * @param title  更新後のタイトル
+     */
+    private void updateTodo(int todoId, String title) {
+        store.write(transaction -> {
+            TodoEntity todoEntity = store.findTodo(todoId);
+            todoEntity.setTitle(title);
+            todoEntity.setVersion(todoEntity.getVersion() + 1);
+            store.putTodo(transaction, todoEntity);
+            return null;
+        });
+    }
+}
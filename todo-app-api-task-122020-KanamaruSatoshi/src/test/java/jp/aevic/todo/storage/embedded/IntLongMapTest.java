@@ -0,0 +1,105 @@
+package jp.aevic.todo.storage.embedded;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * IntLongMapのテスト
+ */
+class IntLongMapTest {
+
+    @Test
+    @DisplayName("設定した値を取得でき、同じキーへの設定は値を置き換えて直前の値を返却する")
+    void putAndGet() {
+        IntLongMap map = new IntLongMap(4);
+
+        assertThat(map.put(1, 100L)).isEqualTo(IntLongMap.MISSING);
+        assertThat(map.put(2, 200L)).isEqualTo(IntLongMap.MISSING);
+        assertThat(map.put(1, 101L)).isEqualTo(100L);
+
+        assertThat(map.get(1)).isEqualTo(101L);
+        assertThat(map.get(2)).isEqualTo(200L);
+        assertThat(map.get(3)).isEqualTo(IntLongMap.MISSING);
+        assertThat(map.size()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("想定件数を超えて設定しても、拡張後にすべての値を取得できる")
+    void resizeKeepsAllEntries() {
+        IntLongMap map = new IntLongMap(1);
+
+        for (int key = 1; key <= 10_000; key++) {
+            map.put(key, key * 10L);
+        }
+
+        assertThat(map.size()).isEqualTo(10_000);
+        for (int key = 1; key <= 10_000; key++) {
+            assertThat(map.get(key)).isEqualTo(key * 10L);
+        }
+        assertThat(map.sortedKeys()).hasSize(10_000).isSorted()
+                .startsWith(1, 2, 3).endsWith(9_999, 10_000);
+    }
+
+    @Test
+    @DisplayName("削除したキーは取得できず、同じ探索経路上の他のキーは取得できる")
+    void removeKeepsProbeChain() {
+        IntLongMap map = new IntLongMap(16);
+        for (int key = 1; key <= 20; key++) {
+            map.put(key, key);
+        }
+
+        for (int key = 1; key <= 20; key += 2) {
+            assertThat(map.remove(key)).isEqualTo(key);
+        }
+
+        assertThat(map.remove(1)).isEqualTo(IntLongMap.MISSING);
+        assertThat(map.size()).isEqualTo(10);
+        for (int key = 1; key <= 20; key++) {
+            assertThat(map.get(key)).isEqualTo(key % 2 == 0 ? key : IntLongMap.MISSING);
+        }
+        assertThat(map.sortedKeys()).containsExactly(2, 4, 6, 8, 10, 12, 14, 16, 18, 20);
+    }
+
+    @Test
+    @DisplayName("設定・削除を無作為に繰り返しても、HashMapと同じ内容になる")
+    void randomOperationsMatchHashMap() {
+        IntLongMap map = new IntLongMap(8);
+        Map<Integer, Long> expected = new HashMap<>();
+        SplittableRandom random = new SplittableRandom(1);
+
+        for (int i = 0; i < 100_000; i++) {
+            int key = random.nextInt(1, 2_000);
+            if (random.nextInt(3) == 0) {
+                Long removed = expected.remove(key);
+                assertThat(map.remove(key))
+                        .isEqualTo(removed == null ? IntLongMap.MISSING : removed);
+            } else {
+                long value = random.nextLong(0, Long.MAX_VALUE);
+                Long previous = expected.put(key, value);
+                assertThat(map.put(key, value))
+                        .isEqualTo(previous == null ? IntLongMap.MISSING : previous);
+            }
+        }
+
+        assertThat(map.size()).isEqualTo(expected.size());
+        for (int key = 1; key < 2_000; key++) {
+            assertThat(map.get(key)).isEqualTo(expected.getOrDefault(key, IntLongMap.MISSING));
+        }
+    }
+
+    @Test
+    @DisplayName("0以下のキーは設定できない")
+    void rejectsNonPositiveKey() {
+        IntLongMap map = new IntLongMap(4);
+
+        assertThatThrownBy(() -> map.put(0, 1L)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> map.put(-1, 1L)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
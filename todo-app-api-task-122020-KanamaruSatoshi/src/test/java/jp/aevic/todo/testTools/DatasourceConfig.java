@@ -2,10 +2,15 @@ package jp.aevic.todo.testTools;
 
 import com.github.springtestdbunit.bean.DatabaseConfigBean;
 import com.github.springtestdbunit.bean.DatabaseDataSourceConnectionFactoryBean;
+import org.dbunit.ext.postgresql.PostgresqlDataTypeFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
 
 /**
  * DataSourceの設定に関するクラス
@@ -14,6 +19,7 @@ import javax.sql.DataSource;
 public class DatasourceConfig {
     /**
      * 空文字のセットアップををxmlで許容する設定
+     * PostgreSQLの型(jsonbなど)をDbunitで扱う設定
      *
      * @return 設定が反映されたBean
      */
@@ -22,26 +28,64 @@ public class DatasourceConfig {
         DatabaseConfigBean bean = new DatabaseConfigBean();
 
         bean.setAllowEmptyFields(true);
+        bean.setDatatypeFactory(new PostgresqlDataTypeFactory());
 
         return bean;
     }
 
     /**
      * Spring側にnullカラム許容の設定を行うメソッド
+     * Dbunitが対象とするスキーマは、接続先のスキーマ(spring.datasource.urlのcurrentSchema)とする
+     * (同じ名前のテーブルが他のスキーマにある場合に、どちらのテーブルか判別できなくなるため)
      *
      * @param dbUnitDatabaseConfig テストで使用するDbunitの設定
      * @param dataSource           dataSource
      * @return springに設定を反映させるBean
+     * @throws SQLException 接続先のスキーマを取得できなかった場合
      */
     @Bean
     public DatabaseDataSourceConnectionFactoryBean dbUnitDatabaseConnection(
             DatabaseConfigBean dbUnitDatabaseConfig,
             DataSource dataSource
-    ) {
+    ) throws SQLException {
         DatabaseDataSourceConnectionFactoryBean bean =
                 new DatabaseDataSourceConnectionFactoryBean(dataSource);
         bean.setDatabaseConfig(dbUnitDatabaseConfig);
+        try (Connection connection = dataSource.getConnection()) {
+            bean.setSchema(connection.getSchema());
+        }
         return bean;
     }
-}
 
+    /**
+     * テストで実行されたSQLの件数・DBとの往復回数を数えるクラス
+     *
+     * @return SQLを数えるクラス
+     */
+    @Bean
+    public StatementCounter statementCounter() {
+        return new StatementCounter();
+    }
+
+    /**
+     * アプリケーションのDataSource(dataSource)を、SQLを数えるDataSourceで包む設定
+     * バルクヘッドの読み込み・書き込み用のコネクションプールは、振り分けを行うdataSourceを経由するため包まない
+     *
+     * @param statementCounter SQLを数えるクラス
+     * @return DataSourceを包むBeanPostProcessor
+     */
+    @Bean
+    public static BeanPostProcessor statementCountingDataSourcePostProcessor(
+            ObjectProvider<StatementCounter> statementCounter
+    ) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if ("dataSource".equals(beanName) && bean instanceof DataSource dataSource) {
+                    return statementCounter.getObject().wrap(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+}
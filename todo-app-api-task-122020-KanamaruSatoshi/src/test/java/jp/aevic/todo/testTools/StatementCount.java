@@ -0,0 +1,126 @@
+package jp.aevic.todo.testTools;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 計測中に実行されたSQLの件数・DBとの往復回数をまとめたクラス
+ * <p>
+ * statementsは実行したSQLの件数(バッチは追加したSQLごとに数える)、
+ * roundTripsはDBとの往復回数(SQLの実行、バッチの実行、コミット、ロールバックをそれぞれ1回とする)。
+ * 上限を超えた場合は、実行したSQLの一覧をメッセージに含めてAssertionErrorとする。
+ * </p>
+ */
+public class StatementCount {
+    //実行したSQL(実行順。バッチは1回の実行を1件とする)
+    private final List<String> executedSql;
+    //実行したSQLの件数
+    private final int statements;
+    //DBとの往復回数
+    private final int roundTrips;
+
+    /**
+     * コンストラクタ
+     *
+     * @param executedSql 実行したSQL
+     * @param statements  実行したSQLの件数
+     * @param roundTrips  DBとの往復回数
+     */
+    public StatementCount(List<String> executedSql, int statements, int roundTrips) {
+        this.executedSql = List.copyOf(executedSql);
+        this.statements = statements;
+        this.roundTrips = roundTrips;
+    }
+
+    /**
+     * 実行したSQLの件数を取得する
+     *
+     * @return 実行したSQLの件数
+     */
+    public int getStatements() {
+        return statements;
+    }
+
+    /**
+     * DBとの往復回数を取得する
+     *
+     * @return DBとの往復回数
+     */
+    public int getRoundTrips() {
+        return roundTrips;
+    }
+
+    /**
+     * 実行したSQLを取得する
+     *
+     * @return 実行したSQL(実行順)
+     */
+    public List<String> getExecutedSql() {
+        return executedSql;
+    }
+
+    /**
+     * 実行したSQLの件数が上限以下であることを検証する
+     *
+     * @param max 上限
+     * @return 続けて検証するためのこのインスタンス
+     */
+    public StatementCount assertStatementsAtMost(int max) {
+        if (statements > max) {
+            throw new AssertionError("SQLの件数が上限を超えました(上限: " + max
+                    + ", 実行: " + statements + ")" + describe());
+        }
+        return this;
+    }
+
+    /**
+     * DBとの往復回数が上限以下であることを検証する
+     *
+     * @param max 上限
+     * @return 続けて検証するためのこのインスタンス
+     */
+    public StatementCount assertRoundTripsAtMost(int max) {
+        if (roundTrips > max) {
+            throw new AssertionError("DBとの往復回数が上限を超えました(上限: " + max
+                    + ", 実行: " + roundTrips + ")" + describe());
+        }
+        return this;
+    }
+
+    /**
+     * 同じSQLを繰り返し実行していない(N+1になっていない)ことを検証する
+     * パラメータのみが異なるSQLは同じSQLとみなす
+     *
+     * @return 続けて検証するためのこのインスタンス
+     */
+    public StatementCount assertNoRepeatedStatements() {
+        Map<String, Long> repeated = executedSql.stream()
+                .collect(Collectors.groupingBy(sql -> sql, LinkedHashMap::new,
+                        Collectors.counting()))
+                .entrySet().stream()
+                .filter(entry -> entry.getValue() > 1)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue,
+                        (a, b) -> a, LinkedHashMap::new));
+        if (!repeated.isEmpty()) {
+            throw new AssertionError("同じSQLを繰り返し実行しています(N+1): " + repeated
+                    + describe());
+        }
+        return this;
+    }
+
+    /**
+     * 実行したSQLの一覧を、エラーメッセージ用の文字列にする
+     *
+     * @return 実行したSQLの一覧
+     */
+    private String describe() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < executedSql.size(); i++) {
+            builder.append(System.lineSeparator())
+                    .append("  ").append(i + 1).append(": ").append(executedSql.get(i));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,219 @@
+package jp.aevic.todo.testTools;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * DataSourceを経由して実行されたSQLの件数・DBとの往復回数を数えるクラス
+ * <p>
+ * DatasourceConfigでアプリケーションのDataSourceを包み、Connection・Statementの呼び出しを数える。
+ * バルクヘッドなど別のスレッドで実行されたSQLも数えるため、計測中は他のリクエストを並行して送らないこと。
+ * MockMvcで非同期処理(CompletableFuture)を返すエンドポイントを計測する場合は、
+ * asyncDispatchまで計測する処理に含めること。
+ * </p>
+ * <pre>
+ * statementCounter.measure(() -&gt; mockMvc.perform(get("/todos")))
+ *         .assertStatementsAtMost(1);
+ * </pre>
+ */
+public class StatementCounter {
+    //SQLを実行するメソッド
+    private static final Set<String> EXECUTE_METHODS =
+            Set.of("execute", "executeQuery", "executeUpdate", "executeLargeUpdate");
+    //バッチを実行するメソッド
+    private static final Set<String> BATCH_METHODS = Set.of("executeBatch", "executeLargeBatch");
+
+    //計測中に実行したSQL
+    private final List<String> executedSql = new ArrayList<>();
+    //計測中に実行したSQLの件数
+    private int statements;
+    //計測中のDBとの往復回数
+    private int roundTrips;
+
+    /**
+     * 処理の実行中に実行されたSQLを数える
+     *
+     * @param action 計測する処理
+     * @return 実行されたSQLの件数・DBとの往復回数
+     * @throws Exception 処理が失敗した場合
+     */
+    public StatementCount measure(Action action) throws Exception {
+        reset();
+        action.run();
+        return snapshot();
+    }
+
+    /**
+     * これまでの計測結果を破棄する
+     */
+    public synchronized void reset() {
+        executedSql.clear();
+        statements = 0;
+        roundTrips = 0;
+    }
+
+    /**
+     * 現在までの計測結果を取得する
+     *
+     * @return 実行されたSQLの件数・DBとの往復回数
+     */
+    public synchronized StatementCount snapshot() {
+        return new StatementCount(executedSql, statements, roundTrips);
+    }
+
+    /**
+     * DataSourceを、SQLを数えるDataSourceで包む
+     *
+     * @param dataSource アプリケーションのDataSource
+     * @return SQLを数えるDataSource
+     */
+    public DataSource wrap(DataSource dataSource) {
+        return proxy(DataSource.class, dataSource, (target, method, args) -> {
+            Object result = invoke(target, method, args);
+            return result instanceof Connection connection ? wrap(connection) : result;
+        });
+    }
+
+    /**
+     * Connectionを、SQL・コミット・ロールバックを数えるConnectionで包む
+     *
+     * @param connection コネクション
+     * @return SQLを数えるConnection
+     */
+    private Connection wrap(Connection connection) {
+        return proxy(Connection.class, connection, (target, method, args) -> {
+            Object result = invoke(target, method, args);
+            switch (method.getName()) {
+                case "commit", "rollback" -> countRoundTrip();
+                case "prepareStatement", "prepareCall" -> {
+                    return wrap((Statement) result, (String) args[0]);
+                }
+                case "createStatement" -> {
+                    return wrap((Statement) result, null);
+                }
+                default -> {
+                }
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Statementを、SQLの実行を数えるStatementで包む
+     *
+     * @param statement ステートメント
+     * @param sql       PreparedStatementのSQL(Statementの場合はnull)
+     * @return SQLの実行を数えるStatement
+     */
+    private Statement wrap(Statement statement, String sql) {
+        Class<? extends Statement> type = statement instanceof PreparedStatement
+                ? PreparedStatement.class : Statement.class;
+        List<String> batch = new ArrayList<>();
+        return proxy(type, statement, (target, method, args) -> {
+            String name = method.getName();
+            if (EXECUTE_METHODS.contains(name)) {
+                countStatements(args != null && args.length > 0 ? (String) args[0] : sql, 1);
+            } else if ("addBatch".equals(name)) {
+                batch.add(args != null && args.length > 0 ? (String) args[0] : sql);
+            } else if ("clearBatch".equals(name)) {
+                batch.clear();
+            } else if (BATCH_METHODS.contains(name)) {
+                countStatements(batch.isEmpty() ? sql : batch.get(0), batch.size());
+                batch.clear();
+            }
+            return invoke(target, method, args);
+        });
+    }
+
+    /**
+     * SQLの実行を数える
+     *
+     * @param sql   実行したSQL
+     * @param count 実行したSQLの件数(バッチの場合は追加したSQLの件数)
+     */
+    private synchronized void countStatements(String sql, int count) {
+        executedSql.add(sql == null ? "" : sql.replaceAll("\\s+", " ").trim());
+        statements += count;
+        roundTrips++;
+    }
+
+    /**
+     * SQL以外のDBとの往復を数える
+     */
+    private synchronized void countRoundTrip() {
+        roundTrips++;
+    }
+
+    /**
+     * 対象のメソッドを呼び出す
+     *
+     * @param target 呼び出し先
+     * @param method メソッド
+     * @param args   引数
+     * @return 戻り値
+     * @throws Throwable 呼び出し先の例外
+     */
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * インターフェースの呼び出しを横取りするプロキシを生成する
+     *
+     * @param type    インターフェース
+     * @param target  呼び出し先
+     * @param handler 呼び出しの処理
+     * @param <T>     インターフェースの型
+     * @return プロキシ
+     */
+    private static <T> T proxy(Class<T> type, Object target, Handler handler) {
+        //unwrap、isWrapperForもそのまま呼び出し先へ渡す(PostgreSQL固有の機能を使用する処理のため)
+        InvocationHandler invocationHandler =
+                (proxy, method, args) -> handler.handle(target, method, args);
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                invocationHandler));
+    }
+
+    /**
+     * 計測する処理
+     */
+    @FunctionalInterface
+    public interface Action {
+        /**
+         * 処理を実行する
+         *
+         * @throws Exception 処理が失敗した場合
+         */
+        void run() throws Exception;
+    }
+
+    /**
+     * プロキシへの呼び出しの処理
+     */
+    @FunctionalInterface
+    private interface Handler {
+        /**
+         * 呼び出しを処理する
+         *
+         * @param target 呼び出し先
+         * @param method メソッド
+         * @param args   引数
+         * @return 戻り値
+         * @throws Throwable 呼び出し先の例外
+         */
+        Object handle(Object target, Method method, Object[] args) throws Throwable;
+    }
+}
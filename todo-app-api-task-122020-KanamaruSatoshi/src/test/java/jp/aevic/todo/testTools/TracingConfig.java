@@ -0,0 +1,26 @@
+package jp.aevic.todo.testTools;
+
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * テストで記録されたスパンをメモリに保持する設定
+ * <p>
+ * SpringBootTestではトレーシングが無効になるため、スパンを検証するテストには
+ * {@code @AutoConfigureObservability}と{@code management.tracing.sampling.probability=1.0}を指定する。
+ * スパンはまとめて送信されるため、検証の前にSdkTracerProviderのforceFlushを呼び出すこと。
+ * </p>
+ */
+@Configuration
+public class TracingConfig {
+    /**
+     * 終了したスパンをメモリに保持するExporter
+     *
+     * @return スパンを保持するExporter
+     */
+    @Bean
+    public InMemorySpanExporter inMemorySpanExporter() {
+        return InMemorySpanExporter.create();
+    }
+}
@@ -0,0 +1,58 @@
+package jp.aevic.todo.util.concurrent;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * SingleFlightの例外の共有のテスト
+ */
+class SingleFlightTest {
+    private final SingleFlight<String, String> singleFlight =
+            new SingleFlight<>("test", new SimpleMeterRegistry());
+
+    @Test
+    @DisplayName("処理でErrorが発生した場合は、相乗りした呼び出し元にも同じErrorを投げ、以降は改めて実行する")
+    void propagatesErrorToCoalescedCallers() throws Exception {
+        StackOverflowError error = new StackOverflowError();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(
+                () -> singleFlight.execute("key", () -> {
+                    started.countDown();
+                    await(release);
+                    throw error;
+                }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> coalesced = CompletableFuture.supplyAsync(
+                () -> singleFlight.execute("key", () -> "not executed"));
+        //相乗りした呼び出しが待ち始めてから失敗させる
+        Thread.sleep(100);
+        release.countDown();
+
+        assertThatThrownBy(() -> first.get(5, TimeUnit.SECONDS)).hasCause(error);
+        assertThatThrownBy(() -> coalesced.get(5, TimeUnit.SECONDS)).hasCause(error);
+        assertThat(singleFlight.execute("key", () -> "retried")).isEqualTo("retried");
+    }
+
+    /**
+     * ラッチが開くまで待つ
+     *
+     * @param latch ラッチ
+     */
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
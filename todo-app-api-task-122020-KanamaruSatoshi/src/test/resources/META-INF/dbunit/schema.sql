@@ -0,0 +1,23 @@
+-- テストで使用するテーブル(DBUnitのデータセットで内容を入れ替える)
+-- 作成先のスキーマはspring.datasource.urlのcurrentSchemaに合わせること
+CREATE TABLE IF NOT EXISTS TODO (
+    TODO_ID INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    TITLE VARCHAR(30) NOT NULL,
+    CONTENT VARCHAR(100) NOT NULL,
+    VERSION INTEGER NOT NULL DEFAULT 0,
+    TAGS JSONB NOT NULL DEFAULT '[]'::jsonb
+);
+
+CREATE TABLE IF NOT EXISTS TAG (
+    TAG_ID INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    NAME VARCHAR(30) NOT NULL,
+    VERSION INTEGER NOT NULL DEFAULT 0
+);
+
+CREATE TABLE IF NOT EXISTS TODO_TAG (
+    TODO_ID INTEGER NOT NULL REFERENCES TODO (TODO_ID) ON DELETE CASCADE,
+    TAG_ID INTEGER NOT NULL REFERENCES TAG (TAG_ID) ON DELETE CASCADE,
+    PRIMARY KEY (TODO_ID, TAG_ID)
+);
+
+CREATE INDEX IF NOT EXISTS TODO_TAGS_IDX ON TODO USING GIN (TAGS jsonb_path_ops);